@@ -4,19 +4,45 @@ import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.ThreadContext;
 
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 
+import com.example.shelldemo.parser.ConcurrentSqlParser;
+import com.example.shelldemo.parser.LiteralParameterizer;
+import com.example.shelldemo.parser.ParameterizedStatement;
+import com.example.shelldemo.parser.ParsedScriptCache;
+import com.example.shelldemo.parser.PipelinedScriptParser;
+import com.example.shelldemo.parser.ScriptPosition;
 import com.example.shelldemo.parser.SqlScriptParser;
 import com.example.shelldemo.parser.SqlScriptParser.ProcedureParam;
 import com.example.shelldemo.parser.SqlStatement;
 import com.example.shelldemo.parser.SqlStatementFactory;
 import com.example.shelldemo.config.ConfigHolderAdapter;
 import com.example.shelldemo.config.DatabaseConfig;
+import com.example.shelldemo.config.ScriptExecutionOptions;
+import com.example.shelldemo.connection.ConnectionPool;
+import com.example.shelldemo.connection.PoolSettings;
 import com.example.shelldemo.context.DatabaseContext;
+import com.example.shelldemo.context.StatementCache;
+import com.example.shelldemo.deploy.DeploymentPlan;
+import com.example.shelldemo.deploy.DeploymentReport;
+import com.example.shelldemo.exception.BatchProcessingException;
 import com.example.shelldemo.exception.DatabaseException;
 import com.example.shelldemo.exception.DatabaseException.ErrorType;
 import com.example.shelldemo.exception.ParseException;
@@ -25,7 +51,17 @@ import com.example.shelldemo.executor.DmlExecutor;
 import com.example.shelldemo.executor.ProcedureExecutor;
 import com.example.shelldemo.executor.QueryExecutor;
 import com.example.shelldemo.executor.SqlExecutor;
+import com.example.shelldemo.export.PartitionedExport;
+import com.example.shelldemo.journal.ExecutionJournal;
+import com.example.shelldemo.plan.ExecutionPlan;
+import com.example.shelldemo.plan.StatementAccess;
 import com.example.shelldemo.spi.DatabaseVendor;
+import com.example.shelldemo.sqlhandling.BatchExecutor;
+import com.example.shelldemo.sqlhandling.ResultSink;
+import com.example.shelldemo.sqlhandling.RowHandler;
+import com.example.shelldemo.sqlhandling.TableRowHandler;
+import com.example.shelldemo.sqlhandling.VirtualThreadBatchExecutor;
+import com.example.shelldemo.transaction.CommitScope;
 import com.example.shelldemo.transaction.TransactionManager;
 
 /**
@@ -43,7 +79,14 @@ public class UnifiedDatabaseOperation implements AutoCloseable {
     private final DdlExecutor ddlExecutor;
     private final ProcedureExecutor procedureExecutor;
     private final DatabaseVendor vendor;
-    private final boolean transactional;
+    private final ScriptExecutionOptions options;
+    private final ParsedScriptCache parseCache;
+    private final BatchExecutor batchExecutor;
+    private final VirtualThreadBatchExecutor laneExecutor;
+    private CommitScope commitScope;
+    private Consumer<String> resultOutput = text -> resultLogger.info("\n" + text);
+    private ResultSink resultSink;
+    private int queries;
 
     /**
      * Creates a new UnifiedDatabaseOperation with the provided context.
@@ -51,25 +94,32 @@ public class UnifiedDatabaseOperation implements AutoCloseable {
      *
      * @param context The database context
      * @param vendor The DatabaseVendor implementation
-     * @param transactional The transactional flag
+     * @param options The script execution options
      */
-    UnifiedDatabaseOperation(DatabaseContext context, DatabaseVendor vendor, boolean transactional) {
+    UnifiedDatabaseOperation(DatabaseContext context, DatabaseVendor vendor, ScriptExecutionOptions options) {
         logger.debug("Entering UnifiedDatabaseOperation constructor with vendor: {}", vendor != null ? vendor.getVendorName() : null);
         this.context = context;
         this.vendor = vendor;
-        this.transactional = transactional;
+        this.options = options;
+        this.parseCache = options.parseCacheEnabled()
+            ? new ParsedScriptCache(options.parseCacheDirectory(), options.parseCacheMaxBytes())
+            : null;
         
         // Create executor components
         this.queryExecutor = new QueryExecutor(context);
         this.dmlExecutor = new DmlExecutor(context);
         this.ddlExecutor = new DdlExecutor(context);
         this.procedureExecutor = new ProcedureExecutor(context);
+        this.batchExecutor = new BatchExecutor(context.getConnection(), context.getStatementCache());
         
         // Create statement factory - using context's built-in vendor
         // DatabaseContext adapts the vendor internally
         this.statementFactory = new SqlStatementFactory(
             Map.of(context.getDbType(), context.getVendor())
         );
+        this.laneExecutor = options.parallel()
+            ? new VirtualThreadBatchExecutor(context, statementFactory, 0, options.stopOnError(), options.parallelism())
+            : null;
         
         logger.debug("UnifiedDatabaseOperation created for database type: {}", context.getDbType());
         logger.debug("Exiting UnifiedDatabaseOperation constructor");
@@ -84,10 +134,23 @@ public class UnifiedDatabaseOperation implements AutoCloseable {
      * @return A new UnifiedDatabaseOperation
      */
     public static UnifiedDatabaseOperation create(DatabaseConfig config, DatabaseVendor vendor, boolean transactional) {
+        return create(config, vendor, ScriptExecutionOptions.builder().transactional(transactional).build());
+    }
+
+    /**
+     * Factory method to create a UnifiedDatabaseOperation from a DatabaseConfig.
+     *
+     * @param config The database configuration
+     * @param vendor The DatabaseVendor implementation
+     * @param options The script execution options
+     * @return A new UnifiedDatabaseOperation
+     */
+    public static UnifiedDatabaseOperation create(DatabaseConfig config, DatabaseVendor vendor, ScriptExecutionOptions options) {
         try {
-            // Create a connection
+            // Create a connection pool and borrow the operation's connection from it
             var factory = new com.example.shelldemo.connection.DatabaseConnectionFactory();
-            var conn = factory.createConnection(
+            // Independent statements need a connection per lane besides the operation's own
+            ConnectionPool pool = factory.createPool(
                 new com.example.shelldemo.connection.ConnectionConfig(
                     config.host(),
                     config.port(),
@@ -96,19 +159,29 @@ public class UnifiedDatabaseOperation implements AutoCloseable {
                     config.database(),
                     config.vendor(),
                     config.connectionType()
-                )
+                ),
+                PoolSettings.forDbType(config.vendor()).withCapacityFor(options.parallelism() + 1)
             );
+            Connection conn;
+            try {
+                conn = pool.getConnection();
+            } catch (SQLException e) {
+                pool.close();
+                throw e;
+            }
             
             // Create the context - use the Builder to adapt the vendor
             DatabaseContext context = new DatabaseContext.Builder()
                 .connection(conn)
+                .connectionPool(pool)
                 .dbType(config.vendor())
                 .vendor(vendor) // This will use the adapter in the Builder
                 .configService(new ConfigHolderAdapter())
+                .statementCache(options.statementCacheSize(), options.driverStatementCache())
                 .build();
             
             // Create and return the operation
-            return new UnifiedDatabaseOperation(context, vendor, transactional);
+            return new UnifiedDatabaseOperation(context, vendor, options);
             
         } catch (SQLException e) {
             logger.error("Failed to create database connection: {}", e.getMessage(), e);
@@ -134,6 +207,27 @@ public class UnifiedDatabaseOperation implements AutoCloseable {
         return result;
     }
     
+    /**
+     * Executes a SQL query and passes its rows to a handler as they are
+     * fetched, instead of collecting them, so that a query of any size runs in
+     * memory bounded by the handler.
+     *
+     * @param sql The SQL query
+     * @param handler Receives the rows
+     * @return The number of rows handled
+     * @throws SQLException if a database access error occurs
+     */
+    public long executeQuery(String sql, RowHandler handler) throws SQLException {
+        logger.debug("Entering executeQuery with SQL: {} and row handler", sql);
+        SqlStatement statement = statementFactory.createStatement(sql, context.getDbType());
+        if (!(statement instanceof SqlStatement.QueryStatement)) {
+            throw new IllegalArgumentException("Expected a query statement but got: " + statement.getClass().getSimpleName());
+        }
+        long rows = queryExecutor.execute(statement, handler);
+        logger.debug("Exiting executeQuery after {} rows", rows);
+        return rows;
+    }
+
     /**
      * Executes a SQL update statement and returns the number of affected rows.
      *
@@ -204,50 +298,6 @@ public class UnifiedDatabaseOperation implements AutoCloseable {
         return result;
     }
     
-    private static String formatTable(List<Map<String, Object>> rows) {
-        if (rows == null || rows.isEmpty()) return "(no results)";
-        var columns = rows.get(0).keySet().toArray(new String[0]);
-        int[] widths = new int[columns.length];
-        for (int i = 0; i < columns.length; i++) {
-            widths[i] = columns[i].length();
-        }
-        for (Map<String, Object> row : rows) {
-            int i = 0;
-            for (String col : columns) {
-                Object val = row.get(col);
-                if (val != null) {
-                    widths[i] = Math.max(widths[i], val.toString().length());
-                }
-                i++;
-            }
-        }
-        StringBuilder sb = new StringBuilder();
-        // Header
-        sb.append("+");
-        for (int w : widths) sb.append("-".repeat(w + 2)).append("+");
-        sb.append("\n|");
-        for (int i = 0; i < columns.length; i++) {
-            sb.append(" ").append(String.format("%-" + widths[i] + "s", columns[i])).append(" |");
-        }
-        sb.append("\n+");
-        for (int w : widths) sb.append("-".repeat(w + 2)).append("+");
-        sb.append("\n");
-        // Rows
-        for (Map<String, Object> row : rows) {
-            sb.append("|");
-            int i = 0;
-            for (String col : columns) {
-                Object val = row.get(col);
-                sb.append(" ").append(String.format("%-" + widths[i] + "s", val != null ? val : "")).append(" |");
-                i++;
-            }
-            sb.append("\n");
-        }
-        sb.append("+");
-        for (int w : widths) sb.append("-".repeat(w + 2)).append("+");
-        return sb.toString();
-    }
-
     /**
      * Executes a SQL script file.
      *
@@ -257,6 +307,47 @@ public class UnifiedDatabaseOperation implements AutoCloseable {
      * @throws IOException if an I/O error occurs
      */
     public int executeScript(File scriptFile) throws SQLException, IOException {
+        return runScript(scriptFile, null).executed;
+    }
+
+    /**
+     * The outcome of a script run from parsed statements.
+     *
+     * @param executed Number of statements executed
+     * @param failed Number of statements that failed
+     * @param rows Number of rows the statements changed or returned
+     */
+    public record ScriptSummary(int executed, int failed, long rows) {}
+
+    /**
+     * Executes a script from statements parsed beforehand, e.g. once for several
+     * databases, and passes the formatted query results to the given output
+     * instead of the result log.
+     *
+     * @param scriptFile The script file the statements were parsed from
+     * @param statements The statements of the script
+     * @param output Receives the formatted results of the queries
+     * @return The statement and row counts of the script
+     * @throws SQLException if a database access error occurs
+     * @throws IOException if an I/O error occurs
+     */
+    public ScriptSummary executeScript(File scriptFile, List<SqlStatement> statements, Consumer<String> output)
+            throws SQLException, IOException {
+        Consumer<String> previous = resultOutput;
+        resultOutput = output;
+        try {
+            ScriptProgress progress = runScript(scriptFile, statements);
+            return new ScriptSummary(progress.executed, progress.failed, progress.rows);
+        } finally {
+            resultOutput = previous;
+        }
+    }
+
+    /**
+     * Runs a script, from statements already parsed when given, and returns
+     * its progress.
+     */
+    private ScriptProgress runScript(File scriptFile, List<SqlStatement> parsed) throws SQLException, IOException {
         String user = null;
         try { user = context.getConnection().getMetaData().getUserName(); } catch (Exception ignore) {}
         ThreadContext.put("operation", "executeScript");
@@ -265,45 +356,106 @@ public class UnifiedDatabaseOperation implements AutoCloseable {
         if (user != null) ThreadContext.put("user", user);
         try {
             logger.debug("Entering executeScript with file: {}", scriptFile);
-            try {
-                Map<Integer, String> statements = SqlScriptParser.parseSqlFile(scriptFile, getVendor());
-                logger.debug("Parsed {} SQL statements from script.", statements.size());
-                logger.info("About to execute {} SQL statements from script: {}", statements.size(), scriptFile);
-                int executed = 0;
-                for (String sql : statements.values()) {
-                    logger.debug("Preparing to execute SQL statement: {}", sql);
-                    SqlStatement stmt = statementFactory.createStatement(sql, context.getDbType());
-                    SqlExecutor executor = SqlExecutor.createFor(stmt, context);
-                    // DML: use transaction if requested
-                    if (stmt instanceof com.example.shelldemo.parser.SqlStatement.DmlStatement && transactional) {
-                        logger.debug("Executing DML statement in transaction: {}", sql);
-                        TransactionManager txManager = context.getTransactionManager();
-                        Object execResult = txManager.executeInTransaction(conn -> executor.execute(stmt));
-                        logger.debug("Result for DML statement: {} => {}", sql, execResult);
-                        if (execResult instanceof java.util.List<?> results && !results.isEmpty() && results.get(0) instanceof Map) {
-                            @SuppressWarnings("unchecked")
-                            List<Map<String, Object>> tableRows = (List<Map<String, Object>>) results;
-                            resultLogger.info("\n" + formatTable(tableRows));
+            try (ExecutionJournal journal = options.journaled()
+                     ? ExecutionJournal.open(options.journalFile(), scriptFile.toPath(), options.resume()) : null;
+                 Stream<SqlStatement> statements = parsed != null
+                     ? parsed.stream().skip(journal != null ? journal.getResumeFrom().statements() : 0)
+                     : journal != null ? openStatementStream(scriptFile, journal) : openStatementStream(scriptFile);
+                 CommitScope scope = options.transactional()
+                     ? context.getTransactionManager().openScope(options.commitPolicy()) : null) {
+                commitScope = scope;
+                ScriptProgress progress = new ScriptProgress(scriptFile);
+                if (journal != null) {
+                    progress.statementNumber = journal.getResumeFrom().statements();
+                }
+                if (scope != null) {
+                    logger.info("Committing DML statements {}", options.commitPolicy());
+                }
+                DmlBatch batch = options.batched() || options.bindLiterals()
+                    ? new DmlBatch(Math.max(options.batchSize(), 1)) : null;
+                if (options.batched()) {
+                    logger.info("Batching consecutive DML statements in groups of up to {}", options.batchSize());
+                }
+                if (options.bindLiterals()) {
+                    logger.info("Binding literals of INSERT, UPDATE and DELETE statements");
+                }
+                IndependentRun run = options.parallel() ? new IndependentRun(options.parallelism() * 64) : null;
+                if (run != null) {
+                    logger.info("Running statements on up to {} connections in the order of the objects they "
+                        + "read and write{}", options.parallelism(),
+                        options.parallelDml() ? ", with DML statements independent of each other" : "");
+                }
+                Iterator<SqlStatement> iterator = statements.iterator();
+                while (iterator.hasNext()) {
+                    SqlStatement stmt = iterator.next();
+                    if (journal != null && (batch == null || batch.isEmpty()) && (run == null || run.isEmpty())
+                            && uncommitted() == 0) {
+                        journal.checkpoint(progress.statementNumber);
+                    }
+                    int number = ++progress.statementNumber;
+                    StatementAccess access = run != null ? StatementAccess.of(stmt) : null;
+                    if (access != null && runsConcurrently(stmt, access)) {
+                        if (batch != null && !batch.isEmpty()) {
+                            executeBatch(batch, progress);
+                        }
+                        run.add(stmt, access, number);
+                        if (run.isFull()) {
+                            executeIndependent(run, progress);
                         }
-                    } else {
-                        logger.debug("Executing statement (auto-commit): {}", sql);
-                        Object execResult = executor.execute(stmt);
-                        logger.debug("Result for statement: {} => {}", sql, execResult);
-                        if (execResult instanceof java.util.List<?> results && !results.isEmpty() && results.get(0) instanceof Map) {
-                            @SuppressWarnings("unchecked")
-                            List<Map<String, Object>> tableRows = (List<Map<String, Object>>) results;
-                            resultLogger.info("\n" + formatTable(tableRows));
+                        continue;
+                    }
+                    if (run != null && !run.isEmpty()) {
+                        executeIndependent(run, progress);
+                    }
+                    if (batch != null && stmt instanceof SqlStatement.DmlStatement) {
+                        ParameterizedStatement parameterized = options.bindLiterals()
+                            ? LiteralParameterizer.parameterize(stmt.getText()) : null;
+                        if (options.batched() || parameterized != null) {
+                            if (!batch.accepts(parameterized)) {
+                                executeBatch(batch, progress);
+                            }
+                            batch.add(stmt.getText(), parameterized, number);
+                            if (batch.isFull()) {
+                                executeBatch(batch, progress);
+                            }
+                            continue;
                         }
                     }
-                    executed++;
+                    if (batch != null && !batch.isEmpty()) {
+                        executeBatch(batch, progress);
+                    }
+                    executeCounted(stmt, progress);
+                }
+                if (batch != null && !batch.isEmpty()) {
+                    executeBatch(batch, progress);
+                }
+                if (run != null && !run.isEmpty()) {
+                    executeIndependent(run, progress);
+                }
+                if (scope != null) {
+                    scope.commit();
+                    logger.info("Committed DML in {} scopes, {} rolled back", scope.getCommits(), scope.getRollbacks());
+                }
+                if (journal != null) {
+                    journal.checkpoint(progress.statementNumber);
+                    logger.info("Journaled {} statements of script {} to {}",
+                        progress.statementNumber, scriptFile, journal.getFile());
                 }
-                logger.info("Executed {} SQL statements from script: {}", executed, scriptFile);
-                logger.debug("Exiting executeScript with executed count: {}", executed);
-                return executed;
+                if (progress.rolledBack > 0) {
+                    logger.warn("{} executed SQL statements were rolled back with a failing commit scope in script: {}",
+                        progress.rolledBack, scriptFile);
+                }
+                if (progress.failed > 0) {
+                    logger.warn("{} SQL statements failed in script: {}", progress.failed, scriptFile);
+                }
+                logger.info("Executed {} SQL statements from script: {}", progress.executed, scriptFile);
+                logger.debug("Exiting executeScript with executed count: {}", progress.executed);
+                return progress;
             } catch (ParseException e) {
                 throw new DatabaseException("Failed to parse SQL script: " + scriptFile.getName(), 
                         e, ErrorType.PARSE_SQL);
             } finally {
+                commitScope = null;
                 logger.debug("Exiting executeScript");
             }
         } finally {
@@ -311,6 +463,761 @@ public class UnifiedDatabaseOperation implements AutoCloseable {
         }
     }
     
+    /**
+     * Deploys the scripts of a release group by group. All scripts are parsed
+     * at once before anything runs, so a script that does not parse fails the
+     * deployment up front. The scripts of a group then run concurrently, each
+     * from start to end on one connection, on up to the configured parallelism
+     * of pooled connections; a group starts once the previous group has finished.
+     * <p>
+     * When stopping on errors, no script is started after the first one fails
+     * and later groups are skipped; otherwise every script runs and the failures
+     * are reported.
+     *
+     * @param plan The scripts in their ordering groups
+     * @return The result and timing of every script
+     * @throws IllegalArgumentException if a journal is configured, as journals are kept per script
+     * @throws DatabaseException if a script cannot be parsed
+     */
+    public DeploymentReport executeDeployment(DeploymentPlan plan) {
+        if (options.journaled()) {
+            throw new IllegalArgumentException("A journal records a single script and cannot be used to deploy "
+                + plan.source());
+        }
+        long started = System.nanoTime();
+        logger.info("Deploying {} scripts in {} groups from {}", plan.files().size(), plan.groups().size(),
+            plan.source());
+        Map<File, List<SqlStatement>> parsed = ConcurrentSqlParser.parseScripts(plan.files(), getVendor());
+        List<DeploymentReport.ScriptResult> results = new ArrayList<>();
+        boolean stopped = false;
+        for (DeploymentPlan.Group group : plan.groups()) {
+            if (stopped) {
+                group.files().forEach(file -> results.add(DeploymentReport.ScriptResult.skipped(group.name(), file)));
+                continue;
+            }
+            logger.info("Deploying group {} of {} scripts", group.name(), group.files().size());
+            List<DeploymentReport.ScriptResult> groupResults = deployGroup(group, parsed);
+            results.addAll(groupResults);
+            stopped = options.stopOnError()
+                && groupResults.stream().anyMatch(result -> result.status() != DeploymentReport.Status.SUCCEEDED);
+        }
+        DeploymentReport report = new DeploymentReport(plan.source().toString(), results,
+            Duration.ofNanos(System.nanoTime() - started));
+        logger.info("Deployed {}: {} succeeded, {} failed, {} skipped", plan.source(),
+            report.count(DeploymentReport.Status.SUCCEEDED), report.count(DeploymentReport.Status.FAILED),
+            report.count(DeploymentReport.Status.SKIPPED));
+        return report;
+    }
+
+    /**
+     * Runs the scripts of one group, concurrently when there are pooled
+     * connections to run them on, and returns their results in group order.
+     */
+    private List<DeploymentReport.ScriptResult> deployGroup(DeploymentPlan.Group group,
+            Map<File, List<SqlStatement>> parsed) {
+        List<File> files = group.files();
+        DeploymentReport.ScriptResult[] results = new DeploymentReport.ScriptResult[files.size()];
+        AtomicInteger next = new AtomicInteger();
+        AtomicBoolean failed = new AtomicBoolean();
+        ConnectionPool pool = context.getConnectionPool();
+        int lanes = pool == null ? 1 : Math.min(options.parallelism(), files.size());
+        if (lanes == 1) {
+            deployScripts(this, group, parsed, next, failed, results);
+        } else {
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < lanes; i++) {
+                    executor.execute(() -> {
+                        // Each lane runs whole scripts, one after another, on its own connection
+                        try (UnifiedDatabaseOperation lane = new UnifiedDatabaseOperation(
+                                new DatabaseContext.Builder()
+                                    .connection(pool.getConnection())
+                                    .configService(context.getConfigService())
+                                    .vendor(context.getVendor())
+                                    .dbType(context.getDbType())
+                                    .statementCache(options.statementCacheSize(), options.driverStatementCache())
+                                    .build(),
+                                vendor, options.withParallelism(1))) {
+                            deployScripts(lane, group, parsed, next, failed, results);
+                        } catch (Exception e) {
+                            logger.error("Deployment lane of group {} failed: {}", group.name(), e.getMessage(), e);
+                            failed.set(true);
+                        }
+                    });
+                }
+            }
+        }
+        List<DeploymentReport.ScriptResult> groupResults = new ArrayList<>(files.size());
+        for (int i = 0; i < results.length; i++) {
+            groupResults.add(results[i] != null ? results[i]
+                : DeploymentReport.ScriptResult.skipped(group.name(), files.get(i)));
+        }
+        return groupResults;
+    }
+
+    /**
+     * Takes the next script of a group and runs it, until the group is
+     * exhausted or, when stopping on errors, a script failed.
+     */
+    private static void deployScripts(UnifiedDatabaseOperation operation, DeploymentPlan.Group group,
+            Map<File, List<SqlStatement>> parsed, AtomicInteger next, AtomicBoolean failed,
+            DeploymentReport.ScriptResult[] results) {
+        boolean stopOnError = operation.options.stopOnError();
+        int index;
+        while (!(stopOnError && failed.get()) && (index = next.getAndIncrement()) < results.length) {
+            File file = group.files().get(index);
+            long started = System.nanoTime();
+            try {
+                ScriptProgress progress = operation.runScript(file, parsed.get(file));
+                results[index] = DeploymentReport.ScriptResult.completed(group.name(), file, progress.executed,
+                    progress.failed, Duration.ofNanos(System.nanoTime() - started));
+            } catch (SQLException | IOException | RuntimeException e) {
+                logger.error("Script {} failed: {}", file, e.getMessage(), e);
+                results[index] = DeploymentReport.ScriptResult.aborted(group.name(), file,
+                    Duration.ofNanos(System.nanoTime() - started), e);
+            }
+            if (results[index].status() != DeploymentReport.Status.SUCCEEDED) {
+                failed.set(true);
+            }
+        }
+    }
+
+    /**
+     * Exports the single query of a script in parts read at once, on up to
+     * the configured parallelism of pooled connections.
+     *
+     * @param scriptFile The script, holding one query and nothing else
+     * @param export The partitioning and files of the export
+     * @return The manifest of the parts written
+     * @throws IllegalArgumentException if the script is not a single query
+     * @throws DatabaseException if the script cannot be parsed or the export fails
+     */
+    public PartitionedExport.Manifest exportPartitioned(File scriptFile, PartitionedExport export) {
+        List<SqlStatement> statements;
+        try (Stream<SqlStatement> stream = SqlScriptParser.streamStatements(scriptFile, getVendor())) {
+            statements = stream.toList();
+        }
+        if (statements.size() != 1 || !(statements.get(0) instanceof SqlStatement.QueryStatement query)) {
+            throw new IllegalArgumentException("A partitioned export runs a script of a single query: " + scriptFile);
+        }
+        return export.run(context, query.getText(), options.parallelism());
+    }
+
+    /**
+     * Describes the stages in which {@link #executeScript(File)} would run a
+     * script with the parallelism configured, without executing anything.
+     * Statements of one stage may run at once; a stage on the operation's
+     * connection holds a single statement that runs by itself, either because
+     * its effects are unknown or because it is DML not declared independent.
+     *
+     * @param scriptFile The script file
+     * @return The plan, one line per stage and statement
+     * @throws DatabaseException if the script cannot be parsed
+     */
+    public String describePlan(File scriptFile) {
+        StringBuilder description = new StringBuilder();
+        ScriptProgress progress = new ScriptProgress(scriptFile);
+        IndependentRun run = new IndependentRun(options.parallelism() * 64);
+        int stages = 0;
+        try (Stream<SqlStatement> statements = SqlScriptParser.streamStatements(scriptFile, getVendor())) {
+            Iterator<SqlStatement> iterator = statements.iterator();
+            while (iterator.hasNext()) {
+                SqlStatement stmt = iterator.next();
+                int number = ++progress.statementNumber;
+                StatementAccess access = StatementAccess.of(stmt);
+                if (runsConcurrently(stmt, access)) {
+                    run.add(stmt, access, number);
+                    if (run.isFull()) {
+                        stages = describeRun(run, progress, stages, description);
+                    }
+                    continue;
+                }
+                stages = describeRun(run, progress, stages, description);
+                description.append("Stage ").append(++stages).append(" (operation connection):\n");
+                describeStatement(number, stmt, access, progress, description);
+            }
+            stages = describeRun(run, progress, stages, description);
+        } catch (ParseException e) {
+            throw new DatabaseException("Failed to parse SQL script: " + scriptFile.getName(), e, ErrorType.PARSE_SQL);
+        }
+        return "Execution plan of " + scriptFile.getName() + ": " + progress.statementNumber + " statements in "
+            + stages + " stages on up to " + options.parallelism() + " connections\n" + description;
+    }
+
+    /**
+     * Describes the stages of a run, numbered after the stages described so far,
+     * empties the run and returns the number of stages described in all.
+     */
+    private int describeRun(IndependentRun run, ScriptProgress progress, int stages, StringBuilder description) {
+        if (run.isEmpty()) {
+            return stages;
+        }
+        ExecutionPlan plan = ExecutionPlan.of(run.accesses(), options.parallelDml());
+        for (int[] stage : plan.stages()) {
+            description.append("Stage ").append(++stages).append(" (").append(stage.length)
+                .append(stage.length == 1 ? " statement" : " concurrent statements").append("):\n");
+            for (int index : stage) {
+                describeStatement(run.number(index), run.statements().get(index), run.accesses().get(index),
+                    progress, description);
+            }
+        }
+        run.clear();
+        return stages;
+    }
+
+    private void describeStatement(int number, SqlStatement stmt, StatementAccess access, ScriptProgress progress,
+            StringBuilder description) {
+        String text = stmt.getText().strip().replaceAll("\\s+", " ");
+        description.append("  ").append(number).append(" (line ").append(progress.lineOf(number)).append(") ")
+            .append(text.length() > 60 ? text.substring(0, 57) + "..." : text)
+            .append(" [").append(access).append("]\n");
+    }
+
+    /**
+     * Opens the statements of a script, from the parse cache when one is configured
+     * and holds the script, otherwise by parsing it.
+     */
+    private Stream<SqlStatement> openStatementStream(File scriptFile) {
+        if (parseCache != null) {
+            return parseCache.streamStatements(scriptFile, getVendor(), () -> parseStatements(scriptFile));
+        }
+        return parseStatements(scriptFile);
+    }
+
+    /**
+     * Opens the statements of a journaled script. A resumed script skips the
+     * statements the journal records as committed: parsing starts at the byte
+     * offset of the last restart point before them, or, for cached statements,
+     * the committed ones are skipped without being parsed.
+     */
+    private Stream<SqlStatement> openStatementStream(File scriptFile, ExecutionJournal journal) {
+        ExecutionJournal.Checkpoint resumeFrom = journal.getResumeFrom();
+        if (parseCache != null) {
+            return parseCache.streamStatements(scriptFile, getVendor(), () -> parseStatements(scriptFile))
+                .skip(resumeFrom.statements());
+        }
+        ScriptPosition from = resumeFrom.restart();
+        if (!from.isStart()) {
+            logger.info("Parsing script {} from line {} (byte offset {})", scriptFile, from.line(), from.offset());
+        }
+        Stream<SqlStatement> statements = options.pipelined()
+            ? PipelinedScriptParser.parseAhead(scriptFile, getVendor(), from, journal.getBoundaries(),
+                options.pipelineCapacity())
+            : SqlScriptParser.streamStatements(scriptFile, getVendor(), from, journal.getBoundaries());
+        return statements.skip(resumeFrom.statements() - from.statement());
+    }
+
+    /**
+     * Parses the statements of a script, either inline or ahead on a separate
+     * thread when a pipeline capacity is configured.
+     */
+    private Stream<SqlStatement> parseStatements(File scriptFile) {
+        if (options.pipelined()) {
+            logger.info("Executing SQL statements from script with a parse-ahead queue of {}: {}",
+                options.pipelineCapacity(), scriptFile);
+            return PipelinedScriptParser.parseAhead(scriptFile, getVendor(), options.pipelineCapacity());
+        }
+        logger.info("Executing SQL statements from script as they are parsed: {}", scriptFile);
+        return SqlScriptParser.streamStatements(scriptFile, getVendor());
+    }
+
+    /**
+     * Executes one statement of a script, counting it as executed or, when the
+     * script continues past errors, as failed.
+     */
+    private void executeCounted(SqlStatement stmt, ScriptProgress progress) throws SQLException {
+        int uncommitted = uncommitted();
+        try {
+            if (stmt instanceof SqlStatement.QueryStatement) {
+                // Rows are written as they arrive rather than collected first
+                progress.rows += streamQuery(stmt);
+                progress.executed++;
+            } else {
+                Object result = executeStatement(context, stmt);
+                progress.executed++;
+                report(result, progress);
+            }
+        } catch (SQLException | DatabaseException e) {
+            if (options.stopOnError()) {
+                throw e;
+            }
+            discardRolledBack(uncommitted, progress);
+            progress.failed++;
+            logger.error("Statement failed, continuing with next statement: {}", stmt.getText(), e);
+        }
+    }
+
+    /**
+     * Whether a statement may run on a pooled lane, ordered only with the
+     * statements it shares objects with: statements whose objects are known,
+     * except DML statements not declared independent, which stay on the
+     * operation's connection in its commit scope and batches, and queries
+     * written to a result sink, which opens one file per query in script
+     * order, with a header even for no rows.
+     */
+    private boolean runsConcurrently(SqlStatement stmt, StatementAccess access) {
+        if (resultSink != null && stmt instanceof SqlStatement.QueryStatement) {
+            return false;
+        }
+        return !access.barrier() && (!access.modifiesData() || options.parallelDml());
+    }
+
+    /**
+     * Runs the statements of an independent run concurrently on pooled lanes,
+     * each once the statements it depends on have finished, reports their
+     * results in script order and empties the run.
+     */
+    private void executeIndependent(IndependentRun run, ScriptProgress progress) throws SQLException {
+        try {
+            if (run.size() == 1) {
+                executeCounted(run.statements().get(0), progress);
+                return;
+            }
+            if (commitScope != null) {
+                // Lanes run on their own connections and only see committed work
+                commitScope.commit();
+            }
+            ExecutionPlan plan = ExecutionPlan.of(run.accesses(), options.parallelDml());
+            logger.debug("Running {} statements in {} stages starting at statement {}",
+                run.size(), plan.stageCount(), run.number(0));
+            List<VirtualThreadBatchExecutor.TaskOutcome<Object>> outcomes =
+                laneExecutor.executeInLanes(run.statements(), plan, this::executeStatement);
+            VirtualThreadBatchExecutor.TaskOutcome<Object> firstFailure = null;
+            for (VirtualThreadBatchExecutor.TaskOutcome<Object> outcome : outcomes) {
+                if (outcome == null) {
+                    // Not started after an earlier failure
+                    continue;
+                }
+                if (!outcome.failed()) {
+                    progress.executed++;
+                    report(outcome.result(), progress);
+                    continue;
+                }
+                if (firstFailure == null) {
+                    firstFailure = outcome;
+                }
+                if (!options.stopOnError()) {
+                    progress.failed++;
+                    int number = run.number(outcome.index());
+                    logger.error("Statement {} at line {} failed, continuing with next statement: {}",
+                        number, progress.lineOf(number), run.statements().get(outcome.index()).getText(),
+                        outcome.failure());
+                }
+            }
+            if (firstFailure != null && options.stopOnError()) {
+                int number = run.number(firstFailure.index());
+                throw new BatchProcessingException("Independent statement " + number + " at line "
+                    + progress.lineOf(number) + " failed: " + run.statements().get(firstFailure.index()).getText(),
+                    firstFailure.failure(), run.size(), firstFailure.index());
+            }
+        } finally {
+            run.clear();
+        }
+    }
+
+    /**
+     * Executes the pending DML statements as one JDBC batch, in the current commit
+     * scope when the script is transactional, and empties the batch. A batch of one statement
+     * shape runs as a single prepared statement with a parameter set per statement.
+     */
+    private void executeBatch(DmlBatch batch, ScriptProgress progress) throws SQLException {
+        int from = 0;
+        int uncommitted = uncommitted();
+        try {
+            while (from < batch.size()) {
+                List<String> pending = batch.statements().subList(from, batch.size());
+                int start = from;
+                TransactionManager.SqlOperation<int[]> operation = batch.shape() == null
+                    ? conn -> batchExecutor.executeUpdateBatch(pending)
+                    : conn -> batchExecutor.executePreparedBatch(batch.shape(),
+                        batch.parameters().subList(start, batch.size()), context.getVendor());
+                try {
+                    int[] counts = commitScope != null
+                        ? commitScope.execute(operation, pending.size())
+                        : operation.execute(context.getConnection());
+                    reportUpdateCounts(batch, from, counts, progress);
+                    progress.executed += pending.size();
+                    return;
+                } catch (BatchUpdateException e) {
+                    if (!options.stopOnError()) {
+                        discardRolledBack(uncommitted, progress);
+                    }
+                    from = handleBatchFailure(batch, from, e, progress);
+                    uncommitted = uncommitted();
+                } catch (SQLException e) {
+                    if (options.stopOnError()) {
+                        throw e;
+                    }
+                    discardRolledBack(uncommitted, progress);
+                    progress.failed += pending.size();
+                    logger.error("Batch of {} statements starting at line {} failed, continuing with next statement",
+                        pending.size(), progress.lineOf(batch.number(from)), e);
+                    return;
+                }
+            }
+        } finally {
+            batch.clear();
+        }
+    }
+
+    /**
+     * Maps a batch failure back to the failing statement and its script line.
+     * Stops the script, or accounts for the statements the driver did run and
+     * returns the index from which the rest of the batch has to be resubmitted.
+     */
+    private int handleBatchFailure(DmlBatch batch, int from, BatchUpdateException e, ScriptProgress progress)
+            throws SQLException {
+        int size = batch.size() - from;
+        int failedIndex = BatchExecutor.failedIndex(e, size);
+        if (options.stopOnError()) {
+            String location = failedIndex < 0
+                ? "a statement of the batch starting at line " + progress.lineOf(batch.number(from))
+                : "statement " + batch.number(from + failedIndex)
+                    + " at line " + progress.lineOf(batch.number(from + failedIndex))
+                    + ": " + batch.statements().get(from + failedIndex);
+            throw new BatchProcessingException("Batched DML failed at " + location, e, size, failedIndex);
+        }
+        if (options.transactional()) {
+            // The whole batch was rolled back: replay it one statement at a time
+            logger.warn("Batch of {} statements rolled back, executing them individually: {}", size, e.getMessage());
+            for (int i = from; i < batch.size(); i++) {
+                executeCounted(new SqlStatement.DmlStatement(batch.statements().get(i)), progress);
+            }
+            return batch.size();
+        }
+        if (BatchExecutor.ranWholeBatch(e, size)) {
+            int[] counts = e.getUpdateCounts();
+            for (int i = 0; i < size; i++) {
+                if (counts[i] == Statement.EXECUTE_FAILED) {
+                    logBatchedFailure(batch, from + i, progress, e);
+                } else {
+                    progress.executed++;
+                }
+            }
+            reportUpdateCounts(batch, from, counts, progress);
+            return batch.size();
+        }
+        if (failedIndex < 0) {
+            progress.failed += size;
+            logger.error("Batch of {} statements starting at line {} failed, continuing with next statement",
+                size, progress.lineOf(batch.number(from)), e);
+            return batch.size();
+        }
+        reportUpdateCounts(batch, from, e.getUpdateCounts(), progress);
+        progress.executed += failedIndex;
+        logBatchedFailure(batch, from + failedIndex, progress, e);
+        return from + failedIndex + 1;
+    }
+
+    private void logBatchedFailure(DmlBatch batch, int index, ScriptProgress progress, BatchUpdateException e) {
+        progress.failed++;
+        int number = batch.number(index);
+        logger.error("Statement {} at line {} failed, continuing with next statement: {}",
+            number, progress.lineOf(number), batch.statements().get(index), e);
+    }
+
+    private void reportUpdateCounts(DmlBatch batch, int from, int[] counts, ScriptProgress progress) {
+        for (int count : counts) {
+            progress.rows += Math.max(count, 0);
+        }
+        if (!logger.isDebugEnabled()) {
+            return;
+        }
+        for (int i = 0; i < counts.length && from + i < batch.size(); i++) {
+            if (counts[i] == Statement.EXECUTE_FAILED) {
+                continue;
+            }
+            logger.debug("Result for batched statement {}: {} => {}", batch.number(from + i),
+                batch.statements().get(from + i),
+                counts[i] == Statement.SUCCESS_NO_INFO ? "success, row count unknown" : counts[i]);
+        }
+    }
+
+    /**
+     * Number of statements run in the current commit scope and not yet committed.
+     */
+    private int uncommitted() {
+        return commitScope != null ? commitScope.pending() : 0;
+    }
+
+    /**
+     * Accounts for the statements of the current commit scope that a failure
+     * rolled back after they had run, given the uncommitted count before it.
+     */
+    private void discardRolledBack(int uncommitted, ScriptProgress progress) {
+        int lost = uncommitted - uncommitted();
+        if (lost > 0) {
+            progress.executed -= lost;
+            progress.rolledBack += lost;
+            logger.warn("Rolled back {} earlier statements of the failed commit scope", lost);
+        }
+    }
+
+    /**
+     * Executes one statement of a script on the connection of the given context.
+     */
+    private Object executeStatement(DatabaseContext target, SqlStatement stmt) throws SQLException {
+        String sql = stmt.getText();
+        logger.debug("Preparing to execute SQL statement: {}", sql);
+        SqlExecutor executor = SqlExecutor.createFor(stmt, target);
+        Object execResult;
+        // DML: use transaction if requested
+        if (stmt instanceof SqlStatement.DmlStatement && target == context && commitScope != null) {
+            logger.debug("Executing DML statement in commit scope: {}", sql);
+            execResult = commitScope.execute(conn -> executor.execute(stmt), 1);
+            logger.debug("Result for DML statement: {} => {}", sql, execResult);
+        } else if (stmt instanceof SqlStatement.DmlStatement && options.transactional()) {
+            logger.debug("Executing DML statement in transaction: {}", sql);
+            TransactionManager txManager = target.getTransactionManager();
+            execResult = txManager.executeInTransaction(conn -> executor.execute(stmt));
+            logger.debug("Result for DML statement: {} => {}", sql, execResult);
+        } else {
+            if (target == context && commitScope != null && !(stmt instanceof SqlStatement.QueryStatement)) {
+                // DDL and blocks end the scope and run in the original auto-commit mode
+                commitScope.suspend();
+            }
+            logger.debug("Executing statement (auto-commit): {}", sql);
+            execResult = executor.execute(stmt);
+            logger.debug("Result for statement: {} => {}", sql, execResult);
+        }
+        return execResult;
+    }
+
+    /**
+     * Counts the rows a statement returned or changed and prints the rows of a query.
+     */
+    private void report(Object execResult, ScriptProgress progress) {
+        if (execResult instanceof Integer count) {
+            progress.rows += Math.max(count, 0);
+        }
+        if (execResult instanceof List<?> results && !results.isEmpty() && results.get(0) instanceof Map) {
+            progress.rows += results.size();
+            @SuppressWarnings("unchecked")
+            List<Map<String, Object>> tableRows = (List<Map<String, Object>>) results;
+            RowHandler handler = openResultHandler();
+            try {
+                handler.start(List.copyOf(tableRows.get(0).keySet()));
+                for (Map<String, Object> row : tableRows) {
+                    handler.row(row);
+                }
+                handler.end(tableRows.size());
+            } catch (IOException e) {
+                throw resultWriteFailed(e);
+            } finally {
+                closeResultHandler(handler);
+            }
+        }
+    }
+
+    /**
+     * Streams the rows of a query of a script to the handler for its result.
+     */
+    private long streamQuery(SqlStatement stmt) throws SQLException {
+        RowHandler handler = openResultHandler();
+        try {
+            return queryExecutor.execute(stmt, handler);
+        } finally {
+            closeResultHandler(handler);
+        }
+    }
+
+    /**
+     * Opens the handler for the rows of the next query of a script: the result
+     * sink's, or else a table printed to the result output.
+     */
+    private RowHandler openResultHandler() {
+        if (resultSink == null) {
+            return new TableRowHandler(resultOutput);
+        }
+        try {
+            return resultSink.open(++queries);
+        } catch (IOException e) {
+            throw resultWriteFailed(e);
+        }
+    }
+
+    private void closeResultHandler(RowHandler handler) {
+        if (handler instanceof Closeable closeable) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                throw resultWriteFailed(e);
+            }
+        }
+    }
+
+    private DatabaseException resultWriteFailed(IOException e) {
+        logger.error("Failed to write query results: {}", e.getMessage(), e);
+        return new DatabaseException("Failed to write query results: " + e.getMessage(), e, ErrorType.OP_QUERY);
+    }
+
+    /**
+     * Counts the statements of a running script. Script lines are only looked up
+     * when a failure has to be reported.
+     */
+    private final class ScriptProgress {
+        private final File scriptFile;
+        private int statementNumber;
+        private int executed;
+        private int failed;
+        private int rolledBack;
+        private long rows;
+        private int[] lines;
+
+        ScriptProgress(File scriptFile) {
+            this.scriptFile = scriptFile;
+        }
+
+        int lineOf(int statementNumber) {
+            if (lines == null) {
+                try {
+                    lines = SqlScriptParser.statementLines(scriptFile, getVendor());
+                } catch (DatabaseException e) {
+                    logger.debug("Cannot determine statement lines of {}: {}", scriptFile, e.getMessage());
+                    lines = new int[0];
+                }
+            }
+            return statementNumber <= lines.length ? lines[statementNumber - 1] : -1;
+        }
+    }
+
+    /**
+     * Consecutive statements that may run concurrently as far as their
+     * dependencies allow, with the objects they access and their positions in the script.
+     */
+    private static final class IndependentRun {
+        private final List<SqlStatement> statements;
+        private final List<StatementAccess> accesses;
+        private final int[] numbers;
+
+        IndependentRun(int limit) {
+            this.statements = new ArrayList<>(limit);
+            this.accesses = new ArrayList<>(limit);
+            this.numbers = new int[limit];
+        }
+
+        void add(SqlStatement stmt, StatementAccess access, int number) {
+            numbers[statements.size()] = number;
+            statements.add(stmt);
+            accesses.add(access);
+        }
+
+        List<SqlStatement> statements() {
+            return statements;
+        }
+
+        List<StatementAccess> accesses() {
+            return accesses;
+        }
+
+        int number(int index) {
+            return numbers[index];
+        }
+
+        int size() {
+            return statements.size();
+        }
+
+        boolean isEmpty() {
+            return statements.isEmpty();
+        }
+
+        boolean isFull() {
+            return statements.size() == numbers.length;
+        }
+
+        void clear() {
+            statements.clear();
+            accesses.clear();
+        }
+    }
+
+    /**
+     * Consecutive DML statements waiting to be sent as one JDBC batch, with
+     * their positions in the script. Either every statement has the same
+     * parameterized shape or none is parameterized.
+     */
+    private static final class DmlBatch {
+        private final List<String> statements;
+        private final List<List<Object>> parameters;
+        private final int[] numbers;
+        private String shape;
+
+        DmlBatch(int limit) {
+            this.statements = new ArrayList<>(limit);
+            this.parameters = new ArrayList<>(limit);
+            this.numbers = new int[limit];
+        }
+
+        boolean accepts(ParameterizedStatement parameterized) {
+            if (isEmpty()) {
+                return true;
+            }
+            return parameterized == null ? shape == null : parameterized.shape().equals(shape);
+        }
+
+        void add(String sql, ParameterizedStatement parameterized, int statementNumber) {
+            numbers[statements.size()] = statementNumber;
+            statements.add(sql);
+            if (parameterized != null) {
+                shape = parameterized.shape();
+                parameters.add(parameterized.parameters());
+            }
+        }
+
+        List<String> statements() {
+            return statements;
+        }
+
+        String shape() {
+            return shape;
+        }
+
+        List<List<Object>> parameters() {
+            return parameters;
+        }
+
+        int number(int index) {
+            return numbers[index];
+        }
+
+        int size() {
+            return statements.size();
+        }
+
+        boolean isEmpty() {
+            return statements.isEmpty();
+        }
+
+        boolean isFull() {
+            return statements.size() == numbers.length;
+        }
+
+        void clear() {
+            statements.clear();
+            parameters.clear();
+            shape = null;
+        }
+    }
+
+    /**
+     * Sets where the results of queries are printed instead of the result log.
+     *
+     * @param resultOutput Receives each formatted result table
+     */
+    void setResultOutput(Consumer<String> resultOutput) {
+        this.resultOutput = resultOutput;
+    }
+
+    /**
+     * Sets where the rows of the queries of scripts are written instead of
+     * being printed as tables.
+     *
+     * @param resultSink Opens the handler for the rows of each query
+     */
+    void setResultSink(ResultSink resultSink) {
+        this.resultSink = resultSink;
+    }
+
     /**
      * Gets the database context.
      *
@@ -344,6 +1251,9 @@ public class UnifiedDatabaseOperation implements AutoCloseable {
     
     @Override
     public void close() throws Exception {
+        if (context.getStatementCache().getMode() == StatementCache.Mode.CLIENT) {
+            logger.info("{}", context.getStatementCache().getStats());
+        }
         context.close();
         logger.debug("UnifiedDatabaseOperation closed");
     }
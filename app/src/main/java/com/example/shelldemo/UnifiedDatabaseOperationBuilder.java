@@ -1,7 +1,9 @@
 package com.example.shelldemo;
 
+import java.nio.file.Path;
 import java.sql.Connection;
 import java.util.Objects;
+import java.util.function.Consumer;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -9,10 +11,16 @@ import org.apache.logging.log4j.Logger;
 import com.example.shelldemo.config.ConfigHolderAdapter;
 import com.example.shelldemo.config.ConfigurationService;
 import com.example.shelldemo.config.DatabaseConfig;
+import com.example.shelldemo.config.ScriptExecutionOptions;
+import com.example.shelldemo.connection.ConnectionConfig;
+import com.example.shelldemo.connection.ConnectionPool;
+import com.example.shelldemo.connection.PoolRegistry;
 import com.example.shelldemo.context.DatabaseContext;
 import com.example.shelldemo.exception.DatabaseException;
 import com.example.shelldemo.exception.DatabaseException.ErrorType;
 import com.example.shelldemo.spi.DatabaseVendor;
+import com.example.shelldemo.sqlhandling.ResultSink;
+import com.example.shelldemo.transaction.CommitPolicy;
 
 /**
  * Builder for UnifiedDatabaseOperation instances.
@@ -29,9 +37,26 @@ public class UnifiedDatabaseOperationBuilder {
     private String serviceName;
     private String connectionType;
     private Connection existingConnection;
+    private ConnectionPool existingPool;
+    private PoolRegistry poolRegistry;
+    private Consumer<String> resultOutput;
+    private ResultSink resultSink;
     private ConfigurationService configService;
     private DatabaseVendor vendor;
     private boolean transactional = false;
+    private CommitPolicy commitPolicy = CommitPolicy.perStatement();
+    private boolean stopOnError = true;
+    private int pipelineCapacity = 0;
+    private Path parseCacheDirectory;
+    private long parseCacheMaxBytes;
+    private int batchSize = 0;
+    private boolean bindLiterals = false;
+    private int statementCacheSize = 0;
+    private boolean driverStatementCache = false;
+    private int parallelism = 1;
+    private boolean parallelDml = false;
+    private Path journalFile;
+    private boolean resume = false;
 
     /**
      * Sets the database host.
@@ -121,6 +146,56 @@ public class UnifiedDatabaseOperationBuilder {
         return this;
     }
     
+    /**
+     * Sets an existing connection pool to use instead of creating a new one.
+     * Unless a connection is set as well, the operation's connection is borrowed
+     * from the pool. The pool is closed when the operation is closed.
+     *
+     * @param connectionPool The existing connection pool
+     * @return This builder
+     */
+    public UnifiedDatabaseOperationBuilder connectionPool(ConnectionPool connectionPool) {
+        this.existingPool = connectionPool;
+        return this;
+    }
+
+    /**
+     * Borrows the operation's connections from the registry's pool of the
+     * database instead of opening a pool of its own. The pool stays open when
+     * the operation is closed.
+     *
+     * @param poolRegistry The registry of pools kept open
+     * @return This builder
+     */
+    public UnifiedDatabaseOperationBuilder poolRegistry(PoolRegistry poolRegistry) {
+        this.poolRegistry = poolRegistry;
+        return this;
+    }
+
+    /**
+     * Sets where the operation prints the results of queries, instead of the
+     * result log.
+     *
+     * @param resultOutput Receives each formatted result table
+     * @return This builder
+     */
+    public UnifiedDatabaseOperationBuilder resultOutput(Consumer<String> resultOutput) {
+        this.resultOutput = resultOutput;
+        return this;
+    }
+
+    /**
+     * Sets where the operation writes the rows of the queries of scripts,
+     * such as CSV files, instead of printing them as tables.
+     *
+     * @param resultSink Opens the handler for the rows of each query
+     * @return This builder
+     */
+    public UnifiedDatabaseOperationBuilder resultSink(ResultSink resultSink) {
+        this.resultSink = resultSink;
+        return this;
+    }
+    
     /**
      * Sets a custom configuration service.
      *
@@ -154,6 +229,132 @@ public class UnifiedDatabaseOperationBuilder {
         return this;
     }
     
+    /**
+     * Sets where a transactional script commits its DML: after every statement,
+     * every N statements, every interval or once for the whole script.
+     *
+     * @param commitPolicy The commit policy
+     * @return This builder
+     */
+    public UnifiedDatabaseOperationBuilder commitPolicy(CommitPolicy commitPolicy) {
+        this.commitPolicy = commitPolicy;
+        return this;
+    }
+    
+    /**
+     * Sets whether script execution stops at the first failing statement.
+     *
+     * @param stopOnError Whether to stop on the first error
+     * @return This builder
+     */
+    public UnifiedDatabaseOperationBuilder stopOnError(boolean stopOnError) {
+        this.stopOnError = stopOnError;
+        return this;
+    }
+    
+    /**
+     * Sets the number of statements parsed ahead of execution on a separate thread.
+     * Zero parses each statement inline just before it is executed.
+     *
+     * @param pipelineCapacity The parse-ahead queue capacity
+     * @return This builder
+     */
+    public UnifiedDatabaseOperationBuilder pipelineCapacity(int pipelineCapacity) {
+        this.pipelineCapacity = pipelineCapacity;
+        return this;
+    }
+    
+    /**
+     * Enables the on-disk cache of parsed scripts.
+     *
+     * @param directory The cache directory
+     * @param maxBytes The maximum total size of the cache
+     * @return This builder
+     */
+    public UnifiedDatabaseOperationBuilder parseCache(Path directory, long maxBytes) {
+        this.parseCacheDirectory = directory;
+        this.parseCacheMaxBytes = maxBytes;
+        return this;
+    }
+    
+    /**
+     * Sets the maximum number of consecutive DML statements sent as one JDBC batch.
+     * Zero or one executes every statement on its own.
+     *
+     * @param batchSize The batch size
+     * @return This builder
+     */
+    public UnifiedDatabaseOperationBuilder batchSize(int batchSize) {
+        this.batchSize = batchSize;
+        return this;
+    }
+    
+    /**
+     * Sets whether literals of INSERT, UPDATE and DELETE statements are sent as
+     * bind parameters, so that statements differing only in their literals share
+     * one prepared statement.
+     *
+     * @param bindLiterals Whether to bind literals
+     * @return This builder
+     */
+    public UnifiedDatabaseOperationBuilder bindLiterals(boolean bindLiterals) {
+        this.bindLiterals = bindLiterals;
+        return this;
+    }
+    
+    /**
+     * Sets the size of the per-connection prepared statement cache. Zero closes
+     * every statement after use.
+     *
+     * @param size The maximum number of cached statements
+     * @param useDriverCache Whether to enable the JDBC driver's own statement cache
+     *                       instead when the vendor supports it
+     * @return This builder
+     */
+    public UnifiedDatabaseOperationBuilder statementCache(int size, boolean useDriverCache) {
+        this.statementCacheSize = size;
+        this.driverStatementCache = useDriverCache;
+        return this;
+    }
+    
+    /**
+     * Sets the maximum number of independent statements run at once, each on its
+     * own pooled connection. One runs every statement on the operation's connection.
+     *
+     * @param parallelism The number of lanes
+     * @return This builder
+     */
+    public UnifiedDatabaseOperationBuilder parallelism(int parallelism) {
+        this.parallelism = parallelism;
+        return this;
+    }
+    
+    /**
+     * Sets whether consecutive DML statements are independent of each other and
+     * may run concurrently when the parallelism is greater than one.
+     *
+     * @param parallelDml Whether DML statements are independent
+     * @return This builder
+     */
+    public UnifiedDatabaseOperationBuilder parallelDml(boolean parallelDml) {
+        this.parallelDml = parallelDml;
+        return this;
+    }
+    
+    /**
+     * Journals committed progress of scripts to the given file. When resuming,
+     * the statements the journal records as committed are skipped.
+     *
+     * @param journalFile The journal file
+     * @param resume Whether to resume after the last checkpoint in the journal
+     * @return This builder
+     */
+    public UnifiedDatabaseOperationBuilder journal(Path journalFile, boolean resume) {
+        this.journalFile = journalFile;
+        this.resume = resume;
+        return this;
+    }
+    
     /**
      * Builds a UnifiedDatabaseOperation2.
      *
@@ -175,7 +376,30 @@ public class UnifiedDatabaseOperationBuilder {
             if (configService == null) {
                 configService = new ConfigHolderAdapter();
             }
-            if (existingConnection == null) {
+            ScriptExecutionOptions.Builder optionsBuilder = ScriptExecutionOptions.builder()
+                .transactional(transactional)
+                .commitPolicy(commitPolicy)
+                .stopOnError(stopOnError)
+                .pipelineCapacity(pipelineCapacity)
+                .batchSize(batchSize)
+                .bindLiterals(bindLiterals)
+                .statementCacheSize(statementCacheSize)
+                .driverStatementCache(driverStatementCache)
+                .parallelism(parallelism)
+                .parallelDml(parallelDml)
+                .journalFile(journalFile)
+                .resume(resume);
+            if (parseCacheDirectory != null) {
+                optionsBuilder.parseCacheDirectory(parseCacheDirectory).parseCacheMaxBytes(parseCacheMaxBytes);
+            }
+            ScriptExecutionOptions options = optionsBuilder.build();
+            boolean sharedPool = false;
+            if (existingConnection == null && existingPool == null && poolRegistry != null) {
+                existingPool = poolRegistry.poolFor(new ConnectionConfig(host, port, username, password, serviceName,
+                    dbType, connectionType), options.parallelism() + 1);
+                sharedPool = true;
+            }
+            if (existingConnection == null && existingPool == null) {
                 try {
                     DatabaseConfig config = new DatabaseConfig(
                         dbType,
@@ -186,7 +410,11 @@ public class UnifiedDatabaseOperationBuilder {
                         password,
                         connectionType
                     );
-                    UnifiedDatabaseOperation op = UnifiedDatabaseOperation.create(config, vendor, transactional);
+                    UnifiedDatabaseOperation op = UnifiedDatabaseOperation.create(config, vendor, options);
+                    if (resultOutput != null) {
+                        op.setResultOutput(resultOutput);
+                    }
+                    op.setResultSink(resultSink);
                     logger.debug("Exiting UnifiedDatabaseOperationBuilder.build() with operation: {}", op);
                     return op;
                 } catch (Exception e) {
@@ -195,13 +423,24 @@ public class UnifiedDatabaseOperationBuilder {
                 }
             } else {
                 Objects.requireNonNull(dbType, "Database type is required");
-                DatabaseContext context = new DatabaseContext.Builder()
-                    .connection(existingConnection)
+                DatabaseContext.Builder contextBuilder = new DatabaseContext.Builder()
+                    .connection(existingConnection != null ? existingConnection : existingPool.getConnection());
+                if (sharedPool) {
+                    contextBuilder.sharedConnectionPool(existingPool);
+                } else {
+                    contextBuilder.connectionPool(existingPool);
+                }
+                DatabaseContext context = contextBuilder
                     .dbType(dbType)
                     .vendor(vendor)
                     .configService(configService)
+                    .statementCache(options.statementCacheSize(), options.driverStatementCache())
                     .build();
-                UnifiedDatabaseOperation op = new UnifiedDatabaseOperation(context, vendor, transactional);
+                UnifiedDatabaseOperation op = new UnifiedDatabaseOperation(context, vendor, options);
+                if (resultOutput != null) {
+                    op.setResultOutput(resultOutput);
+                }
+                op.setResultSink(resultSink);
                 logger.debug("Exiting UnifiedDatabaseOperationBuilder.build() with operation: {}", op);
                 return op;
             }
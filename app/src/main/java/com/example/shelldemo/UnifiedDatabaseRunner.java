@@ -1,6 +1,7 @@
 package com.example.shelldemo;
 
 import java.io.File;
+import java.io.PrintWriter;
 import java.util.concurrent.Callable;
 import java.util.Scanner;
 import java.io.Console;
@@ -26,9 +27,34 @@ import com.example.shelldemo.vault.exception.VaultException;
 import com.example.shelldemo.validate.DatabaserOperationValidator;
 import com.example.shelldemo.parser.SqlScriptParser;
 import com.example.shelldemo.parser.SqlScriptParser.ProcedureParam;
+import com.example.shelldemo.transaction.CommitPolicy;
+import com.example.shelldemo.deploy.DeploymentPlan;
+import com.example.shelldemo.deploy.DeploymentReport;
+import com.example.shelldemo.connection.PoolRegistry;
+import com.example.shelldemo.daemon.CredentialCache;
+import com.example.shelldemo.daemon.ServeCommand;
+import com.example.shelldemo.fanout.FanOutExecutor;
+import com.example.shelldemo.fanout.FanOutReport;
+import com.example.shelldemo.fanout.TargetList;
+import com.example.shelldemo.parser.ConcurrentSqlParser;
+import com.example.shelldemo.parser.SqlStatement;
+import com.example.shelldemo.spi.DatabaseVendor;
+import com.example.shelldemo.spi.VendorRegistry;
+import com.example.shelldemo.export.ArrowResultSink;
+import com.example.shelldemo.export.ChannelRowWriter;
+import com.example.shelldemo.export.FormatResultSink;
+import com.example.shelldemo.export.ResultWriterFormat;
+import com.example.shelldemo.export.ResultWriterRegistry;
+import com.example.shelldemo.export.WriterSettings;
+import com.example.shelldemo.export.CsvResultSink;
+import com.example.shelldemo.export.PartitionedExport;
+import com.example.shelldemo.sqlhandling.ResultSink;
 
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.nio.file.Path;
 
 @Command(name = "db", mixinStandardHelpOptions = true, version = "1.0",description = "Unified Database CLI Tool")
 public class UnifiedDatabaseRunner implements Callable<Integer> {
@@ -36,6 +62,35 @@ public class UnifiedDatabaseRunner implements Callable<Integer> {
      private static final Logger resultLogger = LogManager.getLogger("com.example.shelldemo.resultset");
 
     private static final String ERROR_PREFIX = "ERROR: ";
+    private static final String STDOUT = "-";
+
+    /**
+     * Where a command runs: standalone, or as a request of the daemon with the
+     * client's working directory and output and the daemon's warm resources.
+     *
+     * @param workingDirectory Directory relative paths resolve against, or null for the process's
+     * @param output Receives results, such as query tables and reports
+     * @param errors Receives error messages for the user
+     * @param interactive Whether a missing password may be prompted for, and
+     *        rows may be written to the process's standard output
+     * @param pools Connection pools kept open across commands, or null to open a pool per command
+     * @param credentials Passwords fetched from Vault by earlier commands, or null to fetch them every time
+     */
+    public record Session(Path workingDirectory, Consumer<String> output, PrintWriter errors, boolean interactive,
+            PoolRegistry pools, CredentialCache credentials) {
+
+        /**
+         * A command run by itself from the command line.
+         *
+         * @return The session
+         */
+        public static Session standalone() {
+            return new Session(null, text -> resultLogger.info("\n" + text), new PrintWriter(System.err, true),
+                true, null, null);
+        }
+    }
+
+    private final Session session;
     
     @Option(names = {"-t", "--type"}, required = true,description = "Database type (oracle, sqlserver, postgresql, mysql)")
     private String dbType;
@@ -58,10 +113,10 @@ public class UnifiedDatabaseRunner implements Callable<Integer> {
     @Option(names = {"-p", "--password"}, description = "Database password")
     private String password;
 
-    @Option(names = {"-d", "--database"}, required = true, description = "Database name")
+    @Option(names = {"-d", "--database"}, description = "Database name (required unless --targets is given)")
     private String database;
 
-    @Option(names = {"--stop-on-error"}, defaultValue = "true",description = "Stop execution on error")
+    @Option(names = {"--stop-on-error"}, negatable = true, defaultValue = "true",description = "Stop execution on error (use --no-stop-on-error to continue past failing statements)")
     private boolean stopOnError;
 
     @Option(names = {"--auto-commit"}, defaultValue = "false",description = "Auto-commit mode")
@@ -70,7 +125,7 @@ public class UnifiedDatabaseRunner implements Callable<Integer> {
     @Option(names = {"--print-statements"}, defaultValue = "false",description = "Print SQL statements")
     private boolean printStatements;
 
-    @Parameters(index = "0", paramLabel = "TARGET", description = "SQL script file or stored procedure name", arity = "0..1")
+    @Parameters(index = "0", paramLabel = "TARGET", description = "SQL script file, deployment directory or .manifest file, or stored procedure name", arity = "0..1")
     private String target;
 
     @Option(names = {"--function"}, description = "Execute as function")
@@ -91,9 +146,42 @@ public class UnifiedDatabaseRunner implements Callable<Integer> {
     @Option(names = {"--driver-path"}, description = "Path to JDBC driver JAR file")
     private String driverPath;
 
-    @Option(names = {"--csv-output"}, description = "Output file for CSV format (if query results exist)")
+    @Option(names = {"--csv-output"}, description = "Write the rows of queries to this CSV file instead of printing them; later queries of the script write to FILE-q2.csv and so on")
     private String csvOutputFile;
 
+    @Option(names = {"--csv-roll-rows"}, defaultValue = "0", description = "Start a new numbered --csv-output file after N rows (default: 0, no limit)")
+    private long csvRollRows;
+
+    @Option(names = {"--csv-roll-mb"}, defaultValue = "0", description = "Start a new numbered --csv-output file after N megabytes (default: 0, no limit)")
+    private long csvRollMegabytes;
+
+    @Option(names = {"--arrow-output"}, description = "Write the rows of queries to this file in the Arrow IPC file format instead of printing them, or in the streaming format for a *.arrows file or - (standard output); later queries of the script write to FILE-q2.arrow and so on")
+    private String arrowOutputFile;
+
+    @Option(names = {"--arrow-batch-rows"}, defaultValue = "65536", description = "Rows per record batch of --arrow-output (default: 65536)")
+    private int arrowBatchRows;
+
+    @Option(names = {"--arrow-batch-mb"}, defaultValue = "64", description = "Megabytes per record batch of --arrow-output, at most 1024 (default: 64)")
+    private long arrowBatchMegabytes;
+
+    @Option(names = {"--output-format"}, description = "Write the rows of queries to --output-file in this format instead of printing them: jsonl (JSON Lines), sql (INSERT statements) or a format added to the class path")
+    private String outputFormat;
+
+    @Option(names = {"--output-file"}, description = "File of --output-format, or - (standard output); later queries of the script write to FILE-q2.jsonl and so on")
+    private String outputFormatFile;
+
+    @Option(names = {"--insert-table"}, description = "Table the INSERT statements of --output-format sql insert into")
+    private String insertTable;
+
+    @Option(names = {"--insert-batch-rows"}, defaultValue = "100", description = "Rows per INSERT statement of --output-format sql, as far as the database allows (default: 100)")
+    private int insertBatchRows;
+
+    @Option(names = {"--export-partitions"}, defaultValue = "0", description = "Export the single query of the script to --csv-output in N parts read at once on their own connections, split on --partition-column, with a manifest listing the parts (default: 0, no partitioning)")
+    private int exportPartitions;
+
+    @Option(names = {"--partition-column"}, description = "Numeric column of the query's result that --export-partitions splits into even ranges")
+    private String partitionColumn;
+
     @Option(names = {"--pre-flight"}, description = "Validate statements without executing them")
     private boolean preFlight;
 
@@ -103,6 +191,54 @@ public class UnifiedDatabaseRunner implements Callable<Integer> {
     @Option(names = {"--transactional"}, defaultValue = "false", description = "Execute DML statements in a transaction (default: false)")
     private boolean transactional;
 
+    @Option(names = {"--commit-every"}, description = "Commit scope of DML with --transactional: statement, script, a statement count (e.g. 500) or an interval (e.g. 250ms, 2s); implies --transactional (default: statement)")
+    private String commitEvery;
+
+    @Option(names = {"--journal"}, description = "Journal committed progress of the script to this file so that it can be resumed with --resume")
+    private String journalFile;
+
+    @Option(names = {"--resume"}, description = "Skip the statements the journal records as committed and continue with the first uncommitted one (journal default: <script>.journal)")
+    private boolean resume;
+
+    @Option(names = {"--pipeline"}, description = "Parse the script on a separate thread while statements execute")
+    private boolean pipeline;
+
+    @Option(names = {"--pipeline-queue-size"}, defaultValue = "256", description = "Maximum number of statements parsed ahead of execution with --pipeline (default: 256)")
+    private int pipelineQueueSize;
+
+    @Option(names = {"--batch-size"}, defaultValue = "0", description = "Send runs of consecutive DML statements as JDBC batches of up to N statements (default: 0, no batching)")
+    private int batchSize;
+
+    @Option(names = {"--bind-literals"}, description = "Send the literals of INSERT/UPDATE/DELETE statements as bind values so statements of the same shape share one prepared statement")
+    private boolean bindLiterals;
+
+    @Option(names = {"--parallelism"}, defaultValue = "1", description = "Run statements that touch unrelated objects on up to N pooled connections at once, each after the statements it depends on; for a deployment directory or manifest, run the scripts of a group on up to N connections (default: 1)")
+    private int parallelism;
+
+    @Option(names = {"--parallel-dml"}, description = "Declare consecutive DML statements independent of each other so that --parallelism applies to them")
+    private boolean parallelDml;
+
+    @Option(names = {"--show-plan"}, description = "Show the stages in which --parallelism would run the script and exit without executing it")
+    private boolean showPlan;
+
+    @Option(names = {"--statement-cache-size"}, description = "Number of prepared statements kept open per connection, 0 to disable (default: statement-cache.size in application.yaml)")
+    private Integer statementCacheSize;
+
+    @Option(names = {"--driver-statement-cache"}, description = "Let the JDBC driver cache prepared statements where supported instead of the built-in cache")
+    private boolean driverStatementCache;
+
+    @Option(names = {"--parse-cache"}, description = "Cache parsed scripts on disk and reuse them when the script content is unchanged")
+    private boolean parseCache;
+
+    @Option(names = {"--parse-cache-dir"}, description = "Directory for the parsed-script cache (default: parser.cache.directory in application.yaml)")
+    private String parseCacheDir;
+
+    @Option(names = {"--targets"}, description = "Run the script file against every database listed in this file, or in this group of the targets section of application.yaml; the script is parsed once and unlisted connection values default to the options given")
+    private String targets;
+
+    @Option(names = {"--target-concurrency"}, defaultValue = "4", description = "Maximum number of --targets databases the script runs on at once (default: 4)")
+    private int targetConcurrency;
+
     @Option(names = {"--show-connect-string"}, description = "Show the generated JDBC connection string and exit")
     private boolean showConnectString;
 
@@ -118,6 +254,58 @@ public class UnifiedDatabaseRunner implements Callable<Integer> {
     @Option(names = {"--vault-ait"}, description = "Vault AIT")
     private String vaultAit;
 
+    /**
+     * Creates a runner for a command run from the command line.
+     */
+    public UnifiedDatabaseRunner() {
+        this(Session.standalone());
+    }
+
+    /**
+     * Creates a runner for a command run in the given session.
+     *
+     * @param session The session
+     */
+    public UnifiedDatabaseRunner(Session session) {
+        this.session = session;
+    }
+
+    /**
+     * Runs one command line in a session.
+     *
+     * @param session The session
+     * @param out Standard output for help and usage messages
+     * @param err Standard error for help and usage messages
+     * @param args The command-line arguments
+     * @return The exit code
+     */
+    public static int execute(Session session, PrintWriter out, PrintWriter err, String... args) {
+        return new CommandLine(new UnifiedDatabaseRunner(session)).setOut(out).setErr(err).execute(args);
+    }
+
+    /**
+     * Names the database a command line runs against, for limiting the
+     * commands that run against one database at once.
+     *
+     * @param args The command-line arguments
+     * @return dbType://host:port/database, dbType://host:port?type=connectionType
+     *         without a database, or targets:FILE for a command run with --targets
+     * @throws CommandLine.ParameterException if the arguments are not a valid command line
+     */
+    public static String databaseKey(String... args) {
+        UnifiedDatabaseRunner runner = new UnifiedDatabaseRunner(Session.standalone());
+        new CommandLine(runner).parseArgs(args);
+        if (runner.targets != null) {
+            return "targets:" + runner.targets;
+        }
+        String key = runner.dbType.toLowerCase() + "://" + (runner.host != null ? runner.host : "")
+            + (runner.port > 0 ? ":" + runner.port : "");
+        if (runner.database != null && !runner.database.isEmpty()) {
+            return key + "/" + runner.database;
+        }
+        return runner.connectionType != null ? key + "?type=" + runner.connectionType.toLowerCase() : key;
+    }
+
     @Override
     public Integer call() throws DatabaseOperationException {
         logger.debug("Entering call()");
@@ -138,18 +326,27 @@ public class UnifiedDatabaseRunner implements Callable<Integer> {
                 return 2;
             }
 
+            if (targets != null) {
+                return runFanOut();
+            }
+
+            if (database == null || database.isEmpty()) {
+                logger.error("-d/--database is required unless --targets is given");
+                return 2;
+            }
+
             if (!setupPassword()) {
                 return 2;
             }
 
-            if (!validateOracleConnection()) {
+            if (!validateOracleConnection(host)) {
                 return 2;
             }
             logger.info("Starting database operation - type: {}, target: {}", dbType, target);
             result = runDatabaseOperation();
         } catch (DatabaseOperationException e) {
             logger.error("Database operation failed: {}", e.getMessage(), e);
-            System.err.println(ERROR_PREFIX + extractOraError(e));
+            session.errors().println(ERROR_PREFIX + extractOraError(e));
             result = 1;
         } catch (IllegalArgumentException | IllegalStateException e) {
             logger.error("Invalid operation parameters: {}", e.getMessage(), e);
@@ -207,7 +404,7 @@ public class UnifiedDatabaseRunner implements Callable<Integer> {
             return false;
         }
         try {
-            password = fetchPasswordFromVaultWithParams(vaultBaseUrl, vaultRoleId, vaultSecretId, vaultAit);
+            password = fetchPasswordFromVaultWithParams(vaultBaseUrl, vaultRoleId, vaultSecretId, vaultAit, database, username);
             return true;
         } catch (VaultOperationException e) {
             logger.error("handleVaultSecret Failed to fetch password from Vault: {}", e.getMessage());
@@ -246,7 +443,9 @@ public class UnifiedDatabaseRunner implements Callable<Integer> {
                 (String) vault.get("base-url"),
                 (String) vault.get("role-id"),
                 (String) vault.get("secret-id"),
-                (String) vault.get("ait")
+                (String) vault.get("ait"),
+                database,
+                username
             );
             if (password != null && !password.isEmpty()) {
                 logger.debug("Successfully fetched password from Vault for user: {}", username);
@@ -258,21 +457,59 @@ public class UnifiedDatabaseRunner implements Callable<Integer> {
         return false;
     }
 
-    private String fetchPasswordFromVaultWithParams(String baseUrl, String roleId, String secretId, String ait) throws VaultOperationException {
-        String dbName = database;
+    private String fetchPasswordFromVaultWithParams(String baseUrl, String roleId, String secretId, String ait,
+            String dbName, String dbUser) throws VaultOperationException {
         if (baseUrl == null || dbName == null || roleId == null || secretId == null || ait == null) {
             throw new VaultOperationException("Missing required Vault configuration parameters", null, secretId);
         }
-        try {
+        if (session.credentials() != null) {
+            return session.credentials().get(List.of(baseUrl, roleId, secretId, dbName, ait, String.valueOf(dbUser)),
+                () -> fetchPasswordFromVault(baseUrl, roleId, secretId, ait, dbName, dbUser));
+        }
+        return fetchPasswordFromVault(baseUrl, roleId, secretId, ait, dbName, dbUser);
+    }
 
-            
-            return new VaultSecretFetcherBuilder().build().fetchOraclePassword( baseUrl, roleId, secretId, dbName, ait, username);
+    private static String fetchPasswordFromVault(String baseUrl, String roleId, String secretId, String ait,
+            String dbName, String dbUser) throws VaultOperationException {
+        try {
+            return new VaultSecretFetcherBuilder().build().fetchOraclePassword( baseUrl, roleId, secretId, dbName, ait, dbUser);
         } catch (VaultException e) {
             throw new VaultOperationException("Failed to fetch password from Vault: " + e.getMessage(), e, secretId);
         }
     }
 
-    private boolean validateOracleConnection() {
+    /**
+     * Fetches the password of one of several targets: the password or Vault
+     * secret given, else the Vault configuration of the target's user, else a
+     * password prompted for once and used for every such target.
+     */
+    private String passwordFor(TargetList.Target target) {
+        if (isPasswordProvided()) {
+            return password;
+        }
+        if (isVaultSecretProvided()) {
+            return fetchPasswordFromVaultWithParams(vaultBaseUrl, vaultRoleId, vaultSecretId, vaultAit,
+                target.database(), target.username());
+        }
+        var matchingVault = ConfigurationHolder.getInstance().getVaultConfigs().stream()
+            .filter(vault -> target.username().equals(vault.get("id")))
+            .findFirst();
+        if (matchingVault.isPresent()) {
+            Map<String, Object> vault = matchingVault.get();
+            return fetchPasswordFromVaultWithParams((String) vault.get("base-url"), (String) vault.get("role-id"),
+                (String) vault.get("secret-id"), (String) vault.get("ait"), target.database(), target.username());
+        }
+        return promptedPassword();
+    }
+
+    private synchronized String promptedPassword() {
+        if (password == null) {
+            password = promptForPassword();
+        }
+        return password;
+    }
+
+    private boolean validateOracleConnection(String host) {
         if (!"oracle".equalsIgnoreCase(dbType)) {
             return true;
         }
@@ -317,6 +554,11 @@ public class UnifiedDatabaseRunner implements Callable<Integer> {
 
     private String promptForPassword() {
         logger.debug("Entering promptForPassword()");
+        if (!session.interactive()) {
+            logger.error("No password given or found in Vault, and the daemon cannot prompt for one");
+            session.errors().println(ERROR_PREFIX + "No password given or found in Vault for user " + username);
+            return "";
+        }
         System.out.print("Enter database password: ");
         Console console = System.console();
         if (console != null) {
@@ -382,31 +624,165 @@ public class UnifiedDatabaseRunner implements Callable<Integer> {
         return null;
     }
     
-    private int runDatabaseOperation() {
-        logger.debug("Entering runDatabaseOperation()");
-        try (UnifiedDatabaseOperation operation = new UnifiedDatabaseOperationBuilder()
-                .host(host)
-                .port(port)
-                .username(username)
-                .password(password)
+    private UnifiedDatabaseOperationBuilder configureParseCache(UnifiedDatabaseOperationBuilder builder) {
+        if (!parseCache) {
+            return builder;
+        }
+        ConfigurationHolder config = ConfigurationHolder.getInstance();
+        String directory = parseCacheDir != null ? parseCacheDir : config.getParseCacheDirectory();
+        logger.debug("Using parsed-script cache in {}", directory);
+        return builder.parseCache(resolve(directory).toPath(), config.getParseCacheMaxBytes());
+    }
+
+    private UnifiedDatabaseOperationBuilder operationBuilder(String dbHost, int dbPort, String dbUser,
+            String dbPassword, String dbName) {
+        return configureParseCache(new UnifiedDatabaseOperationBuilder())
+                .host(dbHost)
+                .port(dbPort)
+                .username(dbUser)
+                .password(dbPassword)
                 .dbType(dbType)
-                .serviceName(database)
+                .serviceName(dbName)
                 .connectionType(connectionType)
-                .transactional(transactional)
+                .poolRegistry(session.pools())
+                .resultOutput(session.output())
+                .transactional(transactional || commitEvery != null)
+                .commitPolicy(commitEvery != null ? CommitPolicy.parse(commitEvery) : CommitPolicy.perStatement())
+                .stopOnError(stopOnError)
+                .pipelineCapacity(pipeline ? pipelineQueueSize : 0)
+                .batchSize(batchSize)
+                .bindLiterals(bindLiterals)
+                .parallelism(parallelism)
+                .parallelDml(parallelDml)
+                .statementCache(
+                    statementCacheSize != null ? statementCacheSize : ConfigurationHolder.getInstance().getStatementCacheSize(),
+                    driverStatementCache || ConfigurationHolder.getInstance().isDriverStatementCacheEnabled());
+    }
+
+    /**
+     * Runs the script against every database of --targets, fetching their
+     * credentials concurrently, and prints each target's output followed by a
+     * summary of all of them.
+     */
+    private int runFanOut() {
+        logger.debug("Entering runFanOut()");
+        File scriptFile = resolve(target);
+        if (!scriptFile.isFile() || DeploymentPlan.isDeployment(scriptFile.toPath())) {
+            logger.error("--targets runs a single script file: {}", target);
+            session.errors().println(ERROR_PREFIX + "--targets runs a single script file: " + target);
+            return 2;
+        }
+        if (journalFile != null || resume) {
+            logger.error("A journal records a single database and cannot be used with --targets");
+            return 2;
+        }
+        if (csvOutputFile != null || arrowOutputFile != null || outputFormat != null) {
+            logger.error("--csv-output, --arrow-output and --output-format write the results of a single database and cannot be used with --targets");
+            session.errors().println(ERROR_PREFIX + "--csv-output, --arrow-output and --output-format cannot be used with --targets");
+            return 2;
+        }
+        if (isVaultSecretProvided() && !areVaultParamsValid()) {
+            logger.error("If --secret is provided, --vault-url, --vault-role-id, and --vault-ait must also be provided.");
+            return 2;
+        }
+        File targetsFile = resolve(targets);
+        TargetList targetList = TargetList.of(targetsFile.isFile() ? targetsFile.getPath() : targets, new TargetList.Target(database, database, host, port, username),
+            ConfigurationHolder.getInstance()::getTargetGroup);
+        for (TargetList.Target entry : targetList.targets()) {
+            if (!validateOracleConnection(entry.host())) {
+                return 2;
+            }
+        }
+        DatabaseVendor vendor = VendorRegistry.getVendor(dbType)
+            .orElseThrow(() -> new IllegalArgumentException("No DatabaseVendor implementation found for type: " + dbType));
+        List<SqlStatement> statements = ConcurrentSqlParser.parseScripts(List.of(scriptFile), vendor).get(scriptFile);
+        FanOutReport report = new FanOutExecutor(
+                this::passwordFor,
+                (entry, entryPassword) -> operationBuilder(entry.host(), entry.port(), entry.username(), entryPassword,
+                    entry.database()).build(),
+                targetConcurrency)
+            .execute(scriptFile, statements, targetList, session.output());
+        session.output().accept(report.format());
+        return report.succeeded() ? 0 : 1;
+    }
+
+    /**
+     * Resolves a path of the command line against the session's working directory.
+     */
+    private File resolve(String path) {
+        return session.workingDirectory() != null ? session.workingDirectory().resolve(path).toFile() : new File(path);
+    }
+
+    /**
+     * The sink of the query results of a run: a file of --csv-output,
+     * --arrow-output or --output-format, or none to print them.
+     */
+    private ResultSink resultSink() {
+        if (csvOutputFile != null) {
+            return new CsvResultSink(resolve(csvOutputFile).toPath(), csvRollRows, csvRollMegabytes * 1024 * 1024);
+        }
+        if (arrowOutputFile != null) {
+            return new ArrowResultSink(STDOUT.equals(arrowOutputFile) ? null : resolve(arrowOutputFile).toPath(),
+                arrowBatchRows, arrowBatchMegabytes * 1024 * 1024);
+        }
+        if (outputFormat != null) {
+            ResultWriterFormat format = ResultWriterRegistry.getFormat(outputFormat)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown --output-format " + outputFormat
+                    + ", expected one of " + ResultWriterRegistry.getAllFormats().keySet()));
+            return new FormatResultSink(format, STDOUT.equals(outputFormatFile) ? null : resolve(outputFormatFile).toPath(),
+                new WriterSettings(VendorRegistry.getVendor(dbType).orElse(null), insertTable, insertBatchRows,
+                    ChannelRowWriter.DEFAULT_BUFFER_BYTES));
+        }
+        return null;
+    }
+
+    private int runDatabaseOperation() {
+        logger.debug("Entering runDatabaseOperation()");
+        if ((csvOutputFile != null ? 1 : 0) + (arrowOutputFile != null ? 1 : 0) + (outputFormat != null ? 1 : 0) > 1) {
+            logger.error("--csv-output, --arrow-output and --output-format cannot be used together");
+            session.errors().println(ERROR_PREFIX + "--csv-output, --arrow-output and --output-format cannot be used together");
+            return 2;
+        }
+        if (outputFormat != null && outputFormatFile == null) {
+            logger.error("--output-format needs --output-file");
+            session.errors().println(ERROR_PREFIX + "--output-format needs --output-file");
+            return 2;
+        }
+        if (!session.interactive() && (STDOUT.equals(arrowOutputFile) || outputFormat != null && STDOUT.equals(outputFormatFile))) {
+            // Standard output is the daemon's own, not the client's
+            logger.error("Output to standard output (-) is not available to commands run by the daemon");
+            session.errors().println(ERROR_PREFIX + "Output to standard output (-) is not available to commands run by the daemon; write to a file instead");
+            return 2;
+        }
+        if (exportPartitions > 0 && (csvOutputFile == null || partitionColumn == null)) {
+            logger.error("--export-partitions needs --csv-output and --partition-column");
+            session.errors().println(ERROR_PREFIX + "--export-partitions needs --csv-output and --partition-column");
+            return 2;
+        }
+        try (UnifiedDatabaseOperation operation = operationBuilder(host, port, username, password, database)
+                // Every part of a partitioned export reads on a connection of its own
+                .parallelism(Math.max(parallelism, exportPartitions))
+                .journal(journalFile != null ? resolve(journalFile).toPath() : resume ? resolve(target + ".journal").toPath() : null, resume)
+                .resultSink(resultSink())
                 .build()
             ) {
-            File scriptFile = new File(target);
+            File scriptFile = resolve(target);
 
-            if (scriptFile.isDirectory()) {
-                logger.error("Target '{}' is a directory, expected a file or procedure name", target);
-                System.err.println(ERROR_PREFIX + "Target is a directory, expected a file or procedure name.");
-                return 2;
+            if (DeploymentPlan.isDeployment(scriptFile.toPath())) {
+                DeploymentPlan plan = DeploymentPlan.of(scriptFile.toPath());
+                if (showPlan) {
+                    session.output().accept(plan.describe());
+                    return 0;
+                }
+                DeploymentReport report = operation.executeDeployment(plan);
+                session.output().accept(report.format());
+                return report.succeeded() ? 0 : 1;
             }
 
             if (!scriptFile.exists()) {
                 if (target.contains("/") || target.contains("\\")) {
                     logger.error("File not found: {}", target);
-                    System.err.println(ERROR_PREFIX + "File not found: " + target);
+                    session.errors().println(ERROR_PREFIX + "File not found: " + target);
                     return 2;
                 }
                 logger.debug("Executing as stored procedure: {}", target);
@@ -421,7 +797,21 @@ public class UnifiedDatabaseRunner implements Callable<Integer> {
                     }
                 }
                 Map<String, Object> result = operation.callStoredProcedure(target, inParams, outParams);
-                resultLogger.info("p_outmsg: {}", result.get("p_outmsg"));
+                session.output().accept("p_outmsg: " + result.get("p_outmsg"));
+                return 0;
+            }
+
+            if (exportPartitions > 0) {
+                Path csvFile = resolve(csvOutputFile).toPath();
+                PartitionedExport.Manifest manifest = operation.exportPartitioned(scriptFile, new PartitionedExport(
+                    partitionColumn, exportPartitions, csvFile, csvRollRows, csvRollMegabytes * 1024 * 1024));
+                session.output().accept("Exported " + manifest.rows() + " rows in " + manifest.parts().size()
+                    + " parts, listed in " + PartitionedExport.manifestFile(csvFile));
+                return 0;
+            }
+
+            if (showPlan) {
+                session.output().accept(operation.describePlan(scriptFile));
                 return 0;
             }
 
@@ -440,15 +830,15 @@ public class UnifiedDatabaseRunner implements Callable<Integer> {
             return 0;
         } catch (DatabaseOperationException e) {
             logger.error("Database operation failed: {}", e.getMessage(), e);
-            System.err.println(ERROR_PREFIX + extractOraError(e));
+            session.errors().println(ERROR_PREFIX + extractOraError(e));
             return 1;
         } catch (IllegalArgumentException | IllegalStateException e) {
             logger.error("Invalid operation parameters: {}", e.getMessage(), e);
-            System.err.println(ERROR_PREFIX + e.getMessage());
+            session.errors().println(ERROR_PREFIX + e.getMessage());
             return 2;
         } catch (Exception e) {
             logger.error("Unexpected error: {}", e.getMessage(), e);
-            System.err.println(ERROR_PREFIX + extractOraError(e));
+            session.errors().println(ERROR_PREFIX + extractOraError(e));
             return 3;
         } finally {
             logger.debug("Exiting runDatabaseOperation() with result: {}", 0);
@@ -459,6 +849,23 @@ public class UnifiedDatabaseRunner implements Callable<Integer> {
 
   
 
+    /**
+     * Whether the command line writes query results to standard output as
+     * Arrow or another format, which is read before the options are parsed to
+     * direct the log.
+     */
+    static boolean writesResultsToStandardOutput(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            for (String option : List.of("--arrow-output", "--output-file")) {
+                if (args[i].equals(option + "=" + STDOUT)
+                        || args[i].equals(option) && i + 1 < args.length && args[i + 1].equals(STDOUT)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     public static void main(String[] args) {
         if (logger.isDebugEnabled()) {
             logger.debug("Entering main with args: {}", Arrays.toString(args));
@@ -467,7 +874,9 @@ public class UnifiedDatabaseRunner implements Callable<Integer> {
         ConfigurationBuilder<BuiltConfiguration> log4jConfigBuilder = ConfigurationBuilderFactory.newConfigurationBuilder();
         
         // Create appenders
-        log4jConfigBuilder.add(log4jConfigBuilder.newAppender("Console", "CONSOLE").addAttribute("target", "SYSTEM_OUT")
+        // Results written to standard output must not be mixed with the log
+        String logTarget = writesResultsToStandardOutput(args) ? "SYSTEM_ERR" : "SYSTEM_OUT";
+        log4jConfigBuilder.add(log4jConfigBuilder.newAppender("Console", "CONSOLE").addAttribute("target", logTarget)
                                                  .add(log4jConfigBuilder.newLayout("PatternLayout")
                                                  .addAttribute("pattern", "%d{HH:mm:ss.SSS} [%t] %-5level %logger{36} - %msg%n")));
         
@@ -481,7 +890,9 @@ public class UnifiedDatabaseRunner implements Callable<Integer> {
         Configurator.initialize(log4jConfigBuilder.build());
         
         logger.debug("Starting UnifiedDatabaseRunner...");
-        int exitCode = new CommandLine(new UnifiedDatabaseRunner()).execute(args);
+        int exitCode = args.length > 0 && ServeCommand.NAME.equals(args[0])
+            ? new CommandLine(new ServeCommand()).execute(Arrays.copyOfRange(args, 1, args.length))
+            : new CommandLine(new UnifiedDatabaseRunner()).execute(args);
         logger.debug("UnifiedDatabaseRunner completed with exit code: {}", exitCode);
         System.exit(exitCode);
         logger.debug("Exiting main");
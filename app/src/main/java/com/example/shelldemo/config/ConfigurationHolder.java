@@ -235,6 +235,139 @@ public enum ConfigurationHolder {
         return springConfig.getOrDefault("application.name", "");
     }
 
+    /**
+     * Returns the directory of the parsed-script cache ('parser.cache.directory'),
+     * defaulting to ~/.db-runner/parse-cache.
+     */
+    public String getParseCacheDirectory() {
+        Object directory = getParseCacheConfig().get("directory");
+        if (directory instanceof String path && !path.isBlank()) {
+            return path.startsWith("~") ? System.getProperty("user.home") + path.substring(1) : path;
+        }
+        return System.getProperty("user.home") + "/.db-runner/parse-cache";
+    }
+
+    /**
+     * Returns the size limit of the parsed-script cache ('parser.cache.max-size-mb') in bytes.
+     */
+    public long getParseCacheMaxBytes() {
+        Object maxSize = getParseCacheConfig().get("max-size-mb");
+        long megabytes = maxSize instanceof Number number ? number.longValue() : 512L;
+        return megabytes * 1024 * 1024;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> getParseCacheConfig() {
+        logger.debug("Getting parsed-script cache configuration");
+        if (config.get("parser") instanceof Map<?, ?> parser
+                && parser.get("cache") instanceof Map<?, ?> cache) {
+            return (Map<String, Object>) cache;
+        }
+        return Collections.emptyMap();
+    }
+
+    /**
+     * Returns the number of prepared statements cached per connection ('statement-cache.size').
+     */
+    public int getStatementCacheSize() {
+        Object size = getStatementCacheConfig().get("size");
+        return size instanceof Number number ? number.intValue() : 64;
+    }
+
+    /**
+     * Returns whether the JDBC driver's statement cache is preferred ('statement-cache.use-driver-cache').
+     */
+    public boolean isDriverStatementCacheEnabled() {
+        return Boolean.TRUE.equals(getStatementCacheConfig().get("use-driver-cache"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> getStatementCacheConfig() {
+        logger.debug("Getting statement cache configuration");
+        if (config.get("statement-cache") instanceof Map<?, ?> cache) {
+            return (Map<String, Object>) cache;
+        }
+        return Collections.emptyMap();
+    }
+
+    /**
+     * Returns the Unix domain socket of the daemon ('daemon.socket'),
+     * defaulting to ~/.db-runner/daemon.sock.
+     */
+    public String getDaemonSocket() {
+        Object socket = getDaemonConfig().get("socket");
+        if (socket instanceof String path && !path.isBlank()) {
+            return path.startsWith("~") ? System.getProperty("user.home") + path.substring(1) : path;
+        }
+        return System.getProperty("user.home") + "/.db-runner/daemon.sock";
+    }
+
+    /**
+     * Returns how long the daemon reuses a password fetched from Vault
+     * ('daemon.credential-ttl-seconds'), 0 to fetch it for every request.
+     */
+    public int getDaemonCredentialTtlSeconds() {
+        Object ttl = getDaemonConfig().get("credential-ttl-seconds");
+        return ttl instanceof Number number ? number.intValue() : 300;
+    }
+
+    /**
+     * Returns the file the daemon keeps its job queue in
+     * ('daemon.jobs.queue-file'), defaulting to ~/.db-runner/jobs.json.
+     */
+    public String getDaemonJobQueueFile() {
+        Object file = getDaemonJobsConfig().get("queue-file");
+        if (file instanceof String path && !path.isBlank()) {
+            return path.startsWith("~") ? System.getProperty("user.home") + path.substring(1) : path;
+        }
+        return System.getProperty("user.home") + "/.db-runner/jobs.json";
+    }
+
+    /**
+     * Returns the maximum number of daemon jobs running at once
+     * ('daemon.jobs.max-running'), defaulting to 8.
+     */
+    public int getDaemonMaxRunningJobs() {
+        Object max = getDaemonJobsConfig().get("max-running");
+        return max instanceof Number number ? number.intValue() : 8;
+    }
+
+    /**
+     * Returns the maximum number of daemon jobs running at once against one
+     * database ('daemon.jobs.per-database'), defaulting to 2.
+     */
+    public int getDaemonJobsPerDatabase() {
+        Object max = getDaemonJobsConfig().get("per-database");
+        return max instanceof Number number ? number.intValue() : 2;
+    }
+
+    /**
+     * Returns the seconds a bulk job waits before it is scheduled as an
+     * interactive one ('daemon.jobs.bulk-promotion-seconds'), 0 to never
+     * promote it; defaults to 600.
+     */
+    public int getDaemonBulkPromotionSeconds() {
+        Object seconds = getDaemonJobsConfig().get("bulk-promotion-seconds");
+        return seconds instanceof Number number ? number.intValue() : 600;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> getDaemonJobsConfig() {
+        if (getDaemonConfig().get("jobs") instanceof Map<?, ?> jobs) {
+            return (Map<String, Object>) jobs;
+        }
+        return Collections.emptyMap();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> getDaemonConfig() {
+        logger.debug("Getting daemon configuration");
+        if (config.get("daemon") instanceof Map<?, ?> daemon) {
+            return (Map<String, Object>) daemon;
+        }
+        return Collections.emptyMap();
+    }
+
     /**
      * Returns the root-level 'vault' configuration as a map.
      */
@@ -260,4 +393,21 @@ public enum ConfigurationHolder {
         }
         return Collections.emptyList();
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns the databases of a named group of the root-level 'targets'
+     * configuration, one map per database. A plain entry names the database only.
+     */
+    @SuppressWarnings("unchecked")
+    public List<Map<String, Object>> getTargetGroup(String name) {
+        logger.debug("Getting target group {}", name);
+        if (config.get("targets") instanceof Map<?, ?> groups && groups.get(name) instanceof List<?> targets) {
+            return targets.stream()
+                .map(obj -> obj instanceof Map<?, ?> target
+                    ? new HashMap<>((Map<String, Object>) target)
+                    : new HashMap<String, Object>(Map.of("database", String.valueOf(obj))))
+                .collect(Collectors.toList());
+        }
+        return Collections.emptyList();
+    }
+}
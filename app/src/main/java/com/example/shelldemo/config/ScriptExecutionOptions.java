@@ -0,0 +1,179 @@
+package com.example.shelldemo.config;
+
+import java.nio.file.Path;
+
+import com.example.shelldemo.transaction.CommitPolicy;
+
+/**
+ * Immutable record for the options that control how a script is executed.
+ * Keeps the execution knobs in one place instead of growing constructor parameter lists.
+ *
+ * @param transactional Whether DML statements run in a transaction
+ * @param commitPolicy Where a transactional script commits its DML
+ * @param stopOnError Whether the first failing statement aborts the script
+ * @param pipelineCapacity Number of parsed statements buffered ahead of execution (0 = parse inline)
+ * @param parseCacheDirectory Directory of the parsed-script cache, or null to always parse
+ * @param parseCacheMaxBytes Size limit of the parsed-script cache
+ * @param batchSize Maximum number of consecutive DML statements sent as one JDBC batch (0 or 1 = no batching)
+ * @param bindLiterals Whether literals of INSERT, UPDATE and DELETE statements are sent as bind parameters
+ * @param statementCacheSize Maximum number of prepared statements kept open per connection (0 = no caching)
+ * @param driverStatementCache Whether the JDBC driver's statement cache is used instead when the vendor supports it
+ * @param parallelism Maximum number of independent statements run at once on their own connections (1 = sequential)
+ * @param parallelDml Whether consecutive DML statements are declared independent of each other
+ * @param journalFile File in which committed progress is journaled, or null for no journal
+ * @param resume Whether to skip the statements the journal records as committed
+ */
+public record ScriptExecutionOptions(
+    boolean transactional,
+    CommitPolicy commitPolicy,
+    boolean stopOnError,
+    int pipelineCapacity,
+    Path parseCacheDirectory,
+    long parseCacheMaxBytes,
+    int batchSize,
+    boolean bindLiterals,
+    int statementCacheSize,
+    boolean driverStatementCache,
+    int parallelism,
+    boolean parallelDml,
+    Path journalFile,
+    boolean resume
+) {
+    /**
+     * Compact constructor for validation
+     */
+    public ScriptExecutionOptions {
+        if (commitPolicy == null) {
+            throw new IllegalArgumentException("Commit policy cannot be null");
+        }
+        if (pipelineCapacity < 0) {
+            throw new IllegalArgumentException("Pipeline capacity cannot be negative: " + pipelineCapacity);
+        }
+        if (batchSize < 0) {
+            throw new IllegalArgumentException("Batch size cannot be negative: " + batchSize);
+        }
+        if (statementCacheSize < 0) {
+            throw new IllegalArgumentException("Statement cache size cannot be negative: " + statementCacheSize);
+        }
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+        }
+        if (resume && journalFile == null) {
+            throw new IllegalArgumentException("Resuming a script requires a journal file");
+        }
+    }
+
+    /**
+     * Returns the options used when nothing is specified: no transaction,
+     * stop on the first error and parse inline.
+     *
+     * @return The default options
+     */
+    public static ScriptExecutionOptions defaults() {
+        return builder().build();
+    }
+
+    /**
+     * Creates a new builder initialised with the default options.
+     *
+     * @return A new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Whether parsing runs on its own thread ahead of execution.
+     *
+     * @return true if a parse-ahead pipeline is used
+     */
+    public boolean pipelined() {
+        return pipelineCapacity > 0;
+    }
+
+    /**
+     * Whether parsed scripts are cached on disk.
+     *
+     * @return true if a parse cache directory is configured
+     */
+    public boolean parseCacheEnabled() {
+        return parseCacheDirectory != null;
+    }
+
+    /**
+     * Whether consecutive DML statements are grouped into JDBC batches.
+     *
+     * @return true if the batch size is greater than one
+     */
+    public boolean batched() {
+        return batchSize > 1;
+    }
+
+    /**
+     * Whether independent statements run concurrently on pooled connections.
+     *
+     * @return true if the parallelism is greater than one
+     */
+    public boolean parallel() {
+        return parallelism > 1;
+    }
+
+    /**
+     * Whether committed progress is journaled so that the script can be resumed.
+     *
+     * @return true if a journal file is configured
+     */
+    public boolean journaled() {
+        return journalFile != null;
+    }
+
+    /**
+     * Returns a copy of these options with another parallelism.
+     *
+     * @param parallelism The parallelism of the copy
+     * @return The copy
+     */
+    public ScriptExecutionOptions withParallelism(int parallelism) {
+        return new ScriptExecutionOptions(transactional, commitPolicy, stopOnError, pipelineCapacity,
+            parseCacheDirectory, parseCacheMaxBytes, batchSize, bindLiterals,
+            statementCacheSize, driverStatementCache, parallelism, parallelDml, journalFile, resume);
+    }
+
+    public static class Builder {
+        private boolean transactional = false;
+        private CommitPolicy commitPolicy = CommitPolicy.perStatement();
+        private boolean stopOnError = true;
+        private int pipelineCapacity = 0;
+        private Path parseCacheDirectory;
+        private long parseCacheMaxBytes = 512L * 1024 * 1024;
+        private int batchSize = 0;
+        private boolean bindLiterals = false;
+        private int statementCacheSize = 0;
+        private boolean driverStatementCache = false;
+        private int parallelism = 1;
+        private boolean parallelDml = false;
+        private Path journalFile;
+        private boolean resume = false;
+
+        public Builder transactional(boolean transactional) { this.transactional = transactional; return this; }
+        public Builder commitPolicy(CommitPolicy commitPolicy) { this.commitPolicy = commitPolicy; return this; }
+        public Builder stopOnError(boolean stopOnError) { this.stopOnError = stopOnError; return this; }
+        public Builder pipelineCapacity(int pipelineCapacity) { this.pipelineCapacity = pipelineCapacity; return this; }
+        public Builder parseCacheDirectory(Path parseCacheDirectory) { this.parseCacheDirectory = parseCacheDirectory; return this; }
+        public Builder parseCacheMaxBytes(long parseCacheMaxBytes) { this.parseCacheMaxBytes = parseCacheMaxBytes; return this; }
+        public Builder batchSize(int batchSize) { this.batchSize = batchSize; return this; }
+        public Builder bindLiterals(boolean bindLiterals) { this.bindLiterals = bindLiterals; return this; }
+        public Builder statementCacheSize(int statementCacheSize) { this.statementCacheSize = statementCacheSize; return this; }
+        public Builder driverStatementCache(boolean driverStatementCache) { this.driverStatementCache = driverStatementCache; return this; }
+        public Builder parallelism(int parallelism) { this.parallelism = parallelism; return this; }
+        public Builder parallelDml(boolean parallelDml) { this.parallelDml = parallelDml; return this; }
+        public Builder journalFile(Path journalFile) { this.journalFile = journalFile; return this; }
+        public Builder resume(boolean resume) { this.resume = resume; return this; }
+
+        public ScriptExecutionOptions build() {
+            return new ScriptExecutionOptions(transactional, commitPolicy, stopOnError, pipelineCapacity,
+                parseCacheDirectory, parseCacheMaxBytes, batchSize, bindLiterals,
+                statementCacheSize, driverStatementCache, parallelism, parallelDml, journalFile, resume);
+        }
+    }
+}
@@ -0,0 +1,504 @@
+package com.example.shelldemo.connection;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.example.shelldemo.spi.DatabaseVendor;
+
+/**
+ * Bounded pool of physical connections to one database.
+ * <p>
+ * {@link #getConnection()} hands out a connection whose {@code close()} returns
+ * the physical connection to the pool instead of closing it; its statements
+ * and metadata return that connection from {@code getConnection()} too, so
+ * no caller can close the physical connection. Waiting is done on
+ * a {@link ReentrantLock} condition rather than a monitor, so virtual threads
+ * blocked on a full pool do not pin their carrier thread.
+ * <p>
+ * Each physical connection is initialised once with
+ * {@link DatabaseVendor#initializeConnection(Connection)} when it is opened.
+ * A connection that has been idle for longer than the validation interval is
+ * checked with {@link DatabaseVendor#validateConnection(Connection)} before it
+ * is handed out, and one that reported a connection-level SQL state (class 08)
+ * while borrowed is discarded when it is returned. Connections above the
+ * minimum size are closed once they have been idle for the idle timeout.
+ */
+public final class ConnectionPool implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(ConnectionPool.class);
+
+    /**
+     * Opens a new physical connection.
+     */
+    @FunctionalInterface
+    public interface ConnectionOpener {
+        Connection open() throws SQLException;
+    }
+
+    /**
+     * Snapshot of the pool state and counters.
+     *
+     * @param name The pool name
+     * @param total Open physical connections
+     * @param idle Connections waiting in the pool
+     * @param active Connections currently borrowed
+     * @param waiting Callers currently waiting for a connection
+     * @param acquisitions Successful acquisitions
+     * @param timeouts Acquisitions that timed out
+     * @param opened Physical connections opened
+     * @param discarded Physical connections closed because they were broken or idle
+     * @param meanAcquireMillis Mean time to acquire a connection
+     * @param maxAcquireMillis Longest time to acquire a connection
+     * @param utilisation Time-weighted mean fraction of the maximum size that was borrowed
+     */
+    public record Stats(String name, int total, int idle, int active, int waiting, long acquisitions,
+            long timeouts, long opened, long discarded, double meanAcquireMillis, double maxAcquireMillis,
+            double utilisation) {
+        @Override
+        public String toString() {
+            return String.format("Connection pool %s: %d open (%d idle, %d active, %d waiting), "
+                    + "%d acquisitions, %d timeouts, %d opened, %d discarded, "
+                    + "acquire mean %.2f ms / max %.2f ms, utilisation %.1f%%",
+                name, total, idle, active, waiting, acquisitions, timeouts, opened, discarded,
+                meanAcquireMillis, maxAcquireMillis, utilisation * 100);
+        }
+    }
+
+    private final String name;
+    private final ConnectionOpener opener;
+    private final DatabaseVendor vendor;
+    private final PoolSettings settings;
+    private final ScheduledExecutorService evictor;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final Deque<PhysicalConnection> idle = new ArrayDeque<>();
+    private int total;
+    private int active;
+    private int waiting;
+    private boolean closed;
+
+    // Counters, guarded by lock
+    private final long createdAt = System.nanoTime();
+    private long lastActiveChange = createdAt;
+    private long activeNanos;
+    private long acquisitions;
+    private long timeouts;
+    private long opened;
+    private long discarded;
+    private long acquireNanos;
+    private long maxAcquireNanos;
+
+    /**
+     * Creates a pool and opens its minimum number of connections.
+     *
+     * @param name The pool name, used in logs and thread names
+     * @param opener Opens physical connections
+     * @param vendor The database vendor
+     * @param settings The pool sizing and timing
+     * @throws SQLException if one of the initial connections cannot be opened
+     */
+    public ConnectionPool(String name, ConnectionOpener opener, DatabaseVendor vendor, PoolSettings settings)
+            throws SQLException {
+        this.name = name;
+        this.opener = opener;
+        this.vendor = vendor;
+        this.settings = settings;
+        try {
+            for (int i = 0; i < settings.minSize(); i++) {
+                PhysicalConnection connection = open();
+                lock.lock();
+                try {
+                    total++;
+                    idle.addFirst(connection);
+                } finally {
+                    lock.unlock();
+                }
+            }
+        } catch (SQLException | RuntimeException e) {
+            close();
+            throw e;
+        }
+        if (settings.idleTimeout().isPositive()) {
+            long period = Math.max(settings.idleTimeout().toMillis() / 2, 1);
+            this.evictor = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofVirtual().name("pool-evictor-" + name).factory());
+            evictor.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+        } else {
+            this.evictor = null;
+        }
+        logger.debug("Created connection pool {} with {}", name, settings);
+    }
+
+    /**
+     * Borrows a connection, opening a new one if none is idle and the pool is not
+     * full, otherwise waiting up to the acquisition timeout for one to be returned.
+     * Closing the returned connection gives it back to the pool.
+     *
+     * @return A pooled connection
+     * @throws SQLTimeoutException if no connection became available in time
+     * @throws SQLException if the pool is closed or a new connection cannot be opened
+     */
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        long deadline = start + settings.acquireTimeout().toNanos();
+        while (true) {
+            PhysicalConnection connection = reserve(deadline);
+            if (connection == null) {
+                try {
+                    connection = open();
+                } catch (SQLException | RuntimeException e) {
+                    discard(null);
+                    throw e;
+                }
+            } else if (System.nanoTime() - connection.lastUsed >= settings.validationInterval().toNanos()
+                    && !vendor.validateConnection(connection.connection)) {
+                logger.warn("Discarding connection that failed validation in pool {}", name);
+                discard(connection);
+                continue;
+            }
+            checkedOut(start);
+            return connection.lease();
+        }
+    }
+
+    /**
+     * Returns the current pool state and counters.
+     *
+     * @return A snapshot of the pool
+     */
+    public Stats getStats() {
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            accumulateActive(now);
+            long elapsed = Math.max(now - createdAt, 1);
+            return new Stats(name, total, idle.size(), active, waiting, acquisitions, timeouts, opened, discarded,
+                acquisitions == 0 ? 0 : acquireNanos / 1e6 / acquisitions, maxAcquireNanos / 1e6,
+                (double) activeNanos / elapsed / settings.maxSize());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the pool settings.
+     *
+     * @return The settings
+     */
+    public PoolSettings getSettings() {
+        return settings;
+    }
+
+    /**
+     * Closes idle connections and stops handing out connections. Borrowed
+     * connections are closed when they are returned.
+     */
+    @Override
+    public void close() {
+        List<PhysicalConnection> toClose;
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            toClose = new ArrayList<>(idle);
+            total -= idle.size();
+            idle.clear();
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        if (evictor != null) {
+            evictor.shutdownNow();
+        }
+        toClose.forEach(PhysicalConnection::closePhysical);
+        logger.debug("{}", getStats());
+    }
+
+    /**
+     * Closes connections above the minimum size that have been idle for longer
+     * than the idle timeout. Runs periodically on the evictor thread.
+     */
+    private void evictIdle() {
+        List<PhysicalConnection> evicted = new ArrayList<>();
+        lock.lock();
+        try {
+            long cutoff = System.nanoTime() - settings.idleTimeout().toNanos();
+            // Idle connections are reused from the head, so the tail has been idle longest
+            Iterator<PhysicalConnection> oldest = idle.descendingIterator();
+            while (total > settings.minSize() && oldest.hasNext()) {
+                PhysicalConnection connection = oldest.next();
+                if (connection.lastUsed > cutoff) {
+                    break;
+                }
+                oldest.remove();
+                total--;
+                discarded++;
+                evicted.add(connection);
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (!evicted.isEmpty()) {
+            logger.debug("Evicted {} idle connections from pool {}", evicted.size(), name);
+            evicted.forEach(PhysicalConnection::closePhysical);
+        }
+    }
+
+    /**
+     * Takes an idle connection, or reserves room for a new one (returning null),
+     * waiting until the deadline if neither is possible.
+     */
+    private PhysicalConnection reserve(long deadline) throws SQLException {
+        lock.lock();
+        try {
+            while (true) {
+                if (closed) {
+                    throw new SQLException("Connection pool " + name + " is closed");
+                }
+                PhysicalConnection connection = idle.pollFirst();
+                if (connection != null) {
+                    return connection;
+                }
+                if (total < settings.maxSize()) {
+                    total++;
+                    return null;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    timeouts++;
+                    throw new SQLTimeoutException(String.format(
+                        "Timed out after %d ms waiting for a connection from pool %s (%d active)",
+                        settings.acquireTimeout().toMillis(), name, active));
+                }
+                waiting++;
+                try {
+                    available.awaitNanos(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLException("Interrupted while waiting for a connection from pool " + name, e);
+                } finally {
+                    waiting--;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private PhysicalConnection open() throws SQLException {
+        Connection connection = opener.open();
+        try {
+            vendor.initializeConnection(connection);
+        } catch (RuntimeException e) {
+            connection.close();
+            throw e;
+        }
+        lock.lock();
+        try {
+            opened++;
+        } finally {
+            lock.unlock();
+        }
+        logger.debug("Opened connection in pool {}", name);
+        return new PhysicalConnection(connection);
+    }
+
+    private void checkedOut(long start) {
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            accumulateActive(now);
+            active++;
+            acquisitions++;
+            long elapsed = now - start;
+            acquireNanos += elapsed;
+            maxAcquireNanos = Math.max(maxAcquireNanos, elapsed);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gives back the room of a connection that is gone or was never opened.
+     */
+    private void discard(PhysicalConnection connection) {
+        lock.lock();
+        try {
+            total--;
+            if (connection != null) {
+                discarded++;
+            }
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+        if (connection != null) {
+            connection.closePhysical();
+        }
+    }
+
+    private void release(PhysicalConnection connection) {
+        boolean reusable = !connection.broken && connection.reset();
+        lock.lock();
+        try {
+            accumulateActive(System.nanoTime());
+            active--;
+            if (reusable && !closed) {
+                connection.lastUsed = System.nanoTime();
+                idle.addFirst(connection);
+                available.signal();
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (!reusable) {
+            logger.warn("Discarding broken connection returned to pool {}", name);
+        }
+        discard(connection);
+    }
+
+    private void accumulateActive(long now) {
+        activeNanos += active * (now - lastActiveChange);
+        lastActiveChange = now;
+    }
+
+    /**
+     * A physical connection owned by the pool.
+     */
+    private final class PhysicalConnection {
+        private final Connection connection;
+        private long lastUsed = System.nanoTime();
+        private volatile boolean broken;
+
+        PhysicalConnection(Connection connection) {
+            this.connection = connection;
+        }
+
+        Connection lease() {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] {Connection.class}, new Lease(this));
+        }
+
+        /**
+         * Rolls back any open transaction and restores auto-commit, so the next
+         * borrower starts from a fresh connection's state.
+         */
+        boolean reset() {
+            try {
+                if (!connection.getAutoCommit()) {
+                    connection.rollback();
+                    connection.setAutoCommit(true);
+                }
+                connection.clearWarnings();
+                return true;
+            } catch (SQLException e) {
+                logger.debug("Failed to reset pooled connection: {}", e.getMessage());
+                return false;
+            }
+        }
+
+        void closePhysical() {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                logger.debug("Failed to close pooled connection: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * One checkout of a physical connection. Closing it returns the connection to the pool.
+     */
+    private final class Lease implements InvocationHandler {
+        private final PhysicalConnection physical;
+        private volatile boolean closed;
+
+        Lease(PhysicalConnection physical) {
+            this.physical = physical;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        release(physical);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || physical.connection.isClosed();
+                case "toString":
+                    return "Pooled" + physical.connection;
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("Connection has been returned to pool " + name, "08003");
+            }
+            Object result = delegate(physical.connection, method, args);
+            if (result instanceof Statement || result instanceof DatabaseMetaData) {
+                return wrapChild(proxy, method.getReturnType(), result);
+            }
+            return result;
+        }
+
+        /**
+         * Wraps a statement or metadata object so that its
+         * {@code getConnection()} returns the lease rather than the physical
+         * connection, which a caller closing it would take from the pool.
+         */
+        private Object wrapChild(Object lease, Class<?> type, Object child) {
+            return Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {type},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getConnection" -> lease;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> delegate(child, method, args);
+                });
+        }
+
+        /**
+         * Calls a method on the physical connection or one of its objects,
+         * marking the connection broken if it fails with a connection error.
+         */
+        private Object delegate(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                if (e.getCause() instanceof SQLException sql
+                        && sql.getSQLState() != null && sql.getSQLState().startsWith("08")) {
+                    physical.broken = true;
+                }
+                throw e.getCause();
+            }
+        }
+    }
+}
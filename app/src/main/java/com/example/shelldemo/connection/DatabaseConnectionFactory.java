@@ -49,43 +49,8 @@ public class DatabaseConnectionFactory {
         ThreadContext.put("user", config.username());
         logger.info("Creating database connection for type: {}, host: {}", config.dbType(), config.host());
         try {
-            Optional<DatabaseVendor> vendorOpt = VendorRegistry.getVendor(config.dbType());
-            
-            if (vendorOpt.isEmpty()) {
-                throw new ConfigurationException(
-                    "Unsupported database type: " + config.dbType()
-                );
-            }
-            
-            DatabaseVendor vendor = vendorOpt.get();
-            
-            driverLoader.loadDriverForVendor(vendor.getVendorName());
-            
-            String url;
-            if ("thin-ldap".equalsIgnoreCase(config.connectionType())) {
-                url = this.buildConnectionUrl(config);
-            } else {
-                url = vendor.buildConnectionUrl(
-                    config.host(), 
-                    config.port(), 
-                    config.serviceName(), 
-                    config.connectionType()
-                );
-            }
-            
-            logger.debug("Using connection URL: {}", url);
-            
-            Properties props = buildConnectionProperties(vendor, config);
-            if (logger.isDebugEnabled()) {
-                logger.debug("Connection properties configured: {}", 
-                    props.stringPropertyNames().stream()
-                        .filter(key -> !key.contains("password"))
-                        .map(key -> key + "=" + props.getProperty(key))
-                        .reduce((a, b) -> a + ", " + b)
-                        .orElse("none"));
-            }
-            
-            Connection conn = DriverManager.getConnection(url, props);
+            DatabaseVendor vendor = getVendor(config);
+            Connection conn = openConnection(vendor, config);
             vendor.initializeConnection(conn);
             logger.info("Successfully established connection to {} database at {}:{}", 
                 vendor.getVendorName(), config.host(), config.port());
@@ -98,6 +63,78 @@ public class DatabaseConnectionFactory {
         }
     }
 
+    /**
+     * Creates a connection pool for a pre-configured ConnectionConfig, sized by the
+     * 'pool' section of the database type in application.yaml.
+     *
+     * @param config The validated connection configuration
+     * @return A new connection pool holding its minimum number of connections
+     * @throws SQLException if an initial connection fails
+     */
+    public ConnectionPool createPool(ConnectionConfig config) throws SQLException {
+        return createPool(config, PoolSettings.forDbType(config.dbType()));
+    }
+
+    /**
+     * Creates a connection pool for a pre-configured ConnectionConfig.
+     * Each physical connection is opened like {@link #createConnection(ConnectionConfig)} does.
+     *
+     * @param config The validated connection configuration
+     * @param settings The pool sizing and timing
+     * @return A new connection pool holding its minimum number of connections
+     * @throws SQLException if an initial connection fails
+     */
+    public ConnectionPool createPool(ConnectionConfig config, PoolSettings settings) throws SQLException {
+        logger.info("Creating connection pool for type: {}, host: {}", config.dbType(), config.host());
+        DatabaseVendor vendor = getVendor(config);
+        return new ConnectionPool(config.dbType() + "@" + config.host(),
+            () -> openConnection(vendor, config), vendor, settings);
+    }
+
+    private DatabaseVendor getVendor(ConnectionConfig config) {
+        Optional<DatabaseVendor> vendorOpt = VendorRegistry.getVendor(config.dbType());
+        
+        if (vendorOpt.isEmpty()) {
+            throw new ConfigurationException(
+                "Unsupported database type: " + config.dbType()
+            );
+        }
+        return vendorOpt.get();
+    }
+
+    /**
+     * Opens a physical connection without vendor session initialisation.
+     */
+    private Connection openConnection(DatabaseVendor vendor, ConnectionConfig config) throws SQLException {
+        driverLoader.loadDriverForVendor(vendor.getVendorName());
+        
+        String url;
+        if ("thin-ldap".equalsIgnoreCase(config.connectionType())) {
+            url = this.buildConnectionUrl(config);
+        } else {
+            url = vendor.buildConnectionUrl(
+                config.host(), 
+                config.port(), 
+                config.serviceName(), 
+                config.connectionType()
+            );
+        }
+        
+        logger.debug("Using connection URL: {}", url);
+        
+        Properties props = buildConnectionProperties(vendor, config);
+        if (logger.isDebugEnabled()) {
+            logger.debug("Connection properties configured: {}", 
+                props.stringPropertyNames().stream()
+                    .filter(key -> !key.contains("password"))
+                    .map(key -> key + "=" + props.getProperty(key))
+                    .reduce((a, b) -> a + ", " + b)
+                    .orElse("none"));
+        }
+        
+        return DriverManager.getConnection(url, props);
+    }
+
     /**
      * Creates a connection using builder pattern.
      * 
@@ -0,0 +1,118 @@
+package com.example.shelldemo.connection;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Connection pools kept open across operations, one per database and user,
+ * so that a long-running process such as the daemon connects to a database
+ * once and every later operation borrows a connection that is already
+ * authenticated. Operations on a pool of the registry return their
+ * connections but leave the pool open; the registry closes all pools on close.
+ * <p>
+ * A pool is replaced, and the old one closed, when the password of its user
+ * changes, such as after a rotation in Vault, or when an operation needs more
+ * connections than it holds. Connections borrowed from a replaced pool are
+ * closed when they are returned.
+ */
+public final class PoolRegistry implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(PoolRegistry.class);
+
+    /** The database a pool connects to, and its user */
+    private record Key(String dbType, String host, int port, String serviceName, String connectionType,
+            String username) {
+
+        static Key of(ConnectionConfig config) {
+            return new Key(config.dbType(), config.host(), config.port(), config.serviceName(),
+                config.connectionType(), config.username());
+        }
+    }
+
+    /** A pool and the configuration it was opened with */
+    private record Entry(ConnectionConfig config, ConnectionPool pool) {}
+
+    private final DatabaseConnectionFactory factory;
+    private final Map<Key, Entry> pools = new HashMap<>();
+    private boolean closed;
+
+    /**
+     * Creates an empty registry.
+     */
+    public PoolRegistry() {
+        this(new DatabaseConnectionFactory());
+    }
+
+    /**
+     * Creates an empty registry that opens pools with the given factory.
+     *
+     * @param factory Opens the pools
+     */
+    public PoolRegistry(DatabaseConnectionFactory factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Returns the pool of a database and user, opening it on first use and
+     * replacing it when the password changed or it holds fewer than the
+     * given number of connections. A pool that cannot be opened is not kept,
+     * so the next call tries again, and the pool it would replace stays open.
+     *
+     * @param config The database, user and password
+     * @param connections Number of connections the caller may hold at once
+     * @return The open pool
+     * @throws SQLException if the pool's initial connection fails
+     * @throws IllegalStateException if the registry is closed
+     */
+    public synchronized ConnectionPool poolFor(ConnectionConfig config, int connections) throws SQLException {
+        if (closed) {
+            throw new IllegalStateException("Pool registry is closed");
+        }
+        Key key = Key.of(config);
+        Entry entry = pools.get(key);
+        if (entry != null && Objects.equals(entry.config().password(), config.password())
+                && entry.pool().getSettings().maxSize() >= connections) {
+            return entry.pool();
+        }
+        PoolSettings settings = PoolSettings.forDbType(config.dbType()).withCapacityFor(connections);
+        if (entry != null) {
+            settings = settings.withCapacityFor(entry.pool().getSettings().maxSize());
+        }
+        ConnectionPool pool = factory.createPool(config, settings);
+        pools.put(key, new Entry(config, pool));
+        if (entry != null) {
+            logger.info("Replacing connection pool {} after a change of password or size", pool.getStats().name());
+            entry.pool().close();
+        } else {
+            logger.info("Keeping connection pool {} open for later operations", pool.getStats().name());
+        }
+        return pool;
+    }
+
+    /**
+     * Statistics of the open pools.
+     *
+     * @return One entry per pool
+     */
+    public synchronized List<ConnectionPool.Stats> getStats() {
+        List<ConnectionPool.Stats> stats = new ArrayList<>(pools.size());
+        pools.values().forEach(entry -> stats.add(entry.pool().getStats()));
+        return stats;
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        for (Entry entry : pools.values()) {
+            logger.info("{}", entry.pool().getStats());
+            entry.pool().close();
+        }
+        pools.clear();
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.shelldemo.connection;
+
+import java.time.Duration;
+import java.util.Map;
+
+import com.example.shelldemo.config.ConfigurationHolder;
+
+/**
+ * Immutable record for the sizing and timing of a {@link ConnectionPool}.
+ *
+ * @param minSize Number of connections kept open even when idle
+ * @param maxSize Maximum number of open connections
+ * @param acquireTimeout How long a caller waits for a free connection
+ * @param idleTimeout How long a connection above the minimum may stay idle before it is closed
+ * @param validationInterval How long a connection may stay idle before it is validated on checkout
+ */
+public record PoolSettings(
+    int minSize,
+    int maxSize,
+    Duration acquireTimeout,
+    Duration idleTimeout,
+    Duration validationInterval
+) {
+    /**
+     * Compact constructor for validation
+     */
+    public PoolSettings {
+        if (minSize < 0) {
+            throw new IllegalArgumentException("Pool minimum size cannot be negative: " + minSize);
+        }
+        if (maxSize < 1 || maxSize < minSize) {
+            throw new IllegalArgumentException(
+                "Pool maximum size must be at least 1 and at least the minimum size: " + maxSize);
+        }
+    }
+
+    /**
+     * Returns the settings used when nothing is configured.
+     *
+     * @return The default settings
+     */
+    public static PoolSettings defaults() {
+        return new PoolSettings(1, 8, Duration.ofSeconds(30), Duration.ofMinutes(10), Duration.ofSeconds(5));
+    }
+
+    /**
+     * Returns these settings with the maximum size raised to at least the given
+     * number of connections.
+     *
+     * @param connections The number of connections that must fit in the pool
+     * @return Settings allowing at least that many connections
+     */
+    public PoolSettings withCapacityFor(int connections) {
+        return connections <= maxSize ? this
+            : new PoolSettings(minSize, connections, acquireTimeout, idleTimeout, validationInterval);
+    }
+
+    /**
+     * Reads the 'pool' section of a database type in application.yaml. Missing
+     * keys keep their default values.
+     *
+     * @param dbType The database type
+     * @return The pool settings for the database type
+     */
+    public static PoolSettings forDbType(String dbType) {
+        Object pool = ConfigurationHolder.getInstance().getDatabaseConfig(dbType).get("pool");
+        if (!(pool instanceof Map<?, ?> config)) {
+            return defaults();
+        }
+        PoolSettings defaults = defaults();
+        return new PoolSettings(
+            intValue(config.get("min-size"), defaults.minSize()),
+            intValue(config.get("max-size"), defaults.maxSize()),
+            millis(config.get("acquire-timeout-ms"), defaults.acquireTimeout()),
+            millis(config.get("idle-timeout-ms"), defaults.idleTimeout()),
+            millis(config.get("validation-interval-ms"), defaults.validationInterval())
+        );
+    }
+
+    private static int intValue(Object value, int defaultValue) {
+        return value instanceof Number number ? number.intValue() : defaultValue;
+    }
+
+    private static Duration millis(Object value, Duration defaultValue) {
+        return value instanceof Number number ? Duration.ofMillis(number.longValue()) : defaultValue;
+    }
+}
@@ -7,6 +7,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import com.example.shelldemo.config.ConfigurationService;
+import com.example.shelldemo.connection.ConnectionPool;
 import com.example.shelldemo.spi.DatabaseVendor;
 import com.example.shelldemo.sqlhandling.DatabaseErrorHandler;
 import com.example.shelldemo.transaction.TransactionManager;
@@ -17,27 +18,44 @@ import com.example.shelldemo.transaction.TransactionManager;
  */
 public class DatabaseContext implements AutoCloseable {
     private final Connection connection;
+    private final ConnectionPool connectionPool;
+    private final boolean ownsConnectionPool;
     private final DatabaseVendor vendor;
     private final ConfigurationService configService;
     private final TransactionManager transactionManager;
+    private final StatementCache statementCache;
     private final DatabaseErrorHandler errorHandler;
     private final Logger logger;
     private final String dbType;
     
     private DatabaseContext(Builder builder) {
         this.connection = builder.connection;
+        this.connectionPool = builder.connectionPool;
+        this.ownsConnectionPool = builder.ownsConnectionPool;
         this.vendor = builder.vendor;
         this.configService = builder.configService;
         this.dbType = builder.dbType;
         this.logger = LogManager.getLogger(DatabaseContext.class);
         this.errorHandler = new DatabaseErrorHandler(vendor.getVendorName());
         this.transactionManager = new TransactionManager(connection);
+        this.statementCache = new StatementCache(connection, vendor,
+            builder.statementCacheSize, builder.preferDriverStatementCache);
     }
     
     public Connection getConnection() {
         return connection;
     }
     
+    /**
+     * Gets the pool the context's connection was borrowed from, for operations
+     * that need additional connections.
+     *
+     * @return The connection pool, or null if the context was given a plain connection
+     */
+    public ConnectionPool getConnectionPool() {
+        return connectionPool;
+    }
+    
     public DatabaseVendor getVendor() {
         return vendor;
     }
@@ -50,6 +68,15 @@ public class DatabaseContext implements AutoCloseable {
         return transactionManager;
     }
     
+    /**
+     * Gets the prepared statement cache of this context's connection.
+     *
+     * @return The statement cache
+     */
+    public StatementCache getStatementCache() {
+        return statementCache;
+    }
+    
     public DatabaseErrorHandler getErrorHandler() {
         return errorHandler;
     }
@@ -64,10 +91,15 @@ public class DatabaseContext implements AutoCloseable {
     
     @Override
     public void close() throws SQLException {
+        statementCache.close();
         if (connection != null && !connection.isClosed()) {
             connection.close();
             logger.debug("Database connection closed");
         }
+        if (connectionPool != null && ownsConnectionPool) {
+            logger.info("{}", connectionPool.getStats());
+            connectionPool.close();
+        }
     }
     
     /**
@@ -75,15 +107,46 @@ public class DatabaseContext implements AutoCloseable {
      */
     public static class Builder {
         private Connection connection;
+        private ConnectionPool connectionPool;
+        private boolean ownsConnectionPool;
         private DatabaseVendor vendor;
         private ConfigurationService configService;
         private String dbType;
+        private int statementCacheSize;
+        private boolean preferDriverStatementCache;
         
         public Builder connection(Connection connection) {
             this.connection = connection;
             return this;
         }
         
+        /**
+         * Sets the pool the connection was borrowed from. The context closes the
+         * pool after returning its connection.
+         *
+         * @param connectionPool The connection pool
+         * @return This builder
+         */
+        public Builder connectionPool(ConnectionPool connectionPool) {
+            this.connectionPool = connectionPool;
+            this.ownsConnectionPool = true;
+            return this;
+        }
+
+        /**
+         * Sets a pool the connection was borrowed from that outlives the
+         * context, e.g. one kept warm by the daemon. The context only returns
+         * its connection.
+         *
+         * @param connectionPool The connection pool
+         * @return This builder
+         */
+        public Builder sharedConnectionPool(ConnectionPool connectionPool) {
+            this.connectionPool = connectionPool;
+            this.ownsConnectionPool = false;
+            return this;
+        }
+        
         public Builder vendor(DatabaseVendor vendor) {
             // Use the adapter to ensure consistent vendor behavior
             this.vendor = new com.example.shelldemo.spi.DatabaseVendorAdapter(vendor, configService);
@@ -100,6 +163,19 @@ public class DatabaseContext implements AutoCloseable {
             return this;
         }
         
+        /**
+         * Configures the prepared statement cache of the connection.
+         *
+         * @param size Maximum number of cached statements (0 disables caching)
+         * @param preferDriverCache Whether to use the driver's own cache when the vendor supports it
+         * @return This builder
+         */
+        public Builder statementCache(int size, boolean preferDriverCache) {
+            this.statementCacheSize = size;
+            this.preferDriverStatementCache = preferDriverCache;
+            return this;
+        }
+        
         public DatabaseContext build() {
             validate();
             return new DatabaseContext(this);
@@ -0,0 +1,229 @@
+package com.example.shelldemo.context;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.example.shelldemo.spi.DatabaseVendor;
+
+/**
+ * Bounded LRU cache of prepared statements for one connection.
+ * <p>
+ * Callers borrow a statement for a SQL text and release it by closing the
+ * returned {@link Lease}; the statement then stays open for the next caller
+ * with the same text. A statement is never handed to two callers at once: a
+ * borrowed statement is taken out of the cache until it is released, and a
+ * second borrower of the same text gets a fresh statement. When the cache is
+ * full the least recently released statement is closed.
+ * <p>
+ * If the vendor's driver has its own statement cache and delegation is
+ * requested, the driver cache is enabled instead and leases simply close their
+ * statement, which hands it back to the driver. The same happens when the
+ * cache size is zero.
+ */
+public final class StatementCache implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(StatementCache.class);
+
+    /**
+     * How statements are cached.
+     */
+    public enum Mode {
+        /** Statements are closed after use. */
+        DISABLED,
+        /** Statements are cached by this class. */
+        CLIENT,
+        /** Statements are cached by the JDBC driver. */
+        DRIVER
+    }
+
+    /**
+     * Snapshot of the cache counters.
+     *
+     * @param mode How statements are cached
+     * @param hits Borrows served from the cache
+     * @param misses Borrows that prepared a new statement
+     * @param evictions Statements closed to make room
+     * @param size Statements currently cached
+     */
+    public record Stats(Mode mode, long hits, long misses, long evictions, int size) {
+        @Override
+        public String toString() {
+            return String.format("%s statement cache: %d hits, %d misses, %d evictions, %d cached",
+                mode, hits, misses, evictions, size);
+        }
+    }
+
+    private final Connection connection;
+    private final int maxSize;
+    private final Mode mode;
+    private final LinkedHashMap<String, PreparedStatement> statements;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Creates a cache for the given connection.
+     *
+     * @param connection The connection the statements belong to
+     * @param vendor The database vendor
+     * @param maxSize Maximum number of cached statements (0 disables caching)
+     * @param preferDriverCache Whether to use the driver's statement cache when the vendor supports it
+     */
+    public StatementCache(Connection connection, DatabaseVendor vendor, int maxSize, boolean preferDriverCache) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("Statement cache size cannot be negative: " + maxSize);
+        }
+        this.connection = connection;
+        this.maxSize = maxSize;
+        if (maxSize == 0) {
+            this.mode = Mode.DISABLED;
+        } else if (preferDriverCache && vendor.enableDriverStatementCache(connection, maxSize)) {
+            this.mode = Mode.DRIVER;
+        } else {
+            this.mode = Mode.CLIENT;
+        }
+        this.statements = new LinkedHashMap<>(16, 0.75f, true);
+        logger.debug("Using {} statement cache of size {}", mode, maxSize);
+    }
+
+    /**
+     * Borrows a prepared statement for the given SQL. The lease must be closed
+     * once the statement and its result sets are no longer used.
+     *
+     * @param sql The SQL text
+     * @return A lease on a prepared statement
+     * @throws SQLException if the statement cannot be prepared
+     */
+    public Lease borrow(String sql) throws SQLException {
+        if (mode == Mode.CLIENT) {
+            synchronized (this) {
+                PreparedStatement cached = statements.remove(sql);
+                if (cached != null && !cached.isClosed()) {
+                    hits++;
+                    return new Lease(sql, cached);
+                }
+                misses++;
+            }
+        }
+        return new Lease(sql, connection.prepareStatement(sql));
+    }
+
+    /**
+     * Returns the current counters.
+     *
+     * @return A snapshot of the cache counters
+     */
+    public synchronized Stats getStats() {
+        return new Stats(mode, hits, misses, evictions, statements.size());
+    }
+
+    /**
+     * Returns how statements are cached.
+     *
+     * @return The cache mode
+     */
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Closes all cached statements.
+     */
+    @Override
+    public void close() {
+        List<PreparedStatement> open;
+        synchronized (this) {
+            open = new ArrayList<>(statements.values());
+            statements.clear();
+        }
+        for (PreparedStatement statement : open) {
+            closeQuietly(statement);
+        }
+        if (mode == Mode.CLIENT) {
+            logger.debug("{}", getStats());
+        }
+    }
+
+    private void release(String sql, PreparedStatement statement) {
+        if (mode != Mode.CLIENT) {
+            closeQuietly(statement);
+            return;
+        }
+        try {
+            if (statement.isClosed()) {
+                return;
+            }
+            statement.clearParameters();
+            // A failed batch may leave parameter sets behind
+            statement.clearBatch();
+        } catch (SQLException e) {
+            logger.debug("Dropping unusable cached statement: {}", e.getMessage());
+            closeQuietly(statement);
+            return;
+        }
+        List<PreparedStatement> evicted = new ArrayList<>();
+        synchronized (this) {
+            PreparedStatement previous = statements.put(sql, statement);
+            if (previous != null) {
+                // Another borrower of the same SQL released first
+                evicted.add(previous);
+            }
+            Iterator<Map.Entry<String, PreparedStatement>> eldest = statements.entrySet().iterator();
+            while (statements.size() > maxSize && eldest.hasNext()) {
+                evicted.add(eldest.next().getValue());
+                eldest.remove();
+                evictions++;
+            }
+        }
+        for (PreparedStatement stale : evicted) {
+            closeQuietly(stale);
+        }
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            logger.debug("Failed to close prepared statement: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * A borrowed prepared statement. Closing the lease returns the statement to the cache.
+     */
+    public final class Lease implements AutoCloseable {
+        private final String sql;
+        private final PreparedStatement statement;
+        private boolean released;
+
+        private Lease(String sql, PreparedStatement statement) {
+            this.sql = sql;
+            this.statement = statement;
+        }
+
+        /**
+         * Gets the borrowed statement.
+         *
+         * @return The prepared statement
+         */
+        public PreparedStatement statement() {
+            return statement;
+        }
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                release(sql, statement);
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.shelldemo.daemon;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Passwords fetched from Vault, reused by the daemon for a limited time so
+ * that requests in quick succession log in to Vault once. A password is kept
+ * for the lookup it was fetched with: Vault address, role, secret, database,
+ * AIT and user.
+ */
+public final class CredentialCache {
+
+    private record Entry(String password, long expiresAt) {}
+
+    private final long ttlNanos;
+    private final Map<List<String>, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * @param ttl How long a fetched password is reused, zero to fetch it every time
+     */
+    public CredentialCache(Duration ttl) {
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    /**
+     * Returns the password of a lookup, fetching it when it is not cached or
+     * has expired. A failing fetch is not cached.
+     *
+     * @param lookup The values identifying the password
+     * @param fetch Fetches the password
+     * @return The password
+     */
+    public String get(List<String> lookup, Supplier<String> fetch) {
+        if (ttlNanos <= 0) {
+            return fetch.get();
+        }
+        long now = System.nanoTime();
+        Entry entry = entries.get(lookup);
+        if (entry != null && entry.expiresAt() - now > 0) {
+            return entry.password();
+        }
+        String password = fetch.get();
+        if (password != null && !password.isEmpty()) {
+            entries.put(lookup, new Entry(password, now + ttlNanos));
+        }
+        return password;
+    }
+
+    /**
+     * Forgets every cached password.
+     */
+    public void clear() {
+        entries.clear();
+    }
+}
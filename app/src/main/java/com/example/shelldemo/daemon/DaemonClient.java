@@ -0,0 +1,79 @@
+package com.example.shelldemo.daemon;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Thin client of the daemon: sends its arguments and working directory to a
+ * running {@code db serve} and relays the output and exit code, so that a
+ * command starts without loading configuration, drivers or logging.
+ * <pre>
+ * java -cp dbscriptrunner.jar com.example.shelldemo.daemon.DaemonClient -t oracle -u hr -d ORCL script.sql
+ * </pre>
+ * The socket is {@value #SOCKET_ENV} when set, else ~/.db-runner/daemon.sock.
+ */
+public final class DaemonClient {
+
+    /** Environment variable naming the daemon's socket */
+    public static final String SOCKET_ENV = "DB_RUNNER_SOCKET";
+
+    private DaemonClient() {
+        // Utility class - no instantiation
+    }
+
+    public static void main(String[] args) {
+        String socket = System.getenv(SOCKET_ENV);
+        Path socketPath = socket != null && !socket.isBlank() ? Path.of(socket)
+            : Path.of(System.getProperty("user.home"), ".db-runner", "daemon.sock");
+        int exitCode = run(socketPath, Path.of("").toAbsolutePath(), List.of(args), System.out, System.err);
+        System.exit(exitCode);
+    }
+
+    /**
+     * Runs a command on the daemon and waits for it to end.
+     *
+     * @param socket The daemon's socket
+     * @param workingDirectory The directory relative paths of the command resolve against
+     * @param arguments The command-line arguments
+     * @param out Receives the command's standard output
+     * @param err Receives the command's standard error
+     * @return The command's exit code, or 3 if the daemon cannot be reached
+     */
+    public static int run(Path socket, Path workingDirectory, List<String> arguments, PrintStream out,
+            PrintStream err) {
+        try (SocketChannel channel = SocketChannel.open(UnixDomainSocketAddress.of(socket))) {
+            DataOutputStream request = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+            DaemonProtocol.writeRequest(request, new DaemonProtocol.Request(workingDirectory, arguments));
+            DataInputStream response = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+            while (true) {
+                byte type = response.readByte();
+                switch (type) {
+                    case DaemonProtocol.OUT -> {
+                        out.print(DaemonProtocol.readText(response));
+                        out.flush();
+                    }
+                    case DaemonProtocol.ERR -> {
+                        err.print(DaemonProtocol.readText(response));
+                        err.flush();
+                    }
+                    case DaemonProtocol.EXIT -> {
+                        return response.readInt();
+                    }
+                    default -> throw new IOException("Unknown daemon frame type: " + type);
+                }
+            }
+        } catch (IOException e) {
+            err.println("ERROR: Cannot run the command on the daemon at " + socket + ": " + e.getMessage());
+            return 3;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.shelldemo.daemon;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The messages exchanged between the daemon and its clients over the Unix
+ * domain socket. A client sends one request, its working directory and
+ * command-line arguments; the daemon answers with output frames while the
+ * command runs, each a frame type byte followed by length-prefixed UTF-8
+ * text, and ends with an exit frame carrying the command's exit code.
+ */
+public final class DaemonProtocol {
+
+    /** Frame of text for standard output */
+    public static final byte OUT = 'O';
+    /** Frame of text for standard error */
+    public static final byte ERR = 'E';
+    /** Final frame holding the exit code */
+    public static final byte EXIT = 'X';
+
+    private static final int MAX_ARGUMENTS = 1024;
+
+    /**
+     * A command to run.
+     *
+     * @param workingDirectory The client's working directory, against which relative paths resolve
+     * @param arguments The command-line arguments
+     */
+    public record Request(Path workingDirectory, List<String> arguments) {
+        public Request {
+            arguments = List.copyOf(arguments);
+        }
+    }
+
+    private DaemonProtocol() {
+        // Utility class - no instantiation
+    }
+
+    /**
+     * Writes a request.
+     *
+     * @param out The stream to the daemon
+     * @param request The request
+     * @throws IOException if the request cannot be sent
+     */
+    public static void writeRequest(DataOutputStream out, Request request) throws IOException {
+        writeText(out, request.workingDirectory().toString());
+        out.writeInt(request.arguments().size());
+        for (String argument : request.arguments()) {
+            writeText(out, argument);
+        }
+        out.flush();
+    }
+
+    /**
+     * Reads a request.
+     *
+     * @param in The stream from the client
+     * @return The request
+     * @throws IOException if the request cannot be read or is malformed
+     */
+    public static Request readRequest(DataInputStream in) throws IOException {
+        Path workingDirectory = Path.of(readText(in));
+        int count = in.readInt();
+        if (count < 0 || count > MAX_ARGUMENTS) {
+            throw new IOException("Malformed daemon request: " + count + " arguments");
+        }
+        List<String> arguments = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            arguments.add(readText(in));
+        }
+        return new Request(workingDirectory, arguments);
+    }
+
+    /**
+     * Writes an output frame and flushes it to the client.
+     *
+     * @param out The stream to the client
+     * @param type {@link #OUT} or {@link #ERR}
+     * @param text The text
+     * @throws IOException if the frame cannot be sent
+     */
+    public static void writeFrame(DataOutputStream out, byte type, String text) throws IOException {
+        out.writeByte(type);
+        writeText(out, text);
+        out.flush();
+    }
+
+    /**
+     * Writes the exit frame that ends a response.
+     *
+     * @param out The stream to the client
+     * @param exitCode The exit code of the command
+     * @throws IOException if the frame cannot be sent
+     */
+    public static void writeExit(DataOutputStream out, int exitCode) throws IOException {
+        out.writeByte(EXIT);
+        out.writeInt(exitCode);
+        out.flush();
+    }
+
+    /**
+     * Reads length-prefixed UTF-8 text.
+     *
+     * @param in The stream
+     * @return The text
+     * @throws IOException if the text cannot be read
+     */
+    public static String readText(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            throw new IOException("Malformed daemon message: length " + length);
+        }
+        byte[] bytes = in.readNBytes(length);
+        if (bytes.length < length) {
+            throw new EOFException("Daemon message ended after " + bytes.length + " of " + length + " bytes");
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeText(DataOutputStream out, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
@@ -0,0 +1,277 @@
+package com.example.shelldemo.daemon;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import jdk.net.ExtendedSocketOptions;
+
+/**
+ * Accepts clients on a Unix domain socket and runs each client's request on
+ * a virtual thread of one long-lived process, streaming the command's output
+ * back as it is written. Only the user running the daemon may connect, as
+ * requests run with the daemon's connections and cached passwords: the
+ * socket is bound in a directory only that user can enter and made private
+ * before it is moved into place, and the peer credentials of each client are
+ * checked where the platform reports them.
+ */
+public final class DaemonServer implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(DaemonServer.class);
+
+    /**
+     * Runs the command of a request.
+     */
+    @FunctionalInterface
+    public interface RequestHandler {
+        /**
+         * @param request The working directory and arguments of the command
+         * @param out Standard output of the client
+         * @param err Standard error of the client
+         * @return The exit code of the command
+         */
+        int handle(DaemonProtocol.Request request, PrintWriter out, PrintWriter err);
+    }
+
+    private final Path socket;
+    private final RequestHandler handler;
+    private final ServerSocketChannel server;
+    private final UserPrincipal owner;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private volatile boolean closed;
+
+    /**
+     * Binds the socket. A socket file left behind by a daemon that is no
+     * longer running is replaced.
+     *
+     * @param socket The socket file to listen on
+     * @param handler Runs the requests
+     * @throws IOException if the socket cannot be bound
+     * @throws IllegalStateException if another daemon listens on the socket
+     */
+    public DaemonServer(Path socket, RequestHandler handler) throws IOException {
+        this.socket = socket;
+        this.handler = handler;
+        if (Files.exists(socket)) {
+            if (isListening(socket)) {
+                throw new IllegalStateException("A daemon is already listening on " + socket);
+            }
+            logger.info("Removing stale daemon socket {}", socket);
+            Files.delete(socket);
+        }
+        Path directory = socket.toAbsolutePath().getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+        this.server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        try {
+            bindPrivately(directory);
+            this.owner = Files.getOwner(socket);
+        } catch (IOException | RuntimeException e) {
+            server.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Binds the socket in a new directory that only the daemon's user can
+     * enter, so that no other user can connect before the socket file is
+     * made private, then moves the socket file into place. Where the file
+     * system has no POSIX permissions the socket is bound where it belongs.
+     */
+    private void bindPrivately(Path directory) throws IOException {
+        Path staging;
+        try {
+            staging = Files.createTempDirectory(directory != null ? directory : Path.of("").toAbsolutePath(),
+                ".daemon", PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+        } catch (UnsupportedOperationException e) {
+            logger.warn("Cannot restrict access to daemon socket {}: {}", socket, e.getMessage());
+            server.bind(UnixDomainSocketAddress.of(socket));
+            return;
+        }
+        Path staged = staging.resolve("s");
+        try {
+            server.bind(UnixDomainSocketAddress.of(staged));
+            Files.setPosixFilePermissions(staged, PosixFilePermissions.fromString("rw-------"));
+            Files.move(staged, socket, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(staged);
+            Files.delete(staging);
+        }
+    }
+
+    /**
+     * Whether a daemon accepts connections on a socket.
+     *
+     * @param socket The socket file
+     * @return true if a connection succeeds
+     */
+    public static boolean isListening(Path socket) {
+        try (SocketChannel channel = SocketChannel.open(UnixDomainSocketAddress.of(socket))) {
+            return channel.isConnected();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Accepts clients until the server is closed.
+     */
+    public void serve() {
+        logger.info("Daemon listening on {}", socket);
+        while (!closed) {
+            SocketChannel channel;
+            try {
+                channel = server.accept();
+            } catch (AsynchronousCloseException e) {
+                break;
+            } catch (IOException e) {
+                if (closed) {
+                    break;
+                }
+                logger.error("Failed to accept daemon client: {}", e.getMessage(), e);
+                continue;
+            }
+            executor.execute(() -> handle(channel));
+        }
+        logger.info("Daemon on {} stopped accepting clients", socket);
+    }
+
+    private void handle(SocketChannel channel) {
+        long started = System.nanoTime();
+        try (channel) {
+            if (!fromOwner(channel)) {
+                return;
+            }
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+            DaemonProtocol.Request request = DaemonProtocol.readRequest(in);
+            // Arguments are not logged, as they may hold a password
+            logger.info("Running daemon request with {} arguments in {}", request.arguments().size(),
+                request.workingDirectory());
+            PrintWriter stdout = new PrintWriter(new FrameWriter(out, DaemonProtocol.OUT), true);
+            PrintWriter stderr = new PrintWriter(new FrameWriter(out, DaemonProtocol.ERR), true);
+            int exitCode;
+            try {
+                exitCode = handler.handle(request, stdout, stderr);
+            } catch (RuntimeException e) {
+                logger.error("Daemon request failed: {}", e.getMessage(), e);
+                stderr.println("ERROR: " + e.getMessage());
+                exitCode = 3;
+            }
+            stdout.flush();
+            stderr.flush();
+            synchronized (out) {
+                DaemonProtocol.writeExit(out, exitCode);
+            }
+            logger.info("Daemon request ended with exit code {} in {} ms", exitCode,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } catch (IOException | UncheckedIOException e) {
+            logger.warn("Daemon client disconnected: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Whether a client runs as the daemon's user, by the peer credentials of
+     * its connection. Where the platform does not report them, the socket
+     * file's permissions are the only check.
+     */
+    private boolean fromOwner(SocketChannel channel) throws IOException {
+        if (!channel.supportedOptions().contains(ExtendedSocketOptions.SO_PEERCRED)) {
+            return true;
+        }
+        UserPrincipal user = channel.getOption(ExtendedSocketOptions.SO_PEERCRED).user();
+        if (user.equals(owner)) {
+            return true;
+        }
+        logger.warn("Refused daemon client running as {}", user.getName());
+        return false;
+    }
+
+    /**
+     * Stops accepting clients, waits for the running requests and removes the socket file.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            server.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close daemon socket {}: {}", socket, e.getMessage());
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                logger.warn("Daemon requests still running after 30 seconds");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            Files.deleteIfExists(socket);
+        } catch (IOException e) {
+            logger.warn("Failed to remove daemon socket {}: {}", socket, e.getMessage());
+        }
+    }
+
+    /**
+     * Buffers what a command writes and sends it to the client as one frame
+     * on every flush.
+     */
+    private static final class FrameWriter extends Writer {
+        private final DataOutputStream out;
+        private final byte type;
+        private final StringBuilder buffer = new StringBuilder();
+
+        FrameWriter(DataOutputStream out, byte type) {
+            this.out = out;
+            this.type = type;
+        }
+
+        @Override
+        public void write(char[] chars, int offset, int length) {
+            buffer.append(chars, offset, length);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (buffer.isEmpty()) {
+                return;
+            }
+            String text = buffer.toString();
+            buffer.setLength(0);
+            synchronized (out) {
+                DaemonProtocol.writeFrame(out, type, text);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package com.example.shelldemo.daemon;
+
+import java.io.PrintWriter;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Parameters;
+import picocli.CommandLine.Spec;
+
+import com.example.shelldemo.UnifiedDatabaseRunner;
+import com.example.shelldemo.jobs.Job;
+import com.example.shelldemo.jobs.JobScheduler;
+
+/**
+ * {@code db job}: submits commands to the daemon's {@link JobScheduler} and
+ * shows the queue.
+ * <pre>
+ * db job submit --priority bulk -- -t oracle -u hr -d ORCL load.sql
+ * db job list
+ * db job status 42
+ * db job output 42
+ * db job cancel 42
+ * </pre>
+ */
+@Command(name = JobCommand.NAME, mixinStandardHelpOptions = true, description = "Queue db commands on the daemon and show the queue")
+public class JobCommand implements Callable<Integer> {
+
+    /** First argument of a daemon request that manages jobs instead of running a command */
+    public static final String NAME = "job";
+
+    @Spec
+    private CommandSpec spec;
+
+    /**
+     * Runs a {@code db job} command line.
+     *
+     * @param scheduler The daemon's job scheduler
+     * @param workingDirectory The client's working directory
+     * @param out Standard output of the client
+     * @param err Standard error of the client
+     * @param args The arguments following {@value #NAME}
+     * @return The exit code
+     */
+    public static int execute(JobScheduler scheduler, Path workingDirectory, PrintWriter out, PrintWriter err,
+            String... args) {
+        return new CommandLine(new JobCommand())
+            .addSubcommand(new Submit(scheduler, workingDirectory))
+            .addSubcommand(new ListJobs(scheduler))
+            .addSubcommand(new Status(scheduler))
+            .addSubcommand(new Output(scheduler))
+            .addSubcommand(new Cancel(scheduler))
+            .setCaseInsensitiveEnumValuesAllowed(true)
+            .setOut(out)
+            .setErr(err)
+            .execute(args);
+    }
+
+    @Override
+    public Integer call() {
+        spec.commandLine().usage(spec.commandLine().getErr());
+        return 2;
+    }
+
+    @Command(name = "submit", description = "Queue a db command; its arguments follow --")
+    static final class Submit implements Callable<Integer> {
+        private final JobScheduler scheduler;
+        private final Path workingDirectory;
+
+        @Spec
+        private CommandSpec spec;
+
+        @Option(names = {"--priority"}, defaultValue = "INTERACTIVE", description = "Priority class: interactive or bulk; bulk jobs run when no interactive job of their database is waiting (default: interactive)")
+        private Job.Priority priority;
+
+        @Option(names = {"--wait"}, description = "Wait for the job to end, print its output and exit with its exit code")
+        private boolean await;
+
+        @Parameters(arity = "1..*", paramLabel = "ARGS", description = "The db command-line arguments")
+        private List<String> arguments;
+
+        Submit(JobScheduler scheduler, Path workingDirectory) {
+            this.scheduler = scheduler;
+            this.workingDirectory = workingDirectory;
+        }
+
+        @Override
+        public Integer call() throws InterruptedException {
+            PrintWriter out = spec.commandLine().getOut();
+            PrintWriter err = spec.commandLine().getErr();
+            String database;
+            try {
+                database = UnifiedDatabaseRunner.databaseKey(arguments.toArray(String[]::new));
+            } catch (CommandLine.ParameterException e) {
+                err.println("ERROR: Invalid db command: " + e.getMessage());
+                return 2;
+            }
+            Job job = scheduler.submit(priority, database, workingDirectory.toString(), arguments);
+            out.println("Job " + job.id() + " " + job.state().name().toLowerCase(Locale.ROOT) + " for " + database);
+            if (!await) {
+                return 0;
+            }
+            Optional<Job> ended = scheduler.await(job.id());
+            scheduler.output(job.id()).ifPresent(out::print);
+            if (ended.isEmpty() || !ended.get().state().isFinal()) {
+                err.println("ERROR: The daemon stopped before job " + job.id() + " ended");
+                return 3;
+            }
+            return ended.get().exitCode();
+        }
+    }
+
+    @Command(name = "list", description = "Show the queued and running jobs and the jobs that ended recently")
+    static final class ListJobs implements Callable<Integer> {
+        private final JobScheduler scheduler;
+
+        @Spec
+        private CommandSpec spec;
+
+        ListJobs(JobScheduler scheduler) {
+            this.scheduler = scheduler;
+        }
+
+        @Override
+        public Integer call() {
+            spec.commandLine().getOut().print(format(scheduler.list()));
+            return 0;
+        }
+    }
+
+    @Command(name = "status", description = "Show the state of a job")
+    static final class Status implements Callable<Integer> {
+        private final JobScheduler scheduler;
+
+        @Spec
+        private CommandSpec spec;
+
+        @Parameters(index = "0", paramLabel = "ID", description = "Job number")
+        private long id;
+
+        Status(JobScheduler scheduler) {
+            this.scheduler = scheduler;
+        }
+
+        @Override
+        public Integer call() {
+            Optional<Job> job = scheduler.get(id);
+            if (job.isEmpty()) {
+                spec.commandLine().getErr().println("ERROR: No job " + id);
+                return 1;
+            }
+            spec.commandLine().getOut().print(format(List.of(job.get())));
+            return 0;
+        }
+    }
+
+    @Command(name = "output", description = "Print what the command of a job has written so far")
+    static final class Output implements Callable<Integer> {
+        private final JobScheduler scheduler;
+
+        @Spec
+        private CommandSpec spec;
+
+        @Parameters(index = "0", paramLabel = "ID", description = "Job number")
+        private long id;
+
+        Output(JobScheduler scheduler) {
+            this.scheduler = scheduler;
+        }
+
+        @Override
+        public Integer call() {
+            Optional<String> output = scheduler.output(id);
+            if (output.isEmpty()) {
+                spec.commandLine().getErr().println("ERROR: No job " + id);
+                return 1;
+            }
+            spec.commandLine().getOut().print(output.get());
+            return 0;
+        }
+    }
+
+    @Command(name = "cancel", description = "Remove a queued job from the queue; a running job runs to its end")
+    static final class Cancel implements Callable<Integer> {
+        private final JobScheduler scheduler;
+
+        @Spec
+        private CommandSpec spec;
+
+        @Parameters(index = "0", paramLabel = "ID", description = "Job number")
+        private long id;
+
+        Cancel(JobScheduler scheduler) {
+            this.scheduler = scheduler;
+        }
+
+        @Override
+        public Integer call() {
+            Optional<Job> job = scheduler.cancel(id);
+            if (job.isEmpty()) {
+                spec.commandLine().getErr().println("ERROR: No job " + id);
+                return 1;
+            }
+            if (job.get().state() != Job.State.CANCELLED) {
+                spec.commandLine().getErr().println("ERROR: Job " + id + " is " + job.get().state().name()
+                    .toLowerCase(Locale.ROOT) + " and can no longer be cancelled");
+                return 1;
+            }
+            spec.commandLine().getOut().println("Job " + id + " cancelled");
+            return 0;
+        }
+    }
+
+    /**
+     * Formats jobs as a table with their queue wait and run times, followed
+     * by the reasons of the jobs that did not run to their end.
+     *
+     * @param jobs The jobs
+     * @return The formatted table
+     */
+    static String format(List<Job> jobs) {
+        String[] headers = {"Id", "Priority", "State", "Database", "Wait", "Run", "Exit"};
+        String[][] rows = new String[jobs.size()][];
+        int[] widths = new int[headers.length];
+        for (int i = 0; i < headers.length; i++) {
+            widths[i] = headers[i].length();
+        }
+        for (int r = 0; r < rows.length; r++) {
+            Job job = jobs.get(r);
+            rows[r] = new String[] {String.valueOf(job.id()), job.priority().name(), job.state().name(),
+                job.database(), seconds(job.queueWait()), seconds(job.runTime()),
+                job.state().isFinal() ? String.valueOf(job.exitCode()) : ""};
+            for (int i = 0; i < headers.length; i++) {
+                widths[i] = Math.max(widths[i], rows[r][i].length());
+            }
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append(jobs.size()).append(" jobs: ").append(count(jobs, Job.State.QUEUED)).append(" queued, ")
+            .append(count(jobs, Job.State.RUNNING)).append(" running\n");
+        appendSeparator(sb, widths);
+        appendRow(sb, headers, widths);
+        appendSeparator(sb, widths);
+        for (String[] row : rows) {
+            appendRow(sb, row, widths);
+        }
+        appendSeparator(sb, widths);
+        for (Job job : jobs) {
+            if (job.error() != null) {
+                sb.append(job.id()).append(": ").append(job.error()).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    private static long count(List<Job> jobs, Job.State state) {
+        return jobs.stream().filter(job -> job.state() == state).count();
+    }
+
+    private static String seconds(Duration duration) {
+        return String.format(Locale.ROOT, "%.3f s", duration.toNanos() / 1e9);
+    }
+
+    private static void appendSeparator(StringBuilder sb, int[] widths) {
+        sb.append("+");
+        for (int w : widths) sb.append("-".repeat(w + 2)).append("+");
+        sb.append("\n");
+    }
+
+    private static void appendRow(StringBuilder sb, String[] values, int[] widths) {
+        sb.append("|");
+        for (int i = 0; i < values.length; i++) {
+            sb.append(" ").append(String.format("%-" + widths[i] + "s", values[i])).append(" |");
+        }
+        sb.append("\n");
+    }
+}
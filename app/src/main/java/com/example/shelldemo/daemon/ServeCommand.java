@@ -0,0 +1,98 @@
+package com.example.shelldemo.daemon;
+
+import java.io.PrintWriter;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+import com.example.shelldemo.UnifiedDatabaseRunner;
+import com.example.shelldemo.config.ConfigurationHolder;
+import com.example.shelldemo.connection.PoolRegistry;
+import com.example.shelldemo.jobs.JobScheduler;
+import com.example.shelldemo.jobs.JobStore;
+import com.example.shelldemo.spi.VendorRegistry;
+
+/**
+ * {@code db serve}: keeps one process running that executes the commands of
+ * {@link DaemonClient}s. Configuration, database vendors, JDBC drivers and
+ * logging are loaded once; connection pools stay open between commands and
+ * passwords fetched from Vault are reused for a while, so a command that
+ * connects to a database used before starts on an authenticated connection.
+ * Commands submitted with {@code db job submit} are queued and run by a
+ * {@link JobScheduler} within per-database limits; see {@link JobCommand}.
+ */
+@Command(name = ServeCommand.NAME, mixinStandardHelpOptions = true, description = "Run db commands sent by clients over a Unix domain socket, keeping connections and Vault passwords between commands")
+public class ServeCommand implements Callable<Integer> {
+    private static final Logger logger = LogManager.getLogger(ServeCommand.class);
+
+    /** First argument that starts the daemon instead of running a command */
+    public static final String NAME = "serve";
+
+    @Option(names = {"--socket"}, description = "Unix domain socket to listen on (default: daemon.socket in application.yaml)")
+    private String socket;
+
+    @Option(names = {"--credential-ttl"}, description = "Seconds a password fetched from Vault is reused, 0 to fetch it for every command (default: daemon.credential-ttl-seconds in application.yaml)")
+    private Integer credentialTtl;
+
+    @Option(names = {"--job-queue"}, description = "File the queue of submitted jobs is kept in (default: daemon.jobs.queue-file in application.yaml)")
+    private String jobQueue;
+
+    @Option(names = {"--max-jobs"}, description = "Maximum number of submitted jobs running at once (default: daemon.jobs.max-running in application.yaml)")
+    private Integer maxJobs;
+
+    @Option(names = {"--per-database-jobs"}, description = "Maximum number of submitted jobs running at once against one database (default: daemon.jobs.per-database in application.yaml)")
+    private Integer perDatabaseJobs;
+
+    @Override
+    public Integer call() throws Exception {
+        ConfigurationHolder config = ConfigurationHolder.getInstance();
+        Path socketPath = Path.of(socket != null ? socket : config.getDaemonSocket());
+        int ttl = credentialTtl != null ? credentialTtl : config.getDaemonCredentialTtlSeconds();
+        JobScheduler.Limits limits = new JobScheduler.Limits(
+            maxJobs != null ? maxJobs : config.getDaemonMaxRunningJobs(),
+            perDatabaseJobs != null ? perDatabaseJobs : config.getDaemonJobsPerDatabase(),
+            Duration.ofSeconds(config.getDaemonBulkPromotionSeconds()));
+        logger.info("Loaded database vendors: {}", VendorRegistry.getAllVendors().keySet());
+        CredentialCache credentials = new CredentialCache(Duration.ofSeconds(ttl));
+        try (PoolRegistry pools = new PoolRegistry();
+             JobScheduler jobs = new JobScheduler(
+                 new JobStore(Path.of(jobQueue != null ? jobQueue : config.getDaemonJobQueueFile())),
+                 (job, out, err) -> run(Path.of(job.workingDirectory()), job.arguments(), out, err, pools, credentials),
+                 limits);
+             DaemonServer server = new DaemonServer(socketPath, (request, out, err) -> run(request, out, err, jobs,
+                 pools, credentials))) {
+            Thread shutdown = new Thread(() -> {
+                server.close();
+                jobs.close();
+                pools.close();
+            }, "daemon-shutdown");
+            Runtime.getRuntime().addShutdownHook(shutdown);
+            server.serve();
+            return 0;
+        }
+    }
+
+    private static int run(DaemonProtocol.Request request, PrintWriter out, PrintWriter err, JobScheduler jobs,
+            PoolRegistry pools, CredentialCache credentials) {
+        List<String> arguments = request.arguments();
+        if (!arguments.isEmpty() && JobCommand.NAME.equals(arguments.get(0))) {
+            return JobCommand.execute(jobs, request.workingDirectory(), out, err,
+                arguments.subList(1, arguments.size()).toArray(String[]::new));
+        }
+        return run(request.workingDirectory(), arguments, out, err, pools, credentials);
+    }
+
+    private static int run(Path workingDirectory, List<String> arguments, PrintWriter out, PrintWriter err,
+            PoolRegistry pools, CredentialCache credentials) {
+        UnifiedDatabaseRunner.Session session = new UnifiedDatabaseRunner.Session(workingDirectory,
+            out::println, err, false, pools, credentials);
+        return UnifiedDatabaseRunner.execute(session, out, err, arguments.toArray(String[]::new));
+    }
+}
@@ -0,0 +1,227 @@
+package com.example.shelldemo.deploy;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * The scripts of a release, in ordering groups. The groups run one after
+ * another; the scripts of a group are independent of each other and may run
+ * at once.
+ * <p>
+ * A deployment directory holds its groups as subdirectories, run in name
+ * order, e.g. {@code 01_ddl/} before {@code 02_data/}; scripts directly in the
+ * directory form a group run before them. A manifest file names its groups in
+ * brackets, each followed by its scripts, one per line, relative to the
+ * manifest:
+ * <pre>
+ * # Release 4.2
+ * [ddl]
+ * ddl/tables.sql
+ * ddl/indexes/
+ * [data]
+ * data/*.sql
+ * </pre>
+ * A directory entry stands for every script below it, and an entry may use
+ * glob wildcards in its file name. Scripts are files ending in {@code .sql}.
+ *
+ * @param source The deployment directory or manifest
+ * @param groups The ordering groups, in the order they run
+ */
+public record DeploymentPlan(Path source, List<Group> groups) {
+
+    /** File extension that marks a deployment manifest */
+    public static final String MANIFEST_EXTENSION = ".manifest";
+
+    private static final String SCRIPT_EXTENSION = ".sql";
+
+    /**
+     * A group of scripts that may run at once.
+     *
+     * @param name The group name
+     * @param files The scripts of the group
+     */
+    public record Group(String name, List<File> files) {
+        public Group {
+            files = List.copyOf(files);
+        }
+    }
+
+    /**
+     * Compact constructor for validation
+     */
+    public DeploymentPlan {
+        groups = List.copyOf(groups);
+        if (groups.stream().allMatch(group -> group.files().isEmpty())) {
+            throw new IllegalArgumentException("No SQL scripts found to deploy in " + source);
+        }
+    }
+
+    /**
+     * Whether a target names a deployment rather than a single script.
+     *
+     * @param target The target path
+     * @return true for a directory or a manifest file
+     */
+    public static boolean isDeployment(Path target) {
+        return Files.isDirectory(target) || target.getFileName().toString().endsWith(MANIFEST_EXTENSION);
+    }
+
+    /**
+     * Reads the plan of a deployment directory or manifest.
+     *
+     * @param target The deployment directory or manifest
+     * @return The plan
+     * @throws IllegalArgumentException if the target or a manifest entry does not exist
+     */
+    public static DeploymentPlan of(Path target) {
+        if (Files.isDirectory(target)) {
+            return fromDirectory(target);
+        }
+        if (!Files.isRegularFile(target)) {
+            throw new IllegalArgumentException("Deployment manifest not found: " + target);
+        }
+        return fromManifest(target);
+    }
+
+    /**
+     * Reads the plan of a deployment directory.
+     *
+     * @param directory The deployment directory
+     * @return The plan
+     */
+    public static DeploymentPlan fromDirectory(Path directory) {
+        List<Group> groups = new ArrayList<>();
+        List<Path> entries = list(directory);
+        List<File> topLevel = entries.stream().filter(DeploymentPlan::isScript).map(Path::toFile).toList();
+        if (!topLevel.isEmpty()) {
+            groups.add(new Group(directory.getFileName().toString(), topLevel));
+        }
+        for (Path entry : entries) {
+            List<File> scripts = Files.isDirectory(entry) ? scriptsBelow(entry) : List.of();
+            if (!scripts.isEmpty()) {
+                groups.add(new Group(entry.getFileName().toString(), scripts));
+            }
+        }
+        return new DeploymentPlan(directory, groups);
+    }
+
+    /**
+     * Reads the plan of a deployment manifest.
+     *
+     * @param manifest The manifest file
+     * @return The plan
+     */
+    public static DeploymentPlan fromManifest(Path manifest) {
+        Path base = manifest.toAbsolutePath().getParent();
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(manifest);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read deployment manifest " + manifest, e);
+        }
+        List<Group> groups = new ArrayList<>();
+        String name = "default";
+        Set<File> files = new LinkedHashSet<>();
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            if (line.startsWith("[") && line.endsWith("]")) {
+                if (!files.isEmpty()) {
+                    groups.add(new Group(name, new ArrayList<>(files)));
+                }
+                name = line.substring(1, line.length() - 1).strip();
+                files = new LinkedHashSet<>();
+                continue;
+            }
+            List<File> resolved = resolve(base, line);
+            if (resolved.isEmpty()) {
+                throw new IllegalArgumentException("Deployment manifest " + manifest + " line " + (i + 1)
+                    + ": no SQL scripts match " + line);
+            }
+            files.addAll(resolved);
+        }
+        if (!files.isEmpty()) {
+            groups.add(new Group(name, new ArrayList<>(files)));
+        }
+        return new DeploymentPlan(manifest, groups);
+    }
+
+    /**
+     * All scripts of the plan, group by group.
+     *
+     * @return The scripts in the order of their groups
+     */
+    public List<File> files() {
+        return groups.stream().flatMap(group -> group.files().stream()).toList();
+    }
+
+    /**
+     * Describes the groups and their scripts, one line each.
+     *
+     * @return The description
+     */
+    public String describe() {
+        StringBuilder description = new StringBuilder("Deployment plan of ").append(source).append(": ")
+            .append(files().size()).append(" scripts in ").append(groups.size()).append(" groups\n");
+        for (int i = 0; i < groups.size(); i++) {
+            Group group = groups.get(i);
+            description.append("Group ").append(i + 1).append(" ").append(group.name()).append(" (")
+                .append(group.files().size()).append(group.files().size() == 1 ? " script" : " concurrent scripts")
+                .append("):\n");
+            group.files().forEach(file -> description.append("  ").append(file.getPath()).append('\n'));
+        }
+        return description.toString();
+    }
+
+    private static List<File> resolve(Path base, String entry) {
+        Path path = base.resolve(entry).normalize();
+        if (Files.isDirectory(path)) {
+            return scriptsBelow(path);
+        }
+        String fileName = path.getFileName().toString();
+        if (fileName.contains("*") || fileName.contains("?") || fileName.contains("[")) {
+            PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + fileName);
+            Path parent = path.getParent();
+            if (!Files.isDirectory(parent)) {
+                return List.of();
+            }
+            return list(parent).stream()
+                .filter(file -> Files.isRegularFile(file) && matcher.matches(file.getFileName()))
+                .map(Path::toFile)
+                .toList();
+        }
+        return Files.isRegularFile(path) ? List.of(path.toFile()) : List.of();
+    }
+
+    private static List<File> scriptsBelow(Path directory) {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            return paths.filter(DeploymentPlan::isScript).sorted().map(Path::toFile).toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list deployment directory " + directory, e);
+        }
+    }
+
+    private static List<Path> list(Path directory) {
+        try (Stream<Path> paths = Files.list(directory)) {
+            return paths.sorted().toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list deployment directory " + directory, e);
+        }
+    }
+
+    private static boolean isScript(Path path) {
+        return Files.isRegularFile(path) && path.getFileName().toString().toLowerCase().endsWith(SCRIPT_EXTENSION);
+    }
+}
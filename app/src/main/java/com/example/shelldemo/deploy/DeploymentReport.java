@@ -0,0 +1,177 @@
+package com.example.shelldemo.deploy;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The aggregated outcome of a deployment: one result per script, in plan
+ * order, with the time each script took.
+ *
+ * @param source The deployment directory or manifest
+ * @param results The result of each script of the plan
+ * @param elapsed Wall-clock time of the whole deployment
+ */
+public record DeploymentReport(String source, List<ScriptResult> results, Duration elapsed) {
+
+    /**
+     * How a script of a deployment ended.
+     */
+    public enum Status {
+        /** Every statement succeeded */
+        SUCCEEDED,
+        /** The script was aborted, or some of its statements failed */
+        FAILED,
+        /** The script was not started after an earlier failure */
+        SKIPPED
+    }
+
+    /**
+     * The outcome of one script.
+     *
+     * @param group The name of the script's ordering group
+     * @param file The script
+     * @param status How the script ended
+     * @param executed Number of statements executed
+     * @param failed Number of statements that failed
+     * @param elapsed Time the script took
+     * @param error The error that aborted the script, or null
+     */
+    public record ScriptResult(String group, File file, Status status, int executed, int failed,
+            Duration elapsed, String error) {
+
+        /**
+         * The result of a script that ran to its end.
+         *
+         * @param group The group name
+         * @param file The script
+         * @param executed Number of statements executed
+         * @param failed Number of statements that failed
+         * @param elapsed Time the script took
+         * @return The result
+         */
+        public static ScriptResult completed(String group, File file, int executed, int failed, Duration elapsed) {
+            return new ScriptResult(group, file, failed > 0 ? Status.FAILED : Status.SUCCEEDED, executed, failed,
+                elapsed, null);
+        }
+
+        /**
+         * The result of a script aborted by an error.
+         *
+         * @param group The group name
+         * @param file The script
+         * @param elapsed Time the script took
+         * @param error The error
+         * @return The result
+         */
+        public static ScriptResult aborted(String group, File file, Duration elapsed, Exception error) {
+            return new ScriptResult(group, file, Status.FAILED, 0, 1, elapsed, error.getMessage());
+        }
+
+        /**
+         * The result of a script that was not started.
+         *
+         * @param group The group name
+         * @param file The script
+         * @return The result
+         */
+        public static ScriptResult skipped(String group, File file) {
+            return new ScriptResult(group, file, Status.SKIPPED, 0, 0, Duration.ZERO, null);
+        }
+    }
+
+    /**
+     * Compact constructor for validation
+     */
+    public DeploymentReport {
+        results = List.copyOf(results);
+    }
+
+    /**
+     * Whether every script of the deployment succeeded.
+     *
+     * @return true if no script failed or was skipped
+     */
+    public boolean succeeded() {
+        return results.stream().allMatch(result -> result.status() == Status.SUCCEEDED);
+    }
+
+    /**
+     * Counts the scripts that ended with a status.
+     *
+     * @param status The status
+     * @return The number of scripts
+     */
+    public long count(Status status) {
+        return results.stream().filter(result -> result.status() == status).count();
+    }
+
+    /**
+     * Total number of statements executed.
+     *
+     * @return The number of statements
+     */
+    public int executed() {
+        return results.stream().mapToInt(ScriptResult::executed).sum();
+    }
+
+    /**
+     * Formats the report as a summary line followed by a table of the scripts
+     * and the errors that aborted any of them.
+     *
+     * @return The formatted report
+     */
+    public String format() {
+        String[] headers = {"Group", "Script", "Status", "Executed", "Failed", "Time"};
+        String[][] rows = new String[results.size()][];
+        int[] widths = new int[headers.length];
+        for (int i = 0; i < headers.length; i++) {
+            widths[i] = headers[i].length();
+        }
+        for (int r = 0; r < rows.length; r++) {
+            ScriptResult result = results.get(r);
+            rows[r] = new String[] {result.group(), result.file().getName(), result.status().name(),
+                String.valueOf(result.executed()), String.valueOf(result.failed()), seconds(result.elapsed())};
+            for (int i = 0; i < headers.length; i++) {
+                widths[i] = Math.max(widths[i], rows[r][i].length());
+            }
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append("Deployment of ").append(source).append(": ").append(results.size()).append(" scripts, ")
+            .append(count(Status.SUCCEEDED)).append(" succeeded, ").append(count(Status.FAILED)).append(" failed, ")
+            .append(count(Status.SKIPPED)).append(" skipped, ").append(executed()).append(" statements in ")
+            .append(seconds(elapsed)).append('\n');
+        appendSeparator(sb, widths);
+        appendRow(sb, headers, widths);
+        appendSeparator(sb, widths);
+        for (String[] row : rows) {
+            appendRow(sb, row, widths);
+        }
+        appendSeparator(sb, widths);
+        for (ScriptResult result : results) {
+            if (result.error() != null) {
+                sb.append(result.file().getPath()).append(": ").append(result.error()).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String seconds(Duration duration) {
+        return String.format(Locale.ROOT, "%.3f s", duration.toNanos() / 1e9);
+    }
+
+    private static void appendSeparator(StringBuilder sb, int[] widths) {
+        sb.append("+");
+        for (int w : widths) sb.append("-".repeat(w + 2)).append("+");
+        sb.append("\n");
+    }
+
+    private static void appendRow(StringBuilder sb, String[] values, int[] widths) {
+        sb.append("|");
+        for (int i = 0; i < values.length; i++) {
+            sb.append(" ").append(String.format("%-" + widths[i] + "s", values[i])).append(" |");
+        }
+        sb.append("\n");
+    }
+}
@@ -32,6 +32,7 @@ public class DatabaseException extends RuntimeException {
         OP_BATCH("OP_004", "Batch processing failed"),
         OP_UPDATE("OP_005", "Update operation failed"),
         OP_DDL("OP_006", "DDL operation failed"),
+        OP_JOURNAL("OP_007", "Execution journal failed"),
         
         // Data errors
         SYNTAX_ERROR("DATA_001", "SQL syntax error"),
@@ -1,13 +1,12 @@
 package com.example.shelldemo.executor;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
 import java.sql.SQLException;
 
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.ThreadContext;
 
 import com.example.shelldemo.context.DatabaseContext;
+import com.example.shelldemo.context.StatementCache;
 import com.example.shelldemo.exception.DatabaseException.ErrorType;
 import com.example.shelldemo.parser.SqlStatement;
 import com.example.shelldemo.transaction.TransactionManager;
@@ -42,11 +41,10 @@ public final class DdlExecutor implements SqlExecutor {
             throw new IllegalArgumentException("Expected DdlStatement but got " + statement.getClass().getSimpleName());
         }
         String sql = statement.getText();
-        Connection connection = context.getConnection();
         LoggingUtils.logOperation(logger, "DDL operation", sql);
         LoggingUtils.logSql(logger, sql);
         try {
-            boolean result = executeDdl(sql, connection);
+            boolean result = executeDdl(sql);
             logger.debug("Exiting DdlExecutor.execute with result: {}", result);
             return result;
         } catch (SQLException e) {
@@ -58,16 +56,15 @@ public final class DdlExecutor implements SqlExecutor {
     }
     
     /**
-     * Executes a DDL statement.
+     * Executes a DDL statement with a statement borrowed from the context's statement cache.
      *
      * @param sql The SQL statement
-     * @param connection The database connection
      * @return true if the statement was successfully executed
      * @throws SQLException if a database access error occurs
      */
-    private boolean executeDdl(String sql, Connection connection) throws SQLException {
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            return stmt.execute();
+    private boolean executeDdl(String sql) throws SQLException {
+        try (StatementCache.Lease lease = context.getStatementCache().borrow(sql)) {
+            return lease.statement().execute();
         }
     }
     
@@ -81,7 +78,7 @@ public final class DdlExecutor implements SqlExecutor {
      */
     public boolean executeInTransaction(String sql) throws SQLException {
         TransactionManager txManager = context.getTransactionManager();
-        return txManager.executeInTransaction(conn -> executeDdl(sql, conn));
+        return txManager.executeInTransaction(conn -> executeDdl(sql));
     }
     
     @Override
@@ -1,12 +1,11 @@
 package com.example.shelldemo.executor;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
 import java.sql.SQLException;
 
 import org.apache.logging.log4j.Logger;
 
 import com.example.shelldemo.context.DatabaseContext;
+import com.example.shelldemo.context.StatementCache;
 import com.example.shelldemo.exception.DatabaseException.ErrorType;
 import com.example.shelldemo.parser.SqlStatement;
 import com.example.shelldemo.transaction.TransactionManager;
@@ -36,11 +35,10 @@ public final class DmlExecutor implements SqlExecutor {
             throw new IllegalArgumentException("Expected DmlStatement but got " + statement.getClass().getSimpleName());
         }
         String sql = statement.getText();
-        Connection connection = context.getConnection();
         LoggingUtils.logOperation(logger, "DML operation", sql);
         LoggingUtils.logSql(logger, sql);
         try {
-            int result = executeUpdate(sql, connection);
+            int result = executeUpdate(sql);
             logger.debug("Exiting DmlExecutor.execute with result: {}", result);
             return result;
         } catch (SQLException e) {
@@ -50,16 +48,16 @@ public final class DmlExecutor implements SqlExecutor {
     }
     
     /**
-     * Executes a DML statement and returns the number of affected rows.
+     * Executes a DML statement with a statement borrowed from the context's
+     * statement cache and returns the number of affected rows.
      *
      * @param sql The SQL statement
-     * @param connection The database connection
      * @return The number of affected rows
      * @throws SQLException if a database access error occurs
      */
-    private int executeUpdate(String sql, Connection connection) throws SQLException {
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            return stmt.executeUpdate();
+    private int executeUpdate(String sql) throws SQLException {
+        try (StatementCache.Lease lease = context.getStatementCache().borrow(sql)) {
+            return lease.statement().executeUpdate();
         }
     }
     
@@ -72,7 +70,7 @@ public final class DmlExecutor implements SqlExecutor {
      */
     public int executeInTransaction(String sql) throws SQLException {
         TransactionManager txManager = context.getTransactionManager();
-        return txManager.executeInTransaction(conn -> executeUpdate(sql, conn));
+        return txManager.executeInTransaction(conn -> executeUpdate(sql));
     }
     
     @Override
@@ -1,5 +1,6 @@
 package com.example.shelldemo.executor;
 
+import java.io.IOException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -11,9 +12,13 @@ import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.ThreadContext;
 
 import com.example.shelldemo.context.DatabaseContext;
+import com.example.shelldemo.context.StatementCache;
+import com.example.shelldemo.exception.DatabaseException;
 import com.example.shelldemo.exception.DatabaseException.ErrorType;
 import com.example.shelldemo.parser.SqlStatement;
+import com.example.shelldemo.spi.DatabaseVendor;
 import com.example.shelldemo.sqlhandling.ResultSetProcessor;
+import com.example.shelldemo.sqlhandling.RowHandler;
 import com.example.shelldemo.transaction.TransactionManager;
 import com.example.shelldemo.util.ExceptionUtils;
 import com.example.shelldemo.util.LoggingUtils;
@@ -32,7 +37,7 @@ public final class QueryExecutor implements SqlExecutor {
      */
     public QueryExecutor(DatabaseContext context) {
         this.context = context;
-        this.resultProcessor = new ResultSetProcessor();
+        this.resultProcessor = new ResultSetProcessor(context.getVendor());
     }
     
     @Override
@@ -48,11 +53,10 @@ public final class QueryExecutor implements SqlExecutor {
             throw new IllegalArgumentException("Expected QueryStatement but got " + statement.getClass().getSimpleName());
         }
         String sql = statement.getText();
-        Connection connection = context.getConnection();
         LoggingUtils.logOperation(logger, "query", sql);
         LoggingUtils.logSql(logger, sql);
         try {
-            List<Map<String, Object>> result = executeQuery(sql, connection);
+            List<Map<String, Object>> result = executeQuery(sql);
             logger.debug("Exiting QueryExecutor.execute with result: {}", result);
             return result;
         } catch (SQLException e) {
@@ -64,16 +68,80 @@ public final class QueryExecutor implements SqlExecutor {
     }
     
     /**
-     * Executes a query and processes the results.
+     * Executes a query and passes its rows to a handler as they are fetched,
+     * with the vendor's streaming fetch size, so that memory use does not grow
+     * with the number of rows.
+     *
+     * @param statement The query
+     * @param handler Receives the rows
+     * @return The number of rows handled
+     * @throws SQLException if a database access error occurs
+     */
+    public long execute(SqlStatement statement, RowHandler handler) throws SQLException {
+        Logger logger = context.getLogger();
+        ThreadContext.put("operation", "query");
+        ThreadContext.put("dbType", context.getDbType());
+        if (!(statement instanceof SqlStatement.QueryStatement)) {
+            throw new IllegalArgumentException("Expected QueryStatement but got " + statement.getClass().getSimpleName());
+        }
+        String sql = statement.getText();
+        LoggingUtils.logOperation(logger, "query", sql);
+        LoggingUtils.logSql(logger, sql);
+        try {
+            long rows = streamQuery(sql, handler);
+            logger.debug("Exiting QueryExecutor.execute after streaming {} rows", rows);
+            return rows;
+        } catch (SQLException e) {
+            throw ExceptionUtils.handleSQLException(
+                e, "execute query", ErrorType.OP_QUERY, logger);
+        } catch (IOException e) {
+            logger.error("Failed to write query results: {}", e.getMessage(), e);
+            throw new DatabaseException("Failed to write query results: " + e.getMessage(), e, ErrorType.OP_QUERY);
+        } finally {
+            ThreadContext.clearAll();
+        }
+    }
+
+    /**
+     * Streams the rows of a query. The statement's fetch size is restored
+     * afterwards, as the statement stays in the cache; for a vendor that only
+     * fetches in chunks inside a transaction, auto-commit is switched off for
+     * the query and back on afterwards.
+     */
+    private long streamQuery(String sql, RowHandler handler) throws SQLException, IOException {
+        Connection connection = context.getConnection();
+        DatabaseVendor vendor = context.getVendor();
+        boolean cursor = vendor.requiresTransactionForStreaming() && connection.getAutoCommit();
+        if (cursor) {
+            connection.setAutoCommit(false);
+        }
+        try (StatementCache.Lease lease = context.getStatementCache().borrow(sql)) {
+            PreparedStatement statement = lease.statement();
+            int fetchSize = statement.getFetchSize();
+            statement.setFetchSize(vendor.getStreamingFetchSize());
+            try (ResultSet rs = statement.executeQuery()) {
+                return resultProcessor.streamRows(rs, handler);
+            } finally {
+                statement.setFetchSize(fetchSize);
+            }
+        } finally {
+            if (cursor) {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * Executes a query with a statement borrowed from the context's statement
+     * cache and processes the results.
      *
      * @param sql The SQL query
-     * @param connection The database connection
      * @return A list of result rows as maps
      * @throws SQLException if a database access error occurs
      */
-    private List<Map<String, Object>> executeQuery(String sql, Connection connection) throws SQLException {
-        try (PreparedStatement stmt = connection.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
+    private List<Map<String, Object>> executeQuery(String sql) throws SQLException {
+        try (StatementCache.Lease lease = context.getStatementCache().borrow(sql);
+             ResultSet rs = lease.statement().executeQuery()) {
             return resultProcessor.processResultSet(rs);
         }
     }
@@ -87,7 +155,7 @@ public final class QueryExecutor implements SqlExecutor {
      */
     public List<Map<String, Object>> executeInTransaction(String sql) throws SQLException {
         TransactionManager txManager = context.getTransactionManager();
-        return txManager.executeInTransaction(conn -> executeQuery(sql, conn));
+        return txManager.executeInTransaction(conn -> executeQuery(sql));
     }
     
     @Override
@@ -0,0 +1,55 @@
+package com.example.shelldemo.export;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+
+import com.example.shelldemo.sqlhandling.ResultSink;
+import com.example.shelldemo.sqlhandling.RowHandler;
+
+/**
+ * Writes the rows of every query of a run in the Arrow IPC format, named
+ * like the files of a {@link CsvResultSink}: the first query writes to the
+ * file given, a later query to {@code name-q2.arrow} and so on. A file named
+ * {@code *.arrows} gets the streaming format, any other the file format. On
+ * standard output every query writes a stream of its own, one after another.
+ */
+public final class ArrowResultSink implements ResultSink {
+    private final Path file;
+    private final int batchRows;
+    private final long batchBytes;
+
+    /**
+     * @param file The file of the first query's rows, or null for standard output
+     * @param batchRows Rows per record batch
+     * @param batchBytes Bytes per record batch
+     */
+    public ArrowResultSink(Path file, int batchRows, long batchBytes) {
+        this.file = file;
+        this.batchRows = batchRows;
+        this.batchBytes = batchBytes;
+    }
+
+    @Override
+    public RowHandler open(int query) {
+        if (file == null) {
+            // Standard output itself, unbuffered and never closed
+            WritableByteChannel stdout = new FileOutputStream(FileDescriptor.out).getChannel();
+            return new ArrowRowWriter(stdout, batchRows, batchBytes);
+        }
+        return new ArrowRowWriter(CsvResultSink.fileFor(file, query), formatOf(file), batchRows, batchBytes);
+    }
+
+    /**
+     * Picks the format of a file by its name.
+     *
+     * @param file The file
+     * @return The streaming format for a {@code .arrows} file, else the file format
+     */
+    static ArrowRowWriter.Format formatOf(Path file) {
+        return file.getFileName().toString().endsWith(".arrows")
+            ? ArrowRowWriter.Format.STREAM
+            : ArrowRowWriter.Format.FILE;
+    }
+}
@@ -0,0 +1,474 @@
+package com.example.shelldemo.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.example.shelldemo.sqlhandling.ColumnHeader;
+import com.example.shelldemo.sqlhandling.Row;
+import com.example.shelldemo.sqlhandling.RowHandler;
+
+/**
+ * Writes streamed rows in the Arrow IPC format, so that analytics tools read
+ * the columns as typed arrays instead of parsing text. Rows are collected
+ * into record batches of a number of rows or bytes, whichever is reached
+ * first; each column of a batch is a vector of the Arrow type matching the
+ * column's JDBC type (see {@link ArrowVector#forColumn}), and text columns
+ * with few distinct values are dictionary encoded.
+ * <p>
+ * The types are settled by the first batch, which is held back until it is
+ * complete; later batches are written straight into their vectors. The
+ * {@link Format#FILE file format} ends with the dictionaries and a footer
+ * indexing the batches, for random access; the {@link Format#STREAM stream
+ * format} can be written to a pipe and read as it arrives, each batch after
+ * the dictionary entries it adds.
+ * <p>
+ * A dictionary holds at most as many bytes of distinct values as a batch.
+ * When one fills up, the stream format ends the batch and starts a
+ * dictionary replacing it; the file format, which has a single dictionary
+ * per column, fails, as its schema has already been written.
+ */
+public final class ArrowRowWriter implements RowHandler, Closeable {
+    private static final Logger logger = LogManager.getLogger(ArrowRowWriter.class);
+
+    /** Rows per record batch by default */
+    public static final int DEFAULT_BATCH_ROWS = 1 << 16;
+
+    /** Bytes per record batch by default */
+    public static final long DEFAULT_BATCH_BYTES = 64L << 20;
+
+    /** Most bytes of a batch, which keeps 32-bit offsets valid */
+    private static final long MAX_BATCH_BYTES = 1L << 30;
+
+    private static final byte[] MAGIC = "ARROW1".getBytes(StandardCharsets.US_ASCII);
+    private static final short METADATA_V5 = 4;
+    private static final int CONTINUATION = 0xFFFFFFFF;
+
+    // Tags of the MessageHeader union of Arrow's Message.fbs
+    private static final byte SCHEMA = 1;
+    private static final byte DICTIONARY_BATCH = 2;
+    private static final byte RECORD_BATCH = 3;
+
+    /** How the batches are framed. */
+    public enum Format {
+        /** The IPC file format: magic bytes, the stream and a footer indexing it */
+        FILE,
+        /** The IPC streaming format: the messages one after another */
+        STREAM
+    }
+
+    private final Path file;
+    private final Format format;
+    private final int batchRows;
+    private final long batchBytes;
+    private final ByteBuffer out = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+    private WritableByteChannel channel;
+    private boolean closeChannel;
+    private List<String> columns = List.of();
+    private List<Object[]> firstBatch = new ArrayList<>();
+    private long firstBatchBytes;
+    private ColumnHeader header;
+    private ArrowVector[] vectors;
+    private final List<ArrowVector.DictionaryVector> dictionaries = new ArrayList<>();
+    private int rows;
+    private boolean schemaWritten;
+    private long position;
+    private final List<Long> dictionaryBlocks = new ArrayList<>();
+    private final List<Long> batchBlocks = new ArrayList<>();
+
+    /**
+     * Creates a writer of a file, which is opened when the rows start.
+     *
+     * @param file The file, replaced if it exists
+     * @param format The format of the file
+     * @param batchRows Rows per record batch
+     * @param batchBytes Bytes per record batch, up to 1 GB
+     */
+    public ArrowRowWriter(Path file, Format format, int batchRows, long batchBytes) {
+        if (batchRows < 1 || batchBytes < 1 || batchBytes > MAX_BATCH_BYTES) {
+            throw new IllegalArgumentException("Batches must hold at least one row and at most 1 GB");
+        }
+        this.file = file;
+        this.format = format;
+        this.batchRows = batchRows;
+        this.batchBytes = batchBytes;
+    }
+
+    /**
+     * Creates a writer of the streaming format to a channel, such as standard
+     * output, which is left open.
+     *
+     * @param channel The channel
+     * @param batchRows Rows per record batch
+     * @param batchBytes Bytes per record batch, up to 1 GB
+     */
+    public ArrowRowWriter(WritableByteChannel channel, int batchRows, long batchBytes) {
+        this(null, Format.STREAM, batchRows, batchBytes);
+        this.channel = channel;
+    }
+
+    @Override
+    public void start(List<String> columns) throws IOException {
+        this.columns = List.copyOf(columns);
+        if (file != null) {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+            closeChannel = true;
+        }
+        if (format == Format.FILE) {
+            write(ByteBuffer.wrap(MAGIC));
+            pad();
+        }
+    }
+
+    @Override
+    public void row(Map<String, Object> row) throws IOException {
+        Row values = row instanceof Row typed ? typed : null;
+        if (vectors == null) {
+            // The first batch decides the types, so it is kept until complete
+            if (header == null) {
+                header = values != null ? values.header() : ColumnHeader.of(columns);
+            }
+            Object[] copy = new Object[columns.size()];
+            for (int i = 0; i < copy.length; i++) {
+                copy[i] = values != null ? values.value(i) : row.get(columns.get(i));
+                firstBatchBytes += copy[i] instanceof String s ? s.length() + 4 : 8;
+            }
+            firstBatch.add(copy);
+            if (firstBatch.size() >= batchRows || firstBatchBytes >= batchBytes) {
+                createVectors();
+            }
+            return;
+        }
+        for (int i = 0; i < vectors.length; i++) {
+            vectors[i].add(values != null ? values.value(i) : row.get(columns.get(i)));
+        }
+        rows++;
+        replaceFullDictionaries();
+        // The budget is weighed every 256 rows, which is cheaper than on every row
+        if (rows >= batchRows || (rows & 0xFF) == 0 && bytes() >= batchBytes) {
+            writeBatch();
+        }
+    }
+
+    @Override
+    public void end(long rowCount) throws IOException {
+        if (vectors == null) {
+            createVectors();
+        }
+        if (rows > 0) {
+            writeBatch();
+        }
+        if (!schemaWritten) {
+            writeSchema();
+        }
+        if (format == Format.FILE) {
+            // Readers of the file format, such as Arrow Java's, load a single
+            // batch per dictionary, so it is written once with every entry
+            writeDictionaries();
+        }
+        // End of stream, which the file format also has before its footer
+        ensure(8);
+        out.putInt(CONTINUATION).putInt(0);
+        position += 8;
+        if (format == Format.FILE) {
+            writeFooter();
+        }
+        close();
+        logger.info("Wrote {} rows in {} batches to {}", rowCount, batchBlocks.size(),
+            file != null ? file : "the output stream");
+    }
+
+    /**
+     * Writes out the buffer and closes the file. Does nothing if the writer
+     * is already closed.
+     */
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            try {
+                flush();
+            } finally {
+                if (closeChannel) {
+                    channel.close();
+                }
+                channel = null;
+            }
+        }
+    }
+
+    /**
+     * Picks the vectors by the column types and the values of the first
+     * batch, and fills them with it.
+     */
+    private void createVectors() throws IOException {
+        if (header == null) {
+            header = ColumnHeader.of(columns);
+        }
+        vectors = new ArrowVector[columns.size()];
+        for (int i = 0; i < vectors.length; i++) {
+            List<Object> sample = new ArrayList<>(firstBatch.size());
+            for (Object[] values : firstBatch) {
+                sample.add(values[i]);
+            }
+            vectors[i] = ArrowVector.forColumn(columns.get(i), header.type(i), sample, i);
+            if (vectors[i] instanceof ArrowVector.DictionaryVector dictionary) {
+                dictionaries.add(dictionary);
+            }
+        }
+        List<Object[]> batch = firstBatch;
+        firstBatch = null;
+        for (Object[] values : batch) {
+            for (int i = 0; i < vectors.length; i++) {
+                vectors[i].add(values[i]);
+            }
+            rows++;
+            replaceFullDictionaries();
+        }
+        if (rows >= batchRows || bytes() >= batchBytes) {
+            writeBatch();
+        }
+    }
+
+    /**
+     * Ends the batch and empties the dictionaries once one of them is full,
+     * so that the next batch starts a new dictionary.
+     *
+     * @throws IOException in the file format, which cannot replace a dictionary
+     */
+    private void replaceFullDictionaries() throws IOException {
+        ArrowVector.DictionaryVector full = null;
+        for (ArrowVector.DictionaryVector dictionary : dictionaries) {
+            if (dictionary.isFull(batchBytes)) {
+                full = dictionary;
+            }
+        }
+        if (full == null) {
+            return;
+        }
+        if (format == Format.FILE) {
+            throw new IOException("Column " + full.name + " has more distinct values than its dictionary holds"
+                + " in the Arrow file format; write the stream format instead, or raise the batch size");
+        }
+        writeBatch();
+        for (ArrowVector.DictionaryVector dictionary : dictionaries) {
+            if (dictionary.isFull(batchBytes)) {
+                dictionary.reset();
+            }
+        }
+    }
+
+    private long bytes() {
+        long bytes = 0;
+        for (ArrowVector vector : vectors) {
+            bytes += vector.bytes() + (vector.length() >> 3);
+        }
+        return bytes;
+    }
+
+    private void writeSchema() throws IOException {
+        FlatBufferBuilder builder = new FlatBufferBuilder();
+        int schema = schema(builder);
+        writeMessage(builder, SCHEMA, schema, new ByteBuffer[0]);
+        schemaWritten = true;
+    }
+
+    private int schema(FlatBufferBuilder builder) {
+        int[] fields = new int[vectors.length];
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = vectors[i].field(builder);
+        }
+        int fieldVector = builder.createOffsetVector(fields);
+        builder.startTable(4);
+        builder.addOffsetField(1, fieldVector);
+        return builder.endTable();
+    }
+
+    /**
+     * Writes the batch of the rows collected, after the new entries of the
+     * dictionaries in the stream format, and clears the vectors for the next
+     * batch.
+     */
+    private void writeBatch() throws IOException {
+        if (!schemaWritten) {
+            writeSchema();
+        }
+        if (format == Format.STREAM) {
+            writeDictionaries();
+        }
+        List<ByteBuffer> buffers = new ArrayList<>();
+        for (ArrowVector vector : vectors) {
+            buffers.addAll(List.of(vector.buffers()));
+        }
+        ByteBuffer[] body = buffers.toArray(ByteBuffer[]::new);
+        FlatBufferBuilder builder = new FlatBufferBuilder();
+        int batch = recordBatch(builder, rows, vectors, body);
+        addBlock(batchBlocks, writeMessage(builder, RECORD_BATCH, batch, body));
+        for (ArrowVector vector : vectors) {
+            vector.clear();
+        }
+        rows = 0;
+    }
+
+    /**
+     * Writes the entries added to the dictionaries since they were last
+     * written, as deltas after the first time.
+     */
+    private void writeDictionaries() throws IOException {
+        for (ArrowVector vector : vectors) {
+            if (vector instanceof ArrowVector.DictionaryVector dictionary && dictionary.newEntries().length() > 0) {
+                ArrowVector entries = dictionary.newEntries();
+                FlatBufferBuilder builder = new FlatBufferBuilder();
+                ByteBuffer[] body = entries.buffers();
+                int data = recordBatch(builder, entries.length(), new ArrowVector[] {entries}, body);
+                builder.startTable(3);
+                builder.addField(0, dictionary.id());
+                builder.addOffsetField(1, data);
+                if (dictionary.hasWrittenEntries()) {
+                    // The entries add to those written before
+                    builder.addField(2, (byte) 1);
+                }
+                int dictionaryBatch = builder.endTable();
+                addBlock(dictionaryBlocks, writeMessage(builder, DICTIONARY_BATCH, dictionaryBatch, body));
+                dictionary.entriesWritten();
+            }
+        }
+    }
+
+    /**
+     * Creates the RecordBatch table of vectors whose buffers make up the body.
+     */
+    private static int recordBatch(FlatBufferBuilder builder, long length, ArrowVector[] vectors,
+            ByteBuffer[] body) {
+        long[] nodes = new long[vectors.length * 2];
+        for (int i = 0; i < vectors.length; i++) {
+            nodes[2 * i] = vectors[i].length();
+            nodes[2 * i + 1] = vectors[i].nullCount();
+        }
+        long[] buffers = new long[body.length * 2];
+        long offset = 0;
+        for (int i = 0; i < body.length; i++) {
+            buffers[2 * i] = offset;
+            buffers[2 * i + 1] = body[i].remaining();
+            offset += aligned(body[i].remaining());
+        }
+        int nodeVector = builder.createLongPairVector(nodes);
+        int bufferVector = builder.createLongPairVector(buffers);
+        builder.startTable(5);
+        builder.addField(0, length);
+        builder.addOffsetField(1, nodeVector);
+        builder.addOffsetField(2, bufferVector);
+        return builder.endTable();
+    }
+
+    /**
+     * Writes a message: the continuation marker, the length of the metadata,
+     * the Message table padded to 8 bytes, then the body, each buffer padded
+     * to 8 bytes.
+     *
+     * @return The offset, metadata length and body length of the message, as a file block
+     */
+    private long[] writeMessage(FlatBufferBuilder builder, byte type, int header, ByteBuffer[] body)
+            throws IOException {
+        long bodyLength = 0;
+        for (ByteBuffer buffer : body) {
+            bodyLength += aligned(buffer.remaining());
+        }
+        builder.startTable(5);
+        builder.addField(3, bodyLength);
+        builder.addOffsetField(2, header);
+        builder.addField(0, METADATA_V5);
+        builder.addField(1, type);
+        byte[] metadata = builder.finish(builder.endTable());
+        int metadataLength = (int) aligned(metadata.length);
+        long offset = position;
+        ensure(8);
+        out.putInt(CONTINUATION).putInt(metadataLength);
+        position += 8;
+        write(ByteBuffer.wrap(metadata));
+        pad();
+        for (ByteBuffer buffer : body) {
+            write(buffer.duplicate());
+            pad();
+        }
+        return new long[] {offset, 8 + metadataLength, bodyLength};
+    }
+
+    private static void addBlock(List<Long> blocks, long[] block) {
+        for (long value : block) {
+            blocks.add(value);
+        }
+    }
+
+    private void writeFooter() throws IOException {
+        FlatBufferBuilder builder = new FlatBufferBuilder();
+        int schema = schema(builder);
+        int dictionaries = builder.createBlockVector(dictionaryBlocks.stream().mapToLong(Long::longValue).toArray());
+        int batches = builder.createBlockVector(batchBlocks.stream().mapToLong(Long::longValue).toArray());
+        builder.startTable(5);
+        builder.addOffsetField(1, schema);
+        builder.addOffsetField(2, dictionaries);
+        builder.addOffsetField(3, batches);
+        builder.addField(0, METADATA_V5);
+        byte[] footer = builder.finish(builder.endTable());
+        write(ByteBuffer.wrap(footer));
+        ensure(4);
+        out.putInt(footer.length);
+        position += 4;
+        write(ByteBuffer.wrap(MAGIC));
+    }
+
+    private static long aligned(long length) {
+        return (length + 7) & ~7L;
+    }
+
+    /** Pads the output to a multiple of 8 bytes. */
+    private void pad() throws IOException {
+        int padding = (int) (aligned(position) - position);
+        ensure(padding);
+        for (int i = 0; i < padding; i++) {
+            out.put((byte) 0);
+        }
+        position += padding;
+    }
+
+    private void write(ByteBuffer bytes) throws IOException {
+        position += bytes.remaining();
+        if (bytes.remaining() > out.remaining()) {
+            flush();
+            if (bytes.remaining() >= out.capacity()) {
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+                return;
+            }
+        }
+        out.put(bytes);
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (out.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        out.clear();
+    }
+}
@@ -0,0 +1,926 @@
+package com.example.shelldemo.export;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import com.example.shelldemo.sqlhandling.ColumnType;
+
+/**
+ * The values of one column of a batch, laid out as an Arrow array: a
+ * validity bitmap and the buffers of the column's type, in little-endian
+ * order, ready to be written as the body of a record batch. A vector is
+ * cleared after every batch and refilled for the next.
+ */
+abstract class ArrowVector {
+    // Tags of the Type union of Arrow's Schema.fbs
+    static final byte INT = 2;
+    static final byte FLOATING_POINT = 3;
+    static final byte BINARY = 4;
+    static final byte UTF8 = 5;
+    static final byte BOOL = 6;
+    static final byte DECIMAL = 7;
+    static final byte DATE = 8;
+    static final byte TIMESTAMP = 10;
+
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+    /** A string column is dictionary encoded if the first batch repeats each value this often on average */
+    private static final int DICTIONARY_REPEATS = 4;
+
+    /** Most distinct values of the first batch for which a string column is dictionary encoded */
+    private static final int DICTIONARY_MAX_ENTRIES = 1 << 16;
+
+    final String name;
+    private byte[] validity = new byte[64];
+    private int length;
+    private int nullCount;
+
+    ArrowVector(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Picks the vector for a column: by the reader of the column where it
+     * reads one class of values, by the column's JDBC type where the reader is
+     * the generic one, and by the class of the values of the first batch where
+     * the type says nothing either. A column of text whose first batch holds
+     * few distinct values is dictionary encoded; values the vector has no
+     * exact type for are written as text.
+     *
+     * @param name The column label
+     * @param type The type of the column
+     * @param sample The values of the column in the first batch
+     * @param dictionaryId The id of the column's dictionary, if it gets one
+     * @return The vector
+     */
+    static ArrowVector forColumn(String name, ColumnType type, List<Object> sample, long dictionaryId) {
+        return switch (type.reader()) {
+            case LONG -> new Int64Vector(name);
+            case INT -> new Int32Vector(name);
+            case DOUBLE -> new Float64Vector(name);
+            case FLOAT -> new Float32Vector(name);
+            case BOOLEAN -> new BoolVector(name);
+            case BYTES -> new VarBinaryVector(name, BINARY);
+            case STRING -> lowCardinality(sample)
+                ? new DictionaryVector(name, dictionaryId)
+                : new VarBinaryVector(name, UTF8);
+            case OBJECT -> switch (type.sqlType()) {
+                case Types.NUMERIC, Types.DECIMAL ->
+                    type.precision() > 0 && type.precision() <= 38 && type.scale() >= 0 && type.scale() <= type.precision()
+                        ? new DecimalVector(name, type.precision(), type.scale())
+                        : new VarBinaryVector(name, UTF8);
+                // Unsigned integers, read in the next wider class
+                case Types.TINYINT, Types.SMALLINT, Types.INTEGER -> new Int64Vector(name);
+                case Types.BIGINT -> new DecimalVector(name, 20, 0);
+                case Types.DATE -> new Date32Vector(name);
+                case Types.TIMESTAMP -> new TimestampVector(name, null);
+                case Types.TIMESTAMP_WITH_TIMEZONE -> new TimestampVector(name, "UTC");
+                case Types.BLOB -> new VarBinaryVector(name, BINARY);
+                case Types.CLOB, Types.NCLOB -> new VarBinaryVector(name, UTF8);
+                default -> forValues(name, sample);
+            };
+        };
+    }
+
+    private static ArrowVector forValues(String name, List<Object> sample) {
+        Object value = sample.stream().filter(Objects::nonNull).findFirst().orElse(null);
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return new Int64Vector(name);
+        }
+        if (value instanceof Double || value instanceof Float) {
+            return new Float64Vector(name);
+        }
+        if (value instanceof Boolean) {
+            return new BoolVector(name);
+        }
+        if (value instanceof byte[] || value instanceof Blob) {
+            return new VarBinaryVector(name, BINARY);
+        }
+        if (value instanceof java.sql.Date || value instanceof LocalDate) {
+            return new Date32Vector(name);
+        }
+        if (value instanceof Timestamp || value instanceof LocalDateTime) {
+            return new TimestampVector(name, null);
+        }
+        return new VarBinaryVector(name, UTF8);
+    }
+
+    private static boolean lowCardinality(List<Object> sample) {
+        Set<Object> distinct = new HashSet<>();
+        for (Object value : sample) {
+            if (value != null && distinct.add(value) && distinct.size() > DICTIONARY_MAX_ENTRIES) {
+                return false;
+            }
+        }
+        return !distinct.isEmpty() && distinct.size() * DICTIONARY_REPEATS <= sample.size();
+    }
+
+    /**
+     * Appends a value.
+     *
+     * @param value The value, null for SQL NULL
+     * @throws IOException if the value cannot be written as the vector's type
+     */
+    final void add(Object value) throws IOException {
+        if (length == validity.length * 8) {
+            validity = Arrays.copyOf(validity, validity.length * 2);
+        }
+        if (value == null) {
+            nullCount++;
+            appendNull();
+        } else {
+            validity[length >> 3] |= (byte) (1 << (length & 7));
+            append(value);
+        }
+        length++;
+    }
+
+    final int length() {
+        return length;
+    }
+
+    final int nullCount() {
+        return nullCount;
+    }
+
+    /**
+     * @return The buffers of the vector in the order of its type's layout,
+     *         starting with the validity bitmap, which is empty when there
+     *         are no nulls
+     */
+    final ByteBuffer[] buffers() {
+        ByteBuffer[] data = dataBuffers();
+        ByteBuffer[] buffers = new ByteBuffer[data.length + 1];
+        buffers[0] = nullCount == 0 ? EMPTY : ByteBuffer.wrap(validity, 0, (length + 7) >> 3);
+        System.arraycopy(data, 0, buffers, 1, data.length);
+        return buffers;
+    }
+
+    final void clear() {
+        Arrays.fill(validity, 0, (length + 7) >> 3, (byte) 0);
+        length = 0;
+        nullCount = 0;
+        clearData();
+    }
+
+    /**
+     * Creates the Field table of the vector in the schema.
+     *
+     * @return The offset of the table
+     */
+    final int field(FlatBufferBuilder builder) {
+        int nameOffset = builder.createString(name);
+        int typeOffset = type(builder);
+        int dictionaryOffset = dictionary(builder);
+        int children = builder.createOffsetVector(new int[0]);
+        builder.startTable(7);
+        builder.addOffsetField(0, nameOffset);
+        builder.addField(1, (byte) 1);
+        builder.addField(2, typeTag());
+        builder.addOffsetField(3, typeOffset);
+        if (dictionaryOffset != 0) {
+            builder.addOffsetField(4, dictionaryOffset);
+        }
+        builder.addOffsetField(5, children);
+        return builder.endTable();
+    }
+
+    /** @return The tag of the vector's type in the Type union */
+    abstract byte typeTag();
+
+    /** Creates the table of the vector's type and returns its offset. */
+    abstract int type(FlatBufferBuilder builder);
+
+    /** Creates the DictionaryEncoding table of the field, or returns 0 if it has none. */
+    int dictionary(FlatBufferBuilder builder) {
+        return 0;
+    }
+
+    /** @return The number of bytes of the batch held, to weigh against the batch budget */
+    abstract long bytes();
+
+    abstract void append(Object value) throws IOException;
+
+    abstract void appendNull();
+
+    abstract ByteBuffer[] dataBuffers();
+
+    abstract void clearData();
+
+    final IOException cannotWrite(Object value, String as) {
+        return new IOException("Column " + name + " holds a " + value.getClass().getName()
+            + ", which cannot be written as " + as);
+    }
+
+    static ByteBuffer allocate(int bytes) {
+        return ByteBuffer.allocate(bytes).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Makes room for more bytes in a buffer, by moving its content to one
+     * twice as large if it is full.
+     */
+    static ByteBuffer ensure(ByteBuffer buffer, int bytes) {
+        if (buffer.remaining() >= bytes) {
+            return buffer;
+        }
+        long capacity = Math.max((long) buffer.position() + bytes, buffer.capacity() * 2L);
+        if (capacity > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("A batch buffer cannot grow beyond 2 GB");
+        }
+        return allocate((int) capacity).put(buffer.flip());
+    }
+
+    static ByteBuffer readable(ByteBuffer buffer) {
+        return buffer.duplicate().flip();
+    }
+
+    static int intType(FlatBufferBuilder builder, int bitWidth, boolean signed) {
+        builder.startTable(2);
+        builder.addField(0, bitWidth);
+        builder.addField(1, (byte) (signed ? 1 : 0));
+        return builder.endTable();
+    }
+
+    static int emptyTable(FlatBufferBuilder builder) {
+        builder.startTable(0);
+        return builder.endTable();
+    }
+
+    /** Signed 64-bit integers. */
+    static final class Int64Vector extends ArrowVector {
+        private ByteBuffer values = allocate(1024);
+
+        Int64Vector(String name) {
+            super(name);
+        }
+
+        @Override
+        void append(Object value) throws IOException {
+            if (!(value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte)) {
+                throw cannotWrite(value, "a 64-bit integer");
+            }
+            values = ensure(values, Long.BYTES).putLong(((Number) value).longValue());
+        }
+
+        @Override
+        void appendNull() {
+            values = ensure(values, Long.BYTES).putLong(0);
+        }
+
+        @Override
+        byte typeTag() {
+            return INT;
+        }
+
+        @Override
+        int type(FlatBufferBuilder builder) {
+            return intType(builder, 64, true);
+        }
+
+        @Override
+        long bytes() {
+            return values.position();
+        }
+
+        @Override
+        ByteBuffer[] dataBuffers() {
+            return new ByteBuffer[] {readable(values)};
+        }
+
+        @Override
+        void clearData() {
+            values.clear();
+        }
+    }
+
+    /** Signed 32-bit integers. */
+    static final class Int32Vector extends ArrowVector {
+        private ByteBuffer values = allocate(1024);
+
+        Int32Vector(String name) {
+            super(name);
+        }
+
+        @Override
+        void append(Object value) throws IOException {
+            if (!(value instanceof Integer || value instanceof Short || value instanceof Byte)) {
+                throw cannotWrite(value, "a 32-bit integer");
+            }
+            values = ensure(values, Integer.BYTES).putInt(((Number) value).intValue());
+        }
+
+        @Override
+        void appendNull() {
+            values = ensure(values, Integer.BYTES).putInt(0);
+        }
+
+        @Override
+        byte typeTag() {
+            return INT;
+        }
+
+        @Override
+        int type(FlatBufferBuilder builder) {
+            return intType(builder, 32, true);
+        }
+
+        @Override
+        long bytes() {
+            return values.position();
+        }
+
+        @Override
+        ByteBuffer[] dataBuffers() {
+            return new ByteBuffer[] {readable(values)};
+        }
+
+        @Override
+        void clearData() {
+            values.clear();
+        }
+    }
+
+    /** Double-precision floating point numbers. */
+    static final class Float64Vector extends ArrowVector {
+        private ByteBuffer values = allocate(1024);
+
+        Float64Vector(String name) {
+            super(name);
+        }
+
+        @Override
+        void append(Object value) throws IOException {
+            if (!(value instanceof Double || value instanceof Float)) {
+                throw cannotWrite(value, "a double");
+            }
+            values = ensure(values, Double.BYTES).putDouble(((Number) value).doubleValue());
+        }
+
+        @Override
+        void appendNull() {
+            values = ensure(values, Double.BYTES).putDouble(0);
+        }
+
+        @Override
+        byte typeTag() {
+            return FLOATING_POINT;
+        }
+
+        @Override
+        int type(FlatBufferBuilder builder) {
+            builder.startTable(1);
+            builder.addField(0, (short) 2);
+            return builder.endTable();
+        }
+
+        @Override
+        long bytes() {
+            return values.position();
+        }
+
+        @Override
+        ByteBuffer[] dataBuffers() {
+            return new ByteBuffer[] {readable(values)};
+        }
+
+        @Override
+        void clearData() {
+            values.clear();
+        }
+    }
+
+    /** Single-precision floating point numbers. */
+    static final class Float32Vector extends ArrowVector {
+        private ByteBuffer values = allocate(1024);
+
+        Float32Vector(String name) {
+            super(name);
+        }
+
+        @Override
+        void append(Object value) throws IOException {
+            if (!(value instanceof Float)) {
+                throw cannotWrite(value, "a float");
+            }
+            values = ensure(values, Float.BYTES).putFloat((Float) value);
+        }
+
+        @Override
+        void appendNull() {
+            values = ensure(values, Float.BYTES).putFloat(0);
+        }
+
+        @Override
+        byte typeTag() {
+            return FLOATING_POINT;
+        }
+
+        @Override
+        int type(FlatBufferBuilder builder) {
+            builder.startTable(1);
+            builder.addField(0, (short) 1);
+            return builder.endTable();
+        }
+
+        @Override
+        long bytes() {
+            return values.position();
+        }
+
+        @Override
+        ByteBuffer[] dataBuffers() {
+            return new ByteBuffer[] {readable(values)};
+        }
+
+        @Override
+        void clearData() {
+            values.clear();
+        }
+    }
+
+    /** Booleans, one bit each. */
+    static final class BoolVector extends ArrowVector {
+        private byte[] bits = new byte[64];
+
+        BoolVector(String name) {
+            super(name);
+        }
+
+        @Override
+        void append(Object value) throws IOException {
+            if (!(value instanceof Boolean b)) {
+                throw cannotWrite(value, "a boolean");
+            }
+            appendNull();
+            if (b) {
+                bits[length() >> 3] |= (byte) (1 << (length() & 7));
+            }
+        }
+
+        @Override
+        void appendNull() {
+            if (length() == bits.length * 8) {
+                bits = Arrays.copyOf(bits, bits.length * 2);
+            }
+        }
+
+        @Override
+        byte typeTag() {
+            return BOOL;
+        }
+
+        @Override
+        int type(FlatBufferBuilder builder) {
+            return emptyTable(builder);
+        }
+
+        @Override
+        long bytes() {
+            return (length() + 7) >> 3;
+        }
+
+        @Override
+        ByteBuffer[] dataBuffers() {
+            return new ByteBuffer[] {ByteBuffer.wrap(bits, 0, (length() + 7) >> 3)};
+        }
+
+        @Override
+        void clearData() {
+            Arrays.fill(bits, (byte) 0);
+        }
+    }
+
+    /** Decimals of a fixed precision and scale, as 128-bit unscaled integers. */
+    static final class DecimalVector extends ArrowVector {
+        private final int precision;
+        private final int scale;
+        private ByteBuffer values = allocate(2048);
+
+        DecimalVector(String name, int precision, int scale) {
+            super(name);
+            this.precision = precision;
+            this.scale = scale;
+        }
+
+        @Override
+        void append(Object value) throws IOException {
+            BigDecimal decimal;
+            if (value instanceof BigDecimal d) {
+                decimal = d;
+            } else if (value instanceof BigInteger i) {
+                decimal = new BigDecimal(i);
+            } else if (value instanceof Long || value instanceof Integer || value instanceof Short
+                    || value instanceof Byte) {
+                decimal = BigDecimal.valueOf(((Number) value).longValue());
+            } else {
+                throw cannotWrite(value, "a decimal");
+            }
+            BigInteger unscaled;
+            try {
+                unscaled = decimal.setScale(scale, RoundingMode.UNNECESSARY).unscaledValue();
+            } catch (ArithmeticException e) {
+                throw new IOException("Column " + name + " holds " + decimal + ", which has more than " + scale
+                    + " decimal places", e);
+            }
+            if (unscaled.bitLength() > 127) {
+                throw new IOException("Column " + name + " holds " + decimal + ", which exceeds 128 bits");
+            }
+            values = ensure(values, 16).putLong(unscaled.longValue()).putLong(unscaled.shiftRight(64).longValue());
+        }
+
+        @Override
+        void appendNull() {
+            values = ensure(values, 16).putLong(0).putLong(0);
+        }
+
+        @Override
+        byte typeTag() {
+            return DECIMAL;
+        }
+
+        @Override
+        int type(FlatBufferBuilder builder) {
+            builder.startTable(3);
+            builder.addField(0, precision);
+            builder.addField(1, scale);
+            builder.addField(2, 128);
+            return builder.endTable();
+        }
+
+        @Override
+        long bytes() {
+            return values.position();
+        }
+
+        @Override
+        ByteBuffer[] dataBuffers() {
+            return new ByteBuffer[] {readable(values)};
+        }
+
+        @Override
+        void clearData() {
+            values.clear();
+        }
+    }
+
+    /** Dates, as days since 1970-01-01. */
+    static final class Date32Vector extends ArrowVector {
+        private ByteBuffer values = allocate(1024);
+
+        Date32Vector(String name) {
+            super(name);
+        }
+
+        @Override
+        void append(Object value) throws IOException {
+            LocalDate date;
+            if (value instanceof java.sql.Date d) {
+                date = d.toLocalDate();
+            } else if (value instanceof Timestamp t) {
+                date = t.toLocalDateTime().toLocalDate();
+            } else if (value instanceof LocalDate d) {
+                date = d;
+            } else if (value instanceof LocalDateTime t) {
+                date = t.toLocalDate();
+            } else {
+                throw cannotWrite(value, "a date");
+            }
+            values = ensure(values, Integer.BYTES).putInt(Math.toIntExact(date.toEpochDay()));
+        }
+
+        @Override
+        void appendNull() {
+            values = ensure(values, Integer.BYTES).putInt(0);
+        }
+
+        @Override
+        byte typeTag() {
+            return DATE;
+        }
+
+        @Override
+        int type(FlatBufferBuilder builder) {
+            // DateUnit DAY, which is not the default
+            builder.startTable(1);
+            builder.addField(0, (short) 0);
+            return builder.endTable();
+        }
+
+        @Override
+        long bytes() {
+            return values.position();
+        }
+
+        @Override
+        ByteBuffer[] dataBuffers() {
+            return new ByteBuffer[] {readable(values)};
+        }
+
+        @Override
+        void clearData() {
+            values.clear();
+        }
+    }
+
+    /**
+     * Timestamps in microseconds: without a time zone, the wall-clock time
+     * counted as if it were UTC, as Arrow defines it; with one, the instant.
+     */
+    static final class TimestampVector extends ArrowVector {
+        private final String timeZone;
+        private ByteBuffer values = allocate(1024);
+
+        TimestampVector(String name, String timeZone) {
+            super(name);
+            this.timeZone = timeZone;
+        }
+
+        @Override
+        void append(Object value) throws IOException {
+            Instant instant;
+            if (value instanceof Timestamp t) {
+                instant = timeZone == null ? t.toLocalDateTime().toInstant(ZoneOffset.UTC) : t.toInstant();
+            } else if (value instanceof LocalDateTime t) {
+                instant = t.toInstant(ZoneOffset.UTC);
+            } else if (value instanceof java.sql.Date d) {
+                instant = d.toLocalDate().atStartOfDay().toInstant(ZoneOffset.UTC);
+            } else if (value instanceof OffsetDateTime t) {
+                instant = timeZone == null ? t.toLocalDateTime().toInstant(ZoneOffset.UTC) : t.toInstant();
+            } else if (value instanceof ZonedDateTime t) {
+                instant = timeZone == null ? t.toLocalDateTime().toInstant(ZoneOffset.UTC) : t.toInstant();
+            } else if (value instanceof Instant i) {
+                instant = i;
+            } else {
+                throw cannotWrite(value, "a timestamp");
+            }
+            long micros = Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000L),
+                instant.getNano() / 1_000);
+            values = ensure(values, Long.BYTES).putLong(micros);
+        }
+
+        @Override
+        void appendNull() {
+            values = ensure(values, Long.BYTES).putLong(0);
+        }
+
+        @Override
+        byte typeTag() {
+            return TIMESTAMP;
+        }
+
+        @Override
+        int type(FlatBufferBuilder builder) {
+            int zone = timeZone != null ? builder.createString(timeZone) : 0;
+            builder.startTable(2);
+            builder.addField(0, (short) 2);
+            if (zone != 0) {
+                builder.addOffsetField(1, zone);
+            }
+            return builder.endTable();
+        }
+
+        @Override
+        long bytes() {
+            return values.position();
+        }
+
+        @Override
+        ByteBuffer[] dataBuffers() {
+            return new ByteBuffer[] {readable(values)};
+        }
+
+        @Override
+        void clearData() {
+            values.clear();
+        }
+    }
+
+    /**
+     * Text or bytes of any length: 32-bit offsets into the concatenated
+     * values. Text that is not a string is written as its string form, a
+     * decimal in plain notation.
+     */
+    static final class VarBinaryVector extends ArrowVector {
+        private final byte tag;
+        private ByteBuffer offsets = allocate(1024).putInt(0);
+        private ByteBuffer data = allocate(4096);
+
+        VarBinaryVector(String name, byte tag) {
+            super(name);
+            this.tag = tag;
+        }
+
+        @Override
+        void append(Object value) throws IOException {
+            byte[] bytes;
+            try {
+                if (tag == UTF8) {
+                    String text = value instanceof String s ? s
+                        : value instanceof BigDecimal d ? d.toPlainString()
+                        : value instanceof Clob c ? c.getSubString(1, Math.toIntExact(c.length()))
+                        : value.toString();
+                    bytes = text.getBytes(StandardCharsets.UTF_8);
+                } else if (value instanceof byte[] b) {
+                    bytes = b;
+                } else if (value instanceof Blob b) {
+                    bytes = b.getBytes(1, Math.toIntExact(b.length()));
+                } else {
+                    throw cannotWrite(value, "bytes");
+                }
+            } catch (SQLException e) {
+                throw new IOException("Cannot read the value of column " + name + ": " + e.getMessage(), e);
+            }
+            append(bytes);
+        }
+
+        private void append(byte[] bytes) {
+            data = ensure(data, bytes.length).put(bytes);
+            endValue();
+        }
+
+        @Override
+        void appendNull() {
+            endValue();
+        }
+
+        /** Records where the value just appended ends, and the next one starts. */
+        private void endValue() {
+            offsets = ensure(offsets, Integer.BYTES).putInt(data.position());
+        }
+
+        @Override
+        byte typeTag() {
+            return tag;
+        }
+
+        @Override
+        int type(FlatBufferBuilder builder) {
+            return emptyTable(builder);
+        }
+
+        @Override
+        long bytes() {
+            return (long) offsets.position() + data.position();
+        }
+
+        @Override
+        ByteBuffer[] dataBuffers() {
+            return new ByteBuffer[] {readable(offsets), readable(data)};
+        }
+
+        @Override
+        void clearData() {
+            offsets.clear().putInt(0);
+            data.clear();
+        }
+    }
+
+    /**
+     * Text as 32-bit indices into a dictionary of the distinct values. The
+     * dictionary grows as new values come; in a stream the values added
+     * since the last batch are written before it, as a delta of the
+     * dictionary, while a file keeps them all for one dictionary batch at
+     * its end. The dictionary is weighed apart from the batches, as it
+     * outlives them, and is {@link #isFull full} at a cap of its own.
+     */
+    static final class DictionaryVector extends ArrowVector {
+        /** Most entries of a dictionary, whichever of this and the byte cap is reached first */
+        static final int MAX_ENTRIES = 1 << 20;
+
+        private final long id;
+        private final Map<String, Integer> indices = new HashMap<>();
+        private final VarBinaryVector newEntries;
+        private ByteBuffer values = allocate(1024);
+        private long entryBytes;
+        private boolean written;
+
+        DictionaryVector(String name, long id) {
+            super(name);
+            this.id = id;
+            this.newEntries = new VarBinaryVector(name, UTF8);
+        }
+
+        @Override
+        void append(Object value) throws IOException {
+            String text = value.toString();
+            Integer index = indices.get(text);
+            if (index == null) {
+                index = indices.size();
+                indices.put(text, index);
+                long before = newEntries.bytes();
+                newEntries.add(text);
+                entryBytes += newEntries.bytes() - before;
+            }
+            values = ensure(values, Integer.BYTES).putInt(index);
+        }
+
+        @Override
+        void appendNull() {
+            values = ensure(values, Integer.BYTES).putInt(0);
+        }
+
+        long id() {
+            return id;
+        }
+
+        /**
+         * @return The values added to the dictionary since it was last
+         *         written
+         */
+        VarBinaryVector newEntries() {
+            return newEntries;
+        }
+
+        /**
+         * @return Whether entries of the dictionary were written before, so
+         *         that new entries are a delta
+         */
+        boolean hasWrittenEntries() {
+            return written;
+        }
+
+        /** Marks the new entries as written. */
+        void entriesWritten() {
+            written = true;
+            newEntries.clear();
+        }
+
+        /**
+         * @param maxBytes The most bytes of entries
+         * @return Whether the dictionary holds as many entries or bytes as
+         *         it may, so that no value should be added to it
+         */
+        boolean isFull(long maxBytes) {
+            return indices.size() >= MAX_ENTRIES || entryBytes >= maxBytes;
+        }
+
+        /**
+         * Empties the dictionary once the batches using it are written, so
+         * that the next entries are written as a dictionary replacing it.
+         */
+        void reset() {
+            indices.clear();
+            newEntries.clear();
+            entryBytes = 0;
+            written = false;
+        }
+
+        @Override
+        byte typeTag() {
+            return UTF8;
+        }
+
+        @Override
+        int type(FlatBufferBuilder builder) {
+            return emptyTable(builder);
+        }
+
+        @Override
+        int dictionary(FlatBufferBuilder builder) {
+            int indexType = intType(builder, 32, true);
+            builder.startTable(4);
+            builder.addField(0, id);
+            builder.addOffsetField(1, indexType);
+            return builder.endTable();
+        }
+
+        @Override
+        long bytes() {
+            return values.position();
+        }
+
+        @Override
+        ByteBuffer[] dataBuffers() {
+            return new ByteBuffer[] {readable(values)};
+        }
+
+        @Override
+        void clearData() {
+            values.clear();
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.example.shelldemo.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+import com.example.shelldemo.sqlhandling.ColumnHeader;
+import com.example.shelldemo.sqlhandling.ResultSetStreamer;
+import com.example.shelldemo.sqlhandling.Row;
+import com.example.shelldemo.sqlhandling.RowHandler;
+import com.example.shelldemo.sqlhandling.RowReader;
+
+/**
+ * Base of the writers of a {@link ResultWriterFormat}: writes the rows of a
+ * query through a direct buffer to a channel, which is written to only when
+ * the buffer is full. A subclass is given every row as a {@link Row} and
+ * reads its values by column, so no map is built per row; text is encoded
+ * into the buffer as UTF-8 without intermediate byte arrays.
+ * <p>
+ * A writer is a {@link RowHandler} for the query pipeline, and a
+ * {@link ResultSetStreamer} for code that holds a {@code ResultSet}.
+ */
+public abstract class ChannelRowWriter implements RowHandler, ResultSetStreamer, Closeable {
+
+    /** Size of the output buffer by default */
+    public static final int DEFAULT_BUFFER_BYTES = 1 << 16;
+
+    private final ByteBuffer buffer;
+    // Replaces a lone surrogate as String.getBytes does
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final boolean closeChannel;
+    private WritableByteChannel channel;
+    private List<String> columns = List.of();
+    private Object[] mapValues;
+    private Row mapRow;
+
+    /**
+     * @param channel The channel to write to
+     * @param closeChannel Whether {@link #close} closes the channel as well
+     * @param bufferBytes Size of the output buffer
+     */
+    protected ChannelRowWriter(WritableByteChannel channel, boolean closeChannel, int bufferBytes) {
+        if (bufferBytes < 64) {
+            throw new IllegalArgumentException("Buffer must hold at least 64 bytes: " + bufferBytes);
+        }
+        this.channel = channel;
+        this.closeChannel = closeChannel;
+        this.buffer = ByteBuffer.allocateDirect(bufferBytes);
+    }
+
+    @Override
+    public final void start(List<String> columns) throws IOException {
+        this.columns = List.copyOf(columns);
+        writeStart(this.columns);
+    }
+
+    @Override
+    public final void row(Map<String, Object> row) throws IOException {
+        if (row instanceof Row typed) {
+            writeRow(typed);
+            return;
+        }
+        // A plain map from a caller outside the pipeline
+        if (mapRow == null) {
+            mapValues = new Object[columns.size()];
+            mapRow = Row.of(ColumnHeader.of(columns), mapValues);
+        }
+        for (int i = 0; i < mapValues.length; i++) {
+            mapValues[i] = row.get(columns.get(i));
+        }
+        writeRow(mapRow);
+    }
+
+    @Override
+    public final void end(long rows) throws IOException {
+        writeEnd(rows);
+        flush();
+    }
+
+    /**
+     * Writes all rows of a result, flushing the buffer after every batch.
+     *
+     * @param rs The result, before its first row
+     * @param batchSize Rows per batch
+     * @throws SQLException if the result cannot be read
+     * @throws IOException if the rows cannot be written
+     */
+    @Override
+    public void stream(ResultSet rs, int batchSize) throws SQLException, IOException {
+        RowReader reader = RowReader.compile(rs.getMetaData(), null);
+        Object[] values = new Object[reader.header().columnCount()];
+        Row row = Row.of(reader.header(), values);
+        start(reader.header().labels());
+        long rows = 0;
+        while (rs.next()) {
+            reader.read(rs, values);
+            writeRow(row);
+            if (++rows % Math.max(batchSize, 1) == 0) {
+                flush();
+            }
+        }
+        end(rows);
+    }
+
+    /**
+     * Called once before the first row.
+     *
+     * @param columns The column labels
+     * @throws IOException if the writer cannot write
+     */
+    protected void writeStart(List<String> columns) throws IOException {
+        // Nothing to write by default
+    }
+
+    /**
+     * Writes a row.
+     *
+     * @param row The row, only valid during the call
+     * @throws IOException if the writer cannot write
+     */
+    protected abstract void writeRow(Row row) throws IOException;
+
+    /**
+     * Called once after the last row, before the buffer is flushed.
+     *
+     * @param rows The number of rows written
+     * @throws IOException if the writer cannot write
+     */
+    protected void writeEnd(long rows) throws IOException {
+        // Nothing to write by default
+    }
+
+    /**
+     * @return The column labels given to {@link #start}
+     */
+    protected final List<String> columns() {
+        return columns;
+    }
+
+    protected final void write(byte value) throws IOException {
+        if (!buffer.hasRemaining()) {
+            flush();
+        }
+        buffer.put(value);
+    }
+
+    protected final void write(byte[] bytes, int offset, int length) throws IOException {
+        while (length > 0) {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            int chunk = Math.min(length, buffer.remaining());
+            buffer.put(bytes, offset, chunk);
+            offset += chunk;
+            length -= chunk;
+        }
+    }
+
+    protected final void write(byte[] bytes) throws IOException {
+        write(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Writes text as UTF-8. ASCII is copied byte by byte; the rest of the
+     * text from the first other character goes through the encoder.
+     */
+    protected final void write(CharSequence text) throws IOException {
+        int length = text.length();
+        int i = 0;
+        for (; i < length; i++) {
+            char c = text.charAt(i);
+            if (c >= 0x80) {
+                break;
+            }
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            buffer.put((byte) c);
+        }
+        if (i < length) {
+            CharBuffer chars = CharBuffer.wrap(text, i, length);
+            encoder.reset();
+            CoderResult result;
+            while ((result = encoder.encode(chars, buffer, true)).isOverflow()) {
+                flush();
+            }
+            if (result.isError()) {
+                result.throwException();
+            }
+            while (encoder.flush(buffer).isOverflow()) {
+                flush();
+            }
+        }
+    }
+
+    /**
+     * An output stream into the buffer, for libraries that write to streams.
+     * Closing it does nothing.
+     */
+    protected final OutputStream outputStream() {
+        return new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                ChannelRowWriter.this.write((byte) b);
+            }
+
+            @Override
+            public void write(byte[] bytes, int offset, int length) throws IOException {
+                ChannelRowWriter.this.write(bytes, offset, length);
+            }
+        };
+    }
+
+    /**
+     * Writes the buffer to the channel.
+     *
+     * @throws IOException if the channel cannot be written
+     */
+    protected void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Writes out the buffer and closes the channel if the writer owns it.
+     * Does nothing if the writer is already closed.
+     */
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            try {
+                flush();
+            } finally {
+                if (closeChannel) {
+                    channel.close();
+                }
+                channel = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.shelldemo.export;
+
+import java.nio.file.Path;
+
+import com.example.shelldemo.sqlhandling.ResultSink;
+import com.example.shelldemo.sqlhandling.RowHandler;
+
+/**
+ * Writes the rows of every query of a run to CSV files. The first query
+ * writes to the file given; a later query writes to a file named after it
+ * with the query's number, {@code name-q2.csv} for the second query. See
+ * {@link CsvRowWriter} for the format and for rolling over.
+ */
+public final class CsvResultSink implements ResultSink {
+    private final Path file;
+    private final long rollRows;
+    private final long rollBytes;
+
+    /**
+     * @param file The file of the first query's rows
+     * @param rollRows Rows per file before rolling over, 0 for no limit
+     * @param rollBytes Bytes per file before rolling over, 0 for no limit
+     */
+    public CsvResultSink(Path file, long rollRows, long rollBytes) {
+        this.file = file;
+        this.rollRows = rollRows;
+        this.rollBytes = rollBytes;
+    }
+
+    @Override
+    public RowHandler open(int query) {
+        return new CsvRowWriter(fileFor(file, query), rollRows, rollBytes, CsvRowWriter.DEFAULT_BUFFER_BYTES);
+    }
+
+    /**
+     * Names the file of a query's rows.
+     *
+     * @param file The file of the first query's rows
+     * @param query The number of the query, from 1
+     * @return The file
+     */
+    static Path fileFor(Path file, int query) {
+        if (query == 1) {
+            return file;
+        }
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return file.resolveSibling(dot > 0
+            ? name.substring(0, dot) + "-q" + query + name.substring(dot)
+            : name + "-q" + query);
+    }
+}
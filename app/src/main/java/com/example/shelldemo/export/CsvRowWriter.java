@@ -0,0 +1,354 @@
+package com.example.shelldemo.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.example.shelldemo.sqlhandling.Row;
+import com.example.shelldemo.sqlhandling.RowHandler;
+
+/**
+ * Writes streamed rows to a CSV file as defined by RFC 4180: a header line
+ * of column labels, comma-separated fields, CRLF line ends, and fields that
+ * contain a comma, quote or line break enclosed in quotes with their quotes
+ * doubled. SQL NULL is an empty field; an empty string is written as
+ * {@code ""} so that the two can be told apart. Text is UTF-8.
+ * <p>
+ * Fields are encoded by hand into a byte array, copied in bulk into a large
+ * direct buffer, which is written to the file channel when full, so a row
+ * costs no strings beyond those of its values. Output can be rolled over to a new file, each with the header,
+ * after a number of rows or bytes; the files are then numbered
+ * {@code name-00001.csv}, {@code name-00002.csv} and so on.
+ */
+public final class CsvRowWriter implements RowHandler, Closeable {
+    private static final Logger logger = LogManager.getLogger(CsvRowWriter.class);
+
+    /** Size of the output buffer by default */
+    public static final int DEFAULT_BUFFER_BYTES = 1 << 20;
+
+    /** Bytes encoded on the heap before they are copied to the buffer in bulk */
+    private static final int STAGING_BYTES = 1 << 16;
+
+    private static final byte COMMA = ',';
+    private static final byte QUOTE = '"';
+    private static final byte[] CRLF = {'\r', '\n'};
+    private static final byte[] HEX = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+
+    private final Path file;
+    private final long rollRows;
+    private final long rollBytes;
+    private final ByteBuffer buffer;
+    private final byte[] staging;
+    private int position;
+    private final List<Path> files = new ArrayList<>();
+    private List<String> columns = List.of();
+    private byte[] headerLine;
+    private FileChannel channel;
+    private long partRows;
+    private long partBytes;
+
+    /**
+     * Creates a writer that writes all rows to one file.
+     *
+     * @param file The file, replaced if it exists
+     */
+    public CsvRowWriter(Path file) {
+        this(file, 0, 0, DEFAULT_BUFFER_BYTES);
+    }
+
+    /**
+     * @param file The file, or the name the numbered files are derived from
+     *        when rolling over; existing files are replaced
+     * @param rollRows Rows per file before rolling over, 0 for no limit
+     * @param rollBytes Bytes per file before rolling over, 0 for no limit; a
+     *        file is only rolled over between rows, so it may exceed the limit
+     *        by up to one row
+     * @param bufferBytes Size of the output buffer
+     */
+    public CsvRowWriter(Path file, long rollRows, long rollBytes, int bufferBytes) {
+        if (rollRows < 0 || rollBytes < 0) {
+            throw new IllegalArgumentException("Roll-over limits must not be negative");
+        }
+        if (bufferBytes < 64) {
+            throw new IllegalArgumentException("Buffer must hold at least 64 bytes: " + bufferBytes);
+        }
+        this.file = file;
+        this.rollRows = rollRows;
+        this.rollBytes = rollBytes;
+        this.buffer = ByteBuffer.allocateDirect(bufferBytes);
+        this.staging = new byte[Math.min(bufferBytes, STAGING_BYTES)];
+    }
+
+    /**
+     * @return The files written so far, in order
+     */
+    public List<Path> files() {
+        return List.copyOf(files);
+    }
+
+    @Override
+    public void start(List<String> columns) throws IOException {
+        this.columns = List.copyOf(columns);
+        StringBuilder header = new StringBuilder();
+        for (int i = 0; i < columns.size(); i++) {
+            String label = columns.get(i);
+            if (i > 0) {
+                header.append(',');
+            }
+            header.append(label.isEmpty() || needsQuotes(label) ? '"' + label.replace("\"", "\"\"") + '"' : label);
+        }
+        headerLine = header.append("\r\n").toString().getBytes(StandardCharsets.UTF_8);
+        nextFile();
+    }
+
+    @Override
+    public void row(Map<String, Object> row) throws IOException {
+        if (partRows > 0 && (rollRows > 0 && partRows >= rollRows
+                || rollBytes > 0 && partBytes + buffer.position() + position >= rollBytes)) {
+            nextFile();
+        }
+        Row values = row instanceof Row typed ? typed : null;
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                put(COMMA);
+            }
+            writeValue(values != null ? values.value(i) : row.get(columns.get(i)));
+        }
+        put(CRLF);
+        partRows++;
+    }
+
+    @Override
+    public void end(long rows) throws IOException {
+        close();
+        logger.info("Wrote {} rows to {}", rows,
+            files.size() == 1 ? files.get(0) : files.size() + " files numbered after " + file);
+    }
+
+    /**
+     * Writes out the buffer and closes the current file. Does nothing if the
+     * writer is already closed.
+     */
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            try {
+                drain();
+                flush();
+            } finally {
+                channel.close();
+                channel = null;
+            }
+        }
+    }
+
+    private void nextFile() throws IOException {
+        close();
+        Path next = rollRows > 0 || rollBytes > 0 ? numbered(file, files.size() + 1) : file;
+        channel = FileChannel.open(next, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING);
+        files.add(next);
+        partRows = 0;
+        partBytes = 0;
+        put(headerLine);
+    }
+
+    /**
+     * Derives the name of a numbered file: {@code name.csv} becomes
+     * {@code name-00003.csv} for the third file.
+     *
+     * @param file The name to number
+     * @param number The number of the file, from 1
+     * @return The numbered file
+     */
+    static Path numbered(Path file, int number) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String numbered = String.format("%s-%05d%s", dot > 0 ? name.substring(0, dot) : name, number,
+            dot > 0 ? name.substring(dot) : "");
+        return file.resolveSibling(numbered);
+    }
+
+    private void writeValue(Object value) throws IOException {
+        // An instanceof chain in order of frequency; a type switch is slower here
+        if (value == null) {
+            return;
+        }
+        if (value instanceof String s) {
+            writeText(s);
+        } else if (value instanceof Long l) {
+            writeLong(l);
+        } else if (value instanceof Integer i) {
+            writeLong(i);
+        } else if (value instanceof BigDecimal d) {
+            writeAscii(d.toPlainString());
+        } else if (value instanceof Double d) {
+            writeAscii(d.toString());
+        } else if (value instanceof Short || value instanceof Byte) {
+            writeLong(((Number) value).longValue());
+        } else if (value instanceof Float f) {
+            writeAscii(f.toString());
+        } else if (value instanceof Boolean b) {
+            writeAscii(b ? "true" : "false");
+        } else if (value instanceof byte[] bytes) {
+            writeHex(bytes);
+        } else {
+            writeText(value.toString());
+        }
+    }
+
+    private void writeLong(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            writeAscii(Long.toString(value));
+            return;
+        }
+        ensure(20);
+        byte[] out = staging;
+        if (value < 0) {
+            out[position++] = '-';
+            value = -value;
+        }
+        int end = position + digitCount(value);
+        position = end;
+        do {
+            out[--end] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+    }
+
+    private static int digitCount(long value) {
+        int digits = 1;
+        for (long limit = 10; digits < 19 && value >= limit; limit *= 10) {
+            digits++;
+        }
+        return digits;
+    }
+
+    private void writeHex(byte[] bytes) throws IOException {
+        for (byte b : bytes) {
+            ensure(2);
+            staging[position++] = HEX[(b >> 4) & 0xF];
+            staging[position++] = HEX[b & 0xF];
+        }
+    }
+
+    /**
+     * Writes text known to need no quoting, such as a formatted number.
+     */
+    private void writeAscii(String text) throws IOException {
+        int length = text.length();
+        if (length > staging.length) {
+            writeText(text);
+            return;
+        }
+        ensure(length);
+        byte[] out = staging;
+        for (int i = 0; i < length; i++) {
+            out[position++] = (byte) text.charAt(i);
+        }
+    }
+
+    private void writeText(String text) throws IOException {
+        boolean quoted = text.isEmpty() || needsQuotes(text);
+        if (quoted) {
+            put(QUOTE);
+        }
+        int length = text.length();
+        // Three bytes cover any char; a surrogate pair takes four for two chars
+        boolean fits = staging.length - position >= length * 3 + 1;
+        byte[] out = staging;
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (!fits) {
+                ensure(4);
+            }
+            if (c < 0x80) {
+                if (c == QUOTE) {
+                    out[position++] = QUOTE;
+                }
+                out[position++] = (byte) c;
+            } else if (c < 0x800) {
+                out[position++] = (byte) (0xC0 | c >> 6);
+                out[position++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                out[position++] = (byte) (0xF0 | codePoint >> 18);
+                out[position++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                out[position++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                out[position++] = (byte) (0x80 | codePoint & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                out[position++] = '?';
+            } else {
+                out[position++] = (byte) (0xE0 | c >> 12);
+                out[position++] = (byte) (0x80 | c >> 6 & 0x3F);
+                out[position++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+        if (quoted) {
+            put(QUOTE);
+        }
+    }
+
+    private static boolean needsQuotes(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void put(byte b) throws IOException {
+        ensure(1);
+        staging[position++] = b;
+    }
+
+    private void put(byte[] bytes) throws IOException {
+        int offset = 0;
+        while (offset < bytes.length) {
+            ensure(1);
+            int length = Math.min(staging.length - position, bytes.length - offset);
+            System.arraycopy(bytes, offset, staging, position, length);
+            position += length;
+            offset += length;
+        }
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (staging.length - position < bytes) {
+            drain();
+        }
+    }
+
+    /**
+     * Copies the encoded bytes to the direct buffer, writing the buffer to
+     * the file first if they do not fit.
+     */
+    private void drain() throws IOException {
+        if (buffer.remaining() < position) {
+            flush();
+        }
+        buffer.put(staging, 0, position);
+        position = 0;
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            partBytes += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
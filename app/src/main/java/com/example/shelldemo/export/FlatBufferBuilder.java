@@ -0,0 +1,236 @@
+package com.example.shelldemo.export;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Builds a FlatBuffer, the serialization the Arrow IPC format uses for its
+ * metadata, with just what Arrow's schema, batch and footer tables need:
+ * tables of scalars and offsets, strings, vectors of offsets and vectors of
+ * structs. The buffer is built back to front, as the FlatBuffers library does,
+ * so an object is created before the objects that refer to it, and a table's
+ * fields are added between {@link #startTable} and {@link #endTable}.
+ * Vtables are not shared between tables, which only costs a few bytes.
+ */
+final class FlatBufferBuilder {
+    private ByteBuffer buffer;
+    private int space;
+    private int minAlign = 1;
+    private int[] vtable;
+    private int objectStart;
+    private int vectorLength;
+
+    FlatBufferBuilder() {
+        buffer = ByteBuffer.allocate(1024).order(ByteOrder.LITTLE_ENDIAN);
+        space = buffer.capacity();
+    }
+
+    /**
+     * @return The offset of the last object created, counted from the end of the buffer
+     */
+    int offset() {
+        return buffer.capacity() - space;
+    }
+
+    void addByte(byte value) {
+        prep(Byte.BYTES, 0);
+        buffer.put(--space, value);
+    }
+
+    void addShort(short value) {
+        prep(Short.BYTES, 0);
+        space -= Short.BYTES;
+        buffer.putShort(space, value);
+    }
+
+    void addInt(int value) {
+        prep(Integer.BYTES, 0);
+        space -= Integer.BYTES;
+        buffer.putInt(space, value);
+    }
+
+    void addLong(long value) {
+        prep(Long.BYTES, 0);
+        space -= Long.BYTES;
+        buffer.putLong(space, value);
+    }
+
+    /**
+     * Adds a reference to an object created before, relative to where it is stored.
+     */
+    void addOffset(int offset) {
+        prep(Integer.BYTES, 0);
+        space -= Integer.BYTES;
+        buffer.putInt(space, offset() - offset);
+    }
+
+    int createString(String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        addByte((byte) 0);
+        startVector(1, bytes.length, 1);
+        space -= bytes.length;
+        buffer.put(space, bytes);
+        return endVector();
+    }
+
+    int createOffsetVector(int[] offsets) {
+        startVector(Integer.BYTES, offsets.length, Integer.BYTES);
+        for (int i = offsets.length - 1; i >= 0; i--) {
+            addOffset(offsets[i]);
+        }
+        return endVector();
+    }
+
+    /**
+     * Creates a vector of structs of two longs each, such as Arrow's
+     * {@code FieldNode} and {@code Buffer}.
+     *
+     * @param pairs The first and second field of every struct, in turn
+     */
+    int createLongPairVector(long[] pairs) {
+        startVector(2 * Long.BYTES, pairs.length / 2, Long.BYTES);
+        for (int i = pairs.length - 2; i >= 0; i -= 2) {
+            prep(Long.BYTES, 2 * Long.BYTES);
+            space -= Long.BYTES;
+            buffer.putLong(space, pairs[i + 1]);
+            space -= Long.BYTES;
+            buffer.putLong(space, pairs[i]);
+        }
+        return endVector();
+    }
+
+    /**
+     * Creates a vector of Arrow's {@code Block} structs: an offset, an int and
+     * 4 bytes of padding, and a length.
+     *
+     * @param blocks The offset, int and length of every block, in turn
+     */
+    int createBlockVector(long[] blocks) {
+        startVector(3 * Long.BYTES, blocks.length / 3, Long.BYTES);
+        for (int i = blocks.length - 3; i >= 0; i -= 3) {
+            prep(Long.BYTES, 3 * Long.BYTES);
+            space -= Long.BYTES;
+            buffer.putLong(space, blocks[i + 2]);
+            pad(Integer.BYTES);
+            space -= Integer.BYTES;
+            buffer.putInt(space, (int) blocks[i + 1]);
+            space -= Long.BYTES;
+            buffer.putLong(space, blocks[i]);
+        }
+        return endVector();
+    }
+
+    void startTable(int fields) {
+        vtable = new int[fields];
+        objectStart = offset();
+    }
+
+    /** Records that the value just added is the given field of the current table. */
+    void slot(int field) {
+        vtable[field] = offset();
+    }
+
+    void addField(int field, byte value) {
+        addByte(value);
+        slot(field);
+    }
+
+    void addField(int field, short value) {
+        addShort(value);
+        slot(field);
+    }
+
+    void addField(int field, int value) {
+        addInt(value);
+        slot(field);
+    }
+
+    void addField(int field, long value) {
+        addLong(value);
+        slot(field);
+    }
+
+    void addOffsetField(int field, int offset) {
+        addOffset(offset);
+        slot(field);
+    }
+
+    /**
+     * Ends the current table by writing its vtable: the size of the vtable
+     * and of the table, then the position of every field in the table, 0 for
+     * a field left at its default.
+     *
+     * @return The offset of the table
+     */
+    int endTable() {
+        addInt(0);
+        int tableOffset = offset();
+        int fields = vtable.length;
+        while (fields > 0 && vtable[fields - 1] == 0) {
+            fields--;
+        }
+        for (int i = fields - 1; i >= 0; i--) {
+            addShort((short) (vtable[i] != 0 ? tableOffset - vtable[i] : 0));
+        }
+        addShort((short) (tableOffset - objectStart));
+        addShort((short) ((fields + 2) * Short.BYTES));
+        // The table starts with the distance back to its vtable
+        buffer.putInt(buffer.capacity() - tableOffset, offset() - tableOffset);
+        vtable = null;
+        return tableOffset;
+    }
+
+    /**
+     * Finishes the buffer with a reference to its root table.
+     *
+     * @param root The offset of the root table
+     * @return The bytes of the buffer
+     */
+    byte[] finish(int root) {
+        prep(minAlign, Integer.BYTES);
+        addOffset(root);
+        return Arrays.copyOfRange(buffer.array(), space, buffer.capacity());
+    }
+
+    private void startVector(int elementSize, int length, int alignment) {
+        vectorLength = length;
+        prep(Integer.BYTES, elementSize * length);
+        prep(alignment, elementSize * length);
+    }
+
+    private int endVector() {
+        space -= Integer.BYTES;
+        buffer.putInt(space, vectorLength);
+        return offset();
+    }
+
+    /**
+     * Pads so that a value of {@code size} bytes, written after
+     * {@code additional} bytes, is aligned to its size from the end of the
+     * buffer, and makes room for both.
+     */
+    private void prep(int size, int additional) {
+        minAlign = Math.max(minAlign, size);
+        int alignment = -(offset() + additional) & (size - 1);
+        while (space < alignment + size + additional) {
+            grow();
+        }
+        pad(alignment);
+    }
+
+    private void pad(int bytes) {
+        for (int i = 0; i < bytes; i++) {
+            buffer.put(--space, (byte) 0);
+        }
+    }
+
+    private void grow() {
+        int capacity = buffer.capacity();
+        ByteBuffer grown = ByteBuffer.allocate(capacity * 2).order(ByteOrder.LITTLE_ENDIAN);
+        System.arraycopy(buffer.array(), 0, grown.array(), capacity, capacity);
+        buffer = grown;
+        space += capacity;
+    }
+}
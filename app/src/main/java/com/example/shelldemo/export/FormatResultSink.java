@@ -0,0 +1,47 @@
+package com.example.shelldemo.export;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import com.example.shelldemo.sqlhandling.ResultSink;
+import com.example.shelldemo.sqlhandling.RowHandler;
+
+/**
+ * Writes the rows of every query of a run in a {@link ResultWriterFormat},
+ * named like the files of a {@link CsvResultSink}: the first query writes to
+ * the file given, a later query to {@code name-q2.jsonl} and so on. On
+ * standard output the queries are written one after another.
+ */
+public final class FormatResultSink implements ResultSink {
+    private final ResultWriterFormat format;
+    private final Path file;
+    private final WriterSettings settings;
+
+    /**
+     * @param format The format to write
+     * @param file The file of the first query's rows, or null for standard output
+     * @param settings The settings of the format's writers
+     * @throws IllegalArgumentException if the format cannot write with the settings
+     */
+    public FormatResultSink(ResultWriterFormat format, Path file, WriterSettings settings) {
+        format.validate(settings);
+        this.format = format;
+        this.file = file;
+        this.settings = settings;
+    }
+
+    @Override
+    public RowHandler open(int query) throws IOException {
+        if (file == null) {
+            // Standard output itself, never closed
+            return format.createWriter(new FileOutputStream(FileDescriptor.out).getChannel(), false, settings);
+        }
+        FileChannel channel = FileChannel.open(CsvResultSink.fileFor(file, query), StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        return format.createWriter(channel, true, settings);
+    }
+}
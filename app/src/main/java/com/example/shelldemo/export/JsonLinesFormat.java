@@ -0,0 +1,124 @@
+package com.example.shelldemo.export;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.channels.WritableByteChannel;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.SQLException;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.fasterxml.jackson.core.io.SerializedString;
+
+import com.example.shelldemo.sqlhandling.Row;
+
+/**
+ * Writes every row as a JSON object on a line of its own (JSON Lines), with
+ * the column labels as keys. Numbers stay numbers, decimals are written in
+ * plain notation, binary values as Base64 and dates and times as ISO-8601
+ * text. The rows are written by Jackson's streaming generator, without a
+ * tree of nodes per row; the keys are serialized once per query.
+ */
+public final class JsonLinesFormat implements ResultWriterFormat {
+    private static final JsonFactory FACTORY = JsonFactory.builder()
+        .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+        .disable(StreamWriteFeature.AUTO_CLOSE_CONTENT)
+        .disable(StreamWriteFeature.FLUSH_PASSED_TO_STREAM)
+        .enable(StreamWriteFeature.WRITE_BIGDECIMAL_AS_PLAIN)
+        .build();
+
+    @Override
+    public String getFormatName() {
+        return "jsonl";
+    }
+
+    @Override
+    public String getFileExtension() {
+        return "jsonl";
+    }
+
+    @Override
+    public ChannelRowWriter createWriter(WritableByteChannel channel, boolean closeChannel, WriterSettings settings) {
+        return new Writer(channel, closeChannel, settings.bufferBytes());
+    }
+
+    private static final class Writer extends ChannelRowWriter {
+        private JsonGenerator generator;
+        private SerializableString[] keys;
+
+        Writer(WritableByteChannel channel, boolean closeChannel, int bufferBytes) {
+            super(channel, closeChannel, bufferBytes);
+        }
+
+        @Override
+        protected void writeStart(List<String> columns) throws IOException {
+            generator = FACTORY.createGenerator(outputStream());
+            // Lines are ended by hand rather than separated by spaces
+            generator.setRootValueSeparator(null);
+            keys = new SerializableString[columns.size()];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = new SerializedString(columns.get(i));
+            }
+        }
+
+        @Override
+        protected void writeRow(Row row) throws IOException {
+            JsonGenerator json = generator;
+            json.writeStartObject();
+            for (int i = 0; i < keys.length; i++) {
+                json.writeFieldName(keys[i]);
+                writeValue(json, row.value(i));
+            }
+            json.writeEndObject();
+            json.writeRaw('\n');
+        }
+
+        @Override
+        protected void writeEnd(long rows) throws IOException {
+            generator.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                if (generator != null) {
+                    generator.close();
+                }
+            } finally {
+                super.close();
+            }
+        }
+
+        private static void writeValue(JsonGenerator json, Object value) throws IOException {
+            try {
+                switch (value) {
+                    case null -> json.writeNull();
+                    case String text -> json.writeString(text);
+                    case Long number -> json.writeNumber(number);
+                    case Integer number -> json.writeNumber(number);
+                    case Short number -> json.writeNumber(number);
+                    case Byte number -> json.writeNumber(number);
+                    case BigDecimal number -> json.writeNumber(number);
+                    case BigInteger number -> json.writeNumber(number);
+                    case Double number -> json.writeNumber(number);
+                    case Float number -> json.writeNumber(number);
+                    case Boolean bool -> json.writeBoolean(bool);
+                    case byte[] bytes -> json.writeBinary(bytes);
+                    case java.sql.Timestamp timestamp -> json.writeString(timestamp.toLocalDateTime().toString());
+                    case java.sql.Date date -> json.writeString(date.toLocalDate().toString());
+                    case java.sql.Time time -> json.writeString(time.toLocalTime().toString());
+                    case Clob clob -> json.writeString(clob.getSubString(1, (int) clob.length()));
+                    case Blob blob -> json.writeBinary(blob.getBytes(1, (int) blob.length()));
+                    default -> json.writeString(value.toString());
+                }
+            } catch (SQLException e) {
+                throw new IOException("Cannot read a LOB value: " + e.getMessage(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,336 @@
+package com.example.shelldemo.export;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Pattern;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import com.example.shelldemo.connection.ConnectionPool;
+import com.example.shelldemo.context.DatabaseContext;
+import com.example.shelldemo.exception.DatabaseException;
+import com.example.shelldemo.exception.DatabaseException.ErrorType;
+import com.example.shelldemo.executor.QueryExecutor;
+import com.example.shelldemo.parser.SqlStatement;
+import com.example.shelldemo.spi.DatabaseVendor;
+
+/**
+ * Exports the rows of one large query to CSV in parts that are read at once.
+ * The range of a numeric partition column is split into even intervals, and
+ * the rows of each interval are streamed on a pooled connection of their own
+ * into a part file, {@code name-p001.csv} and so on, rolled over like any
+ * {@link CsvRowWriter} output. Rows whose column is NULL go to the first part.
+ * A manifest, {@code name.manifest.json}, lists the parts with their
+ * predicates, files and row counts once all are written.
+ * <p>
+ * Where the vendor can share a snapshot between connections, every part
+ * reads the database as it was when the export started (an SCN on Oracle, an
+ * exported snapshot on PostgreSQL), so the parts add up to one consistent
+ * result. Elsewhere each part reads the state at its own start, which the
+ * export warns about.
+ */
+public final class PartitionedExport {
+    private static final Logger logger = LogManager.getLogger(PartitionedExport.class);
+
+    /** A plain or quoted identifier, which is all a partition column may be */
+    private static final Pattern COLUMN = Pattern.compile("[A-Za-z_][A-Za-z0-9_$#]*|\"[^\"]+\"");
+
+    private final String column;
+    private final int partitions;
+    private final Path file;
+    private final long rollRows;
+    private final long rollBytes;
+
+    /**
+     * One part of an export.
+     *
+     * @param number The number of the part, from 1
+     * @param predicate The condition on the partition column selecting its rows
+     * @param files The names of its files, next to the manifest
+     * @param rows The number of rows written
+     * @param bytes The size of its files
+     */
+    public record Part(int number, String predicate, List<String> files, long rows, long bytes) {}
+
+    /**
+     * The manifest of a completed export.
+     *
+     * @param query The query exported
+     * @param column The partition column
+     * @param vendor The database vendor
+     * @param snapshot The snapshot all parts read, null if they read without one
+     * @param parts The parts in order
+     * @param rows The number of rows of all parts
+     */
+    public record Manifest(String query, String column, String vendor, String snapshot, List<Part> parts, long rows) {}
+
+    /**
+     * @param column The numeric column of the query's result to split on
+     * @param partitions The number of parts to split into; fewer are written
+     *        if the column has fewer distinct values in its range
+     * @param file The CSV file the part and manifest files are named after
+     * @param rollRows Rows per part file before rolling over, 0 for no limit
+     * @param rollBytes Bytes per part file before rolling over, 0 for no limit
+     */
+    public PartitionedExport(String column, int partitions, Path file, long rollRows, long rollBytes) {
+        if (!COLUMN.matcher(column).matches()) {
+            throw new IllegalArgumentException("Not a column name: " + column);
+        }
+        if (partitions < 1) {
+            throw new IllegalArgumentException("Partitions must be at least 1: " + partitions);
+        }
+        this.column = column;
+        this.partitions = partitions;
+        this.file = file;
+        this.rollRows = rollRows;
+        this.rollBytes = rollBytes;
+    }
+
+    /**
+     * Runs the export. The parts are read on up to {@code parallelism}
+     * connections of the context's pool at once, or one after another on the
+     * context's connection if it has no pool.
+     *
+     * @param context The context of the operation
+     * @param query The query to export
+     * @param parallelism The maximum number of parts read at once
+     * @return The manifest, also written next to the parts
+     * @throws DatabaseException if a part cannot be read or written
+     */
+    public Manifest run(DatabaseContext context, String query, int parallelism) {
+        DatabaseVendor vendor = context.getVendor();
+        Connection connection = context.getConnection();
+        String snapshot = null;
+        try {
+            snapshot = vendor.exportSnapshot(connection);
+            if (snapshot == null) {
+                logger.warn("{} cannot share a snapshot between connections; each part of the export reads the "
+                    + "database as of its own start", vendor.getVendorName());
+            }
+            List<String> predicates = predicates(query, connection);
+            ConnectionPool pool = context.getConnectionPool();
+            int lanes = pool == null ? 1 : Math.min(parallelism, predicates.size());
+            logger.info("Exporting {} parts of {} on {} connections{}", predicates.size(), column, lanes,
+                snapshot != null ? " as of snapshot " + snapshot : "");
+            Part[] parts = lanes == 1
+                ? exportSequentially(context, query, predicates)
+                : exportConcurrently(context, pool, lanes, query, predicates, snapshot);
+            Manifest manifest = new Manifest(query, column, vendor.getVendorName(), snapshot, List.of(parts),
+                List.of(parts).stream().mapToLong(Part::rows).sum());
+            Path manifestFile = manifestFile(file);
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(manifestFile.toFile(), manifest);
+            logger.info("Exported {} rows in {} parts, listed in {}", manifest.rows(), parts.length, manifestFile);
+            return manifest;
+        } catch (SQLException e) {
+            logger.error("Partitioned export failed: {}", e.getMessage(), e);
+            throw new DatabaseException("Partitioned export failed: " + e.getMessage(), e, ErrorType.OP_QUERY);
+        } catch (IOException e) {
+            logger.error("Failed to write query results: {}", e.getMessage(), e);
+            throw new DatabaseException("Failed to write query results: " + e.getMessage(), e, ErrorType.OP_QUERY);
+        } finally {
+            if (snapshot != null) {
+                try {
+                    vendor.releaseSnapshot(connection);
+                } catch (SQLException e) {
+                    logger.warn("Failed to release export snapshot: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the range of the partition column and splits it.
+     */
+    private List<String> predicates(String query, Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(
+                 "SELECT MIN(" + column + "), MAX(" + column + ") FROM (" + query + ") q")) {
+            Object min = rs.next() ? rs.getObject(1) : null;
+            Object max = min != null ? rs.getObject(2) : null;
+            if (min == null || max == null) {
+                return predicates(column, 0, 0, 1);
+            }
+            return predicates(column, bound(min, RoundingMode.FLOOR), bound(max, RoundingMode.CEILING), partitions);
+        }
+    }
+
+    private long bound(Object value, RoundingMode rounding) throws SQLException {
+        if (!(value instanceof Number number)) {
+            throw new SQLException("Partition column " + column + " is not numeric: " + value.getClass().getName());
+        }
+        try {
+            return new BigDecimal(number.toString()).setScale(0, rounding).longValueExact();
+        } catch (ArithmeticException | NumberFormatException e) {
+            throw new SQLException("Partition column " + column + " is out of range: " + number, e);
+        }
+    }
+
+    /**
+     * Splits the range from {@code min} to {@code max} into even intervals,
+     * as conditions on the column. The first interval also takes NULL and
+     * the first and last are open-ended, so that the parts cover every row
+     * even when rows are added while reading without a snapshot.
+     *
+     * @param column The partition column
+     * @param min The smallest value of the column
+     * @param max The largest value of the column
+     * @param partitions The number of intervals wanted
+     * @return The conditions, one per part; a single part has none, as null
+     */
+    static List<String> predicates(String column, long min, long max, int partitions) {
+        BigInteger low = BigInteger.valueOf(min);
+        BigInteger span = BigInteger.valueOf(max).subtract(low).add(BigInteger.ONE);
+        int count = (int) Math.min(partitions, span.min(BigInteger.valueOf(Integer.MAX_VALUE)).longValue());
+        List<String> predicates = new ArrayList<>(count);
+        if (count <= 1) {
+            predicates.add(null);
+            return predicates;
+        }
+        long from = min;
+        for (int i = 1; i <= count; i++) {
+            long to = low.add(span.multiply(BigInteger.valueOf(i)).divide(BigInteger.valueOf(count))).longValue();
+            if (i == 1) {
+                predicates.add("(" + column + " < " + to + " OR " + column + " IS NULL)");
+            } else if (i == count) {
+                predicates.add(column + " >= " + from);
+            } else {
+                predicates.add(column + " >= " + from + " AND " + column + " < " + to);
+            }
+            from = to;
+        }
+        return predicates;
+    }
+
+    private Part[] exportSequentially(DatabaseContext context, String query, List<String> predicates)
+            throws SQLException, IOException {
+        Part[] parts = new Part[predicates.size()];
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = exportPart(context, query, predicates.get(i), i + 1);
+        }
+        return parts;
+    }
+
+    /**
+     * Reads the parts on {@code lanes} pooled connections, each taking the
+     * next part when done with one, until all are read or one failed.
+     */
+    private Part[] exportConcurrently(DatabaseContext context, ConnectionPool pool, int lanes, String query,
+            List<String> predicates, String snapshot) throws SQLException, IOException {
+        Part[] parts = new Part[predicates.size()];
+        AtomicInteger next = new AtomicInteger();
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < lanes; i++) {
+                executor.execute(() -> {
+                    try (DatabaseContext lane = new DatabaseContext.Builder()
+                            .connection(pool.getConnection())
+                            .configService(context.getConfigService())
+                            .vendor(context.getVendor())
+                            .dbType(context.getDbType())
+                            .build()) {
+                        exportParts(lane, query, predicates, snapshot, parts, next, failure);
+                    } catch (SQLException | IOException | RuntimeException e) {
+                        if (!failure.compareAndSet(null, e)) {
+                            failure.get().addSuppressed(e);
+                        }
+                    }
+                });
+            }
+        }
+        Exception e = failure.get();
+        if (e instanceof SQLException sqlException) {
+            throw sqlException;
+        }
+        if (e instanceof IOException ioException) {
+            throw ioException;
+        }
+        if (e != null) {
+            throw (RuntimeException) e;
+        }
+        return parts;
+    }
+
+    private void exportParts(DatabaseContext lane, String query, List<String> predicates, String snapshot,
+            Part[] parts, AtomicInteger next, AtomicReference<Exception> failure) throws SQLException, IOException {
+        DatabaseVendor vendor = lane.getVendor();
+        if (snapshot != null) {
+            vendor.importSnapshot(lane.getConnection(), snapshot);
+        }
+        try {
+            int index;
+            while (failure.get() == null && (index = next.getAndIncrement()) < parts.length) {
+                parts[index] = exportPart(lane, query, predicates.get(index), index + 1);
+            }
+        } finally {
+            if (snapshot != null) {
+                vendor.releaseSnapshot(lane.getConnection());
+            }
+        }
+    }
+
+    private Part exportPart(DatabaseContext context, String query, String predicate, int number)
+            throws SQLException, IOException {
+        String sql = predicate == null ? query : "SELECT * FROM (" + query + ") q WHERE " + predicate;
+        long rows;
+        List<Path> written;
+        try (CsvRowWriter writer = new CsvRowWriter(partFile(file, number), rollRows, rollBytes,
+                CsvRowWriter.DEFAULT_BUFFER_BYTES)) {
+            rows = new QueryExecutor(context).execute(new SqlStatement.QueryStatement(sql), writer);
+            written = writer.files();
+        }
+        List<String> names = new ArrayList<>(written.size());
+        long bytes = 0;
+        for (Path part : written) {
+            names.add(part.getFileName().toString());
+            bytes += Files.size(part);
+        }
+        logger.debug("Exported part {} ({}): {} rows", number, predicate, rows);
+        return new Part(number, predicate, names, rows, bytes);
+    }
+
+    /**
+     * Names the file of a part: {@code name.csv} becomes {@code name-p003.csv}
+     * for the third part.
+     *
+     * @param file The file of the export
+     * @param number The number of the part, from 1
+     * @return The part's file
+     */
+    static Path partFile(Path file, int number) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return file.resolveSibling(String.format("%s-p%03d%s", dot > 0 ? name.substring(0, dot) : name, number,
+            dot > 0 ? name.substring(dot) : ""));
+    }
+
+    /**
+     * Names the manifest of an export: {@code name.csv} becomes
+     * {@code name.manifest.json}.
+     *
+     * @param file The file of the export
+     * @return The manifest file
+     */
+    public static Path manifestFile(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return file.resolveSibling((dot > 0 ? name.substring(0, dot) : name) + ".manifest.json");
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.shelldemo.export;
+
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * A format query results can be written in, discovered through
+ * {@link java.util.ServiceLoader} by the {@link ResultWriterRegistry}. An
+ * implementation is listed in
+ * {@code META-INF/services/com.example.shelldemo.export.ResultWriterFormat}
+ * and needs a public no-argument constructor; it creates a
+ * {@link ChannelRowWriter} for the rows of every query.
+ */
+public interface ResultWriterFormat {
+
+    /**
+     * Gets the name the format is chosen by.
+     *
+     * @return The format name, such as {@code jsonl}
+     */
+    String getFormatName();
+
+    /**
+     * Gets the file extension of the format.
+     *
+     * @return The extension without the dot
+     */
+    String getFileExtension();
+
+    /**
+     * Checks that the settings are enough for the format, before any query runs.
+     *
+     * @param settings The settings of the run
+     * @throws IllegalArgumentException if the format cannot write with them
+     */
+    default void validate(WriterSettings settings) {
+        // Every setting is optional by default
+    }
+
+    /**
+     * Creates the writer of one query's rows.
+     *
+     * @param channel The channel to write to
+     * @param closeChannel Whether the writer closes the channel when it is closed
+     * @param settings The settings of the run
+     * @return The writer
+     */
+    ChannelRowWriter createWriter(WritableByteChannel channel, boolean closeChannel, WriterSettings settings);
+}
@@ -0,0 +1,67 @@
+package com.example.shelldemo.export;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.ServiceLoader;
+import java.util.TreeMap;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.example.shelldemo.util.LoggingUtils;
+
+/**
+ * Utility class for looking up result writer formats by name. Uses Java's
+ * ServiceLoader to load the formats, so a jar on the class path can add one.
+ */
+public final class ResultWriterRegistry {
+    private static final Logger logger = LogManager.getLogger(ResultWriterRegistry.class);
+
+    private static final Map<String, ResultWriterFormat> formats = new TreeMap<>();
+
+    static {
+        loadFormats();
+    }
+
+    private ResultWriterRegistry() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Loads all available format implementations.
+     */
+    private static void loadFormats() {
+        LoggingUtils.debug(logger, "Loading result writer formats");
+        for (ResultWriterFormat format : ServiceLoader.load(ResultWriterFormat.class)) {
+            String name = format.getFormatName().toLowerCase();
+            formats.put(name, format);
+            LoggingUtils.debug(logger, "Loaded result writer format: {}", name);
+        }
+        if (formats.isEmpty()) {
+            LoggingUtils.warn(logger, "No result writer formats found");
+        }
+    }
+
+    /**
+     * Gets a format by name.
+     *
+     * @param formatName The format name
+     * @return An Optional containing the format, or empty if not found
+     */
+    public static Optional<ResultWriterFormat> getFormat(String formatName) {
+        if (formatName == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(formats.get(formatName.toLowerCase()));
+    }
+
+    /**
+     * Gets all available formats.
+     *
+     * @return A map of format names to formats, sorted by name
+     */
+    public static Map<String, ResultWriterFormat> getAllFormats() {
+        return Collections.unmodifiableMap(new TreeMap<>(formats));
+    }
+}
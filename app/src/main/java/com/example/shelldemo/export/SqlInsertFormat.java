@@ -0,0 +1,116 @@
+package com.example.shelldemo.export;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import com.example.shelldemo.spi.DatabaseVendor;
+import com.example.shelldemo.sqlhandling.Row;
+
+/**
+ * Writes the rows as a script of INSERT statements into a table, for moving
+ * data to another database. Column names are quoted and values written as
+ * literals in the dialect of the vendor of the settings; a statement inserts
+ * up to {@link WriterSettings#rowsPerStatement()} rows in one {@code VALUES}
+ * clause, as far as the vendor allows, and ends with a semicolon so that the
+ * script can be run by this tool.
+ */
+public final class SqlInsertFormat implements ResultWriterFormat {
+    /** An optionally qualified table name, each part a plain or quoted identifier */
+    private static final Pattern TABLE = Pattern.compile(
+        "(?:[A-Za-z_][A-Za-z0-9_$#]*|\"[^\"]+\"|`[^`]+`|\\[[^\\]]+\\])"
+        + "(?:\\.(?:[A-Za-z_][A-Za-z0-9_$#]*|\"[^\"]+\"|`[^`]+`|\\[[^\\]]+\\])){0,2}");
+
+    @Override
+    public String getFormatName() {
+        return "sql";
+    }
+
+    @Override
+    public String getFileExtension() {
+        return "sql";
+    }
+
+    @Override
+    public void validate(WriterSettings settings) {
+        if (settings.vendor() == null) {
+            throw new IllegalArgumentException("The sql format needs the vendor whose dialect to write");
+        }
+        if (settings.table() == null || !TABLE.matcher(settings.table()).matches()) {
+            throw new IllegalArgumentException("The sql format needs the name of the table to insert into, not: "
+                + settings.table());
+        }
+    }
+
+    @Override
+    public ChannelRowWriter createWriter(WritableByteChannel channel, boolean closeChannel, WriterSettings settings) {
+        validate(settings);
+        return new Writer(channel, closeChannel, settings);
+    }
+
+    private static final class Writer extends ChannelRowWriter {
+        private final DatabaseVendor vendor;
+        private final String table;
+        private final int rowsPerStatement;
+        private final StringBuilder sql = new StringBuilder(256);
+        private String insert;
+        private int statementRows;
+
+        Writer(WritableByteChannel channel, boolean closeChannel, WriterSettings settings) {
+            super(channel, closeChannel, settings.bufferBytes());
+            this.vendor = settings.vendor();
+            this.table = settings.table();
+            this.rowsPerStatement = Math.min(settings.rowsPerStatement(), vendor.getMaxInsertRows());
+        }
+
+        @Override
+        protected void writeStart(List<String> columns) {
+            StringBuilder statement = new StringBuilder("INSERT INTO ").append(table).append(" (");
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) {
+                    statement.append(", ");
+                }
+                statement.append(vendor.quoteIdentifier(columns.get(i)));
+            }
+            insert = statement.append(") VALUES").toString();
+        }
+
+        @Override
+        protected void writeRow(Row row) throws IOException {
+            StringBuilder values = sql;
+            values.setLength(0);
+            if (statementRows == 0) {
+                values.append(insert);
+            } else {
+                values.append(',');
+            }
+            values.append(rowsPerStatement > 1 ? "\n    (" : " (");
+            try {
+                for (int i = 0; i < columns().size(); i++) {
+                    if (i > 0) {
+                        values.append(", ");
+                    }
+                    vendor.appendSqlLiteral(values, row.value(i));
+                }
+            } catch (SQLException e) {
+                throw new IOException("Cannot read a LOB value: " + e.getMessage(), e);
+            }
+            values.append(')');
+            if (++statementRows == rowsPerStatement) {
+                values.append(";\n");
+                statementRows = 0;
+            }
+            write(values);
+        }
+
+        @Override
+        protected void writeEnd(long rows) throws IOException {
+            if (statementRows > 0) {
+                write(";\n");
+                statementRows = 0;
+            }
+        }
+    }
+}
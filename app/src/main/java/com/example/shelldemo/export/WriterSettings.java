@@ -0,0 +1,31 @@
+package com.example.shelldemo.export;
+
+import com.example.shelldemo.spi.DatabaseVendor;
+
+/**
+ * The settings a {@link ResultWriterFormat} creates its writers with. A
+ * format reads the settings it needs and ignores the rest.
+ *
+ * @param vendor The vendor whose SQL dialect to write, or null if the format writes no SQL
+ * @param table The table that INSERT statements insert into, or null
+ * @param rowsPerStatement Rows per INSERT statement, up to the vendor's limit
+ * @param bufferBytes Size of a writer's output buffer
+ */
+public record WriterSettings(DatabaseVendor vendor, String table, int rowsPerStatement, int bufferBytes) {
+
+    public WriterSettings {
+        if (rowsPerStatement < 1) {
+            throw new IllegalArgumentException("An INSERT statement must insert at least one row: " + rowsPerStatement);
+        }
+    }
+
+    /**
+     * Creates settings with one row per INSERT statement and the default buffer.
+     *
+     * @param vendor The vendor whose SQL dialect to write, or null if the format writes no SQL
+     * @param table The table that INSERT statements insert into, or null
+     */
+    public WriterSettings(DatabaseVendor vendor, String table) {
+        this(vendor, table, 1, ChannelRowWriter.DEFAULT_BUFFER_BYTES);
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.shelldemo.fanout;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.example.shelldemo.UnifiedDatabaseOperation;
+import com.example.shelldemo.UnifiedDatabaseOperation.ScriptSummary;
+import com.example.shelldemo.fanout.TargetList.Target;
+import com.example.shelldemo.parser.SqlStatement;
+
+/**
+ * Runs one parsed script against many databases at once. Every target gets a
+ * virtual thread that first fetches its credentials, so that slow secret
+ * lookups overlap, and then waits for one of a limited number of lanes to
+ * connect and run the script. A target runs the script from start to end
+ * regardless of the others; stopping on errors applies within a target only.
+ * <p>
+ * The query results of a target are buffered while it runs and passed to the
+ * output as one block, each line prefixed with the target's name, so the
+ * output of targets running at once does not interleave.
+ */
+public class FanOutExecutor {
+    private static final Logger logger = LogManager.getLogger(FanOutExecutor.class);
+
+    /**
+     * Fetches the password of a target, e.g. from Vault.
+     */
+    @FunctionalInterface
+    public interface CredentialSource {
+        /**
+         * @param target The target
+         * @return The password to connect to the target with
+         */
+        String passwordFor(Target target);
+    }
+
+    /**
+     * Opens an operation on a target.
+     */
+    @FunctionalInterface
+    public interface OperationFactory {
+        /**
+         * @param target The target
+         * @param password The password fetched for the target
+         * @return An operation connected to the target
+         */
+        UnifiedDatabaseOperation open(Target target, String password);
+    }
+
+    private final CredentialSource credentials;
+    private final OperationFactory operations;
+    private final int concurrency;
+
+    /**
+     * @param credentials Fetches the password of each target
+     * @param operations Connects to each target
+     * @param concurrency Maximum number of targets the script runs on at once
+     */
+    public FanOutExecutor(CredentialSource credentials, OperationFactory operations, int concurrency) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("Target concurrency must be at least 1: " + concurrency);
+        }
+        this.credentials = credentials;
+        this.operations = operations;
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Runs a script against every target and waits for all of them.
+     *
+     * @param scriptFile The script file the statements were parsed from
+     * @param statements The statements of the script, parsed once for all targets
+     * @param targets The databases to run the script against
+     * @param output Receives the prefixed output of each target once it has finished
+     * @return The result of every target, in the order of the targets
+     */
+    public FanOutReport execute(File scriptFile, List<SqlStatement> statements, TargetList targets,
+            Consumer<String> output) {
+        long started = System.nanoTime();
+        List<Target> list = targets.targets();
+        logger.info("Running {} on {} targets, up to {} at once", scriptFile, list.size(), concurrency);
+        FanOutReport.TargetResult[] results = new FanOutReport.TargetResult[list.size()];
+        Semaphore lanes = new Semaphore(concurrency);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < list.size(); i++) {
+                int index = i;
+                executor.execute(() -> results[index] = run(list.get(index), scriptFile, statements, lanes, output));
+            }
+        }
+        FanOutReport report = new FanOutReport(scriptFile.getPath(), Arrays.asList(results),
+            Duration.ofNanos(System.nanoTime() - started));
+        logger.info("Ran {} on {} targets: {} succeeded, {} failed", scriptFile, list.size(),
+            report.count(FanOutReport.Status.SUCCEEDED), report.count(FanOutReport.Status.FAILED));
+        return report;
+    }
+
+    private FanOutReport.TargetResult run(Target target, File scriptFile, List<SqlStatement> statements,
+            Semaphore lanes, Consumer<String> output) {
+        StringBuilder buffer = new StringBuilder();
+        long started = System.nanoTime();
+        FanOutReport.TargetResult result;
+        try {
+            String password = credentials.passwordFor(target);
+            lanes.acquire();
+            try {
+                started = System.nanoTime();
+                logger.info("Running {} on target {}", scriptFile, target.name());
+                try (UnifiedDatabaseOperation operation = operations.open(target, password)) {
+                    ScriptSummary summary = operation.executeScript(scriptFile, statements,
+                        text -> buffer.append(text).append('\n'));
+                    result = FanOutReport.TargetResult.completed(target, summary,
+                        Duration.ofNanos(System.nanoTime() - started));
+                }
+            } finally {
+                lanes.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result = FanOutReport.TargetResult.aborted(target, Duration.ofNanos(System.nanoTime() - started), e);
+        } catch (Exception e) {
+            logger.error("Target {} failed: {}", target.name(), e.getMessage(), e);
+            buffer.append("ERROR: ").append(e.getMessage()).append('\n');
+            result = FanOutReport.TargetResult.aborted(target, Duration.ofNanos(System.nanoTime() - started), e);
+        }
+        if (!buffer.isEmpty()) {
+            String prefix = "[" + target.name() + "] ";
+            StringBuilder block = new StringBuilder();
+            buffer.toString().lines().forEach(line -> block.append(prefix).append(line).append('\n'));
+            synchronized (this) {
+                output.accept(block.toString());
+            }
+        }
+        return result;
+    }
+}
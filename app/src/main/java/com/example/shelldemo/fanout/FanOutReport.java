@@ -0,0 +1,154 @@
+package com.example.shelldemo.fanout;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+
+import com.example.shelldemo.UnifiedDatabaseOperation.ScriptSummary;
+import com.example.shelldemo.fanout.TargetList.Target;
+
+/**
+ * The aggregated outcome of one script run against several databases: one
+ * result per target, in the order the targets are listed.
+ *
+ * @param script The script that ran
+ * @param results The result of each target
+ * @param elapsed Wall-clock time of the whole run
+ */
+public record FanOutReport(String script, List<TargetResult> results, Duration elapsed) {
+
+    /**
+     * How the script ended on a target.
+     */
+    public enum Status {
+        /** Every statement succeeded */
+        SUCCEEDED,
+        /** The script could not connect or was aborted, or some of its statements failed */
+        FAILED
+    }
+
+    /**
+     * The outcome of the script on one target.
+     *
+     * @param target The target
+     * @param status How the script ended
+     * @param executed Number of statements executed
+     * @param failed Number of statements that failed
+     * @param rows Number of rows the statements changed or returned
+     * @param elapsed Time the target took, from connecting to the end of the script
+     * @param error The error that aborted the script, or null
+     */
+    public record TargetResult(Target target, Status status, int executed, int failed, long rows,
+            Duration elapsed, String error) {
+
+        /**
+         * The result of a script that ran to its end.
+         *
+         * @param target The target
+         * @param summary The counts of the script
+         * @param elapsed Time the target took
+         * @return The result
+         */
+        public static TargetResult completed(Target target, ScriptSummary summary, Duration elapsed) {
+            return new TargetResult(target, summary.failed() > 0 ? Status.FAILED : Status.SUCCEEDED,
+                summary.executed(), summary.failed(), summary.rows(), elapsed, null);
+        }
+
+        /**
+         * The result of a target that could not connect or whose script was aborted.
+         *
+         * @param target The target
+         * @param elapsed Time the target took
+         * @param error The error
+         * @return The result
+         */
+        public static TargetResult aborted(Target target, Duration elapsed, Exception error) {
+            return new TargetResult(target, Status.FAILED, 0, 1, 0, elapsed, error.getMessage());
+        }
+    }
+
+    /**
+     * Compact constructor for validation
+     */
+    public FanOutReport {
+        results = List.copyOf(results);
+    }
+
+    /**
+     * Whether the script succeeded on every target.
+     *
+     * @return true if no target failed
+     */
+    public boolean succeeded() {
+        return results.stream().allMatch(result -> result.status() == Status.SUCCEEDED);
+    }
+
+    /**
+     * Counts the targets that ended with a status.
+     *
+     * @param status The status
+     * @return The number of targets
+     */
+    public long count(Status status) {
+        return results.stream().filter(result -> result.status() == status).count();
+    }
+
+    /**
+     * Formats the report as a summary line followed by a table of the targets
+     * and the errors that aborted any of them.
+     *
+     * @return The formatted report
+     */
+    public String format() {
+        String[] headers = {"Target", "Database", "Status", "Executed", "Failed", "Rows", "Time"};
+        String[][] rows = new String[results.size()][];
+        int[] widths = new int[headers.length];
+        for (int i = 0; i < headers.length; i++) {
+            widths[i] = headers[i].length();
+        }
+        for (int r = 0; r < rows.length; r++) {
+            TargetResult result = results.get(r);
+            rows[r] = new String[] {result.target().name(), result.target().database(), result.status().name(),
+                String.valueOf(result.executed()), String.valueOf(result.failed()), String.valueOf(result.rows()),
+                seconds(result.elapsed())};
+            for (int i = 0; i < headers.length; i++) {
+                widths[i] = Math.max(widths[i], rows[r][i].length());
+            }
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append("Ran ").append(script).append(" on ").append(results.size()).append(" targets: ")
+            .append(count(Status.SUCCEEDED)).append(" succeeded, ").append(count(Status.FAILED)).append(" failed in ")
+            .append(seconds(elapsed)).append('\n');
+        appendSeparator(sb, widths);
+        appendRow(sb, headers, widths);
+        appendSeparator(sb, widths);
+        for (String[] row : rows) {
+            appendRow(sb, row, widths);
+        }
+        appendSeparator(sb, widths);
+        for (TargetResult result : results) {
+            if (result.error() != null) {
+                sb.append(result.target().name()).append(": ").append(result.error()).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String seconds(Duration duration) {
+        return String.format(Locale.ROOT, "%.3f s", duration.toNanos() / 1e9);
+    }
+
+    private static void appendSeparator(StringBuilder sb, int[] widths) {
+        sb.append("+");
+        for (int w : widths) sb.append("-".repeat(w + 2)).append("+");
+        sb.append("\n");
+    }
+
+    private static void appendRow(StringBuilder sb, String[] values, int[] widths) {
+        sb.append("|");
+        for (int i = 0; i < values.length; i++) {
+            sb.append(" ").append(String.format("%-" + widths[i] + "s", values[i])).append(" |");
+        }
+        sb.append("\n");
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.shelldemo.fanout;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * The databases one script runs against. A targets file lists a database per
+ * line, optionally followed by the connection values that differ from the
+ * command line:
+ * <pre>
+ * # Regional databases
+ * ORCLEU
+ * ORCLUS   host=db-us.example.com port=1522
+ * ORCLAP   host=db-ap.example.com username=deployer name=asia
+ * </pre>
+ * The keys are {@code host}, {@code port}, {@code username} and {@code name},
+ * the label a target's output and results are reported under, which defaults
+ * to the database. The same targets may be given as a named group of the
+ * {@code targets} section of the application configuration, with the same keys
+ * and {@code database}.
+ *
+ * @param source The targets file or configuration group
+ * @param targets The databases, in the order they are listed
+ */
+public record TargetList(String source, List<Target> targets) {
+
+    /**
+     * One database to run against.
+     *
+     * @param name The label of the target
+     * @param database The database or service name
+     * @param host The database host
+     * @param port The database port, 0 for the default port of the database type
+     * @param username The database username
+     */
+    public record Target(String name, String database, String host, int port, String username) {
+
+        /**
+         * Applies the values of an entry to this target's.
+         */
+        Target with(String key, String value) {
+            return switch (key) {
+                case "name" -> new Target(value, database, host, port, username);
+                case "database" -> new Target(name, value, host, port, username);
+                case "host" -> new Target(name, database, value, port, username);
+                case "port" -> new Target(name, database, host, Integer.parseInt(value), username);
+                case "username" -> new Target(name, database, host, port, value);
+                default -> throw new IllegalArgumentException("Unknown target key: " + key);
+            };
+        }
+    }
+
+    /**
+     * Compact constructor for validation
+     */
+    public TargetList {
+        targets = List.copyOf(targets);
+        if (targets.isEmpty()) {
+            throw new IllegalArgumentException("No target databases found in " + source);
+        }
+        Set<String> names = new HashSet<>();
+        for (Target target : targets) {
+            if (!names.add(target.name())) {
+                throw new IllegalArgumentException("Target " + target.name() + " is listed twice in " + source);
+            }
+        }
+    }
+
+    /**
+     * Reads the targets of a targets file or, if no such file exists, of the
+     * configuration group of that name.
+     *
+     * @param source The targets file or configuration group name
+     * @param defaults The connection values of the command line
+     * @param groups Looks up the entries of a configuration group
+     * @return The targets
+     * @throws IllegalArgumentException if neither exists or an entry is invalid
+     */
+    public static TargetList of(String source, Target defaults,
+            Function<String, List<Map<String, Object>>> groups) {
+        Path file = Path.of(source);
+        if (Files.isRegularFile(file)) {
+            return fromFile(file, defaults);
+        }
+        List<Map<String, Object>> entries = groups.apply(source);
+        if (entries.isEmpty()) {
+            throw new IllegalArgumentException("Targets file or configuration group not found: " + source);
+        }
+        return fromConfig(source, entries, defaults);
+    }
+
+    /**
+     * Reads a targets file.
+     *
+     * @param file The targets file
+     * @param defaults The connection values of the command line
+     * @return The targets
+     */
+    public static TargetList fromFile(Path file, Target defaults) {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read targets file " + file, e);
+        }
+        List<Target> targets = new ArrayList<>();
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] tokens = line.split("\\s+");
+            Target target = defaults.with("name", tokens[0]).with("database", tokens[0]);
+            try {
+                for (int t = 1; t < tokens.length; t++) {
+                    int separator = tokens[t].indexOf('=');
+                    if (separator <= 0) {
+                        throw new IllegalArgumentException("Expected key=value but found " + tokens[t]);
+                    }
+                    target = target.with(tokens[t].substring(0, separator), tokens[t].substring(separator + 1));
+                }
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Targets file " + file + " line " + (i + 1) + ": "
+                    + e.getMessage(), e);
+            }
+            targets.add(target);
+        }
+        return new TargetList(file.toString(), targets);
+    }
+
+    /**
+     * Reads the entries of a configuration group.
+     *
+     * @param group The group name
+     * @param entries The entries of the group, one map per database
+     * @param defaults The connection values of the command line
+     * @return The targets
+     */
+    public static TargetList fromConfig(String group, List<Map<String, Object>> entries, Target defaults) {
+        List<Target> targets = new ArrayList<>();
+        for (Map<String, Object> entry : entries) {
+            Object database = entry.get("database");
+            if (database == null) {
+                throw new IllegalArgumentException("Target of group " + group + " has no database: " + entry);
+            }
+            Target target = defaults.with("name", database.toString()).with("database", database.toString());
+            for (String key : List.of("name", "host", "port", "username")) {
+                if (entry.get(key) != null) {
+                    target = target.with(key, entry.get(key).toString());
+                }
+            }
+            targets.add(target);
+        }
+        return new TargetList(group, targets);
+    }
+}
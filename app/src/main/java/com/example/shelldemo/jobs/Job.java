@@ -0,0 +1,139 @@
+package com.example.shelldemo.jobs;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * A command submitted to the job scheduler, with its state and timing. Jobs
+ * are immutable; every change of state yields a new job.
+ *
+ * @param id The job number, unique within the job queue
+ * @param priority The priority class of the job
+ * @param database The database the job runs against, whose concurrent jobs are capped
+ * @param workingDirectory Directory relative paths of the arguments resolve against
+ * @param arguments The command-line arguments of the command
+ * @param state The state of the job
+ * @param submittedAt Time the job was submitted (epoch millis)
+ * @param startedAt Time the job started running (epoch millis), 0 while queued
+ * @param finishedAt Time the job ended (epoch millis), 0 until it has
+ * @param exitCode The exit code of the command, meaningful once the job has ended
+ * @param error Why the job did not run to its end, or null
+ */
+public record Job(long id, Priority priority, String database, String workingDirectory, List<String> arguments,
+        State state, long submittedAt, long startedAt, long finishedAt, int exitCode, String error) {
+
+    /**
+     * Priority classes, in the order they are scheduled.
+     */
+    public enum Priority {
+        /** Jobs someone waits for; scheduled before bulk jobs */
+        INTERACTIVE,
+        /** Background jobs; scheduled when no interactive job of their database is waiting */
+        BULK
+    }
+
+    /**
+     * Life cycle of a job.
+     */
+    public enum State {
+        /** Waiting for its turn */
+        QUEUED,
+        /** Running on a worker */
+        RUNNING,
+        /** The command ended with exit code 0 */
+        SUCCEEDED,
+        /** The command ended with another exit code, or could not complete */
+        FAILED,
+        /** Removed from the queue before it started */
+        CANCELLED;
+
+        /**
+         * Whether a job in this state has ended.
+         *
+         * @return true for a final state
+         */
+        public boolean isFinal() {
+            return this != QUEUED && this != RUNNING;
+        }
+    }
+
+    /**
+     * Compact constructor for validation
+     */
+    public Job {
+        arguments = List.copyOf(arguments);
+    }
+
+    /**
+     * A job just submitted.
+     *
+     * @param id The job number
+     * @param priority The priority class
+     * @param database The database the job runs against
+     * @param workingDirectory Directory relative paths resolve against
+     * @param arguments The command-line arguments
+     * @return The queued job
+     */
+    public static Job queued(long id, Priority priority, String database, String workingDirectory,
+            List<String> arguments) {
+        return new Job(id, priority, database, workingDirectory, arguments, State.QUEUED,
+            System.currentTimeMillis(), 0, 0, 0, null);
+    }
+
+    /**
+     * This job, started now.
+     *
+     * @return The running job
+     */
+    public Job started() {
+        return new Job(id, priority, database, workingDirectory, arguments, State.RUNNING, submittedAt,
+            System.currentTimeMillis(), 0, 0, null);
+    }
+
+    /**
+     * This job, ended now with the exit code of its command.
+     *
+     * @param code The exit code
+     * @return The finished job
+     */
+    public Job finished(int code) {
+        return new Job(id, priority, database, workingDirectory, arguments,
+            code == 0 ? State.SUCCEEDED : State.FAILED, submittedAt, startedAt, System.currentTimeMillis(), code,
+            null);
+    }
+
+    /**
+     * This job, ended now without its command completing.
+     *
+     * @param state {@link State#FAILED} or {@link State#CANCELLED}
+     * @param reason Why the job ended
+     * @return The ended job
+     */
+    public Job ended(State state, String reason) {
+        return new Job(id, priority, database, workingDirectory, arguments, state, submittedAt, startedAt,
+            System.currentTimeMillis(), state == State.CANCELLED ? 0 : 1, reason);
+    }
+
+    /**
+     * Time the job waited in the queue, up to now while it is queued.
+     *
+     * @return The queue wait time
+     */
+    public Duration queueWait() {
+        long until = startedAt > 0 ? startedAt : finishedAt > 0 ? finishedAt : System.currentTimeMillis();
+        return Duration.ofMillis(Math.max(0, until - submittedAt));
+    }
+
+    /**
+     * Time the job ran, up to now while it is running.
+     *
+     * @return The run time, zero if the job never started
+     */
+    public Duration runTime() {
+        if (startedAt == 0) {
+            return Duration.ZERO;
+        }
+        long until = finishedAt > 0 ? finishedAt : System.currentTimeMillis();
+        return Duration.ofMillis(Math.max(0, until - startedAt));
+    }
+}
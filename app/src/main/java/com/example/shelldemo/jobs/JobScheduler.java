@@ -0,0 +1,420 @@
+package com.example.shelldemo.jobs;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Queues submitted commands and runs them on virtual threads, at most
+ * {@link Limits#maxRunning()} at once and at most
+ * {@link Limits#perDatabase()} against the same database, so that a burst of
+ * submissions neither exhausts the connections of one database nor starves
+ * the others.
+ * <p>
+ * Whenever a job is submitted or ends, the queued jobs are started in order
+ * of priority class and then submission, skipping jobs whose database is at
+ * its limit. A bulk job that has waited for {@link Limits#bulkPromotion()} is
+ * scheduled as an interactive one, so that a steady stream of interactive
+ * jobs does not hold it back forever.
+ * <p>
+ * The jobs that have not ended are kept in a {@link JobStore} on every
+ * change. When the scheduler starts, queued jobs of the store are queued
+ * again; jobs that were running when the previous scheduler stopped are
+ * failed, as it is unknown how far they got.
+ */
+public final class JobScheduler implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(JobScheduler.class);
+
+    /** Number of ended jobs kept with their output for status queries */
+    private static final int KEPT_ENDED_JOBS = 200;
+
+    /** Characters of output kept per job; later output is dropped */
+    private static final int MAX_OUTPUT_CHARS = 1 << 20;
+
+    private static final String OUTPUT_TRUNCATED = "[output truncated]" + System.lineSeparator();
+
+    /**
+     * Runs the command of a job.
+     */
+    @FunctionalInterface
+    public interface JobRunner {
+        /**
+         * @param job The job to run
+         * @param out Standard output of the command
+         * @param err Standard error of the command
+         * @return The exit code of the command
+         */
+        int run(Job job, PrintWriter out, PrintWriter err);
+    }
+
+    /**
+     * Concurrency limits of the scheduler.
+     *
+     * @param maxRunning Maximum number of jobs running at once
+     * @param perDatabase Maximum number of jobs running at once against one database
+     * @param bulkPromotion Queue wait after which a bulk job is scheduled as an interactive one, zero to never promote
+     */
+    public record Limits(int maxRunning, int perDatabase, Duration bulkPromotion) {
+        /**
+         * Compact constructor for validation
+         */
+        public Limits {
+            if (maxRunning < 1) {
+                throw new IllegalArgumentException("Maximum number of running jobs must be at least 1: " + maxRunning);
+            }
+            if (perDatabase < 1) {
+                throw new IllegalArgumentException("Maximum number of jobs per database must be at least 1: " + perDatabase);
+            }
+            if (bulkPromotion == null || bulkPromotion.isNegative()) {
+                throw new IllegalArgumentException("Bulk promotion wait must not be negative: " + bulkPromotion);
+            }
+        }
+    }
+
+    private final JobStore store;
+    private final JobRunner runner;
+    private final Limits limits;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final Map<Long, Job> jobs = new LinkedHashMap<>();
+    private final Map<Long, StringBuilder> outputs = new HashMap<>();
+    private final Map<String, Integer> runningPerDatabase = new HashMap<>();
+    private final Deque<Long> ended = new ArrayDeque<>();
+    private final ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+    private long nextId = 1;
+    private int running;
+    private boolean closed;
+
+    /**
+     * Creates a scheduler and resumes the jobs of the store.
+     *
+     * @param store The job queue on disk
+     * @param runner Runs the commands of the jobs
+     * @param limits The concurrency limits
+     * @throws IOException if the store cannot be read or written
+     */
+    public JobScheduler(JobStore store, JobRunner runner, Limits limits) throws IOException {
+        this.store = store;
+        this.runner = runner;
+        this.limits = limits;
+        List<Job> stored = store.load();
+        lock.lock();
+        try {
+            for (Job job : stored) {
+                nextId = Math.max(nextId, job.id() + 1);
+                if (job.state() == Job.State.RUNNING) {
+                    logger.warn("Job {} was running when the scheduler stopped; marking it failed", job.id());
+                    remember(job.ended(Job.State.FAILED, "The scheduler stopped while the job was running"));
+                } else if (job.state() == Job.State.QUEUED) {
+                    jobs.put(job.id(), job);
+                    outputs.put(job.id(), new StringBuilder());
+                }
+            }
+            logger.info("Resumed {} queued jobs from {}", jobs.size() - ended.size(), store.getFile());
+            persist();
+            dispatch();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Queues a command.
+     *
+     * @param priority The priority class of the job
+     * @param database The database the command runs against
+     * @param workingDirectory Directory relative paths of the arguments resolve against
+     * @param arguments The command-line arguments
+     * @return The queued job, or the running one if it started at once
+     * @throws IllegalStateException if the scheduler is closed
+     */
+    public Job submit(Job.Priority priority, String database, String workingDirectory, List<String> arguments) {
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Job scheduler is closed");
+            }
+            Job job = Job.queued(nextId++, priority, database, workingDirectory, arguments);
+            jobs.put(job.id(), job);
+            outputs.put(job.id(), new StringBuilder());
+            logger.info("Queued {} job {} for {}", priority, job.id(), database);
+            persist();
+            dispatch();
+            return jobs.get(job.id());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes a queued job from the queue. A job that has started runs to its end.
+     *
+     * @param id The job number
+     * @return The job after the call, empty if there is no such job
+     */
+    public Optional<Job> cancel(long id) {
+        lock.lock();
+        try {
+            Job job = jobs.get(id);
+            if (job == null || job.state() != Job.State.QUEUED) {
+                return Optional.ofNullable(job);
+            }
+            Job cancelled = job.ended(Job.State.CANCELLED, "Cancelled before it started");
+            remember(cancelled);
+            logger.info("Cancelled job {}", id);
+            persist();
+            changed.signalAll();
+            return Optional.of(cancelled);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param id The job number
+     * @return The job, empty if there is no such job or it ended long ago
+     */
+    public Optional<Job> get(long id) {
+        lock.lock();
+        try {
+            return Optional.ofNullable(jobs.get(id));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return The known jobs: the queued and running ones and the ones that ended recently, by job number
+     */
+    public List<Job> list() {
+        lock.lock();
+        try {
+            List<Job> list = new ArrayList<>(jobs.values());
+            list.sort(Comparator.comparingLong(Job::id));
+            return list;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * What the command of a job has written so far.
+     *
+     * @param id The job number
+     * @return The output, empty if there is no such job
+     */
+    public Optional<String> output(long id) {
+        lock.lock();
+        try {
+            StringBuilder output = outputs.get(id);
+            return output == null ? Optional.empty() : Optional.of(output.toString());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits for a job to end.
+     *
+     * @param id The job number
+     * @return The ended job, empty if there is no such job
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public Optional<Job> await(long id) throws InterruptedException {
+        lock.lock();
+        try {
+            Job job = jobs.get(id);
+            while (job != null && !job.state().isFinal() && !closed) {
+                changed.await();
+                job = jobs.get(id);
+            }
+            return Optional.ofNullable(job);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops starting jobs and waits for the running ones. Queued jobs stay in
+     * the store for the next scheduler.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(30, TimeUnit.SECONDS)) {
+                logger.warn("Jobs still running after 30 seconds");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Starts queued jobs while there is room for them. Called with the lock held.
+     */
+    private void dispatch() {
+        if (closed || running >= limits.maxRunning()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        List<Job> queued = jobs.values().stream()
+            .filter(job -> job.state() == Job.State.QUEUED)
+            .sorted(Comparator.comparing((Job job) -> scheduledPriority(job, now)).thenComparingLong(Job::id))
+            .toList();
+        for (Job job : queued) {
+            if (running >= limits.maxRunning()) {
+                break;
+            }
+            if (runningPerDatabase.getOrDefault(job.database(), 0) >= limits.perDatabase()) {
+                continue;
+            }
+            start(job);
+        }
+    }
+
+    private Job.Priority scheduledPriority(Job job, long now) {
+        if (job.priority() == Job.Priority.BULK && !limits.bulkPromotion().isZero()
+                && now - job.submittedAt() >= limits.bulkPromotion().toMillis()) {
+            return Job.Priority.INTERACTIVE;
+        }
+        return job.priority();
+    }
+
+    private void start(Job job) {
+        Job started = job.started();
+        jobs.put(started.id(), started);
+        running++;
+        runningPerDatabase.merge(started.database(), 1, Integer::sum);
+        logger.info("Started job {} for {} after waiting {} ms", started.id(), started.database(),
+            started.queueWait().toMillis());
+        persist();
+        changed.signalAll();
+        workers.execute(() -> run(started));
+    }
+
+    private void run(Job job) {
+        Job result;
+        try (PrintWriter out = new PrintWriter(new OutputWriter(job.id()), true)) {
+            try {
+                result = job.finished(runner.run(job, out, out));
+            } catch (RuntimeException e) {
+                logger.error("Job {} failed: {}", job.id(), e.getMessage(), e);
+                out.println("ERROR: " + e.getMessage());
+                result = job.ended(Job.State.FAILED, e.getMessage());
+            }
+        }
+        lock.lock();
+        try {
+            running--;
+            runningPerDatabase.computeIfPresent(job.database(), (database, count) -> count > 1 ? count - 1 : null);
+            remember(result);
+            logger.info("Job {} ended {} with exit code {} after running {} ms", result.id(), result.state(),
+                result.exitCode(), result.runTime().toMillis());
+            persist();
+            changed.signalAll();
+            dispatch();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records an ended job, forgetting the oldest ended jobs beyond
+     * {@value #KEPT_ENDED_JOBS}. Called with the lock held.
+     */
+    private void remember(Job job) {
+        jobs.put(job.id(), job);
+        outputs.putIfAbsent(job.id(), new StringBuilder());
+        ended.addLast(job.id());
+        while (ended.size() > KEPT_ENDED_JOBS) {
+            long forgotten = ended.removeFirst();
+            jobs.remove(forgotten);
+            outputs.remove(forgotten);
+        }
+    }
+
+    /**
+     * Writes the jobs that have not ended to the store. A failure is logged
+     * rather than failing the change, which has already taken effect. Called
+     * with the lock held.
+     */
+    private void persist() {
+        List<Job> pending = jobs.values().stream().filter(job -> !job.state().isFinal()).toList();
+        try {
+            store.save(pending);
+        } catch (IOException e) {
+            logger.error("Failed to save job queue {}: {}", store.getFile(), e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Appends what a job writes to its output, up to {@value #MAX_OUTPUT_CHARS} characters.
+     */
+    private final class OutputWriter extends Writer {
+        private final long id;
+        private boolean truncated;
+
+        OutputWriter(long id) {
+            this.id = id;
+        }
+
+        @Override
+        public void write(char[] chars, int offset, int length) {
+            JobScheduler.this.lock.lock();
+            try {
+                StringBuilder output = outputs.get(id);
+                if (output == null || truncated) {
+                    return;
+                }
+                int room = MAX_OUTPUT_CHARS - output.length();
+                if (length > room) {
+                    output.append(chars, offset, Math.max(0, room)).append(OUTPUT_TRUNCATED);
+                    truncated = true;
+                } else {
+                    output.append(chars, offset, length);
+                }
+            } finally {
+                JobScheduler.this.lock.unlock();
+            }
+        }
+
+        @Override
+        public void flush() {
+            // Output is visible as soon as it is written
+        }
+
+        @Override
+        public void close() {
+            // Nothing to release
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.shelldemo.jobs;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.List;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * The job queue on disk: the jobs that have not ended, as a JSON array. The
+ * file is replaced as a whole on every change, by writing a new file next to
+ * it and moving it over the old one, so a crash leaves either the old or the
+ * new queue and never a partial one. The file is readable by its owner only,
+ * as the arguments of a job may hold a password.
+ */
+public final class JobStore {
+    private static final TypeReference<List<Job>> JOB_LIST = new TypeReference<>() {};
+
+    private final Path file;
+    private final ObjectMapper mapper = new ObjectMapper()
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    /**
+     * @param file The queue file
+     */
+    public JobStore(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Reads the jobs of the queue file.
+     *
+     * @return The jobs, none if the file does not exist
+     * @throws IOException if the file cannot be read or parsed
+     */
+    public List<Job> load() throws IOException {
+        if (!Files.exists(file)) {
+            return List.of();
+        }
+        try {
+            return mapper.readValue(file.toFile(), JOB_LIST);
+        } catch (IOException e) {
+            throw new IOException("Cannot read job queue " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Replaces the queue file with the given jobs.
+     *
+     * @param jobs The jobs to keep
+     * @throws IOException if the file cannot be written
+     */
+    public void save(Collection<Job> jobs) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            mapper.writeValue(temporary.toFile(), jobs);
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * @return The queue file
+     */
+    public Path getFile() {
+        return file;
+    }
+}
@@ -0,0 +1,349 @@
+package com.example.shelldemo.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.example.shelldemo.exception.DatabaseException;
+import com.example.shelldemo.exception.DatabaseException.ErrorType;
+import com.example.shelldemo.parser.ScriptPosition;
+import com.example.shelldemo.parser.SqlScriptParser;
+import com.example.shelldemo.parser.StatementBoundaries;
+import com.example.shelldemo.util.FileDigests;
+
+/**
+ * Append-only record of how far a script has durably got, so that a run that
+ * dies part-way can be resumed at the first uncommitted statement.
+ * <p>
+ * A checkpoint is appended each time the executor has committed everything up
+ * to a statement. It carries the number of statements done and the last point
+ * at or before it where lexing can start afresh, as statement number, line and
+ * byte offset, so a resumed run seeks straight to it instead of parsing the
+ * statements before it. Checkpoints are written into a memory-mapped region:
+ * they survive the process dying as soon as they are written, and are forced
+ * to disk at most once per {@link #FORCE_INTERVAL_MILLIS} and on close.
+ * <p>
+ * A checkpoint is written after its commit, so a crash in between replays the
+ * statements since the previous checkpoint; a power loss may replay those
+ * since the last forced one.
+ * <p>
+ * File format (big-endian):
+ * <pre>
+ * long  magic "SQLJRNL1"
+ * long  script size in bytes
+ * 32    SHA-256 of the script
+ * long  creation time (epoch millis)
+ * int   checkpoint size, int reserved
+ * repeated checkpoint:
+ *   long scope, long statements done,
+ *   long restart statement, long restart line, long restart byte offset,
+ *   long time (epoch millis), int CRC32C of the preceding 48 bytes, int reserved
+ * </pre>
+ * Reading stops at the first checkpoint that fails its checksum, such as the
+ * zeroed tail of the mapped region.
+ */
+public final class ExecutionJournal implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(ExecutionJournal.class);
+
+    /** Longest time a written checkpoint waits to be forced to disk */
+    static final long FORCE_INTERVAL_MILLIS = 1000;
+
+    private static final long MAGIC = 0x53514C4A524E4C31L;
+    private static final int HASH_SIZE = 32;
+    private static final int HEADER_SIZE = 64;
+    private static final int CHECKPOINT_SIZE = 56;
+    private static final int CHECKSUMMED_SIZE = 48;
+    private static final long REGION_SIZE = CHECKPOINT_SIZE * 16384L;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final StatementBoundaries boundaries;
+    private final LineOffsets lineOffsets;
+    private final CRC32C crc = new CRC32C();
+    private final Checkpoint resumeFrom;
+    private Checkpoint last;
+    private MappedByteBuffer region;
+    private long length;
+    private long lastForceNanos = System.nanoTime();
+    private boolean dirty;
+
+    /**
+     * A durable point of a script run.
+     *
+     * @param scope Sequence number of the commit scope that reached it
+     * @param statements Number of statements done
+     * @param restart Last point at or before it where parsing can start
+     */
+    public record Checkpoint(long scope, int statements, ScriptPosition restart) {
+        /** Nothing of the script done yet */
+        public static final Checkpoint NONE = new Checkpoint(0, 0, ScriptPosition.START);
+    }
+
+    private ExecutionJournal(Path file, FileChannel channel, Path script, long length, Checkpoint resumeFrom)
+            throws IOException {
+        this.file = file;
+        this.channel = channel;
+        this.length = length;
+        this.resumeFrom = resumeFrom;
+        this.last = resumeFrom;
+        boolean seekable = SqlScriptParser.supportsByteOffsets();
+        this.boundaries = seekable ? new StatementBoundaries() : null;
+        this.lineOffsets = seekable ? new LineOffsets(script, resumeFrom.restart()) : null;
+    }
+
+    /**
+     * Opens the journal of a script run. A new run starts the journal afresh;
+     * a resumed run continues the existing journal after its last checkpoint.
+     *
+     * @param file The journal file
+     * @param script The script the journal belongs to
+     * @param resume Whether to continue the checkpoints already in the journal
+     * @return The open journal
+     * @throws IOException if the journal or the script cannot be read or written
+     * @throws DatabaseException if the journal belongs to a different script
+     */
+    public static ExecutionJournal open(Path file, Path script, boolean resume) throws IOException {
+        byte[] hash = FileDigests.sha256(script);
+        long scriptSize = Files.size(script);
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+        try {
+            if (resume && channel.size() >= HEADER_SIZE) {
+                verifyHeader(file, channel, hash, scriptSize);
+                ExecutionJournal journal = readCheckpoints(file, channel, script);
+                logger.info("Resuming {} after statement {} (line {}, {} scopes committed)", script.getFileName(),
+                    journal.resumeFrom.statements(), journal.resumeFrom.restart().line(), journal.resumeFrom.scope());
+                return journal;
+            }
+            if (resume) {
+                logger.info("No journal {} to resume from, running {} from the start", file, script.getFileName());
+            }
+            channel.truncate(0);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                .putLong(MAGIC)
+                .putLong(scriptSize)
+                .put(hash)
+                .putLong(System.currentTimeMillis())
+                .putInt(CHECKPOINT_SIZE)
+                .putInt(0)
+                .flip();
+            channel.write(header, 0);
+            channel.force(true);
+            return new ExecutionJournal(file, channel, script, HEADER_SIZE, Checkpoint.NONE);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * The checkpoint a resumed run continues after, or {@link Checkpoint#NONE}.
+     *
+     * @return The checkpoint to resume from
+     */
+    public Checkpoint getResumeFrom() {
+        return resumeFrom;
+    }
+
+    /**
+     * Receives the statement boundaries found by the parser, from which the
+     * restart point of each checkpoint is taken.
+     *
+     * @return The boundaries, or null if the platform charset cannot be sought by byte offset
+     */
+    public StatementBoundaries getBoundaries() {
+        return boundaries;
+    }
+
+    /**
+     * Appends a checkpoint once everything up to the given statement is
+     * committed. Cheap enough to call after every statement: nothing is written
+     * unless the count advanced, and the disk is forced at most once per interval.
+     *
+     * @param statements Number of statements done and committed
+     * @throws IOException if the journal cannot be written
+     */
+    public void checkpoint(int statements) throws IOException {
+        if (statements <= last.statements()) {
+            return;
+        }
+        Checkpoint checkpoint = new Checkpoint(last.scope() + 1, statements, restartFor(statements));
+        if (region == null || region.remaining() < CHECKPOINT_SIZE) {
+            force();
+            region = channel.map(FileChannel.MapMode.READ_WRITE, length, REGION_SIZE);
+        }
+        int start = region.position();
+        region.putLong(checkpoint.scope())
+            .putLong(checkpoint.statements())
+            .putLong(checkpoint.restart().statement())
+            .putLong(checkpoint.restart().line())
+            .putLong(checkpoint.restart().offset())
+            .putLong(System.currentTimeMillis());
+        crc.reset();
+        crc.update(region.slice(start, CHECKSUMMED_SIZE));
+        region.putInt((int) crc.getValue()).putInt(0);
+        length += CHECKPOINT_SIZE;
+        last = checkpoint;
+        dirty = true;
+        if (System.nanoTime() - lastForceNanos >= TimeUnit.MILLISECONDS.toNanos(FORCE_INTERVAL_MILLIS)) {
+            force();
+        }
+    }
+
+    /**
+     * The last checkpoint written or resumed from.
+     *
+     * @return The latest checkpoint
+     */
+    public Checkpoint getLastCheckpoint() {
+        return last;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Forces the written checkpoints to disk and closes the journal.
+     *
+     * @throws IOException if the journal cannot be forced or closed
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            force();
+            if (lineOffsets != null) {
+                lineOffsets.close();
+            }
+        } finally {
+            channel.close();
+        }
+        logger.debug("Closed journal {} at statement {}", file, last.statements());
+    }
+
+    private ScriptPosition restartFor(int statements) throws IOException {
+        StatementBoundaries.Boundary boundary = boundaries != null ? boundaries.floor(statements) : null;
+        if (boundary == null || boundary.statements() <= last.restart().statement()) {
+            return last.restart();
+        }
+        return new ScriptPosition(boundary.statements(), boundary.line(), lineOffsets.offsetOf(boundary.line()));
+    }
+
+    private void force() {
+        if (dirty && region != null) {
+            region.force();
+            dirty = false;
+        }
+        lastForceNanos = System.nanoTime();
+    }
+
+    private static void verifyHeader(Path file, FileChannel channel, byte[] hash, long scriptSize) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        readFully(channel, header, 0);
+        header.flip();
+        if (header.getLong() != MAGIC) {
+            throw new DatabaseException("Not an execution journal: " + file, ErrorType.OP_JOURNAL);
+        }
+        long size = header.getLong();
+        byte[] recorded = new byte[HASH_SIZE];
+        header.get(recorded);
+        if (size != scriptSize || !Arrays.equals(recorded, hash)) {
+            throw new DatabaseException("Script has changed since journal " + file + " was written (recorded SHA-256 "
+                + HexFormat.of().formatHex(recorded) + "); run it without --resume", ErrorType.OP_JOURNAL);
+        }
+        header.getLong();
+        if (header.getInt() != CHECKPOINT_SIZE) {
+            throw new DatabaseException("Unsupported execution journal format: " + file, ErrorType.OP_JOURNAL);
+        }
+    }
+
+    private static ExecutionJournal readCheckpoints(Path file, FileChannel channel, Path script) throws IOException {
+        Checkpoint last = Checkpoint.NONE;
+        long position = HEADER_SIZE;
+        ByteBuffer buffer = ByteBuffer.allocate(CHECKPOINT_SIZE);
+        CRC32C crc = new CRC32C();
+        while (position + CHECKPOINT_SIZE <= channel.size()) {
+            buffer.clear();
+            readFully(channel, buffer, position);
+            buffer.flip();
+            crc.reset();
+            crc.update(buffer.slice(0, CHECKSUMMED_SIZE));
+            if (buffer.getInt(CHECKSUMMED_SIZE) != (int) crc.getValue() || buffer.getLong(0) != last.scope() + 1) {
+                break;
+            }
+            last = new Checkpoint(buffer.getLong(0), (int) buffer.getLong(8),
+                new ScriptPosition((int) buffer.getLong(16), (int) buffer.getLong(24), buffer.getLong(32)));
+            position += CHECKPOINT_SIZE;
+        }
+        if (!last.restart().isStart() && !SqlScriptParser.supportsByteOffsets()) {
+            last = new Checkpoint(last.scope(), last.statements(), ScriptPosition.START);
+        }
+        return new ExecutionJournal(file, channel, script, position, last);
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new DatabaseException("Execution journal is truncated", ErrorType.OP_JOURNAL);
+            }
+        }
+    }
+
+    /**
+     * Finds the byte offsets of script lines by counting line feeds, moving only
+     * forward from the last line asked for, so a whole run reads the script once.
+     */
+    private static final class LineOffsets implements AutoCloseable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+        private int line;
+        private long offset;
+
+        LineOffsets(Path script, ScriptPosition from) throws IOException {
+            this.channel = FileChannel.open(script, StandardOpenOption.READ);
+            this.line = from.line();
+            this.offset = from.offset();
+            buffer.limit(0);
+        }
+
+        long offsetOf(int target) throws IOException {
+            if (target < line) {
+                throw new IllegalArgumentException("Line " + target + " is before line " + line);
+            }
+            while (line < target) {
+                if (!buffer.hasRemaining()) {
+                    buffer.clear();
+                    if (channel.read(buffer, offset) <= 0) {
+                        // The last statement ends without a line feed
+                        return offset;
+                    }
+                    buffer.flip();
+                }
+                offset++;
+                if (buffer.get() == '\n') {
+                    line++;
+                }
+            }
+            return offset;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package com.example.shelldemo.parser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.example.shelldemo.exception.DatabaseException;
+import com.example.shelldemo.exception.DatabaseException.ErrorType;
+import com.example.shelldemo.spi.DatabaseVendor;
+
+/**
+ * Parses one large script on several cores.
+ * <p>
+ * The file is cut into byte ranges at line boundaries, preferring lines that
+ * look like the end of a statement ({@code ...;} or {@code /}). Every chunk
+ * is lexed in parallel on the speculation that it starts in the initial lexer
+ * state, i.e. outside quotes, comments, PL/SQL blocks and pending statements.
+ * The chunks are then merged in order: a chunk's speculative result is only
+ * accepted if the preceding chunk really ended in the initial state; otherwise
+ * it is lexed again from the true end state of its predecessor. The merged
+ * output is therefore identical to a sequential {@link SqlLexer} run, and
+ * mis-speculation only costs re-lexing the affected chunk.
+ */
+final class ChunkedScriptParser {
+    private static final Logger logger = LogManager.getLogger(ChunkedScriptParser.class);
+
+    private static final int SCAN_BUFFER_SIZE = 64 * 1024;
+    private static final long MAX_BOUNDARY_SCAN = 1024 * 1024;
+    private static final Set<Charset> LINE_SAFE_CHARSETS = Set.of(
+        StandardCharsets.UTF_8, StandardCharsets.US_ASCII, StandardCharsets.ISO_8859_1);
+
+    private ChunkedScriptParser() {
+        // Utility class - no instantiation
+    }
+
+    /**
+     * Lexing result of one chunk, with statement numbers local to the chunk.
+     */
+    private record ChunkResult(List<String> statements, int[] numbers, int statementCount, SqlLexer.State endState) {
+    }
+
+    /**
+     * Whether byte offsets can safely be used as line boundaries in this charset.
+     * Every byte value of '\n' must be a line feed, which holds for ASCII-compatible encodings.
+     *
+     * @param charset The script charset
+     * @return true if the script can be split into byte ranges
+     */
+    static boolean supports(Charset charset) {
+        return LINE_SAFE_CHARSETS.contains(charset);
+    }
+
+    /**
+     * Parses a script into numbered statements using chunks of roughly {@code chunkSize} bytes.
+     *
+     * @param script The script file
+     * @param charset The script charset; must satisfy {@link #supports(Charset)}
+     * @param vendor The database vendor
+     * @param chunkSize Target chunk size in bytes
+     * @param pool The pool the chunks are lexed on
+     * @return Statements keyed by statement number, in script order
+     * @throws IOException if reading the script fails
+     */
+    static Map<Integer, String> parse(Path script, Charset charset, DatabaseVendor vendor,
+            long chunkSize, ForkJoinPool pool) throws IOException {
+        if (!supports(charset)) {
+            throw new IllegalArgumentException("Chunked parsing is not supported for charset " + charset);
+        }
+        try (FileChannel channel = FileChannel.open(script, StandardOpenOption.READ)) {
+            long[] boundaries = findBoundaries(channel, chunkSize);
+            int chunkCount = boundaries.length - 1;
+            logger.debug("Parsing {} in {} chunks", script.getFileName(), chunkCount);
+
+            List<Callable<ChunkResult>> tasks = new ArrayList<>(chunkCount);
+            for (int i = 0; i < chunkCount; i++) {
+                long start = boundaries[i];
+                long end = boundaries[i + 1];
+                boolean last = i == chunkCount - 1;
+                tasks.add(() -> lexChunk(channel, start, end, charset, vendor, SqlLexer.State.INITIAL, last));
+            }
+            List<Future<ChunkResult>> speculative = pool.invokeAll(tasks);
+
+            Map<Integer, String> statements = new LinkedHashMap<>();
+            SqlLexer.State state = SqlLexer.State.INITIAL;
+            int numberOffset = 0;
+            int relexed = 0;
+            for (int i = 0; i < chunkCount; i++) {
+                ChunkResult result = awaitChunk(speculative.get(i));
+                if (!state.isInitial()) {
+                    relexed++;
+                    result = lexChunk(channel, boundaries[i], boundaries[i + 1], charset, vendor,
+                        state, i == chunkCount - 1);
+                }
+                for (int j = 0; j < result.statements().size(); j++) {
+                    statements.put(numberOffset + result.numbers()[j], result.statements().get(j));
+                }
+                numberOffset += result.statementCount();
+                state = result.endState();
+            }
+            logger.info("Successfully parsed {} SQL statements in {} chunks ({} re-lexed)",
+                statements.size(), chunkCount, relexed);
+            return statements;
+        }
+    }
+
+    private static ChunkResult awaitChunk(Future<ChunkResult> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DatabaseException("SQL parsing was interrupted", e, ErrorType.PARSE_SQL);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new DatabaseException("Failed to parse SQL script chunk", e.getCause(), ErrorType.PARSE_SQL);
+        }
+    }
+
+    private static ChunkResult lexChunk(FileChannel channel, long start, long end, Charset charset,
+            DatabaseVendor vendor, SqlLexer.State initial, boolean last) throws IOException {
+        List<String> statements = new ArrayList<>();
+        int[] numbers = new int[16];
+        try (Reader reader = new InputStreamReader(new RangeInputStream(channel, start, end), charset)) {
+            SqlLexer lexer = new SqlLexer(reader, vendor, initial, last);
+            String statement;
+            while ((statement = lexer.nextStatement()) != null) {
+                if (statements.size() == numbers.length) {
+                    numbers = Arrays.copyOf(numbers, numbers.length * 2);
+                }
+                numbers[statements.size()] = lexer.getStatementNumber();
+                statements.add(statement);
+            }
+            return new ChunkResult(statements, numbers, lexer.getStatementNumber(), lexer.getState());
+        }
+    }
+
+    /**
+     * Computes chunk boundaries: offset 0, the end of file, and in between the
+     * start of a line near every multiple of {@code chunkSize}.
+     */
+    private static long[] findBoundaries(FileChannel channel, long chunkSize) throws IOException {
+        long size = channel.size();
+        List<Long> boundaries = new ArrayList<>();
+        boundaries.add(0L);
+        long next = chunkSize;
+        while (next < size) {
+            long boundary = findLineStart(channel, next, size);
+            if (boundary >= size) {
+                break;
+            }
+            boundaries.add(boundary);
+            next = boundary + chunkSize;
+        }
+        boundaries.add(size);
+        return boundaries.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * Finds the start of the first line at or after {@code from} that follows a
+     * line ending in {@code ;} or consisting of {@code /}. Falls back to the first
+     * line start if no such line is found within {@link #MAX_BOUNDARY_SCAN} bytes.
+     *
+     * @return the boundary offset, or {@code size} if there is none
+     */
+    private static long findLineStart(FileChannel channel, long from, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        long firstLineStart = -1;
+        long position = from;
+        long limit = Math.min(size, from + MAX_BOUNDARY_SCAN);
+        // Last non-blank byte of the current line and how many non-blank bytes it has
+        int lastNonBlank = -1;
+        int nonBlankCount = 0;
+        boolean atLineStart = false;
+        while (position < limit) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                byte b = buffer.get(i);
+                if (b == '\n') {
+                    long lineStart = position + i + 1;
+                    if (atLineStart && (lastNonBlank == ';' || (lastNonBlank == '/' && nonBlankCount == 1))) {
+                        return lineStart;
+                    }
+                    if (firstLineStart < 0) {
+                        firstLineStart = lineStart;
+                    }
+                    atLineStart = true;
+                    lastNonBlank = -1;
+                    nonBlankCount = 0;
+                } else if ((b & 0xFF) > ' ') {
+                    lastNonBlank = b;
+                    nonBlankCount++;
+                }
+            }
+            position += read;
+        }
+        return firstLineStart >= 0 ? firstLineStart : size;
+    }
+
+    /**
+     * Reads a byte range of a file with positional reads, so chunks can share one channel.
+     */
+    private static final class RangeInputStream extends InputStream {
+        private final FileChannel channel;
+        private final long end;
+        private long position;
+
+        RangeInputStream(FileChannel channel, long start, long end) {
+            this.channel = channel;
+            this.position = start;
+            this.end = end;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (position >= end) {
+                return -1;
+            }
+            int toRead = (int) Math.min(len, end - position);
+            int read = channel.read(ByteBuffer.wrap(b, off, toRead), position);
+            if (read > 0) {
+                position += read;
+            }
+            return read;
+        }
+    }
+}
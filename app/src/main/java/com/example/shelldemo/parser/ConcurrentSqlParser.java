@@ -1,12 +1,17 @@
 package com.example.shelldemo.parser;
 
 import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.Future;
 import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -87,4 +92,64 @@ public class ConcurrentSqlParser {
             return results;
         }
     }
+
+    /**
+     * Parses several SQL scripts at once, one virtual thread per script, into
+     * typed statements. Unlike {@link #parseFilesAsync} the scripts are keyed by
+     * file, so scripts of the same name in different directories are kept apart.
+     *
+     * @param sqlFiles SQL script files to parse
+     * @param vendor Database vendor
+     * @return The statements of each script, in the order of the files given
+     * @throws ParseException if a script cannot be parsed, naming the first such script
+     */
+    public static Map<File, List<SqlStatement>> parseScripts(List<File> sqlFiles, DatabaseVendor vendor) {
+        Map<File, Future<List<SqlStatement>>> futures = new LinkedHashMap<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (File file : sqlFiles) {
+                futures.put(file, executor.submit(() -> {
+                    logger.debug("Parsing SQL file: {}", file);
+                    try (Stream<SqlStatement> statements = SqlScriptParser.streamStatements(file, vendor)) {
+                        return statements.toList();
+                    }
+                }));
+            }
+            Map<File, List<SqlStatement>> results = new LinkedHashMap<>();
+            for (Map.Entry<File, Future<List<SqlStatement>>> entry : futures.entrySet()) {
+                try {
+                    results.put(entry.getKey(), entry.getValue().get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new DatabaseException("SQL parsing was interrupted", e, ErrorType.PARSE_SQL);
+                } catch (ExecutionException e) {
+                    logger.error("Error parsing file: {}", entry.getKey(), e.getCause());
+                    throw new ParseException("Failed to parse SQL file " + entry.getKey() + ": "
+                        + e.getCause().getMessage(), e.getCause(), entry.getKey().getPath());
+                }
+            }
+            logger.info("Parsed {} SQL files", results.size());
+            return results;
+        }
+    }
+
+    /**
+     * Parses a single large SQL file using several cores.
+     * The file is split into chunks at statement boundaries that are lexed in parallel
+     * on a fork/join pool and merged in order; the result is identical to
+     * {@link SqlScriptParser#parseSqlFile(File, DatabaseVendor)}.
+     *
+     * @param sqlFile SQL script file to parse
+     * @param vendor Database vendor
+     * @param parallelism Number of threads to parse with
+     * @return Map of statement numbers to statements
+     */
+    public static Map<Integer, String> parseLargeFile(File sqlFile, DatabaseVendor vendor, int parallelism) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            logger.info("Parsing SQL file in parallel chunks: {}", sqlFile.getName());
+            return SqlScriptParser.parseSqlFileChunked(sqlFile, vendor, pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
 }
@@ -0,0 +1,268 @@
+package com.example.shelldemo.parser;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Rewrites INSERT, UPDATE and DELETE statements so that their string and
+ * numeric literals become bind parameters.
+ * <p>
+ * The rewrite is conservative: anything whose meaning could change when a
+ * literal is bound is left alone. Typed literals ({@code DATE '...'},
+ * {@code INTERVAL '...'}) and literals inside quoted identifiers stay inline,
+ * as do numbers that are part of the statement rather than values: the
+ * length, precision and scale of a data type ({@code CAST(x AS VARCHAR2(20))},
+ * {@code CONVERT(DECIMAL(10,2), x)}, {@code x::numeric(10,2)}) and the row
+ * count of {@code TOP}. A statement is not rewritten at all when it contains prefixed strings
+ * ({@code N'...'}, {@code q'[...]'}), backslashes in strings, existing bind
+ * markers, dollar quoting, {@code #} comments, or an {@code ORDER BY} /
+ * {@code GROUP BY} clause where a number means a column position. Outside of
+ * literals, runs of whitespace are collapsed so that formatting differences do
+ * not produce different shapes.
+ */
+public final class LiteralParameterizer {
+
+    private static final String[] TYPED_LITERAL_KEYWORDS = {"DATE", "TIME", "TIMESTAMP", "INTERVAL"};
+
+    /** Words whose parenthesized numbers are type arguments, or a row count after TOP */
+    private static final Set<String> INLINE_NUMBER_WORDS = Set.of(
+        "TOP", "CHAR", "NCHAR", "VARCHAR", "VARCHAR2", "NVARCHAR", "NVARCHAR2", "CHARACTER", "VARYING",
+        "RAW", "BINARY", "VARBINARY", "BIT", "NUMBER", "NUMERIC", "DECIMAL", "DEC", "FLOAT", "REAL",
+        "TIME", "TIMESTAMP", "DATETIME", "DATETIME2", "DATETIMEOFFSET", "DAY", "YEAR", "SECOND");
+
+    private LiteralParameterizer() {
+        // Utility class - no instantiation
+    }
+
+    /**
+     * Extracts the literals of a DML statement into bind parameters.
+     *
+     * @param sql The statement text, as produced by the script parser
+     * @return The parameterized statement, or null if the statement has no
+     *         literals or cannot be rewritten safely
+     */
+    public static ParameterizedStatement parameterize(String sql) {
+        if (!startsWithDmlKeyword(sql)) {
+            return null;
+        }
+        StringBuilder shape = new StringBuilder(sql.length());
+        List<Object> parameters = new ArrayList<>();
+        String previousWord = null;
+        boolean wordAdjacent = false;
+        // For every open parenthesis, whether the numbers directly inside it stay inline
+        Deque<Boolean> inlineNumbers = new ArrayDeque<>();
+        int length = sql.length();
+        int i = 0;
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (isWhitespace(c)) {
+                while (i < length && isWhitespace(sql.charAt(i))) {
+                    i++;
+                }
+                if (i < length && shape.length() > 0) {
+                    shape.append(' ');
+                }
+                wordAdjacent = false;
+                continue;
+            }
+            if (isWordStart(c)) {
+                int start = i;
+                while (i < length && isWordPart(sql.charAt(i))) {
+                    i++;
+                }
+                String word = sql.substring(start, i);
+                if (word.equalsIgnoreCase("BY") && previousWord != null
+                        && (previousWord.equalsIgnoreCase("ORDER") || previousWord.equalsIgnoreCase("GROUP"))) {
+                    return null;
+                }
+                shape.append(word);
+                previousWord = word;
+                wordAdjacent = true;
+                continue;
+            }
+            switch (c) {
+                case '\'' -> {
+                    if (wordAdjacent) {
+                        // N'...', q'[...]', E'...', X'...' and friends
+                        return null;
+                    }
+                    int end = endOfQuoted(sql, i, '\'');
+                    if (end < 0) {
+                        return null;
+                    }
+                    String literal = sql.substring(i, end);
+                    if (literal.indexOf('\\') >= 0) {
+                        return null;
+                    }
+                    if (isTypedLiteralKeyword(previousWord) && shape.charAt(shape.length() - 1) == ' ') {
+                        shape.append(literal);
+                    } else {
+                        parameters.add(literal.substring(1, literal.length() - 1).replace("''", "'"));
+                        shape.append('?');
+                    }
+                    i = end;
+                }
+                case '"', '`', '[' -> {
+                    int end = endOfQuoted(sql, i, c == '[' ? ']' : c);
+                    if (end < 0) {
+                        return null;
+                    }
+                    shape.append(sql, i, end);
+                    i = end;
+                }
+                case '(' -> {
+                    inlineNumbers.push(keepsNumbersInline(previousWord));
+                    shape.append(c);
+                    i++;
+                }
+                case ')' -> {
+                    inlineNumbers.poll();
+                    shape.append(c);
+                    i++;
+                }
+                case '?', '$', '#', '&', '\\' -> {
+                    return null;
+                }
+                case ':' -> {
+                    if (i + 1 < length && sql.charAt(i + 1) == ':') {
+                        shape.append("::");
+                        i += 2;
+                    } else if (i + 1 < length && (isWordPart(sql.charAt(i + 1)))) {
+                        // Named bind variable
+                        return null;
+                    } else {
+                        shape.append(c);
+                        i++;
+                    }
+                }
+                default -> {
+                    if (isNumberStart(sql, i)) {
+                        int end = endOfNumber(sql, i);
+                        if (end < length && isWordPart(sql.charAt(end))) {
+                            // 1f, 2d, 0x1F and similar vendor suffixes
+                            return null;
+                        }
+                        if ("TOP".equalsIgnoreCase(previousWord) || Boolean.TRUE.equals(inlineNumbers.peek())) {
+                            shape.append(sql, i, end);
+                        } else {
+                            parameters.add(new BigDecimal(sql.substring(i, end)));
+                            shape.append('?');
+                        }
+                        i = end;
+                    } else {
+                        shape.append(c);
+                        i++;
+                    }
+                }
+            }
+            previousWord = null;
+            wordAdjacent = false;
+        }
+        if (parameters.isEmpty()) {
+            return null;
+        }
+        return new ParameterizedStatement(shape.toString(), List.copyOf(parameters));
+    }
+
+    private static boolean startsWithDmlKeyword(String sql) {
+        int end = 0;
+        while (end < sql.length() && isWordPart(sql.charAt(end))) {
+            end++;
+        }
+        String keyword = sql.substring(0, end);
+        return keyword.equalsIgnoreCase("INSERT") || keyword.equalsIgnoreCase("UPDATE")
+            || keyword.equalsIgnoreCase("DELETE");
+    }
+
+    private static boolean keepsNumbersInline(String word) {
+        return word != null && INLINE_NUMBER_WORDS.contains(word.toUpperCase(Locale.ROOT));
+    }
+
+    private static boolean isTypedLiteralKeyword(String word) {
+        if (word == null) {
+            return false;
+        }
+        for (String keyword : TYPED_LITERAL_KEYWORDS) {
+            if (keyword.equalsIgnoreCase(word)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the index after the closing quote, treating a doubled closing quote as an escape,
+     * or -1 if the quote is not closed.
+     */
+    private static int endOfQuoted(String sql, int open, char close) {
+        int i = open + 1;
+        while (i < sql.length()) {
+            if (sql.charAt(i) == close) {
+                if (i + 1 < sql.length() && sql.charAt(i + 1) == close) {
+                    i += 2;
+                    continue;
+                }
+                return i + 1;
+            }
+            i++;
+        }
+        return -1;
+    }
+
+    private static boolean isNumberStart(String sql, int i) {
+        char c = sql.charAt(i);
+        if (c >= '0' && c <= '9') {
+            return true;
+        }
+        return c == '.' && i + 1 < sql.length() && isDigit(sql.charAt(i + 1))
+            && (i == 0 || !isWordPart(sql.charAt(i - 1)));
+    }
+
+    private static int endOfNumber(String sql, int start) {
+        int i = start;
+        int length = sql.length();
+        while (i < length && isDigit(sql.charAt(i))) {
+            i++;
+        }
+        if (i < length && sql.charAt(i) == '.') {
+            i++;
+            while (i < length && isDigit(sql.charAt(i))) {
+                i++;
+            }
+        }
+        if (i < length && (sql.charAt(i) == 'e' || sql.charAt(i) == 'E')) {
+            int exponent = i + 1;
+            if (exponent < length && (sql.charAt(exponent) == '+' || sql.charAt(exponent) == '-')) {
+                exponent++;
+            }
+            if (exponent < length && isDigit(sql.charAt(exponent))) {
+                i = exponent;
+                while (i < length && isDigit(sql.charAt(i))) {
+                    i++;
+                }
+            }
+        }
+        return i;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isWordStart(char c) {
+        return Character.isLetter(c) || c == '_' || c == '@';
+    }
+
+    private static boolean isWordPart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$' || c == '#' || c == '@';
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c <= ' ';
+    }
+}
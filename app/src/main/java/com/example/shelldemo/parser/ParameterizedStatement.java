@@ -0,0 +1,25 @@
+package com.example.shelldemo.parser;
+
+import java.util.List;
+
+/**
+ * A DML statement with its literals replaced by bind parameters.
+ * Statements that differ only in their literals have equal shapes, so the
+ * shape text serves as the fingerprint for grouping them into one prepared
+ * statement.
+ *
+ * @param shape The statement text with a {@code ?} in place of each literal
+ * @param parameters The literal values in parameter order (String or BigDecimal)
+ */
+public record ParameterizedStatement(String shape, List<Object> parameters) {
+
+    /**
+     * Whether this statement can share a prepared statement with another.
+     *
+     * @param other The other statement, may be null
+     * @return true if both statements have the same shape
+     */
+    public boolean sameShapeAs(ParameterizedStatement other) {
+        return other != null && shape.equals(other.shape);
+    }
+}
@@ -0,0 +1,368 @@
+package com.example.shelldemo.parser;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.example.shelldemo.exception.DatabaseException;
+import com.example.shelldemo.exception.DatabaseException.ErrorType;
+import com.example.shelldemo.spi.DatabaseVendor;
+import com.example.shelldemo.util.FileDigests;
+
+/**
+ * On-disk cache of parsed and classified script statements.
+ * <p>
+ * Entries are keyed by the SHA-256 of the script content, the vendor name and
+ * {@link #PARSER_VERSION}, so an edited script, a different vendor or a parser
+ * change never hits a stale entry. An entry is written while the script is
+ * parsed for the first time and only published (by an atomic rename) once the
+ * whole script has been read. A later run memory-maps the entry and streams
+ * the statements straight out of it without lexing.
+ * <p>
+ * Entry format (big-endian):
+ * <pre>
+ * int   magic "SQLC"
+ * short format version
+ * int   parser version
+ * repeated: byte kind (0 query, 1 DML, 2 DDL, 3 procedure), int length, UTF-8 text
+ * byte  end marker (-1)
+ * </pre>
+ * The directory is kept under a size limit by evicting the least recently used entries.
+ */
+public final class ParsedScriptCache {
+    private static final Logger logger = LogManager.getLogger(ParsedScriptCache.class);
+
+    /**
+     * Version of the statements produced by {@link SqlLexer} and {@link SqlStatementFactory}.
+     * Bump it whenever either of them changes how a script is split or classified.
+     */
+    static final int PARSER_VERSION = 1;
+
+    private static final int MAGIC = 0x53514C43;
+    private static final short FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = Integer.BYTES + Short.BYTES + Integer.BYTES;
+    private static final byte END_MARKER = -1;
+    private static final String EXTENSION = ".sqlc";
+
+    private final Path directory;
+    private final long maxBytes;
+
+    /**
+     * Creates a new cache in the given directory.
+     *
+     * @param directory The cache directory; created if missing
+     * @param maxBytes Maximum total size of the cache entries
+     */
+    public ParsedScriptCache(Path directory, long maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("Cache size limit must be positive: " + maxBytes);
+        }
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Streams the classified statements of a script, from the cache if an entry
+     * exists, otherwise from {@code parser} while recording a new entry.
+     * The returned stream must be closed.
+     *
+     * @param scriptFile The script file
+     * @param vendor The database vendor
+     * @param parser Supplies the parsed statements on a cache miss
+     * @return The statements in script order
+     * @throws DatabaseException if the script cannot be read
+     */
+    public Stream<SqlStatement> streamStatements(File scriptFile, DatabaseVendor vendor,
+            Supplier<Stream<SqlStatement>> parser) throws DatabaseException {
+        Path entry;
+        try {
+            Files.createDirectories(directory);
+            entry = directory.resolve(cacheKey(scriptFile.toPath(), vendor) + EXTENSION);
+        } catch (IOException e) {
+            logger.warn("Parsed-script cache unavailable, parsing {}: {}", scriptFile.getName(), e.getMessage());
+            return parser.get();
+        }
+
+        Optional<Stream<SqlStatement>> cached = read(entry);
+        if (cached.isPresent()) {
+            logger.info("Using cached statements for script {} ({})", scriptFile.getName(), entry.getFileName());
+            return cached.get();
+        }
+
+        logger.debug("No cached statements for script {}, recording {}", scriptFile.getName(), entry.getFileName());
+        Stream<SqlStatement> parsed = parser.get();
+        EntryWriter writer = EntryWriter.open(entry);
+        if (writer == null) {
+            return parsed;
+        }
+        RecordingIterator recording = new RecordingIterator(parsed.iterator(), writer, this);
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(recording, Spliterator.ORDERED | Spliterator.NONNULL), false)
+            .onClose(writer::discard)
+            .onClose(parsed::close);
+    }
+
+    /**
+     * Computes the cache key: SHA-256 of the script content, vendor name and parser version.
+     */
+    static String cacheKey(Path script, DatabaseVendor vendor) throws IOException {
+        return HexFormat.of().formatHex(FileDigests.sha256(script))
+            + "-" + vendor.getVendorName().toLowerCase()
+            + "-v" + PARSER_VERSION;
+    }
+
+    private Optional<Stream<SqlStatement>> read(Path entry) {
+        if (!Files.isRegularFile(entry)) {
+            return Optional.empty();
+        }
+        try (FileChannel channel = FileChannel.open(entry, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE || size < HEADER_SIZE + 1) {
+                throw new IOException("unexpected entry size " + size);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt() != MAGIC || buffer.getShort() != FORMAT_VERSION
+                    || buffer.getInt() != PARSER_VERSION || buffer.get((int) size - 1) != END_MARKER) {
+                throw new IOException("header or end marker mismatch");
+            }
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+            MappedStatementIterator iterator = new MappedStatementIterator(buffer);
+            return Optional.of(StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false));
+        } catch (IOException e) {
+            logger.warn("Discarding unreadable cache entry {}: {}", entry.getFileName(), e.getMessage());
+            deleteQuietly(entry);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Deletes least recently used entries until the cache fits its size limit.
+     */
+    void evict() {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> entries = files
+                .filter(path -> path.getFileName().toString().endsWith(EXTENSION))
+                .sorted(Comparator.comparing(ParsedScriptCache::lastModified))
+                .toList();
+            long total = 0;
+            for (Path entry : entries) {
+                total += Files.size(entry);
+            }
+            for (Path entry : entries) {
+                if (total <= maxBytes) {
+                    break;
+                }
+                long size = Files.size(entry);
+                deleteQuietly(entry);
+                total -= size;
+                logger.debug("Evicted cache entry {} ({} bytes)", entry.getFileName(), size);
+            }
+        } catch (IOException | UncheckedIOException e) {
+            logger.warn("Failed to evict parsed-script cache entries: {}", e.getMessage());
+        }
+    }
+
+    private static FileTime lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.debug("Failed to delete {}: {}", path, e.getMessage());
+        }
+    }
+
+    private static byte kindOf(SqlStatement statement) {
+        return switch (statement) {
+            case SqlStatement.QueryStatement q -> 0;
+            case SqlStatement.DmlStatement d -> 1;
+            case SqlStatement.DdlStatement d -> 2;
+            case SqlStatement.ProcedureStatement p -> 3;
+        };
+    }
+
+    private static SqlStatement statementOf(byte kind, String text) {
+        return switch (kind) {
+            case 0 -> new SqlStatement.QueryStatement(text);
+            case 1 -> new SqlStatement.DmlStatement(text);
+            case 2 -> new SqlStatement.DdlStatement(text);
+            case 3 -> new SqlStatement.ProcedureStatement(text);
+            default -> throw new DatabaseException("Corrupt parsed-script cache entry: unknown statement kind " + kind,
+                ErrorType.PARSE_SQL);
+        };
+    }
+
+    /**
+     * Decodes statements from a mapped cache entry positioned after the header.
+     */
+    private static final class MappedStatementIterator implements Iterator<SqlStatement> {
+        private final MappedByteBuffer buffer;
+
+        MappedStatementIterator(MappedByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return buffer.get(buffer.position()) != END_MARKER;
+        }
+
+        @Override
+        public SqlStatement next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            byte kind = buffer.get();
+            byte[] text = new byte[buffer.getInt()];
+            buffer.get(text);
+            return statementOf(kind, new String(text, StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Passes statements through to the consumer while recording them, and
+     * publishes the entry once the source is exhausted.
+     */
+    private static final class RecordingIterator implements Iterator<SqlStatement> {
+        private final Iterator<SqlStatement> source;
+        private final EntryWriter writer;
+        private final ParsedScriptCache cache;
+
+        RecordingIterator(Iterator<SqlStatement> source, EntryWriter writer, ParsedScriptCache cache) {
+            this.source = source;
+            this.writer = writer;
+            this.cache = cache;
+        }
+
+        @Override
+        public boolean hasNext() {
+            boolean hasNext = source.hasNext();
+            if (!hasNext && writer.commit()) {
+                cache.evict();
+            }
+            return hasNext;
+        }
+
+        @Override
+        public SqlStatement next() {
+            SqlStatement statement = source.next();
+            writer.append(statement);
+            return statement;
+        }
+    }
+
+    /**
+     * Writes a new entry to a temporary file and renames it into place on commit.
+     * Write failures only disable caching for this script; they never fail the run.
+     */
+    private static final class EntryWriter {
+        private final Path entry;
+        private final Path temp;
+        private DataOutputStream out;
+
+        private EntryWriter(Path entry, Path temp, DataOutputStream out) {
+            this.entry = entry;
+            this.temp = temp;
+            this.out = out;
+        }
+
+        static EntryWriter open(Path entry) {
+            Path temp = null;
+            try {
+                temp = Files.createTempFile(entry.getParent(), entry.getFileName().toString(), ".tmp");
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 64 * 1024));
+                out.writeInt(MAGIC);
+                out.writeShort(FORMAT_VERSION);
+                out.writeInt(PARSER_VERSION);
+                return new EntryWriter(entry, temp, out);
+            } catch (IOException e) {
+                logger.warn("Cannot write parsed-script cache entry {}: {}", entry.getFileName(), e.getMessage());
+                if (temp != null) {
+                    deleteQuietly(temp);
+                }
+                return null;
+            }
+        }
+
+        void append(SqlStatement statement) {
+            if (out == null) {
+                return;
+            }
+            try {
+                byte[] text = statement.getText().getBytes(StandardCharsets.UTF_8);
+                out.writeByte(kindOf(statement));
+                out.writeInt(text.length);
+                out.write(text);
+            } catch (IOException e) {
+                logger.warn("Failed to record parsed-script cache entry {}: {}", entry.getFileName(), e.getMessage());
+                discard();
+            }
+        }
+
+        boolean commit() {
+            if (out == null) {
+                return false;
+            }
+            try {
+                out.writeByte(END_MARKER);
+                out.close();
+                out = null;
+                if (Files.size(temp) > Integer.MAX_VALUE) {
+                    logger.debug("Parsed script too large to cache: {}", entry.getFileName());
+                    deleteQuietly(temp);
+                    return false;
+                }
+                Files.move(temp, entry, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                logger.debug("Stored parsed-script cache entry {}", entry.getFileName());
+                return true;
+            } catch (IOException e) {
+                logger.warn("Failed to store parsed-script cache entry {}: {}", entry.getFileName(), e.getMessage());
+                discard();
+                return false;
+            }
+        }
+
+        void discard() {
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException e) {
+                    logger.debug("Failed to close {}: {}", temp, e.getMessage());
+                }
+                out = null;
+            }
+            deleteQuietly(temp);
+        }
+    }
+}
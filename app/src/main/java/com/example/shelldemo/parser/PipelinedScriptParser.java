@@ -0,0 +1,205 @@
+package com.example.shelldemo.parser;
+
+import java.io.File;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.example.shelldemo.exception.DatabaseException;
+import com.example.shelldemo.exception.DatabaseException.ErrorType;
+import com.example.shelldemo.spi.DatabaseVendor;
+
+/**
+ * Parses a SQL script on a virtual thread ahead of its consumer.
+ * Parsed statements are handed over through a bounded queue, so parsing overlaps
+ * with whatever the consumer does (typically database round-trips) while at most
+ * {@code capacity} statements are held in memory.
+ */
+public final class PipelinedScriptParser {
+    private static final Logger logger = LogManager.getLogger(PipelinedScriptParser.class);
+
+    private PipelinedScriptParser() {
+        // Utility class - no instantiation
+    }
+
+    /**
+     * Starts parsing the script on a background virtual thread and returns the
+     * typed statements in script order. A parse failure is rethrown to the
+     * consumer once the statements parsed before it have been consumed. Closing
+     * the stream cancels the parser and waits for it to stop.
+     *
+     * @param scriptFile The script file
+     * @param vendor The database vendor
+     * @param capacity Maximum number of statements buffered ahead of the consumer
+     * @return A stream of typed statements; must be closed
+     * @throws DatabaseException if the script file is invalid
+     */
+    public static Stream<SqlStatement> parseAhead(File scriptFile, DatabaseVendor vendor, int capacity)
+            throws DatabaseException {
+        return pipeline(scriptFile, SqlScriptParser.streamStatements(scriptFile, vendor), capacity);
+    }
+
+    /**
+     * Starts parsing the script at a position found by an earlier run on a
+     * background virtual thread, recording statement boundaries as they are
+     * found. See {@link SqlScriptParser#streamStatements(File, DatabaseVendor, ScriptPosition, StatementBoundaries)}.
+     *
+     * @param scriptFile The script file
+     * @param vendor The database vendor
+     * @param from Where to start parsing
+     * @param boundaries Receives the statement boundaries on the parser thread, or null
+     * @param capacity Maximum number of statements buffered ahead of the consumer
+     * @return A stream of the typed statements after {@code from}; must be closed
+     * @throws DatabaseException if the script file is invalid
+     */
+    public static Stream<SqlStatement> parseAhead(File scriptFile, DatabaseVendor vendor, ScriptPosition from,
+            StatementBoundaries boundaries, int capacity) throws DatabaseException {
+        return pipeline(scriptFile, SqlScriptParser.streamStatements(scriptFile, vendor, from, boundaries), capacity);
+    }
+
+    /**
+     * Starts parsing the script on a background virtual thread and returns the
+     * statements in script order. Each statement is passed through {@code mapper}
+     * on the parser thread, so classification work is pipelined as well.
+     * A parse or mapping failure is rethrown to the consumer once the statements
+     * parsed before it have been consumed. Closing the stream cancels the parser
+     * and waits for it to stop.
+     *
+     * @param scriptFile The script file
+     * @param vendor The database vendor
+     * @param mapper Function applied to each statement on the parser thread
+     * @param capacity Maximum number of statements buffered ahead of the consumer
+     * @param <T> The type of the produced elements
+     * @return A stream of mapped statements; must be closed
+     * @throws DatabaseException if the script file is invalid
+     */
+    public static <T> Stream<T> parseAhead(File scriptFile, DatabaseVendor vendor,
+            Function<String, ? extends T> mapper, int capacity) throws DatabaseException {
+        return pipeline(scriptFile, SqlScriptParser.streamSqlFile(scriptFile, vendor).map(mapper), capacity);
+    }
+
+    private static <T> Stream<T> pipeline(File scriptFile, Stream<? extends T> source, int capacity) {
+        if (capacity < 1) {
+            source.close();
+            throw new IllegalArgumentException("Pipeline capacity must be at least 1: " + capacity);
+        }
+        Pipeline<T> pipeline = new Pipeline<>(source, capacity);
+        pipeline.start(scriptFile.getName());
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(pipeline, Spliterator.ORDERED | Spliterator.NONNULL), false)
+            .onClose(pipeline::close);
+    }
+
+    /**
+     * Producer/consumer hand-off between the parser thread and the stream consumer.
+     */
+    private static final class Pipeline<T> implements Iterator<T> {
+        private static final Object END = new Object();
+
+        private final Stream<? extends T> source;
+        private final BlockingQueue<Object> queue;
+        private volatile boolean cancelled;
+        private volatile RuntimeException failure;
+        private Thread producer;
+        private Object next;
+        private boolean done;
+
+        Pipeline(Stream<? extends T> source, int capacity) {
+            this.source = source;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+
+        void start(String scriptName) {
+            producer = Thread.ofVirtual().name("sql-parser-" + scriptName).start(this::produce);
+        }
+
+        private void produce() {
+            try (source) {
+                Iterator<? extends T> statements = source.iterator();
+                while (!cancelled && statements.hasNext()) {
+                    queue.put(statements.next());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                if (!cancelled) {
+                    failure = e;
+                }
+            } finally {
+                if (!cancelled) {
+                    signalEnd();
+                }
+            }
+        }
+
+        private void signalEnd() {
+            try {
+                queue.put(END);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (done) {
+                return false;
+            }
+            if (next == null) {
+                try {
+                    next = queue.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new DatabaseException("Interrupted while waiting for the next parsed statement",
+                            e, ErrorType.PARSE_SQL);
+                }
+            }
+            if (next == END) {
+                done = true;
+                next = null;
+                RuntimeException e = failure;
+                if (e != null) {
+                    throw e;
+                }
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            T statement = (T) next;
+            next = null;
+            return statement;
+        }
+
+        void close() {
+            if (producer == null || !producer.isAlive()) {
+                return;
+            }
+            cancelled = true;
+            producer.interrupt();
+            queue.clear();
+            try {
+                producer.join();
+                logger.debug("Cancelled SQL parser thread {}", producer.getName());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.warn("Interrupted while waiting for SQL parser thread to stop");
+            }
+        }
+    }
+}
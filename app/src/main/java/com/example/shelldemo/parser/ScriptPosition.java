@@ -0,0 +1,34 @@
+package com.example.shelldemo.parser;
+
+/**
+ * A point in a script at which lexing can start afresh: the start of a line
+ * that follows a complete statement, outside any comment, quote or PL/SQL block.
+ *
+ * @param statement Number of statements in the script before this point
+ * @param line 1-based script line that starts at this point
+ * @param offset Byte offset of that line in the script file
+ */
+public record ScriptPosition(int statement, int line, long offset) {
+
+    /** The beginning of a script */
+    public static final ScriptPosition START = new ScriptPosition(0, 1, 0);
+
+    /**
+     * Compact constructor for validation
+     */
+    public ScriptPosition {
+        if (statement < 0 || line < 1 || offset < 0) {
+            throw new IllegalArgumentException("Invalid script position: statement " + statement
+                + ", line " + line + ", offset " + offset);
+        }
+    }
+
+    /**
+     * Whether this is the beginning of the script.
+     *
+     * @return true if nothing precedes this position
+     */
+    public boolean isStart() {
+        return offset == 0;
+    }
+}
@@ -0,0 +1,434 @@
+package com.example.shelldemo.parser;
+
+import java.io.IOException;
+import java.io.Reader;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.example.shelldemo.spi.DatabaseVendor;
+
+/**
+ * Single-pass state machine that turns a SQL script into statements.
+ * Comment removal, quote tracking, PL/SQL block nesting and statement
+ * boundary detection all happen while the input is read once, straight out
+ * of a reusable {@code char[]} buffer. Keyword checks are done in place with
+ * case-insensitive region matching, so nothing is allocated per character or
+ * per line; the only allocation is the text of each completed statement.
+ */
+public final class SqlLexer {
+    private static final Logger logger = LogManager.getLogger(SqlLexer.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int EOF = -1;
+
+    private static final char[] BEGIN = "BEGIN".toCharArray();
+    private static final char[] DECLARE = "DECLARE".toCharArray();
+    private static final char[] CREATE = "CREATE".toCharArray();
+    private static final char[] END_SEMICOLON = "END;".toCharArray();
+    private static final char[][] CREATE_PLSQL_KEYWORDS = {
+        " FUNCTION".toCharArray(),
+        " PROCEDURE".toCharArray(),
+        " TRIGGER".toCharArray(),
+        " PACKAGE".toCharArray()
+    };
+
+    private final Reader reader;
+    private final StatementClassifier classifier;
+    private final boolean flushAtEnd;
+
+    // Input buffer
+    private final char[] input = new char[BUFFER_SIZE];
+    private int inputPosition;
+    private int inputLimit;
+    private boolean inputExhausted;
+
+    // Comment and quote state
+    private boolean inSingleQuote;
+    private boolean inDoubleQuote;
+    private boolean inLineComment;
+    private int blockCommentDepth;
+
+    // Current line with comments removed
+    private char[] line = new char[256];
+    private int lineLength;
+    private int physicalLine;
+    private int lineStart;
+
+    // Statement state
+    private final StringBuilder currentStatement = new StringBuilder(1024);
+    private boolean inPlsqlBlock;
+    private int plsqlLevel;
+    private int statementNumber;
+    private int statementLine;
+    private int completedLine;
+    private int emittedCount;
+    private boolean finished;
+    private boolean lastProcedural;
+
+    /**
+     * Creates a new lexer over the given script source.
+     *
+     * @param reader the script source; it is not closed by the lexer
+     * @param vendor the database vendor
+     */
+    public SqlLexer(Reader reader, DatabaseVendor vendor) {
+        this(reader, vendor, State.INITIAL, true);
+    }
+
+    /**
+     * Creates a lexer over one chunk of a larger script, resuming from the state
+     * the preceding input left it in.
+     *
+     * @param reader the chunk source; it must start at the beginning of a line
+     * @param vendor the database vendor
+     * @param initial the state at the start of the chunk
+     * @param flushAtEnd whether to emit the pending statement at end of input;
+     *                   false leaves it in {@link #getState()} for the next chunk
+     */
+    SqlLexer(Reader reader, DatabaseVendor vendor, State initial, boolean flushAtEnd) {
+        this.reader = reader;
+        this.classifier = StatementClassifier.forVendor(vendor);
+        this.flushAtEnd = flushAtEnd;
+        this.inSingleQuote = initial.inSingleQuote();
+        this.inDoubleQuote = initial.inDoubleQuote();
+        this.inLineComment = initial.inLineComment();
+        this.blockCommentDepth = initial.blockCommentDepth();
+        this.inPlsqlBlock = initial.inPlsqlBlock();
+        this.plsqlLevel = initial.plsqlLevel();
+        this.currentStatement.append(initial.pendingStatement());
+    }
+
+    /**
+     * Lexer state carried across a line boundary: everything the next line's
+     * processing depends on.
+     */
+    record State(boolean inSingleQuote, boolean inDoubleQuote, boolean inLineComment,
+            int blockCommentDepth, boolean inPlsqlBlock, int plsqlLevel, String pendingStatement) {
+        static final State INITIAL = new State(false, false, false, 0, false, 0, "");
+
+        /**
+         * Whether this state is indistinguishable from the start of a script.
+         */
+        boolean isInitial() {
+            return equals(INITIAL);
+        }
+    }
+
+    /**
+     * Reads until the next statement is complete.
+     *
+     * @return the next statement, or null once the script is exhausted
+     * @throws IOException if reading the script fails
+     */
+    public String nextStatement() throws IOException {
+        while (!finished) {
+            String statement = scanLine() ? processLine() : finish();
+            if (statement != null) {
+                return statement;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reads until the next statement is complete and returns it typed by its
+     * leading keywords, as {@link SqlStatementFactory} would classify it.
+     *
+     * @return the next statement, or null once the script is exhausted
+     * @throws IOException if reading the script fails
+     * @throws IllegalArgumentException if the statement is blank (a lone {@code ;})
+     */
+    public SqlStatement nextSqlStatement() throws IOException {
+        String statement = nextStatement();
+        if (statement == null) {
+            return null;
+        }
+        if (statement.isEmpty()) {
+            throw new IllegalArgumentException("SQL statement cannot be null or blank");
+        }
+        // A stripped statement is a prefix of a non-procedural one, so it cannot be procedural either
+        return lastProcedural
+            ? new SqlStatement.ProcedureStatement(statement)
+            : classifier.classifyNonProcedural(statement);
+    }
+
+    /**
+     * Returns the 1-based number of the statement last returned by {@link #nextStatement()}.
+     *
+     * @return the statement number
+     */
+    public int getStatementNumber() {
+        return statementNumber;
+    }
+
+    /**
+     * Returns the 1-based script line on which the statement last returned by
+     * {@link #nextStatement()} starts.
+     *
+     * @return the line number
+     */
+    public int getStatementLine() {
+        return completedLine;
+    }
+
+    /**
+     * Returns the number of script lines read so far.
+     *
+     * @return the line count
+     */
+    int getLinesRead() {
+        return physicalLine;
+    }
+
+    /**
+     * Whether lexing could start afresh after the input read so far: nothing of
+     * a statement is pending and no comment, quote or PL/SQL block is open.
+     * Only meaningful between lines, e.g. right after a statement was returned.
+     *
+     * @return true if the lexer is in its initial state
+     */
+    boolean atStatementBoundary() {
+        return currentStatement.length() == 0 && !inPlsqlBlock && !inSingleQuote && !inDoubleQuote
+            && !inLineComment && blockCommentDepth == 0;
+    }
+
+    /**
+     * Captures the state at the current line boundary. Only meaningful between lines,
+     * e.g. once {@link #nextStatement()} has returned null.
+     *
+     * @return the current state
+     */
+    State getState() {
+        return new State(inSingleQuote, inDoubleQuote, inLineComment, blockCommentDepth,
+            inPlsqlBlock, plsqlLevel, currentStatement.toString());
+    }
+
+    /**
+     * Fills the line buffer with the next line of input with comments removed.
+     *
+     * @return true if a line was read, false at end of input
+     */
+    private boolean scanLine() throws IOException {
+        lineLength = 0;
+        int c = read();
+        if (c == EOF) {
+            return false;
+        }
+        lineStart = ++physicalLine;
+        while (c != EOF) {
+            int next = peek();
+            char ch = (char) c;
+            if (inLineComment && (ch == '\n' || ch == '\r')) {
+                inLineComment = false;
+                if (ch == '\n') {
+                    return true;
+                }
+                appendToLine(ch);
+            } else if (ch == '\n' && blockCommentDepth > 0) {
+                // A newline inside a block comment does not end the line
+                physicalLine++;
+            } else if (!inSingleQuote && !inDoubleQuote && ch == '/' && next == '*') {
+                blockCommentDepth++;
+                inputPosition++;
+            } else if (!inSingleQuote && !inDoubleQuote && ch == '*' && next == '/' && blockCommentDepth > 0) {
+                blockCommentDepth--;
+                inputPosition++;
+            } else if (inLineComment || blockCommentDepth > 0) {
+                // Inside a comment: drop the character
+            } else if (ch == '\'' && !inDoubleQuote) {
+                inSingleQuote = !inSingleQuote;
+                appendToLine(ch);
+            } else if (ch == '"' && !inSingleQuote) {
+                inDoubleQuote = !inDoubleQuote;
+                appendToLine(ch);
+            } else if (!inSingleQuote && !inDoubleQuote && ch == '-' && next == '-') {
+                inLineComment = true;
+                inputPosition++;
+            } else if (ch == '\n') {
+                return true;
+            } else {
+                appendToLine(ch);
+            }
+            c = read();
+        }
+        return true;
+    }
+
+    /**
+     * Applies the statement boundary rules to the current line.
+     *
+     * @return a completed statement, or null if the statement continues
+     */
+    private String processLine() {
+        int start = 0;
+        int end = lineLength;
+        while (start < end && line[start] <= ' ') start++;
+        while (end > start && line[end - 1] <= ' ') end--;
+        int length = end - start;
+        if (length == 0) {
+            return null;
+        }
+
+        if (length == 1 && line[start] == '/') {
+            if (inPlsqlBlock) {
+                inPlsqlBlock = false;
+                plsqlLevel = 0;
+                return completeStatement();
+            }
+            if (currentStatement.length() > 0) {
+                currentStatement.append('/').append('\n');
+            }
+            return null;
+        }
+
+        if (!inPlsqlBlock && isPlsqlBlockStart(start, end)) {
+            inPlsqlBlock = true;
+            plsqlLevel = 1;
+            String completed = currentStatement.length() > 0 ? completeStatement() : null;
+            statementLine = lineStart;
+            currentStatement.append(line, start, length).append('\n');
+            return completed;
+        }
+
+        if (inPlsqlBlock) {
+            if (containsIgnoreCase(start, end, BEGIN)) {
+                plsqlLevel++;
+            } else if (containsIgnoreCase(start, end, END_SEMICOLON)) {
+                plsqlLevel--;
+            }
+            markStatementStart();
+            currentStatement.append(line, start, length).append('\n');
+            if (plsqlLevel <= 0) {
+                inPlsqlBlock = false;
+                return completeStatement();
+            }
+            return null;
+        }
+
+        markStatementStart();
+        currentStatement.append(line, start, length);
+        if (line[end - 1] == ';') {
+            return completeStatement();
+        }
+        currentStatement.append('\n');
+        return null;
+    }
+
+    private String finish() {
+        finished = true;
+        if (!flushAtEnd) {
+            logger.debug("Lexed {} SQL statements in chunk", emittedCount);
+            return null;
+        }
+        String completed = currentStatement.length() > 0 ? completeStatement() : null;
+        logger.info("Successfully parsed {} SQL statements", emittedCount + (completed != null ? 1 : 0));
+        return completed;
+    }
+
+    private void markStatementStart() {
+        if (currentStatement.length() == 0) {
+            statementLine = lineStart;
+        }
+    }
+
+    private String completeStatement() {
+        statementNumber++;
+        completedLine = statementLine;
+        int start = 0;
+        int end = currentStatement.length();
+        while (start < end && currentStatement.charAt(start) <= ' ') start++;
+        while (end > start && currentStatement.charAt(end - 1) <= ' ') end--;
+        if (start == end) {
+            currentStatement.setLength(0);
+            return null;
+        }
+        String statement = currentStatement.substring(start, end);
+        currentStatement.setLength(0);
+        lastProcedural = classifier.isProceduralBlock(statement);
+        if (!lastProcedural && statement.charAt(statement.length() - 1) == ';') {
+            statement = statement.substring(0, statement.length() - 1).trim();
+        }
+        emittedCount++;
+        return statement;
+    }
+
+    private boolean isPlsqlBlockStart(int start, int end) {
+        if (startsWithIgnoreCase(start, end, BEGIN) || startsWithIgnoreCase(start, end, DECLARE)) {
+            return true;
+        }
+        if (!startsWithIgnoreCase(start, end, CREATE)) {
+            return false;
+        }
+        for (char[] keyword : CREATE_PLSQL_KEYWORDS) {
+            if (containsIgnoreCase(start, end, keyword)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean startsWithIgnoreCase(int start, int end, char[] keyword) {
+        return end - start >= keyword.length && regionMatches(start, keyword);
+    }
+
+    private boolean containsIgnoreCase(int start, int end, char[] keyword) {
+        for (int i = start, last = end - keyword.length; i <= last; i++) {
+            if (regionMatches(i, keyword)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean regionMatches(int offset, char[] keyword) {
+        for (int i = 0; i < keyword.length; i++) {
+            if (Character.toUpperCase(line[offset + i]) != keyword[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void appendToLine(char ch) {
+        if (lineLength == line.length) {
+            char[] grown = new char[line.length * 2];
+            System.arraycopy(line, 0, grown, 0, lineLength);
+            line = grown;
+        }
+        line[lineLength++] = ch;
+    }
+
+    private int read() throws IOException {
+        if (inputPosition >= inputLimit && !fill()) {
+            return EOF;
+        }
+        return input[inputPosition++];
+    }
+
+    private int peek() throws IOException {
+        if (inputPosition >= inputLimit && !fill()) {
+            return EOF;
+        }
+        return input[inputPosition];
+    }
+
+    private boolean fill() throws IOException {
+        if (inputExhausted) {
+            return false;
+        }
+        int read;
+        do {
+            read = reader.read(input, 0, input.length);
+        } while (read == 0);
+        if (read < 0) {
+            inputExhausted = true;
+            inputLimit = 0;
+            inputPosition = 0;
+            return false;
+        }
+        inputPosition = 0;
+        inputLimit = read;
+        return true;
+    }
+}
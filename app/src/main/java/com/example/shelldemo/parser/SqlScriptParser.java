@@ -4,12 +4,25 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import java.io.File;
 import java.io.IOException;
+import java.io.Reader;
+import java.io.InputStreamReader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
 import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -27,6 +40,8 @@ public final class SqlScriptParser {
     private static final Logger logger = LogManager.getLogger(SqlScriptParser.class);
     private static final String PARAM_DELIMITER = ",";
     private static final String FIELD_DELIMITER = ":";
+    private static final long CHUNKED_PARSE_THRESHOLD = 64L * 1024 * 1024;
+    private static final long MIN_CHUNK_SIZE = 8L * 1024 * 1024;
     private static final Pattern PROCEDURE_PATTERN = Pattern.compile(
         "CREATE\\s+(OR\\s+REPLACE\\s+)?(FUNCTION|PROCEDURE)\\s+([^(]+)\\(([^)]*)\\)",
         Pattern.CASE_INSENSITIVE
@@ -106,33 +121,6 @@ public final class SqlScriptParser {
      */
     public static record StoredProcedureInfo(String name, String parameters) {}
 
-    private static final class CommentParserState {
-        boolean inSingleQuote = false;
-        boolean inDoubleQuote = false;
-        boolean inLineComment = false;
-        private int multiLineCommentDepth = 0;
-        
-        boolean inAnyString() {
-            return inSingleQuote || inDoubleQuote;
-        }
-    }
-
-    /**
-     * Record representing the result of processing a character in SQL parsing.
-     * 
-     * @param appendChar Whether to append the current character to the result
-     * @param indexShift How many positions to shift the index after processing
-     */
-    private static record ProcessResult(boolean appendChar, int indexShift) {
-        static ProcessResult skip(int indexShift) {
-            return new ProcessResult(false, indexShift);
-        }
-        
-        static ProcessResult append() {
-            return new ProcessResult(true, 0);
-        }
-    }
-
     /**
      * Validates that a string is not null or empty after trimming.
      */
@@ -145,16 +133,29 @@ public final class SqlScriptParser {
 
     /**
      * Parses a SQL script file into a map of individual SQL statements.
+     * Scripts larger than 64 MB are split into chunks and parsed on the common fork/join pool.
      */
     public static Map<Integer, String> parseSqlFile(File scriptFile, DatabaseVendor vendor) throws DatabaseException {
         validateScriptFile(scriptFile);
-        
+
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        if (scriptFile.length() >= CHUNKED_PARSE_THRESHOLD && parallelism > 1) {
+            return parseSqlFileChunked(scriptFile, vendor, ForkJoinPool.commonPool());
+        }
+        return parseSqlFileSequentially(scriptFile, vendor);
+    }
+
+    private static Map<Integer, String> parseSqlFileSequentially(File scriptFile, DatabaseVendor vendor) {
         logger.debug("Starting SQL file parsing: {}", scriptFile.getName());
 
-        try {
-            String content = new String(Files.readAllBytes(scriptFile.toPath()));
-            String processedContent = removeComments(content);
-            return parseStatements(processedContent, vendor);
+        try (Reader reader = Files.newBufferedReader(scriptFile.toPath(), Charset.defaultCharset())) {
+            Map<Integer, String> statements = new HashMap<>();
+            SqlLexer lexer = new SqlLexer(reader, vendor);
+            String statement;
+            while ((statement = lexer.nextStatement()) != null) {
+                statements.put(lexer.getStatementNumber(), statement);
+            }
+            return statements;
         } catch (IOException e) {
             throw new DatabaseException(
                 "Failed to parse SQL file: " + scriptFile.getName(), 
@@ -168,6 +169,195 @@ public final class SqlScriptParser {
         }
     }
 
+    /**
+     * Parses a SQL script file by splitting it into chunks that are lexed in parallel
+     * on the given pool. The result is identical to {@link #parseSqlFile(File, DatabaseVendor)}.
+     * Falls back to sequential parsing if the platform charset cannot be split on byte offsets.
+     *
+     * @param scriptFile The script file
+     * @param vendor The database vendor
+     * @param pool The fork/join pool to parse on
+     * @return Statements keyed by statement number
+     */
+    public static Map<Integer, String> parseSqlFileChunked(File scriptFile, DatabaseVendor vendor, ForkJoinPool pool)
+            throws DatabaseException {
+        validateScriptFile(scriptFile);
+        Charset charset = Charset.defaultCharset();
+        if (!ChunkedScriptParser.supports(charset)) {
+            logger.debug("Charset {} cannot be split into chunks, parsing sequentially", charset);
+            return parseSqlFileSequentially(scriptFile, vendor);
+        }
+
+        long chunkSize = Math.max(MIN_CHUNK_SIZE, scriptFile.length() / (pool.getParallelism() * 4L));
+        logger.debug("Starting chunked SQL file parsing: {} (chunk size {} bytes)", scriptFile.getName(), chunkSize);
+        try {
+            return ChunkedScriptParser.parse(scriptFile.toPath(), charset, vendor, chunkSize, pool);
+        } catch (IOException e) {
+            throw new DatabaseException(
+                "Failed to parse SQL file: " + scriptFile.getName(), 
+                e, ErrorType.PARSE_SQL
+            );
+        }
+    }
+
+    /**
+     * Streams the statements of a SQL script file in script order.
+     * Statements are produced as they are found, so the caller can start
+     * executing before the rest of the file has been read and heap use does
+     * not grow with the file size. The returned stream must be closed to
+     * release the underlying file handle.
+     *
+     * @param scriptFile The script file
+     * @param vendor The database vendor
+     * @return A lazily populated, ordered stream of SQL statements
+     */
+    public static Stream<String> streamSqlFile(File scriptFile, DatabaseVendor vendor) throws DatabaseException {
+        validateScriptFile(scriptFile);
+
+        logger.debug("Starting streaming SQL file parsing: {}", scriptFile.getName());
+
+        try {
+            Reader reader = Files.newBufferedReader(scriptFile.toPath(), Charset.defaultCharset());
+            return streamSqlScript(reader, vendor);
+        } catch (IOException e) {
+            throw new DatabaseException(
+                "Failed to open SQL file: " + scriptFile.getName(),
+                e, ErrorType.PARSE_SQL
+            );
+        }
+    }
+
+    /**
+     * Streams the statements of a SQL script read from the given reader.
+     * Closing the returned stream closes the reader.
+     *
+     * @param reader The script source
+     * @param vendor The database vendor
+     * @return A lazily populated, ordered stream of SQL statements
+     */
+    public static Stream<String> streamSqlScript(Reader reader, DatabaseVendor vendor) {
+        return stream(reader, vendor, SqlLexer::nextStatement);
+    }
+
+    /**
+     * Streams the classified statements of a SQL script file in script order.
+     * Statements are typed by the lexer from their leading keywords, so no
+     * separate classification pass is needed. The returned stream must be closed.
+     *
+     * @param scriptFile The script file
+     * @param vendor The database vendor
+     * @return A lazily populated, ordered stream of typed SQL statements
+     */
+    public static Stream<SqlStatement> streamStatements(File scriptFile, DatabaseVendor vendor) throws DatabaseException {
+        validateScriptFile(scriptFile);
+
+        logger.debug("Starting streaming SQL file parsing: {}", scriptFile.getName());
+
+        try {
+            Reader reader = Files.newBufferedReader(scriptFile.toPath(), Charset.defaultCharset());
+            return stream(reader, vendor, SqlLexer::nextSqlStatement);
+        } catch (IOException e) {
+            throw new DatabaseException(
+                "Failed to open SQL file: " + scriptFile.getName(),
+                e, ErrorType.PARSE_SQL
+            );
+        }
+    }
+
+    /**
+     * Streams the classified statements of a SQL script file from a position
+     * found by an earlier run, without reading anything before it. Every point
+     * after a statement at which lexing could later start again is recorded in
+     * {@code boundaries}, numbered from the start of the script.
+     *
+     * @param scriptFile The script file
+     * @param vendor The database vendor
+     * @param from Where to start; anything but {@link ScriptPosition#START}
+     *             requires {@link #supportsByteOffsets()}
+     * @param boundaries Receives the statement boundaries, or null
+     * @return A lazily populated, ordered stream of the typed SQL statements after {@code from}
+     * @throws DatabaseException if the script cannot be opened
+     */
+    public static Stream<SqlStatement> streamStatements(File scriptFile, DatabaseVendor vendor,
+            ScriptPosition from, StatementBoundaries boundaries) throws DatabaseException {
+        validateScriptFile(scriptFile);
+        if (!from.isStart() && !supportsByteOffsets()) {
+            throw new DatabaseException("Cannot start parsing at a byte offset in charset " + Charset.defaultCharset(),
+                ErrorType.PARSE_SQL);
+        }
+
+        logger.debug("Starting streaming SQL file parsing: {} at line {}", scriptFile.getName(), from.line());
+
+        try {
+            FileChannel channel = FileChannel.open(scriptFile.toPath());
+            channel.position(from.offset());
+            Reader reader = new InputStreamReader(Channels.newInputStream(channel), Charset.defaultCharset());
+            StatementIterator<SqlStatement> iterator = new StatementIterator<>(reader, vendor,
+                SqlLexer::nextSqlStatement, from, boundaries);
+            return StreamSupport.stream(
+                    Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL),
+                    false)
+                .onClose(iterator::close);
+        } catch (IOException e) {
+            throw new DatabaseException(
+                "Failed to open SQL file: " + scriptFile.getName(),
+                e, ErrorType.PARSE_SQL
+            );
+        }
+    }
+
+    /**
+     * Whether script lines can be found by byte offset in the platform charset,
+     * which is what resuming a script part-way through relies on.
+     *
+     * @return true if every line feed byte of a script is a line break
+     */
+    public static boolean supportsByteOffsets() {
+        return ChunkedScriptParser.supports(Charset.defaultCharset());
+    }
+
+    /**
+     * Finds the script line on which each statement starts. Element {@code i}
+     * is the line of the statement at position {@code i} in the streams
+     * returned by {@link #streamSqlFile} and {@link #streamStatements}.
+     * Meant for error reporting, where a second pass over the script is cheap
+     * compared to carrying line numbers with every statement.
+     *
+     * @param scriptFile The script file
+     * @param vendor The database vendor
+     * @return The 1-based start line of each statement, in script order
+     * @throws DatabaseException if the script cannot be read
+     */
+    public static int[] statementLines(File scriptFile, DatabaseVendor vendor) throws DatabaseException {
+        validateScriptFile(scriptFile);
+        try (Reader reader = Files.newBufferedReader(scriptFile.toPath(), Charset.defaultCharset())) {
+            SqlLexer lexer = new SqlLexer(reader, vendor);
+            int[] lines = new int[64];
+            int count = 0;
+            while (lexer.nextStatement() != null) {
+                if (count == lines.length) {
+                    lines = Arrays.copyOf(lines, count * 2);
+                }
+                lines[count++] = lexer.getStatementLine();
+            }
+            return Arrays.copyOf(lines, count);
+        } catch (IOException e) {
+            throw new DatabaseException(
+                "Failed to read SQL file: " + scriptFile.getName(),
+                e, ErrorType.PARSE_SQL
+            );
+        }
+    }
+
+    private static <T> Stream<T> stream(Reader reader, DatabaseVendor vendor, LexerStep<T> step) {
+        Objects.requireNonNull(reader, "Script reader cannot be null");
+        StatementIterator<T> iterator = new StatementIterator<>(reader, vendor, step, ScriptPosition.START, null);
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL),
+                false)
+            .onClose(iterator::close);
+    }
+
     /**
      * Parses a stored procedure or function definition.
      */
@@ -279,123 +469,75 @@ public final class SqlScriptParser {
         }
     }
 
-    private static ProcessResult processChar(char c, char next, CommentParserState state) {
-        if (isLineCommentEnd(c, state)) {
-            return handleLineCommentEnd(state);
-        }
-
-        if (isNestedCommentStart(c, next, state)) {
-            return handleNestedCommentStart(state);
-        }
-
-        if (isNestedCommentEnd(c, next, state)) {
-            return handleNestedCommentEnd(state);
-        }
-
-        if (isInComment(state)) {
-            return ProcessResult.skip(0);
-        }
-
-        if (isStringDelimiter(c, state)) {
-            processStringDelimiter(c, state);
-            return ProcessResult.append();
-        }
-
-        if (isLineCommentStart(c, next, state)) {
-            return handleLineCommentStart(state);
-        }
-
-        return ProcessResult.append();
-    }
-
-    private static boolean isLineCommentEnd(char c, CommentParserState state) {
-        return isLineEnd(c) && state.inLineComment;
-    }
-
-    private static ProcessResult handleLineCommentEnd(CommentParserState state) {
-        state.inLineComment = false;
-        return ProcessResult.append();
-    }
-
-    private static boolean isNestedCommentStart(char c, char next, CommentParserState state) {
-        return !state.inAnyString() && c == '/' && next == '*';
-    }
-
-    private static ProcessResult handleNestedCommentStart(CommentParserState state) {
-        state.multiLineCommentDepth++;
-        return ProcessResult.skip(1);
-    }
-
-    private static boolean isNestedCommentEnd(char c, char next, CommentParserState state) {
-        return !state.inAnyString() && c == '*' && next == '/' && state.multiLineCommentDepth > 0;
-    }
-
-    private static ProcessResult handleNestedCommentEnd(CommentParserState state) {
-        state.multiLineCommentDepth--;
-        return ProcessResult.skip(1);
-    }
-
-    private static boolean isInComment(CommentParserState state) {
-        return state.inLineComment || state.multiLineCommentDepth > 0;
-    }
-
-    private static boolean isLineCommentStart(char c, char next, CommentParserState state) {
-        return !state.inAnyString() && c == '-' && next == '-';
+    /**
+     * Reads the next element from a lexer, or null at end of script.
+     */
+    @FunctionalInterface
+    private interface LexerStep<T> {
+        T read(SqlLexer lexer) throws IOException;
     }
 
-    private static ProcessResult handleLineCommentStart(CommentParserState state) {
-        state.inLineComment = true;
-        return ProcessResult.skip(1);
-    }
+    /**
+     * Pull-based statement iterator. Input is read only until the next
+     * statement is complete, so at most one statement is held in memory.
+     */
+    private static final class StatementIterator<T> implements Iterator<T>, AutoCloseable {
+        private final Reader reader;
+        private final SqlLexer lexer;
+        private final LexerStep<T> step;
+        private final ScriptPosition from;
+        private final StatementBoundaries boundaries;
+        private int read;
+        private T next;
+        private boolean exhausted = false;
+
+        StatementIterator(Reader reader, DatabaseVendor vendor, LexerStep<T> step,
+                ScriptPosition from, StatementBoundaries boundaries) {
+            this.reader = reader;
+            this.lexer = new SqlLexer(reader, vendor);
+            this.step = step;
+            this.from = from;
+            this.boundaries = boundaries;
+        }
 
-    private static String removeComments(String content) {
-        StringBuilder processed = new StringBuilder();
-        CommentParserState state = new CommentParserState();
-        int i = 0;
-        
-        while (i < content.length()) {
-            char c = content.charAt(i);
-            char next = (i < content.length() - 1) ? content.charAt(i + 1) : '\0';
-            
-            ProcessResult result = processChar(c, next, state);
-            if (result.appendChar) {
-                processed.append(c);
+        @Override
+        public boolean hasNext() {
+            if (next == null && !exhausted) {
+                try {
+                    next = step.read(lexer);
+                } catch (IOException e) {
+                    close();
+                    throw new DatabaseException("Failed to read SQL script", e, ErrorType.PARSE_SQL);
+                }
+                if (next == null) {
+                    close();
+                } else if (boundaries != null && lexer.atStatementBoundary()) {
+                    boundaries.record(from.statement() + ++read, from.line() + lexer.getLinesRead());
+                } else {
+                    read++;
+                }
             }
-            
-            i += 1 + result.indexShift;
+            return next != null;
         }
-        
-        return processed.toString();
-    }
-    
-    private static boolean isLineEnd(char c) {
-        return c == '\n' || c == '\r';
-    }
 
-    private static boolean isStringDelimiter(char c, CommentParserState state) {
-        return (c == '\'' && !state.inDoubleQuote) || (c == '"' && !state.inSingleQuote);
-    }
-
-    private static void processStringDelimiter(char c, CommentParserState state) {
-        if (c == '\'') {
-            state.inSingleQuote = !state.inSingleQuote;
-        } else if (c == '"') {
-            state.inDoubleQuote = !state.inDoubleQuote;
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException("No more SQL statements in script");
+            }
+            T statement = next;
+            next = null;
+            return statement;
         }
-    }
 
-    private static Map<Integer, String> parseStatements(String content, DatabaseVendor vendor) {
-        Map<Integer, String> statements = new HashMap<>();
-        String[] lines = content.replace("\r\n", "\n").split("\n");
-        StatementParser parser = new StatementParser(statements, vendor);
-        
-        for (String line : lines) {
-            line = line.trim();
-            if (line.isEmpty()) continue;
-            parser.processLine(line);
+        @Override
+        public void close() {
+            exhausted = true;
+            try {
+                reader.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close SQL script reader: {}", e.getMessage());
+            }
         }
-        
-        parser.addRemainingStatement();
-        return statements;
     }
 }
\ No newline at end of file
@@ -0,0 +1,70 @@
+package com.example.shelldemo.parser;
+
+/**
+ * Statement boundaries found while a script is lexed, kept until the executor
+ * has moved past them. The parser records, in script order, every point after a
+ * statement at which lexing could start again; the executor asks for the last
+ * such point before a given statement count. Each boundary is packed into one
+ * {@code long}, and boundaries behind the executor are dropped, so the buffer
+ * only holds the statements parsed ahead of execution.
+ * <p>
+ * Safe for a parser thread recording ahead of an executing thread.
+ */
+public final class StatementBoundaries {
+    /**
+     * A point after a statement at which lexing can start afresh.
+     *
+     * @param statements Number of statements before the boundary
+     * @param line 1-based line that starts at the boundary
+     */
+    public record Boundary(int statements, int line) {}
+
+    private long[] boundaries = new long[64];
+    private int head;
+    private int size;
+
+    /**
+     * Records that lexing can start afresh at the given line once the given
+     * number of statements has been read.
+     *
+     * @param statements Number of statements before the boundary
+     * @param line 1-based line that starts at the boundary
+     */
+    public synchronized void record(int statements, int line) {
+        if (size == boundaries.length) {
+            long[] grown = new long[boundaries.length * 2];
+            for (int i = 0; i < size; i++) {
+                grown[i] = boundaries[(head + i) % boundaries.length];
+            }
+            boundaries = grown;
+            head = 0;
+        }
+        boundaries[(head + size) % boundaries.length] = ((long) statements << 32) | (line & 0xFFFFFFFFL);
+        size++;
+    }
+
+    /**
+     * Returns the last recorded boundary with at most the given number of
+     * statements before it, and forgets every boundary before that one.
+     * Statement counts passed in must not decrease.
+     *
+     * @param statements Number of statements the boundary may not be after
+     * @return The boundary, or null if none was recorded
+     */
+    public synchronized Boundary floor(int statements) {
+        long found = -1;
+        while (size > 0 && (int) (boundaries[head] >>> 32) <= statements) {
+            found = boundaries[head];
+            head = (head + 1) % boundaries.length;
+            size--;
+        }
+        if (found < 0) {
+            return null;
+        }
+        // Keep the boundary found: a later call may not find a newer one
+        head = (head - 1 + boundaries.length) % boundaries.length;
+        boundaries[head] = found;
+        size++;
+        return new Boundary((int) (found >>> 32), (int) found);
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.shelldemo.parser;
+
+import java.util.List;
+
+import com.example.shelldemo.spi.DatabaseVendor;
+import com.example.shelldemo.spi.ProceduralBlockKeywords;
+
+/**
+ * Classifies statement text into {@link SqlStatement} records by looking at the
+ * leading keywords only.
+ * <p>
+ * The rules are the vendor's {@link ProceduralBlockKeywords}, from which its
+ * {@code isPLSQL} pattern is built, and the SELECT / DML / DDL patterns
+ * formerly applied by {@link SqlStatementFactory}, expressed as a switch on
+ * the first letter followed by in-place keyword comparisons. Like
+ * those patterns, matching is ASCII case-insensitive, procedural keywords are
+ * prefix matches and SELECT / DML / DDL keywords must be followed by whitespace.
+ * Nothing is allocated besides the statement record.
+ */
+final class StatementClassifier {
+
+    private final ProceduralBlockKeywords keywords;
+    private final DatabaseVendor vendor;
+
+    private StatementClassifier(ProceduralBlockKeywords keywords, DatabaseVendor vendor) {
+        this.keywords = keywords;
+        this.vendor = vendor;
+    }
+
+    /**
+     * Creates a classifier for the given vendor. Vendors without
+     * {@link DatabaseVendor#proceduralBlockKeywords() keywords} fall back to
+     * calling {@link DatabaseVendor#isPLSQL(String)}.
+     *
+     * @param vendor The database vendor
+     * @return A classifier for the vendor
+     */
+    static StatementClassifier forVendor(DatabaseVendor vendor) {
+        return new StatementClassifier(vendor.proceduralBlockKeywords(), vendor);
+    }
+
+    /**
+     * Classifies a trimmed, non-blank statement.
+     *
+     * @param sql The statement text
+     * @return The typed statement
+     */
+    SqlStatement classify(String sql) {
+        if (isProceduralBlock(sql)) {
+            return new SqlStatement.ProcedureStatement(sql);
+        }
+        return classifyNonProcedural(sql);
+    }
+
+    /**
+     * Classifies a trimmed, non-blank statement already known not to be a procedural block.
+     *
+     * @param sql The statement text
+     * @return The typed statement
+     */
+    SqlStatement classifyNonProcedural(String sql) {
+        int start = skipWhitespace(sql, 0);
+        if (start == sql.length()) {
+            return new SqlStatement.DmlStatement(sql);
+        }
+        return switch (upper(sql.charAt(start))) {
+            case 'S' -> keywordAt(sql, start, "SELECT")
+                ? new SqlStatement.QueryStatement(sql) : new SqlStatement.DmlStatement(sql);
+            case 'C' -> keywordAt(sql, start, "CREATE")
+                ? new SqlStatement.DdlStatement(sql) : new SqlStatement.DmlStatement(sql);
+            case 'A' -> keywordAt(sql, start, "ALTER")
+                ? new SqlStatement.DdlStatement(sql) : new SqlStatement.DmlStatement(sql);
+            case 'D' -> keywordAt(sql, start, "DROP")
+                ? new SqlStatement.DdlStatement(sql) : new SqlStatement.DmlStatement(sql);
+            case 'T' -> keywordAt(sql, start, "TRUNCATE")
+                ? new SqlStatement.DdlStatement(sql) : new SqlStatement.DmlStatement(sql);
+            case 'G' -> keywordAt(sql, start, "GRANT")
+                ? new SqlStatement.DdlStatement(sql) : new SqlStatement.DmlStatement(sql);
+            case 'R' -> keywordAt(sql, start, "REVOKE")
+                ? new SqlStatement.DdlStatement(sql) : new SqlStatement.DmlStatement(sql);
+            // INSERT, UPDATE, DELETE, MERGE and anything unrecognised are DML
+            default -> new SqlStatement.DmlStatement(sql);
+        };
+    }
+
+    /**
+     * Determines if a statement is a procedural block for this vendor.
+     * Equivalent to the vendor's {@code isPLSQL} for the built-in vendors.
+     *
+     * @param sql The statement text
+     * @return true if the statement is a procedural block
+     */
+    boolean isProceduralBlock(String sql) {
+        if (keywords == null) {
+            return vendor.isPLSQL(sql);
+        }
+        int start = skipWhitespace(sql, 0);
+        List<String> blockKeywords = keywords.blockKeywords();
+        for (int i = 0; i < blockKeywords.size(); i++) {
+            if (prefixAt(sql, start, blockKeywords.get(i))) {
+                return true;
+            }
+        }
+        if (!keywordAt(sql, start, "CREATE")) {
+            return false;
+        }
+        int next = skipWhitespace(sql, start + "CREATE".length());
+        if (keywordAt(sql, next, "OR")) {
+            int modifier = skipWhitespace(sql, next + "OR".length());
+            String createModifier = keywords.createModifier();
+            if (keywordAt(sql, modifier, createModifier)) {
+                int object = skipWhitespace(sql, modifier + createModifier.length());
+                if (createObjectAt(sql, object)) {
+                    return true;
+                }
+            }
+        }
+        return createObjectAt(sql, next);
+    }
+
+    private boolean createObjectAt(String sql, int offset) {
+        List<String> createObjects = keywords.createObjects();
+        for (int i = 0; i < createObjects.size(); i++) {
+            if (prefixAt(sql, offset, createObjects.get(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether {@code keyword} occurs at {@code offset} followed by at least one whitespace character.
+     */
+    private static boolean keywordAt(String sql, int offset, String keyword) {
+        int end = offset + keyword.length();
+        return prefixAt(sql, offset, keyword) && end < sql.length() && isWhitespace(sql.charAt(end));
+    }
+
+    private static boolean prefixAt(String sql, int offset, String keyword) {
+        if (offset + keyword.length() > sql.length()) {
+            return false;
+        }
+        for (int i = 0; i < keyword.length(); i++) {
+            if (upper(sql.charAt(offset + i)) != keyword.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int skipWhitespace(String sql, int offset) {
+        while (offset < sql.length() && isWhitespace(sql.charAt(offset))) {
+            offset++;
+        }
+        return offset;
+    }
+
+    /**
+     * Matches regex {@code \s}: space, tab, newline, vertical tab, form feed, carriage return.
+     */
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || (c >= '\t' && c <= '\r');
+    }
+
+    private static char upper(char c) {
+        return c >= 'a' && c <= 'z' ? (char) (c - ('a' - 'A')) : c;
+    }
+}
@@ -0,0 +1,214 @@
+package com.example.shelldemo.plan;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * The dependency graph of a run of statements. A statement depends on every
+ * earlier statement it conflicts with: one writes an object the other reads or
+ * writes. DML statements declared independent of each other share their writes,
+ * so they conflict with readers and with DDL but not among themselves. A barrier
+ * depends on everything before it and everything after it depends on it.
+ * <p>
+ * Each statement is also placed in a stage, one after the stage of its latest
+ * dependency. The statements of a stage are independent of each other, and the
+ * stages are the order a stage-by-stage runner would follow; a runner following
+ * the graph itself may start a statement as soon as its own dependencies finish.
+ */
+public final class ExecutionPlan {
+    private final int[][] dependencies;
+    private final int[][] dependents;
+    private final int[] stages;
+    private final int stageCount;
+
+    private ExecutionPlan(int[][] dependencies, int[] stages) {
+        this.dependencies = dependencies;
+        this.stages = stages;
+        this.stageCount = Arrays.stream(stages).max().orElse(-1) + 1;
+        int[] counts = new int[dependencies.length];
+        for (int[] statementDependencies : dependencies) {
+            for (int dependency : statementDependencies) {
+                counts[dependency]++;
+            }
+        }
+        this.dependents = new int[dependencies.length][];
+        for (int i = 0; i < dependencies.length; i++) {
+            dependents[i] = new int[counts[i]];
+            counts[i] = 0;
+        }
+        for (int i = 0; i < dependencies.length; i++) {
+            for (int dependency : dependencies[i]) {
+                dependents[dependency][counts[dependency]++] = i;
+            }
+        }
+    }
+
+    /**
+     * Builds the plan of statements in script order.
+     *
+     * @param accesses The access of each statement
+     * @param independentDml Whether DML statements are declared independent of each other
+     * @return The plan
+     */
+    public static ExecutionPlan of(List<StatementAccess> accesses, boolean independentDml) {
+        int size = accesses.size();
+        int[][] dependencies = new int[size][];
+        int[] stages = new int[size];
+        Map<String, ObjectState> objects = new HashMap<>();
+        // Statements since the last barrier, which a new barrier depends on
+        List<Integer> sinceBarrier = new ArrayList<>();
+        int barrier = -1;
+        for (int i = 0; i < size; i++) {
+            StatementAccess access = accesses.get(i);
+            BitSet depends = new BitSet(i);
+            if (access.barrier()) {
+                sinceBarrier.forEach(depends::set);
+                sinceBarrier.clear();
+                objects.clear();
+                if (barrier >= 0) {
+                    depends.set(barrier);
+                }
+                barrier = i;
+            } else {
+                if (barrier >= 0) {
+                    depends.set(barrier);
+                }
+                boolean shared = access.modifiesData() && independentDml;
+                for (String name : access.reads()) {
+                    objects.computeIfAbsent(name, n -> new ObjectState()).dependOnWriters(depends);
+                }
+                for (String name : access.writes()) {
+                    objects.computeIfAbsent(name, n -> new ObjectState()).dependOnAll(depends, shared);
+                }
+                for (String name : access.reads()) {
+                    objects.get(name).readers.add(i);
+                }
+                for (String name : access.writes()) {
+                    objects.get(name).written(i, shared);
+                }
+                sinceBarrier.add(i);
+            }
+            depends.clear(i);
+            dependencies[i] = depends.stream().toArray();
+            int stage = 0;
+            for (int dependency : dependencies[i]) {
+                stage = Math.max(stage, stages[dependency] + 1);
+            }
+            stages[i] = stage;
+        }
+        return new ExecutionPlan(dependencies, stages);
+    }
+
+    /**
+     * The number of statements planned.
+     *
+     * @return The number of statements
+     */
+    public int size() {
+        return stages.length;
+    }
+
+    /**
+     * The statements a statement must wait for.
+     *
+     * @param index The position of the statement
+     * @return Positions of earlier statements, ascending
+     */
+    public int[] dependencies(int index) {
+        return dependencies[index].clone();
+    }
+
+    /**
+     * The number of statements a statement must wait for.
+     *
+     * @param index The position of the statement
+     * @return The number of its dependencies
+     */
+    public int dependencyCount(int index) {
+        return dependencies[index].length;
+    }
+
+    /**
+     * The statements waiting for a statement.
+     *
+     * @param index The position of the statement
+     * @return Positions of later statements, ascending
+     */
+    public int[] dependents(int index) {
+        return dependents[index].clone();
+    }
+
+    /**
+     * The number of stages of the plan.
+     *
+     * @return The number of stages
+     */
+    public int stageCount() {
+        return stageCount;
+    }
+
+    /**
+     * The stage a statement is placed in.
+     *
+     * @param index The position of the statement
+     * @return Its 0-based stage
+     */
+    public int stageOf(int index) {
+        return stages[index];
+    }
+
+    /**
+     * The statements placed in each stage.
+     *
+     * @return Positions of the statements of each stage, ascending
+     */
+    public List<int[]> stages() {
+        List<int[]> grouped = new ArrayList<>(stageCount);
+        for (int stage = 0; stage < stageCount; stage++) {
+            int current = stage;
+            grouped.add(IntStream.range(0, stages.length).filter(i -> stages[i] == current).toArray());
+        }
+        return grouped;
+    }
+
+    /**
+     * Earlier statements that read or write one object.
+     */
+    private static final class ObjectState {
+        private int writer = -1;
+        private final List<Integer> sharedWriters = new ArrayList<>();
+        private final List<Integer> readers = new ArrayList<>();
+
+        void dependOnWriters(BitSet depends) {
+            if (writer >= 0) {
+                depends.set(writer);
+            }
+            sharedWriters.forEach(depends::set);
+        }
+
+        void dependOnAll(BitSet depends, boolean shared) {
+            if (writer >= 0) {
+                depends.set(writer);
+            }
+            if (!shared) {
+                sharedWriters.forEach(depends::set);
+            }
+            readers.forEach(depends::set);
+        }
+
+        void written(int index, boolean shared) {
+            if (shared) {
+                sharedWriters.add(index);
+                return;
+            }
+            writer = index;
+            sharedWriters.clear();
+            readers.clear();
+        }
+    }
+}
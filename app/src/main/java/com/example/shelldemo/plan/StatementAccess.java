@@ -0,0 +1,408 @@
+package com.example.shelldemo.plan;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.example.shelldemo.parser.SqlStatement;
+
+/**
+ * The database objects a statement reads and writes, as far as they can be
+ * told from its text. Object names are compared without their schema, in
+ * upper case unless quoted, so two names for one object never look unrelated.
+ * <p>
+ * What a statement cannot show is covered by a pseudo-object for table data:
+ * queries read it and statements changing rows or the tables and views behind
+ * them write it, so that a query on a view is never reordered with a change
+ * to its tables. A statement taking the next value of a sequence writes the
+ * sequence, as the order of such statements decides the values they get.
+ * Statements whose effects cannot be told at all, such as
+ * PL/SQL blocks, session settings and unrecognised DDL, are barriers: they
+ * run after everything before them and before everything after them.
+ *
+ * @param reads Objects the statement depends on
+ * @param writes Objects the statement changes
+ * @param modifiesData Whether the statement is DML changing table rows
+ * @param barrier Whether the statement must be ordered with every other statement
+ */
+public record StatementAccess(Set<String> reads, Set<String> writes, boolean modifiesData, boolean barrier) {
+
+    /** Pseudo-object standing for table data reached through views, triggers and constraints */
+    public static final String TABLE_DATA = "<table data>";
+
+    /** The access of a statement whose effects are unknown */
+    public static final StatementAccess BARRIER = new StatementAccess(Set.of(), Set.of(), false, true);
+
+    private static final Set<String> CLAUSE_KEYWORDS = Set.of(
+        "WHERE", "GROUP", "ORDER", "HAVING", "UNION", "INTERSECT", "MINUS", "EXCEPT", "JOIN", "INNER",
+        "LEFT", "RIGHT", "FULL", "CROSS", "NATURAL", "OUTER", "ON", "USING", "CONNECT", "START", "FETCH",
+        "FOR", "WITH", "SET", "VALUES", "WHEN", "SELECT", "PIVOT", "UNPIVOT", "MODEL", "WINDOW", "LIMIT",
+        "OFFSET", "RETURNING", "RETURN", "LOG", "PARTITION", "SAMPLE", "AS", "INTO", "TABLESPACE");
+
+    /**
+     * Compact constructor for validation
+     */
+    public StatementAccess {
+        reads = Collections.unmodifiableSet(new LinkedHashSet<>(reads));
+        writes = Collections.unmodifiableSet(new LinkedHashSet<>(writes));
+    }
+
+    /**
+     * Works out the objects a parsed statement reads and writes.
+     *
+     * @param statement The statement
+     * @return Its access, or {@link #BARRIER} if its effects cannot be told
+     */
+    public static StatementAccess of(SqlStatement statement) {
+        if (statement instanceof SqlStatement.ProcedureStatement) {
+            return BARRIER;
+        }
+        List<String> tokens = tokenize(statement.getText());
+        if (tokens.isEmpty()) {
+            return BARRIER;
+        }
+        return new Analysis(tokens).analyze();
+    }
+
+    /**
+     * Splits statement text into upper-cased words, quoted identifiers and
+     * punctuation, dropping literals and comments.
+     */
+    static List<String> tokenize(String sql) {
+        List<String> tokens = new ArrayList<>();
+        int i = 0;
+        int length = sql.length();
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '-' && i + 1 < length && sql.charAt(i + 1) == '-') {
+                int end = sql.indexOf('\n', i);
+                i = end < 0 ? length : end;
+            } else if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? length : end + 2;
+            } else if (c == '\'') {
+                i++;
+                while (i < length && (sql.charAt(i) != '\'' || (i + 1 < length && sql.charAt(i + 1) == '\''))) {
+                    i += sql.charAt(i) == '\'' ? 2 : 1;
+                }
+                i++;
+            } else if (isWordChar(c) || c == '"') {
+                StringBuilder word = new StringBuilder();
+                while (i < length && (isWordChar(sql.charAt(i)) || sql.charAt(i) == '"' || sql.charAt(i) == '.')) {
+                    if (sql.charAt(i) == '"') {
+                        int end = sql.indexOf('"', i + 1);
+                        end = end < 0 ? length : end;
+                        word.append('"').append(sql, i + 1, end).append('"');
+                        i = Math.min(end + 1, length);
+                    } else {
+                        word.append(Character.toUpperCase(sql.charAt(i)));
+                        i++;
+                    }
+                }
+                tokens.add(word.toString());
+            } else {
+                tokens.add(String.valueOf(c));
+                i++;
+            }
+        }
+        return tokens;
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$' || c == '#' || c == '@';
+    }
+
+    /**
+     * The name an object token is compared by: without schema and quotes.
+     */
+    static String objectName(String token) {
+        String name = token.substring(token.lastIndexOf('.') + 1);
+        if (name.length() > 1 && name.startsWith("\"") && name.endsWith("\"")) {
+            return name.substring(1, name.length() - 1);
+        }
+        return name;
+    }
+
+    private static boolean isName(String token) {
+        return !token.isEmpty() && (Character.isLetter(token.charAt(0)) || token.charAt(0) == '"'
+            || token.charAt(0) == '_');
+    }
+
+    /**
+     * One pass over the tokens of a statement.
+     */
+    private static final class Analysis {
+        private final List<String> tokens;
+        private final Set<String> reads = new LinkedHashSet<>();
+        private final Set<String> writes = new LinkedHashSet<>();
+        private int position;
+
+        Analysis(List<String> tokens) {
+            this.tokens = tokens;
+        }
+
+        StatementAccess analyze() {
+            String verb = next();
+            return switch (verb) {
+                case "SELECT", "WITH" -> query();
+                case "INSERT", "UPDATE", "DELETE", "MERGE" -> dml(verb);
+                case "CREATE" -> create();
+                case "DROP" -> drop();
+                case "ALTER" -> alter();
+                case "TRUNCATE" -> truncate();
+                case "GRANT", "REVOKE" -> privileges();
+                case "ANALYZE" -> analyzeStatistics();
+                default -> BARRIER;
+            };
+        }
+
+        private StatementAccess query() {
+            reads.add(TABLE_DATA);
+            scanReads();
+            return access(false);
+        }
+
+        private StatementAccess dml(String verb) {
+            switch (verb) {
+                case "INSERT" -> {
+                    // INSERT ALL writes each INTO target
+                    for (int i = position; i < tokens.size() - 1; i++) {
+                        if ("INTO".equals(tokens.get(i)) && isName(tokens.get(i + 1))) {
+                            writes.add(objectName(tokens.get(i + 1)));
+                        }
+                    }
+                }
+                case "UPDATE" -> write(next());
+                case "DELETE" -> {
+                    accept("FROM");
+                    write(next());
+                }
+                default -> {
+                    if (!accept("INTO")) {
+                        return BARRIER;
+                    }
+                    write(next());
+                }
+            }
+            if (writes.isEmpty()) {
+                return BARRIER;
+            }
+            writes.add(TABLE_DATA);
+            scanReads();
+            return access(true);
+        }
+
+        private StatementAccess create() {
+            boolean replacing = accept("OR") && accept("REPLACE");
+            accept("UNIQUE");
+            accept("BITMAP");
+            accept("GLOBAL");
+            accept("TEMPORARY");
+            String kind = next();
+            switch (kind) {
+                case "INDEX" -> {
+                    accept("CONCURRENTLY");
+                    skipIfNotExists();
+                    if (!"ON".equals(peek())) {
+                        write(next());
+                    }
+                    if (!accept("ON")) {
+                        return BARRIER;
+                    }
+                    accept("ONLY");
+                    read(next());
+                }
+                case "TABLE" -> {
+                    skipIfNotExists();
+                    write(next());
+                    if (tokens.contains("SELECT")) {
+                        reads.add(TABLE_DATA);
+                    }
+                }
+                case "VIEW", "SEQUENCE", "SYNONYM" -> {
+                    skipIfNotExists();
+                    write(next());
+                    // PostgreSQL names sequences in string literals, such as nextval('s') in a column default
+                    if (replacing || "SEQUENCE".equals(kind)) {
+                        writes.add(TABLE_DATA);
+                    }
+                }
+                default -> {
+                    return BARRIER;
+                }
+            }
+            scanReads();
+            return access(false);
+        }
+
+        private StatementAccess drop() {
+            String kind = next();
+            if (!Set.of("TABLE", "INDEX", "VIEW", "SEQUENCE", "SYNONYM").contains(kind)) {
+                return BARRIER;
+            }
+            if (accept("IF")) {
+                accept("EXISTS");
+            }
+            do {
+                write(next());
+            } while (accept(","));
+            if (!"INDEX".equals(kind)) {
+                writes.add(TABLE_DATA);
+            }
+            return access(false);
+        }
+
+        private StatementAccess alter() {
+            String kind = next();
+            if (!"TABLE".equals(kind) && !"INDEX".equals(kind)) {
+                return BARRIER;
+            }
+            write(next());
+            if ("TABLE".equals(kind)) {
+                writes.add(TABLE_DATA);
+            }
+            scanReads();
+            return access(false);
+        }
+
+        private StatementAccess truncate() {
+            accept("TABLE");
+            write(next());
+            writes.add(TABLE_DATA);
+            return access(false);
+        }
+
+        private StatementAccess privileges() {
+            // Object privileges name their object; system privileges and roles change sessions
+            int on = tokens.indexOf("ON");
+            if (on < 0 || on + 1 >= tokens.size()) {
+                return BARRIER;
+            }
+            position = on + 1;
+            if ("TABLE".equals(peek()) || "SEQUENCE".equals(peek())) {
+                next();
+            }
+            read(next());
+            return access(false);
+        }
+
+        private StatementAccess analyzeStatistics() {
+            if ("TABLE".equals(peek()) || "INDEX".equals(peek())) {
+                next();
+            }
+            if (peek() == null) {
+                return BARRIER;
+            }
+            read(next());
+            return access(false);
+        }
+
+        /**
+         * Reads the objects named after FROM, JOIN, USING and REFERENCES
+         * anywhere in the rest of the statement, including subqueries, and
+         * the sequences of {@code s.CURRVAL}. A {@code s.NEXTVAL} advances
+         * its sequence, so it writes it.
+         */
+        private void scanReads() {
+            for (int i = position; i < tokens.size(); i++) {
+                String token = tokens.get(i);
+                if (token.endsWith(".NEXTVAL")) {
+                    write(token.substring(0, token.length() - ".NEXTVAL".length()));
+                } else if (token.endsWith(".CURRVAL")) {
+                    read(token.substring(0, token.length() - ".CURRVAL".length()));
+                } else if (i + 1 == tokens.size()) {
+                    break;
+                } else if ("FROM".equals(token)) {
+                    i = readList(i + 1);
+                } else if ("JOIN".equals(token) || "USING".equals(token) || "REFERENCES".equals(token)) {
+                    String name = tokens.get(i + 1);
+                    if (isName(name) && !CLAUSE_KEYWORDS.contains(name)) {
+                        read(name);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Reads a comma-separated list of objects with optional aliases and
+         * returns the position of its last token.
+         */
+        private int readList(int from) {
+            int i = from;
+            while (i < tokens.size()) {
+                String name = tokens.get(i);
+                if (!isName(name) || CLAUSE_KEYWORDS.contains(name)) {
+                    // A subquery, whose FROM is scanned in turn
+                    return i - 1;
+                }
+                read(name);
+                i++;
+                if (i < tokens.size() && "AS".equals(tokens.get(i))) {
+                    i++;
+                }
+                if (i < tokens.size() && isName(tokens.get(i)) && !CLAUSE_KEYWORDS.contains(tokens.get(i))) {
+                    i++;
+                }
+                if (i >= tokens.size() || !",".equals(tokens.get(i))) {
+                    return i - 1;
+                }
+                i++;
+            }
+            return i - 1;
+        }
+
+        private void skipIfNotExists() {
+            if (accept("IF")) {
+                accept("NOT");
+                accept("EXISTS");
+            }
+        }
+
+        private void read(String token) {
+            if (token != null && isName(token)) {
+                reads.add(objectName(token));
+            }
+        }
+
+        private void write(String token) {
+            if (token != null && isName(token)) {
+                writes.add(objectName(token));
+            }
+        }
+
+        private StatementAccess access(boolean modifiesData) {
+            if (writes.isEmpty() && reads.isEmpty()) {
+                return BARRIER;
+            }
+            return new StatementAccess(reads, writes, modifiesData, false);
+        }
+
+        private boolean accept(String token) {
+            if (token.equals(peek())) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private String peek() {
+            return position < tokens.size() ? tokens.get(position) : null;
+        }
+
+        private String next() {
+            return position < tokens.size() ? tokens.get(position++) : "";
+        }
+    }
+
+    @Override
+    public String toString() {
+        if (barrier) {
+            return "barrier";
+        }
+        return "reads " + reads + ", writes " + writes;
+    }
+}
@@ -1,9 +1,13 @@
 package com.example.shelldemo.spi;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
 import java.util.Properties;
 import com.example.shelldemo.config.ConfigurationService;
+import com.example.shelldemo.sqlhandling.ColumnReader;
 
 /**
  * Enhanced sealed interface for database vendor implementations.
@@ -53,6 +57,16 @@ public sealed interface DatabaseVendor
      * @return true if the statement is a PL/SQL block
      */
     boolean isPLSQL(String sql);
+
+    /**
+     * Gets the leading keywords of the statements {@link #isPLSQL} accepts,
+     * for the script parser to match without a regular expression.
+     *
+     * @return The keywords, or null if only {@link #isPLSQL} tells a procedural block
+     */
+    default ProceduralBlockKeywords proceduralBlockKeywords() {
+        return null;
+    }
     
     /**
      * Gets the explain plan SQL for a statement.
@@ -182,6 +196,140 @@ public sealed interface DatabaseVendor
         return sql.toString();
     }
 
+    /**
+     * Enables the JDBC driver's own prepared statement cache on a connection,
+     * for vendors whose driver can cache statements across close calls.
+     *
+     * @param connection The connection
+     * @param size The number of statements to cache
+     * @return true if the driver now caches statements, false if it cannot
+     */
+    default boolean enableDriverStatementCache(Connection connection, int size) {
+        return false;
+    }
+
+    /**
+     * Gets the fetch size for queries whose rows are streamed to a handler:
+     * enough rows per round trip to keep the network busy while a bounded
+     * number of rows is buffered by the driver.
+     *
+     * @return The fetch size to set on a streaming statement
+     */
+    default int getStreamingFetchSize() {
+        return 1000;
+    }
+
+    /**
+     * Whether the driver only fetches rows in chunks of the fetch size inside
+     * a transaction, and buffers the whole result when auto-commit is on.
+     *
+     * @return true if a streaming query must run with auto-commit off
+     */
+    default boolean requiresTransactionForStreaming() {
+        return false;
+    }
+
+    /**
+     * Picks the reader for a column of a result, once per query. Vendors
+     * override this for column types whose values can be read with a cheaper
+     * getter than the one of the JDBC type mapping, which may return another
+     * class than {@code getObject} for the same number (see {@link ColumnReader}).
+     *
+     * @param metaData The metadata of the result
+     * @param column The 1-based column
+     * @return The reader for the column
+     * @throws SQLException if the metadata cannot be read
+     */
+    default ColumnReader columnReader(ResultSetMetaData metaData, int column) throws SQLException {
+        return ColumnReader.forColumn(metaData, column);
+    }
+
+    /**
+     * Pins the reads of a connection to the database as it is now, and
+     * returns a token with which other connections can read the same state
+     * through {@link #importSnapshot}. The connection must stay open, and
+     * must not commit, until the other connections are done.
+     *
+     * @param connection The connection to take the snapshot on
+     * @return The token, or null if the vendor cannot share a snapshot
+     * @throws SQLException if the snapshot cannot be taken
+     */
+    default String exportSnapshot(Connection connection) throws SQLException {
+        return null;
+    }
+
+    /**
+     * Makes a connection read the state of the database a snapshot was taken
+     * of, until {@link #releaseSnapshot} is called.
+     *
+     * @param connection The connection to read through
+     * @param snapshot The token returned by {@link #exportSnapshot}
+     * @throws SQLException if the snapshot cannot be imported
+     */
+    default void importSnapshot(Connection connection, String snapshot) throws SQLException {
+        throw new SQLFeatureNotSupportedException(getVendorName() + " cannot share a snapshot between connections");
+    }
+
+    /**
+     * Returns a connection that exported or imported a snapshot to reading
+     * the current state of the database, and to auto-commit.
+     *
+     * @param connection The connection
+     * @throws SQLException if the snapshot cannot be released
+     */
+    default void releaseSnapshot(Connection connection) throws SQLException {
+        // Nothing was pinned
+    }
+
+    /**
+     * Binds a literal extracted from a SQL statement to a statement parameter.
+     * Vendors override this where binding the value as-is would give the
+     * parameter a different type than the inline literal had.
+     *
+     * @param statement The prepared statement
+     * @param index The 1-based parameter index
+     * @param value The literal value (a String or BigDecimal)
+     * @throws SQLException if the value cannot be bound
+     */
+    default void bindLiteral(PreparedStatement statement, int index, Object value) throws SQLException {
+        statement.setObject(index, value);
+    }
+
+    /**
+     * Quotes an identifier, such as a column label, so that the database
+     * reads it exactly as written. The default uses the double quotes of
+     * standard SQL.
+     *
+     * @param identifier The identifier
+     * @return The quoted identifier
+     */
+    default String quoteIdentifier(String identifier) {
+        return "\"" + identifier.replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * Writes a value read from a result as a SQL literal of this vendor,
+     * for scripts that insert the rows into another database of the same
+     * vendor. The default writes standard SQL literals.
+     *
+     * @param sql The statement being written
+     * @param value The value, null for SQL NULL
+     * @throws SQLException if a LOB value cannot be read
+     */
+    default void appendSqlLiteral(StringBuilder sql, Object value) throws SQLException {
+        SqlLiterals.STANDARD.append(sql, value);
+    }
+
+    /**
+     * Gets the most rows a single INSERT statement of a script may insert.
+     * The default of one row per statement runs on every database.
+     *
+     * @return The most rows of one {@code VALUES} clause
+     */
+    default int getMaxInsertRows() {
+        return 1;
+    }
+
     /**
      * Returns the configuration service used by this vendor.
      */
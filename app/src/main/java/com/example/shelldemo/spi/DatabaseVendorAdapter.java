@@ -1,8 +1,12 @@
 package com.example.shelldemo.spi;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
 import java.util.Properties;
 import com.example.shelldemo.config.ConfigurationService;
+import com.example.shelldemo.sqlhandling.ColumnReader;
 
 /**
  * Adapter class to use DatabaseVendor2 where DatabaseVendor is expected.
@@ -42,6 +46,66 @@ public final class DatabaseVendorAdapter implements DatabaseVendor {
         return adaptee.isPLSQL(sql);
     }
 
+    @Override
+    public ProceduralBlockKeywords proceduralBlockKeywords() {
+        return adaptee.proceduralBlockKeywords();
+    }
+
+    @Override
+    public boolean enableDriverStatementCache(Connection connection, int size) {
+        return adaptee.enableDriverStatementCache(connection, size);
+    }
+
+    @Override
+    public int getStreamingFetchSize() {
+        return adaptee.getStreamingFetchSize();
+    }
+
+    @Override
+    public boolean requiresTransactionForStreaming() {
+        return adaptee.requiresTransactionForStreaming();
+    }
+
+    @Override
+    public ColumnReader columnReader(ResultSetMetaData metaData, int column) throws SQLException {
+        return adaptee.columnReader(metaData, column);
+    }
+
+    @Override
+    public String exportSnapshot(Connection connection) throws SQLException {
+        return adaptee.exportSnapshot(connection);
+    }
+
+    @Override
+    public void importSnapshot(Connection connection, String snapshot) throws SQLException {
+        adaptee.importSnapshot(connection, snapshot);
+    }
+
+    @Override
+    public void releaseSnapshot(Connection connection) throws SQLException {
+        adaptee.releaseSnapshot(connection);
+    }
+
+    @Override
+    public void bindLiteral(PreparedStatement statement, int index, Object value) throws SQLException {
+        adaptee.bindLiteral(statement, index, value);
+    }
+
+    @Override
+    public String quoteIdentifier(String identifier) {
+        return adaptee.quoteIdentifier(identifier);
+    }
+
+    @Override
+    public void appendSqlLiteral(StringBuilder sql, Object value) throws SQLException {
+        adaptee.appendSqlLiteral(sql, value);
+    }
+
+    @Override
+    public int getMaxInsertRows() {
+        return adaptee.getMaxInsertRows();
+    }
+
     @Override
     public int getDefaultPort() {
         return adaptee.getDefaultPort();
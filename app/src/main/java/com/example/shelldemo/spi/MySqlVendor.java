@@ -3,6 +3,7 @@ package com.example.shelldemo.spi;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.List;
 import java.util.Properties;
 import java.util.regex.Pattern;
 
@@ -19,11 +20,24 @@ public final class MySqlVendor implements DatabaseVendor {
     private static final Logger logger = LogManager.getLogger(MySqlVendor.class);
     
     // Pattern to detect MySQL procedural language blocks
-    private static final Pattern PLSQL_PATTERN = Pattern.compile(
-        "^\\s*(?:CREATE\\s+(?:OR\\s+REPLACE\\s+)?(?:PROCEDURE|FUNCTION|TRIGGER|EVENT))",
-        Pattern.CASE_INSENSITIVE
-    );
+    private static final ProceduralBlockKeywords PROCEDURAL_KEYWORDS = new ProceduralBlockKeywords(
+        List.of(), "REPLACE", List.of("PROCEDURE", "FUNCTION", "TRIGGER", "EVENT"));
+    private static final Pattern PLSQL_PATTERN = PROCEDURAL_KEYWORDS.pattern();
     
+    private static final SqlLiterals LITERALS = new SqlLiterals() {
+        @Override
+        void appendString(StringBuilder sql, String text) {
+            // Backslash escapes characters in MySQL strings unless NO_BACKSLASH_ESCAPES is set
+            super.appendString(sql, text.replace("\\", "\\\\"));
+        }
+
+        @Override
+        String offsetSeparator() {
+            // MySQL reads an offset only when it follows the time directly
+            return "";
+        }
+    };
+
     private final ConfigurationService configService;
     
     public MySqlVendor(ConfigurationService configService) {
@@ -69,6 +83,13 @@ public final class MySqlVendor implements DatabaseVendor {
         }
     }
 
+    @Override
+    public int getStreamingFetchSize() {
+        // Connector/J buffers the whole result unless the fetch size is
+        // Integer.MIN_VALUE, which streams it row by row
+        return Integer.MIN_VALUE;
+    }
+
     @Override
     public boolean isPLSQL(String sql) {
         if (sql == null || sql.isEmpty()) {
@@ -76,6 +97,11 @@ public final class MySqlVendor implements DatabaseVendor {
         }
         return PLSQL_PATTERN.matcher(sql.trim()).find();
     }
+
+    @Override
+    public ProceduralBlockKeywords proceduralBlockKeywords() {
+        return PROCEDURAL_KEYWORDS;
+    }
     
     @Override
     public int getDefaultPort() {
@@ -97,6 +123,21 @@ public final class MySqlVendor implements DatabaseVendor {
         return "SELECT 1";
     }
 
+    @Override
+    public String quoteIdentifier(String identifier) {
+        return "`" + identifier.replace("`", "``") + "`";
+    }
+
+    @Override
+    public void appendSqlLiteral(StringBuilder sql, Object value) throws SQLException {
+        LITERALS.append(sql, value);
+    }
+
+    @Override
+    public int getMaxInsertRows() {
+        return Integer.MAX_VALUE;
+    }
+
     @Override
     public ConfigurationService getConfigService() {
         return configService;
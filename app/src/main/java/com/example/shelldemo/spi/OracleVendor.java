@@ -1,15 +1,25 @@
 package com.example.shelldemo.spi;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.sql.Types;
+import java.util.List;
 import java.util.Properties;
 import java.util.regex.Pattern;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OraclePreparedStatement;
+import oracle.jdbc.OracleTypes;
+
 import com.example.shelldemo.config.ConfigurationService;
+import com.example.shelldemo.sqlhandling.ColumnReader;
 
 /**
  * Enhanced Oracle database vendor implementation.
@@ -19,11 +29,33 @@ public final class OracleVendor implements DatabaseVendor {
     private static final Logger logger = LogManager.getLogger(OracleVendor.class);
     
     // Regex pattern to detect PL/SQL blocks
-    private static final Pattern PLSQL_PATTERN = Pattern.compile(
-        "^\\s*(?:DECLARE|BEGIN|CREATE\\s+(?:OR\\s+REPLACE\\s+)?(?:FUNCTION|PROCEDURE|PACKAGE|TRIGGER))",
-        Pattern.CASE_INSENSITIVE
-    );
+    private static final ProceduralBlockKeywords PROCEDURAL_KEYWORDS = new ProceduralBlockKeywords(
+        List.of("DECLARE", "BEGIN"), "REPLACE", List.of("FUNCTION", "PROCEDURE", "PACKAGE", "TRIGGER"));
+    private static final Pattern PLSQL_PATTERN = PROCEDURAL_KEYWORDS.pattern();
     
+    private static final SqlLiterals LITERALS = new SqlLiterals() {
+        @Override
+        void appendBoolean(StringBuilder sql, boolean value) {
+            sql.append(value ? '1' : '0');
+        }
+
+        @Override
+        void appendTime(StringBuilder sql, String text) {
+            // Oracle has no time of day type; the text suits a character column
+            appendString(sql, text);
+        }
+
+        @Override
+        void appendBinary(StringBuilder sql, byte[] bytes) {
+            HEX.formatHex(sql.append("HEXTORAW('"), bytes).append("')");
+        }
+
+        @Override
+        void appendNonFinite(StringBuilder sql, double number) {
+            sql.append(number < 0 ? "-" : "").append("BINARY_DOUBLE_").append(Double.isNaN(number) ? "NAN" : "INFINITY");
+        }
+    };
+
     private final ConfigurationService configService;
     
     public OracleVendor(ConfigurationService configService) {
@@ -81,6 +113,85 @@ public final class OracleVendor implements DatabaseVendor {
         }
     }
 
+    @Override
+    public boolean enableDriverStatementCache(Connection connection, int size) {
+        try {
+            if (!connection.isWrapperFor(OracleConnection.class)) {
+                return false;
+            }
+            OracleConnection oracleConnection = connection.unwrap(OracleConnection.class);
+            oracleConnection.setStatementCacheSize(size);
+            oracleConnection.setImplicitCachingEnabled(true);
+            logger.debug("Oracle implicit statement cache enabled with size {}", size);
+            return true;
+        } catch (SQLException e) {
+            logger.warn("Failed to enable Oracle implicit statement cache", e);
+            return false;
+        }
+    }
+
+    @Override
+    public ColumnReader columnReader(ResultSetMetaData metaData, int column) throws SQLException {
+        return switch (metaData.getColumnType(column)) {
+            // NUMBER(p) with up to 18 digits always fits a long, which spares
+            // the driver decoding every value into a BigDecimal; the values are
+            // Longs where getObject would return BigDecimals, as ColumnReader notes
+            case Types.NUMERIC, Types.DECIMAL -> {
+                int precision = metaData.getPrecision(column);
+                yield metaData.getScale(column) == 0 && precision > 0 && precision <= 18
+                    ? ColumnReader.LONG
+                    : ColumnReader.OBJECT;
+            }
+            case OracleTypes.BINARY_DOUBLE -> ColumnReader.DOUBLE;
+            case OracleTypes.BINARY_FLOAT -> ColumnReader.FLOAT;
+            default -> DatabaseVendor.super.columnReader(metaData, column);
+        };
+    }
+
+    @Override
+    public String exportSnapshot(Connection connection) throws SQLException {
+        // Any session can read as of an SCN through flashback, as long as
+        // undo retains it, so the snapshot is just the number
+        String scn;
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT DBMS_FLASHBACK.GET_SYSTEM_CHANGE_NUMBER FROM DUAL")) {
+            rs.next();
+            scn = Long.toString(rs.getLong(1));
+        }
+        importSnapshot(connection, scn);
+        return scn;
+    }
+
+    @Override
+    public void importSnapshot(Connection connection, String snapshot) throws SQLException {
+        long scn = Long.parseLong(snapshot);
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("BEGIN DBMS_FLASHBACK.ENABLE_AT_SYSTEM_CHANGE_NUMBER(" + scn + "); END;");
+        }
+    }
+
+    @Override
+    public void releaseSnapshot(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("BEGIN DBMS_FLASHBACK.DISABLE; END;");
+        }
+    }
+
+    /**
+     * Binds a string literal as a fixed-length CHAR, which is the type of an
+     * inline literal in Oracle, so that comparisons with CHAR columns stay
+     * blank-padded; a VARCHAR2 parameter would compare without padding and
+     * could match other rows.
+     */
+    @Override
+    public void bindLiteral(PreparedStatement statement, int index, Object value) throws SQLException {
+        if (value instanceof String text && statement.isWrapperFor(OraclePreparedStatement.class)) {
+            statement.unwrap(OraclePreparedStatement.class).setFixedCHAR(index, text);
+        } else {
+            statement.setObject(index, value);
+        }
+    }
+
     @Override
     public boolean isPLSQL(String sql) {
         if (sql == null || sql.isEmpty()) {
@@ -88,6 +199,11 @@ public final class OracleVendor implements DatabaseVendor {
         }
         return PLSQL_PATTERN.matcher(sql.trim()).find();
     }
+
+    @Override
+    public ProceduralBlockKeywords proceduralBlockKeywords() {
+        return PROCEDURAL_KEYWORDS;
+    }
     
     @Override
     public int getDefaultPort() {
@@ -104,6 +220,11 @@ public final class OracleVendor implements DatabaseVendor {
         return "EXPLAIN PLAN FOR " + sql;
     }
 
+    @Override
+    public void appendSqlLiteral(StringBuilder sql, Object value) throws SQLException {
+        LITERALS.append(sql, value);
+    }
+
     @Override
     public ConfigurationService getConfigService() {
         return configService;
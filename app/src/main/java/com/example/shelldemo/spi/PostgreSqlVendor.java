@@ -1,8 +1,12 @@
 package com.example.shelldemo.spi;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.sql.Types;
+import java.util.List;
 import java.util.Properties;
 import java.util.regex.Pattern;
 
@@ -19,11 +23,17 @@ public final class PostgreSqlVendor implements DatabaseVendor {
     private static final Logger logger = LogManager.getLogger(PostgreSqlVendor.class);
     
     // Pattern to detect PostgreSQL procedural language blocks (PL/pgSQL)
-    private static final Pattern PLPGSQL_PATTERN = Pattern.compile(
-        "^\\s*(?:DO|CREATE\\s+(?:OR\\s+REPLACE\\s+)?(?:FUNCTION|PROCEDURE|TRIGGER))",
-        Pattern.CASE_INSENSITIVE
-    );
+    private static final ProceduralBlockKeywords PROCEDURAL_KEYWORDS = new ProceduralBlockKeywords(
+        List.of("DO"), "REPLACE", List.of("FUNCTION", "PROCEDURE", "TRIGGER"));
+    private static final Pattern PLPGSQL_PATTERN = PROCEDURAL_KEYWORDS.pattern();
     
+    private static final SqlLiterals LITERALS = new SqlLiterals() {
+        @Override
+        void appendBinary(StringBuilder sql, byte[] bytes) {
+            HEX.formatHex(sql.append("'\\x"), bytes).append('\'');
+        }
+    };
+
     private final ConfigurationService configService;
     
     public PostgreSqlVendor(ConfigurationService configService) {
@@ -68,6 +78,59 @@ public final class PostgreSqlVendor implements DatabaseVendor {
         }
     }
 
+    @Override
+    public boolean enableDriverStatementCache(Connection connection, int size) {
+        // pgjdbc always keeps a per-connection cache of server-prepared statements
+        // (preparedStatementCacheQueries), so closed statements are already reused
+        return true;
+    }
+
+    @Override
+    public boolean requiresTransactionForStreaming() {
+        // pgjdbc only uses a server-side cursor when auto-commit is off
+        return true;
+    }
+
+    @Override
+    public String exportSnapshot(Connection connection) throws SQLException {
+        // The snapshot lives as long as the exporting transaction
+        connection.setAutoCommit(false);
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("SET TRANSACTION ISOLATION LEVEL REPEATABLE READ");
+            try (ResultSet rs = stmt.executeQuery("SELECT pg_export_snapshot()")) {
+                rs.next();
+                return rs.getString(1);
+            }
+        }
+    }
+
+    @Override
+    public void importSnapshot(Connection connection, String snapshot) throws SQLException {
+        if (!snapshot.matches("[0-9A-Fa-f-]+")) {
+            throw new SQLException("Not a PostgreSQL snapshot id: " + snapshot);
+        }
+        connection.setAutoCommit(false);
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("SET TRANSACTION ISOLATION LEVEL REPEATABLE READ");
+            stmt.execute("SET TRANSACTION SNAPSHOT '" + snapshot + "'");
+        }
+    }
+
+    @Override
+    public void releaseSnapshot(Connection connection) throws SQLException {
+        connection.rollback();
+        connection.setAutoCommit(true);
+    }
+
+    /**
+     * Binds the literal text untyped, so that the server infers its type from
+     * the context exactly as it would for the inline literal.
+     */
+    @Override
+    public void bindLiteral(PreparedStatement statement, int index, Object value) throws SQLException {
+        statement.setObject(index, value.toString(), Types.OTHER);
+    }
+
     @Override
     public boolean isPLSQL(String sql) {
         if (sql == null || sql.isEmpty()) {
@@ -75,6 +138,11 @@ public final class PostgreSqlVendor implements DatabaseVendor {
         }
         return PLPGSQL_PATTERN.matcher(sql.trim()).find();
     }
+
+    @Override
+    public ProceduralBlockKeywords proceduralBlockKeywords() {
+        return PROCEDURAL_KEYWORDS;
+    }
     
     @Override
     public int getDefaultPort() {
@@ -91,6 +159,16 @@ public final class PostgreSqlVendor implements DatabaseVendor {
         return "EXPLAIN (ANALYZE false, COSTS true, FORMAT TEXT) " + sql;
     }
 
+    @Override
+    public void appendSqlLiteral(StringBuilder sql, Object value) throws SQLException {
+        LITERALS.append(sql, value);
+    }
+
+    @Override
+    public int getMaxInsertRows() {
+        return Integer.MAX_VALUE;
+    }
+
     @Override
     public ConfigurationService getConfigService() {
         return configService;
@@ -0,0 +1,39 @@
+package com.example.shelldemo.spi;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * The leading keywords that start a procedural block of a vendor: a block
+ * keyword such as {@code BEGIN}, or {@code CREATE}, optionally followed by
+ * {@code OR} and the modifier, then one of the objects whose body is
+ * procedural code. Keywords are upper case and match as prefixes, ignoring
+ * ASCII case.
+ *
+ * @param blockKeywords Keywords that start a block by themselves
+ * @param createModifier The keyword after {@code CREATE OR}, such as {@code REPLACE}
+ * @param createObjects Objects whose {@code CREATE} statement holds procedural code
+ */
+public record ProceduralBlockKeywords(List<String> blockKeywords, String createModifier, List<String> createObjects) {
+
+    public ProceduralBlockKeywords {
+        blockKeywords = List.copyOf(blockKeywords);
+        createObjects = List.copyOf(createObjects);
+    }
+
+    /**
+     * Builds the pattern finding these keywords at the start of a statement,
+     * for {@link DatabaseVendor#isPLSQL}.
+     *
+     * @return The case-insensitive pattern
+     */
+    Pattern pattern() {
+        StringBuilder regex = new StringBuilder("^\\s*(?:");
+        for (String keyword : blockKeywords) {
+            regex.append(keyword).append('|');
+        }
+        regex.append("CREATE\\s+(?:OR\\s+").append(createModifier).append("\\s+)?(?:")
+            .append(String.join("|", createObjects)).append("))");
+        return Pattern.compile(regex.toString(), Pattern.CASE_INSENSITIVE);
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.shelldemo.spi;
+
+import java.math.BigDecimal;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.temporal.ChronoField;
+import java.util.HexFormat;
+
+/**
+ * Writes values as SQL literals, for {@link DatabaseVendor#appendSqlLiteral}.
+ * The methods write standard SQL; a vendor whose dialect differs keeps a
+ * subclass that overrides the kinds of values it writes differently.
+ */
+class SqlLiterals {
+    /** Literals of standard SQL */
+    static final SqlLiterals STANDARD = new SqlLiterals();
+
+    static final DateTimeFormatter TIME = new DateTimeFormatterBuilder()
+        .appendPattern("HH:mm:ss")
+        .appendFraction(ChronoField.NANO_OF_SECOND, 0, 9, true)
+        .toFormatter();
+    static final DateTimeFormatter TIMESTAMP = new DateTimeFormatterBuilder()
+        .append(DateTimeFormatter.ISO_LOCAL_DATE)
+        .appendLiteral(' ')
+        .append(TIME)
+        .toFormatter();
+    static final HexFormat HEX = HexFormat.of().withUpperCase();
+
+    /**
+     * @param sql The statement being written
+     * @param value The value, as read by JDBC or one of its {@code java.time} counterparts
+     * @throws SQLException if a LOB cannot be read
+     */
+    final void append(StringBuilder sql, Object value) throws SQLException {
+        switch (value) {
+            case null -> sql.append("NULL");
+            case Boolean bool -> appendBoolean(sql, bool);
+            case BigDecimal decimal -> sql.append(decimal.toPlainString());
+            case Double number when number.isNaN() || number.isInfinite() -> appendNonFinite(sql, number);
+            case Float number when number.isNaN() || number.isInfinite() -> appendNonFinite(sql, number.doubleValue());
+            case Number number -> sql.append(number);
+            case java.sql.Timestamp timestamp -> appendTemporal(sql, "TIMESTAMP", TIMESTAMP.format(timestamp.toLocalDateTime()));
+            case java.sql.Date date -> appendTemporal(sql, "DATE", date.toLocalDate().toString());
+            case java.sql.Time time -> appendTime(sql, TIME.format(time.toLocalTime()));
+            case LocalDateTime dateTime -> appendTemporal(sql, "TIMESTAMP", TIMESTAMP.format(dateTime));
+            case LocalDate date -> appendTemporal(sql, "DATE", date.toString());
+            case LocalTime time -> appendTime(sql, TIME.format(time));
+            case OffsetDateTime dateTime -> appendTemporal(sql, "TIMESTAMP", TIMESTAMP.format(dateTime)
+                + offsetSeparator() + dateTime.getOffset().getId().replace("Z", "+00:00"));
+            case byte[] bytes -> appendBinary(sql, bytes);
+            case Blob blob -> appendBinary(sql, blob.getBytes(1, (int) blob.length()));
+            case Clob clob -> appendString(sql, clob.getSubString(1, (int) clob.length()));
+            default -> appendString(sql, value.toString());
+        }
+    }
+
+    void appendBoolean(StringBuilder sql, boolean value) {
+        sql.append(value ? "TRUE" : "FALSE");
+    }
+
+    void appendString(StringBuilder sql, String text) {
+        sql.append('\'');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\'') {
+                sql.append(c);
+            }
+            sql.append(c);
+        }
+        sql.append('\'');
+    }
+
+    /**
+     * @param keyword The type of the literal, {@code DATE} or {@code TIMESTAMP}
+     * @param text The value in ISO format, with a space between date and time
+     */
+    void appendTemporal(StringBuilder sql, String keyword, String text) {
+        sql.append(keyword).append(" '").append(text).append('\'');
+    }
+
+    /** The text between the time and the offset of a timestamp with time zone */
+    String offsetSeparator() {
+        return " ";
+    }
+
+    void appendTime(StringBuilder sql, String text) {
+        sql.append("TIME '").append(text).append('\'');
+    }
+
+    void appendBinary(StringBuilder sql, byte[] bytes) {
+        HEX.formatHex(sql.append("X'"), bytes).append('\'');
+    }
+
+    /**
+     * Writes NaN or an infinity, which standard SQL has no literal for, as
+     * text for the database to convert or reject.
+     */
+    void appendNonFinite(StringBuilder sql, double number) {
+        appendString(sql, Double.toString(number));
+    }
+}
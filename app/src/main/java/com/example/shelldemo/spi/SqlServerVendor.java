@@ -3,6 +3,7 @@ package com.example.shelldemo.spi;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.List;
 import java.util.Properties;
 import java.util.regex.Pattern;
 
@@ -19,11 +20,39 @@ public final class SqlServerVendor implements DatabaseVendor {
     private static final Logger logger = LogManager.getLogger(SqlServerVendor.class);
     
     // Pattern to detect T-SQL procedural blocks
-    private static final Pattern PLSQL_PATTERN = Pattern.compile(
-        "^\\s*(?:CREATE\\s+(?:OR\\s+ALTER\\s+)?(?:PROCEDURE|FUNCTION|TRIGGER|VIEW))",
-        Pattern.CASE_INSENSITIVE
-    );
+    private static final ProceduralBlockKeywords PROCEDURAL_KEYWORDS = new ProceduralBlockKeywords(
+        List.of(), "ALTER", List.of("PROCEDURE", "FUNCTION", "TRIGGER", "VIEW"));
+    private static final Pattern PLSQL_PATTERN = PROCEDURAL_KEYWORDS.pattern();
     
+    private static final SqlLiterals LITERALS = new SqlLiterals() {
+        @Override
+        void appendBoolean(StringBuilder sql, boolean value) {
+            sql.append(value ? '1' : '0');
+        }
+
+        @Override
+        void appendString(StringBuilder sql, String text) {
+            // Keeps characters outside the database's code page
+            super.appendString(sql.append('N'), text);
+        }
+
+        @Override
+        void appendTemporal(StringBuilder sql, String keyword, String text) {
+            // SQL Server has no typed literals but converts ISO text on insert
+            sql.append('\'').append(text).append('\'');
+        }
+
+        @Override
+        void appendTime(StringBuilder sql, String text) {
+            sql.append('\'').append(text).append('\'');
+        }
+
+        @Override
+        void appendBinary(StringBuilder sql, byte[] bytes) {
+            HEX.formatHex(sql.append("0x"), bytes);
+        }
+    };
+
     private final ConfigurationService configService;
     
     public SqlServerVendor(ConfigurationService configService) {
@@ -77,6 +106,11 @@ public final class SqlServerVendor implements DatabaseVendor {
         }
         return PLSQL_PATTERN.matcher(sql.trim()).find();
     }
+
+    @Override
+    public ProceduralBlockKeywords proceduralBlockKeywords() {
+        return PROCEDURAL_KEYWORDS;
+    }
     
     @Override
     public int getDefaultPort() {
@@ -98,6 +132,22 @@ public final class SqlServerVendor implements DatabaseVendor {
         return "SELECT 1 as test";
     }
 
+    @Override
+    public String quoteIdentifier(String identifier) {
+        return "[" + identifier.replace("]", "]]") + "]";
+    }
+
+    @Override
+    public void appendSqlLiteral(StringBuilder sql, Object value) throws SQLException {
+        LITERALS.append(sql, value);
+    }
+
+    @Override
+    public int getMaxInsertRows() {
+        // The most rows of a table value constructor
+        return 1000;
+    }
+
     @Override
     public ConfigurationService getConfigService() {
         return configService;
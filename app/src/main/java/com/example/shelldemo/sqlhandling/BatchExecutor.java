@@ -1,6 +1,8 @@
 package com.example.shelldemo.sqlhandling;
 
+import java.sql.BatchUpdateException;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.List;
@@ -8,12 +10,27 @@ import java.util.Arrays;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.LogManager;
 
+import com.example.shelldemo.context.StatementCache;
+import com.example.shelldemo.spi.DatabaseVendor;
+
 public class BatchExecutor {
     private static final Logger logger = LogManager.getLogger(BatchExecutor.class);
     private final Connection connection;
+    private final StatementCache statementCache;
     
     public BatchExecutor(Connection connection) {
+        this(connection, null);
+    }
+    
+    /**
+     * Creates a batch executor that borrows prepared statements from a statement cache.
+     *
+     * @param connection The database connection
+     * @param statementCache The statement cache of the connection, or null to prepare every batch
+     */
+    public BatchExecutor(Connection connection, StatementCache statementCache) {
         this.connection = connection;
+        this.statementCache = statementCache;
     }
     
     public int executeBatch(List<String> statements, boolean printStatements) throws SQLException {
@@ -34,4 +51,93 @@ public class BatchExecutor {
             return statements.size();
         }
     }
-}
\ No newline at end of file
+    
+    /**
+     * Executes the statements as a single JDBC batch.
+     *
+     * @param statements The statements to execute, in order
+     * @return The update count of each statement, or {@link Statement#SUCCESS_NO_INFO}
+     * @throws BatchUpdateException if a statement in the batch fails
+     * @throws SQLException if the batch cannot be executed
+     */
+    public int[] executeUpdateBatch(List<String> statements) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            for (String sql : statements) {
+                stmt.addBatch(sql);
+            }
+            int[] counts = stmt.executeBatch();
+            logger.debug("Executed batch of {} statements", statements.size());
+            return counts;
+        }
+    }
+    
+    /**
+     * Executes one statement shape as a single prepared statement, adding one
+     * parameter set per row to the batch.
+     *
+     * @param sql The statement with bind parameters
+     * @param rows The parameter values of each execution, in order
+     * @param vendor The database vendor, used to bind the values
+     * @return The update count of each row, or {@link Statement#SUCCESS_NO_INFO}
+     * @throws BatchUpdateException if a row in the batch fails
+     * @throws SQLException if the batch cannot be executed
+     */
+    public int[] executePreparedBatch(String sql, List<List<Object>> rows, DatabaseVendor vendor) throws SQLException {
+        if (statementCache == null) {
+            try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                return executePreparedBatch(stmt, sql, rows, vendor);
+            }
+        }
+        try (StatementCache.Lease lease = statementCache.borrow(sql)) {
+            return executePreparedBatch(lease.statement(), sql, rows, vendor);
+        }
+    }
+    
+    private static int[] executePreparedBatch(PreparedStatement stmt, String sql, List<List<Object>> rows,
+            DatabaseVendor vendor) throws SQLException {
+        for (List<Object> row : rows) {
+            for (int i = 0; i < row.size(); i++) {
+                vendor.bindLiteral(stmt, i + 1, row.get(i));
+            }
+            stmt.addBatch();
+        }
+        int[] counts = stmt.executeBatch();
+        logger.debug("Executed prepared batch of {} rows: {}", rows.size(), sql);
+        return counts;
+    }
+    
+    /**
+     * Determines which statement caused a batch to fail. Drivers either stop at
+     * the failing statement and report counts for the statements before it, or
+     * run the whole batch and mark failures with {@link Statement#EXECUTE_FAILED}.
+     *
+     * @param e The batch failure
+     * @param batchSize The number of statements in the batch
+     * @return The index of the first failed statement, or -1 if the driver does not tell
+     */
+    public static int failedIndex(BatchUpdateException e, int batchSize) {
+        int[] counts = e.getUpdateCounts();
+        if (counts == null) {
+            return -1;
+        }
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == Statement.EXECUTE_FAILED) {
+                return i;
+            }
+        }
+        return counts.length < batchSize ? counts.length : -1;
+    }
+    
+    /**
+     * Whether the driver ran every statement of a failed batch, so that the
+     * update counts cover the whole batch.
+     *
+     * @param e The batch failure
+     * @param batchSize The number of statements in the batch
+     * @return true if the update counts cover every statement
+     */
+    public static boolean ranWholeBatch(BatchUpdateException e, int batchSize) {
+        int[] counts = e.getUpdateCounts();
+        return counts != null && counts.length >= batchSize;
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.shelldemo.sqlhandling;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The columns of a result, built once per {@link java.sql.ResultSet} and
+ * shared by all of its {@link Row}s, so that a row holds only its values.
+ * <p>
+ * As a map, a row has one key per distinct label; a label used by several
+ * columns maps to the value of the last of them, as when the values are put
+ * into a map in column order.
+ */
+public final class ColumnHeader {
+    private final List<String> labels;
+    private final List<ColumnType> types;
+    private final List<String> keys;
+    private final int[] keyColumns;
+    private final Map<String, Integer> columnsByLabel;
+
+    private ColumnHeader(List<String> labels, List<ColumnType> types) {
+        this.labels = List.copyOf(labels);
+        this.types = List.copyOf(types);
+        this.columnsByLabel = new HashMap<>(labels.size() * 2);
+        List<String> distinct = new ArrayList<>(labels.size());
+        for (int column = 0; column < labels.size(); column++) {
+            if (columnsByLabel.put(labels.get(column), column) == null) {
+                distinct.add(labels.get(column));
+            }
+        }
+        this.keys = List.copyOf(distinct);
+        this.keyColumns = new int[keys.size()];
+        for (int key = 0; key < keyColumns.length; key++) {
+            keyColumns[key] = columnsByLabel.get(keys.get(key));
+        }
+    }
+
+    /**
+     * Creates a header from column labels.
+     *
+     * @param labels The column labels in column order
+     * @return The header
+     */
+    public static ColumnHeader of(List<String> labels) {
+        return new ColumnHeader(labels, Collections.nCopies(labels.size(), ColumnType.UNKNOWN));
+    }
+
+    /**
+     * Creates a header from column labels and types.
+     *
+     * @param labels The column labels in column order
+     * @param types The types of the columns in column order
+     * @return The header
+     */
+    public static ColumnHeader of(List<String> labels, List<ColumnType> types) {
+        if (labels.size() != types.size()) {
+            throw new IllegalArgumentException("Expected " + labels.size() + " types but got " + types.size());
+        }
+        return new ColumnHeader(labels, types);
+    }
+
+    /**
+     * Creates a header from result set metadata, labelling a column without a
+     * label by its name.
+     *
+     * @param metaData The metadata of the result
+     * @return The header
+     * @throws SQLException if the metadata cannot be read
+     */
+    public static ColumnHeader of(ResultSetMetaData metaData) throws SQLException {
+        ColumnReader[] readers = new ColumnReader[metaData.getColumnCount()];
+        for (int column = 1; column <= readers.length; column++) {
+            readers[column - 1] = ColumnReader.forColumn(metaData, column);
+        }
+        return of(metaData, readers);
+    }
+
+    /**
+     * Creates a header from result set metadata and the readers picked for
+     * its columns.
+     */
+    static ColumnHeader of(ResultSetMetaData metaData, ColumnReader[] readers) throws SQLException {
+        int columnCount = metaData.getColumnCount();
+        List<String> labels = new ArrayList<>(columnCount);
+        List<ColumnType> types = new ArrayList<>(columnCount);
+        for (int i = 1; i <= columnCount; i++) {
+            String columnName = metaData.getColumnLabel(i);
+            if (columnName == null || columnName.isEmpty()) {
+                columnName = metaData.getColumnName(i);
+            }
+            labels.add(columnName);
+            types.add(new ColumnType(metaData.getColumnType(i), metaData.getPrecision(i), metaData.getScale(i),
+                readers[i - 1]));
+        }
+        return new ColumnHeader(labels, types);
+    }
+
+    /**
+     * @return The column labels in column order, including repeated labels
+     */
+    public List<String> labels() {
+        return labels;
+    }
+
+    /**
+     * The type of a column.
+     *
+     * @param column The zero-based column
+     * @return The type, {@link ColumnType#UNKNOWN} for a header of labels only
+     */
+    public ColumnType type(int column) {
+        return types.get(column);
+    }
+
+    /**
+     * @return The number of columns
+     */
+    public int columnCount() {
+        return labels.size();
+    }
+
+    /**
+     * @return The distinct labels in order of first use: the keys of a row
+     */
+    public List<String> keys() {
+        return keys;
+    }
+
+    /**
+     * The column a key of a row reads its value from.
+     *
+     * @param key Position of the key in {@link #keys()}
+     * @return The zero-based column
+     */
+    int keyColumn(int key) {
+        return keyColumns[key];
+    }
+
+    /**
+     * The column a label reads its value from.
+     *
+     * @param label A column label
+     * @return The zero-based column, or -1 if no column has the label
+     */
+    public int indexOf(Object label) {
+        Integer column = columnsByLabel.get(label);
+        return column != null ? column : -1;
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.shelldemo.sqlhandling;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+
+/**
+ * Reads the value of one column of the current row with the getter that
+ * matches the column's type, instead of the driver's generic
+ * {@code getObject}. The readers return values of the class {@code getObject}
+ * returns for the type, so a result reads the same either way.
+ * <p>
+ * The one deliberate exception is a vendor reading a column with a cheaper
+ * reader of another class because every value fits it: Oracle reads
+ * {@code NUMBER(p)} and {@code NUMBER(p,0)} with up to 18 digits as
+ * {@code Long} rather than {@code BigDecimal}. The values are equal as
+ * numbers, but callers must not rely on the class of a NUMBER value.
+ * <p>
+ * The readers are constants dispatched by one switch rather than one class
+ * each, so that reading a row stays a single call site the JIT can inline.
+ */
+public enum ColumnReader {
+    /** Reads any column through {@link ResultSet#getObject(int)}. */
+    OBJECT,
+    /** Reads a character column as a {@code String}. */
+    STRING,
+    /** Reads a binary column as a {@code byte[]}. */
+    BYTES,
+    /** Reads an integral column as a {@code Long}. */
+    LONG,
+    /** Reads an integral column as an {@code Integer}. */
+    INT,
+    /** Reads a floating-point column as a {@code Double}. */
+    DOUBLE,
+    /** Reads a single-precision column as a {@code Float}. */
+    FLOAT,
+    /** Reads a boolean column as a {@code Boolean}. */
+    BOOLEAN;
+
+    /**
+     * Reads the value of a column of the current row. A getter returning a
+     * primitive returns 0 or false for SQL NULL, so {@code wasNull} is only
+     * asked then.
+     *
+     * @param rs ResultSet positioned on the row to read
+     * @param column The 1-based column
+     * @return The value, null for SQL NULL
+     * @throws SQLException if database access error occurs
+     */
+    public Object read(ResultSet rs, int column) throws SQLException {
+        switch (this) {
+            case STRING:
+                return rs.getString(column);
+            case BYTES:
+                return rs.getBytes(column);
+            case LONG: {
+                long value = rs.getLong(column);
+                return value == 0 && rs.wasNull() ? null : value;
+            }
+            case INT: {
+                int value = rs.getInt(column);
+                return value == 0 && rs.wasNull() ? null : value;
+            }
+            case DOUBLE: {
+                double value = rs.getDouble(column);
+                return value == 0 && rs.wasNull() ? null : value;
+            }
+            case FLOAT: {
+                float value = rs.getFloat(column);
+                return value == 0 && rs.wasNull() ? null : value;
+            }
+            case BOOLEAN: {
+                boolean value = rs.getBoolean(column);
+                return !value && rs.wasNull() ? null : value;
+            }
+            default:
+                return rs.getObject(column);
+        }
+    }
+
+    /**
+     * Picks the reader for a column from its JDBC type, following the
+     * type-to-class mapping of the JDBC specification. Unsigned integral
+     * columns, which a driver returns in the next wider class, and types
+     * without a getter of their own are read through {@code getObject}.
+     *
+     * @param metaData The metadata of the result
+     * @param column The 1-based column
+     * @return The reader for the column
+     * @throws SQLException if the metadata cannot be read
+     */
+    public static ColumnReader forColumn(ResultSetMetaData metaData, int column) throws SQLException {
+        return switch (metaData.getColumnType(column)) {
+            case Types.TINYINT, Types.SMALLINT, Types.INTEGER ->
+                metaData.isSigned(column) ? INT : OBJECT;
+            case Types.BIGINT -> metaData.isSigned(column) ? LONG : OBJECT;
+            case Types.FLOAT, Types.DOUBLE -> DOUBLE;
+            case Types.REAL -> FLOAT;
+            case Types.BOOLEAN -> BOOLEAN;
+            // BIT(n) with n > 1 is a bit string, returned as bytes
+            case Types.BIT -> metaData.getPrecision(column) <= 1 ? BOOLEAN : OBJECT;
+            case Types.CHAR, Types.VARCHAR, Types.LONGVARCHAR,
+                 Types.NCHAR, Types.NVARCHAR, Types.LONGNVARCHAR -> STRING;
+            case Types.BINARY, Types.VARBINARY, Types.LONGVARBINARY -> BYTES;
+            default -> OBJECT;
+        };
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.shelldemo.sqlhandling;
+
+import java.sql.Types;
+
+/**
+ * The type of a column of a result as the database reports it, with the
+ * reader its values are read with, so that a handler writing a typed format
+ * knows what class of values to expect before the first row.
+ *
+ * @param sqlType The JDBC type, from {@link Types} or a vendor's extension of it
+ * @param precision The precision, 0 if unknown
+ * @param scale The scale, 0 if unknown
+ * @param reader The reader of the column's values
+ */
+public record ColumnType(int sqlType, int precision, int scale, ColumnReader reader) {
+
+    /** The type of a column known only by its label */
+    public static final ColumnType UNKNOWN = new ColumnType(Types.OTHER, 0, 0, ColumnReader.OBJECT);
+}
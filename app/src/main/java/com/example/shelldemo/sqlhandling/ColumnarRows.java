@@ -0,0 +1,305 @@
+package com.example.shelldemo.sqlhandling;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * The rows of a result stored column by column: integral and floating-point
+ * columns in {@code long[]} and {@code double[]} arrays with a null bitmap,
+ * other columns in an {@code Object[]}. A row costs a few bytes per column
+ * instead of a map with an entry and a boxed value per column.
+ * <p>
+ * A column takes its storage from its first non-null value and keeps
+ * returning values of that class, so an {@code Integer} column reads back as
+ * {@code Integer}s. A later value of another class moves the column to an
+ * {@code Object[]}.
+ * <p>
+ * As a list, each element is a {@link Row} view over one row, created on
+ * access; the list itself is read-only to callers and grows through
+ * {@link #add(Object[])}.
+ */
+public final class ColumnarRows extends AbstractList<Map<String, Object>> implements RandomAccess {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final ColumnHeader header;
+    private final Column[] columns;
+    private int size;
+    private int capacity = INITIAL_CAPACITY;
+
+    /**
+     * @param header The columns of the rows
+     */
+    public ColumnarRows(ColumnHeader header) {
+        this.header = header;
+        this.columns = new Column[header.columnCount()];
+        Arrays.fill(columns, UntypedColumn.INSTANCE);
+    }
+
+    /**
+     * @return The columns of the rows
+     */
+    public ColumnHeader header() {
+        return header;
+    }
+
+    /**
+     * Appends a row. The values are copied, so the array may be reused.
+     *
+     * @param values The values in column order
+     */
+    public void add(Object[] values) {
+        if (values.length != columns.length) {
+            throw new IllegalArgumentException("Expected " + columns.length + " values but got " + values.length);
+        }
+        if (size == capacity) {
+            capacity = Math.max(INITIAL_CAPACITY, capacity + (capacity >> 1));
+            for (int column = 0; column < columns.length; column++) {
+                columns[column] = columns[column].grow(capacity);
+            }
+        }
+        for (int column = 0; column < columns.length; column++) {
+            columns[column] = columns[column].set(size, values[column], capacity);
+        }
+        size++;
+        modCount++;
+    }
+
+    /**
+     * The value of a cell.
+     *
+     * @param row The zero-based row
+     * @param column The zero-based column
+     * @return The value, null for SQL NULL
+     */
+    public Object value(int row, int column) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " of " + size);
+        }
+        return columns[column].get(row);
+    }
+
+    @Override
+    public Row get(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " of " + size);
+        }
+        return new Row(header) {
+            @Override
+            public Object value(int column) {
+                return columns[column].get(row);
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Storage of one column. Setting a value the storage cannot hold returns
+     * a storage that can, holding the values so far.
+     */
+    private abstract static class Column {
+        abstract Object get(int row);
+
+        abstract Column set(int row, Object value, int capacity);
+
+        abstract Column grow(int capacity);
+
+        void markNull(int rows) {
+            // Unset values read as null
+        }
+    }
+
+    /**
+     * A column of which only nulls have been seen so far.
+     */
+    private static final class UntypedColumn extends Column {
+        static final UntypedColumn INSTANCE = new UntypedColumn();
+
+        @Override
+        Object get(int row) {
+            return null;
+        }
+
+        @Override
+        Column set(int row, Object value, int capacity) {
+            if (value == null) {
+                return this;
+            }
+            Column typed = switch (value) {
+                case Long l -> new LongColumn(Long.class, capacity);
+                case Integer i -> new LongColumn(Integer.class, capacity);
+                case Short s -> new LongColumn(Short.class, capacity);
+                case Byte b -> new LongColumn(Byte.class, capacity);
+                case Double d -> new DoubleColumn(Double.class, capacity);
+                case Float f -> new DoubleColumn(Float.class, capacity);
+                default -> new ObjectColumn(capacity);
+            };
+            typed.markNull(row);
+            return typed.set(row, value, capacity);
+        }
+
+        @Override
+        Column grow(int capacity) {
+            return this;
+        }
+    }
+
+    /**
+     * Null bitmap shared by the primitive columns.
+     */
+    private abstract static class PrimitiveColumn extends Column {
+        protected long[] nulls;
+
+        PrimitiveColumn(int capacity) {
+            this.nulls = new long[(capacity + 63) >>> 6];
+        }
+
+        final boolean isNull(int row) {
+            return (nulls[row >>> 6] & (1L << row)) != 0;
+        }
+
+        final void setNull(int row, boolean isNull) {
+            if (isNull) {
+                nulls[row >>> 6] |= 1L << row;
+            } else {
+                nulls[row >>> 6] &= ~(1L << row);
+            }
+        }
+
+        final void growNulls(int capacity) {
+            nulls = Arrays.copyOf(nulls, (capacity + 63) >>> 6);
+        }
+
+        @Override
+        final void markNull(int rows) {
+            for (int row = 0; row < rows; row++) {
+                setNull(row, true);
+            }
+        }
+
+        final Column toObjects(int rows, int capacity) {
+            ObjectColumn objects = new ObjectColumn(capacity);
+            for (int row = 0; row < rows; row++) {
+                objects.values[row] = get(row);
+            }
+            return objects;
+        }
+    }
+
+    private static final class LongColumn extends PrimitiveColumn {
+        private final Class<?> type;
+        private long[] values;
+
+        LongColumn(Class<?> type, int capacity) {
+            super(capacity);
+            this.type = type;
+            this.values = new long[capacity];
+        }
+
+        @Override
+        Object get(int row) {
+            if (isNull(row)) {
+                return null;
+            }
+            long value = values[row];
+            if (type == Integer.class) {
+                return (int) value;
+            }
+            if (type == Long.class) {
+                return value;
+            }
+            return type == Short.class ? (Object) (short) value : (Object) (byte) value;
+        }
+
+        @Override
+        Column set(int row, Object value, int capacity) {
+            if (value == null) {
+                setNull(row, true);
+                return this;
+            }
+            if (value.getClass() != type) {
+                return toObjects(row, capacity).set(row, value, capacity);
+            }
+            values[row] = ((Number) value).longValue();
+            setNull(row, false);
+            return this;
+        }
+
+        @Override
+        Column grow(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+            growNulls(capacity);
+            return this;
+        }
+    }
+
+    private static final class DoubleColumn extends PrimitiveColumn {
+        private final Class<?> type;
+        private double[] values;
+
+        DoubleColumn(Class<?> type, int capacity) {
+            super(capacity);
+            this.type = type;
+            this.values = new double[capacity];
+        }
+
+        @Override
+        Object get(int row) {
+            if (isNull(row)) {
+                return null;
+            }
+            return type == Float.class ? (Object) (float) values[row] : (Object) values[row];
+        }
+
+        @Override
+        Column set(int row, Object value, int capacity) {
+            if (value == null) {
+                setNull(row, true);
+                return this;
+            }
+            if (value.getClass() != type) {
+                return toObjects(row, capacity).set(row, value, capacity);
+            }
+            values[row] = ((Number) value).doubleValue();
+            setNull(row, false);
+            return this;
+        }
+
+        @Override
+        Column grow(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+            growNulls(capacity);
+            return this;
+        }
+    }
+
+    private static final class ObjectColumn extends Column {
+        private Object[] values;
+
+        ObjectColumn(int capacity) {
+            this.values = new Object[capacity];
+        }
+
+        @Override
+        Object get(int row) {
+            return values[row];
+        }
+
+        @Override
+        Column set(int row, Object value, int capacity) {
+            values[row] = value;
+            return this;
+        }
+
+        @Override
+        Column grow(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+            return this;
+        }
+    }
+}
@@ -2,7 +2,6 @@ package com.example.shelldemo.sqlhandling;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -35,15 +34,8 @@ public class MapResultProcessor implements ResultProcessor<List<Map<String, Obje
     
     @Override
     public List<Map<String, Object>> process(ResultSet rs) throws SQLException {
-        List<Map<String, Object>> results = new ArrayList<>();
-        int rowCount = 0;
-        
-        while (rs.next()) {
-            results.add(mapper.mapRow(rs));
-            rowCount++;
-        }
-        
-        logger.debug("Processed {} rows from ResultSet", rowCount);
+        List<Map<String, Object>> results = mapper.mapRows(rs);
+        logger.debug("Processed {} rows from ResultSet", results.size());
         return results;
     }
 }
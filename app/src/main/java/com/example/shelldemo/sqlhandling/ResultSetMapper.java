@@ -1,38 +1,73 @@
 package com.example.shelldemo.sqlhandling;
 
 import java.sql.ResultSet;
-import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
-import java.util.LinkedHashMap;
-import java.util.Map;
+
+import com.example.shelldemo.spi.DatabaseVendor;
 
 /**
- * Utility class to map ResultSet rows to Map objects.
+ * Utility class to map ResultSet rows to {@link Row}s, which read as Maps
+ * from column label to value. Values are read by a {@link RowReader}
+ * compiled from the metadata of the result.
  */
 public class ResultSetMapper {
-    
+    private final DatabaseVendor vendor;
+
+    /**
+     * Creates a mapper that reads columns by their JDBC type.
+     */
+    public ResultSetMapper() {
+        this(null);
+    }
+
+    /**
+     * Creates a mapper that reads columns with a vendor's column readers.
+     *
+     * @param vendor The vendor, or null for the readers of the JDBC type mapping
+     */
+    public ResultSetMapper(DatabaseVendor vendor) {
+        this.vendor = vendor;
+    }
+
     /**
-     * Maps the current row of a ResultSet to a Map.
+     * Maps the current row of a ResultSet to a Row.
      * Note: This method does not call rs.next() - it maps the current row.
-     * 
+     *
      * @param rs ResultSet positioned on the row to map
-     * @return Map containing column name/value pairs
+     * @return Row containing column name/value pairs
      * @throws SQLException if database access error occurs
      */
-    public Map<String, Object> mapRow(ResultSet rs) throws SQLException {
-        ResultSetMetaData metaData = rs.getMetaData();
-        int columnCount = metaData.getColumnCount();
-        Map<String, Object> row = new LinkedHashMap<>();
-        
-        for (int i = 1; i <= columnCount; i++) {
-            String columnName = metaData.getColumnLabel(i);
-            if (columnName == null || columnName.isEmpty()) {
-                columnName = metaData.getColumnName(i);
-            }
-            Object value = rs.getObject(i);
-            row.put(columnName, value);
+    public Row mapRow(ResultSet rs) throws SQLException {
+        RowReader reader = compile(rs);
+        return Row.of(reader.header(), reader.read(rs, new Object[reader.header().columnCount()]));
+    }
+
+    /**
+     * Maps the remaining rows of a ResultSet to column-wise storage, reading
+     * the metadata once and every row into the same array.
+     *
+     * @param rs ResultSet to map
+     * @return The rows
+     * @throws SQLException if database access error occurs
+     */
+    public ColumnarRows mapRows(ResultSet rs) throws SQLException {
+        RowReader reader = compile(rs);
+        ColumnarRows rows = new ColumnarRows(reader.header());
+        Object[] values = new Object[reader.header().columnCount()];
+        while (rs.next()) {
+            rows.add(reader.read(rs, values));
         }
-        
-        return row;
+        return rows;
+    }
+
+    /**
+     * Compiles the reader for the rows of a ResultSet.
+     *
+     * @param rs The ResultSet
+     * @return The reader, valid for every row of the ResultSet
+     * @throws SQLException if database access error occurs
+     */
+    public RowReader compile(ResultSet rs) throws SQLException {
+        return RowReader.compile(rs.getMetaData(), vendor);
     }
 }
@@ -3,12 +3,12 @@ package com.example.shelldemo.sqlhandling;
 import java.sql.ResultSet;
 
 import java.sql.SQLException;
-import java.util.ArrayList;
-
 import java.util.List;
 import java.util.Map;
 import java.io.IOException;
 
+import com.example.shelldemo.spi.DatabaseVendor;
+
 /**
  * Processor for JDBC ResultSet objects.
  * Handles conversion from ResultSets to more convenient data structures.
@@ -19,6 +19,15 @@ public class ResultSetProcessor {
     public ResultSetProcessor() {
         this.mapper = new ResultSetMapper();
     }
+
+    /**
+     * Creates a processor that reads columns with a vendor's column readers.
+     *
+     * @param vendor The vendor, or null for the readers of the JDBC type mapping
+     */
+    public ResultSetProcessor(DatabaseVendor vendor) {
+        this.mapper = new ResultSetMapper(vendor);
+    }
     
     /**
      * Exception thrown when ResultSet processing fails.
@@ -32,18 +41,42 @@ public class ResultSetProcessor {
     }
 
     /**
-     * Processes an entire ResultSet into a List of Maps.
+     * Processes an entire ResultSet into a List of Maps, stored column by
+     * column; see {@link ColumnarRows}.
      * 
      * @param rs ResultSet to process
      * @return List of maps containing column name/value pairs
      * @throws SQLException if database access error occurs
      */
     public List<Map<String, Object>> processResultSet(ResultSet rs) throws SQLException {
-        List<Map<String, Object>> results = new ArrayList<>();
+        return mapper.mapRows(rs);
+    }
+
+    /**
+     * Passes the rows of a ResultSet to a handler as they are fetched,
+     * without keeping them. The handler is given the same {@link Row} for
+     * every row, refilled with the row's values.
+     *
+     * @param rs ResultSet to process
+     * @param handler Receives the rows
+     * @return The number of rows handled
+     * @throws SQLException if database access error occurs
+     * @throws IOException if the handler fails to write a row
+     */
+    public long streamRows(ResultSet rs, RowHandler handler) throws SQLException, IOException {
+        RowReader reader = mapper.compile(rs);
+        ColumnHeader header = reader.header();
+        Object[] values = new Object[header.columnCount()];
+        Row row = Row.of(header, values);
+        handler.start(header.labels());
+        long rows = 0;
         while (rs.next()) {
-            results.add(mapper.mapRow(rs));
+            reader.read(rs, values);
+            handler.row(row);
+            rows++;
         }
-        return results;
+        handler.end(rows);
+        return rows;
     }
 
     /**
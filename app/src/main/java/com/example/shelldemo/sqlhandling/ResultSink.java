@@ -0,0 +1,21 @@
+package com.example.shelldemo.sqlhandling;
+
+import java.io.IOException;
+
+/**
+ * Where the rows of the queries of a run go. The sink gives every query a
+ * handler of its own; a handler that is also {@link java.io.Closeable} is
+ * closed after its query, whether or not the query completed.
+ */
+@FunctionalInterface
+public interface ResultSink {
+
+    /**
+     * Opens the handler for the rows of a query.
+     *
+     * @param query The number of the query in the run, from 1
+     * @return The handler
+     * @throws IOException if the handler cannot be opened
+     */
+    RowHandler open(int query) throws IOException;
+}
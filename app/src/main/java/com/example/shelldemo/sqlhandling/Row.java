@@ -0,0 +1,109 @@
+package com.example.shelldemo.sqlhandling;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * One row of a result: its values, read by column through a shared
+ * {@link ColumnHeader}. A row is also a read-only {@code Map} from column
+ * label to value for callers that want one; the map's entries are only
+ * created when it is iterated.
+ */
+public abstract class Row extends AbstractMap<String, Object> {
+    private final ColumnHeader header;
+
+    /**
+     * @param header The columns of the row
+     */
+    protected Row(ColumnHeader header) {
+        this.header = header;
+    }
+
+    /**
+     * Creates a row over an array of values. The row reads the array, so a
+     * caller may refill it to move the row on.
+     *
+     * @param header The columns of the row
+     * @param values The values in column order
+     * @return The row
+     */
+    public static Row of(ColumnHeader header, Object[] values) {
+        if (values.length != header.columnCount()) {
+            throw new IllegalArgumentException("Expected " + header.columnCount() + " values but got " + values.length);
+        }
+        return new Row(header) {
+            @Override
+            public Object value(int column) {
+                return values[column];
+            }
+        };
+    }
+
+    /**
+     * @return The columns of the row
+     */
+    public ColumnHeader header() {
+        return header;
+    }
+
+    /**
+     * The value of a column.
+     *
+     * @param column The zero-based column
+     * @return The value, null for SQL NULL
+     */
+    public abstract Object value(int column);
+
+    @Override
+    public Object get(Object key) {
+        int column = header.indexOf(key);
+        return column >= 0 ? value(column) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return header.indexOf(key) >= 0;
+    }
+
+    @Override
+    public int size() {
+        return header.keys().size();
+    }
+
+    @Override
+    public Set<Map.Entry<String, Object>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Map.Entry<String, Object>> iterator() {
+                return new Iterator<>() {
+                    private int key;
+
+                    @Override
+                    public boolean hasNext() {
+                        return key < header.keys().size();
+                    }
+
+                    @Override
+                    public Map.Entry<String, Object> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        Map.Entry<String, Object> entry = new SimpleImmutableEntry<>(header.keys().get(key),
+                            value(header.keyColumn(key)));
+                        key++;
+                        return entry;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return header.keys().size();
+            }
+        };
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.shelldemo.sqlhandling;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Receives the rows of a streamed query one at a time, as they are fetched
+ * from the database. A handler that does not keep the rows it is given lets a
+ * query of any size run in constant memory.
+ */
+@FunctionalInterface
+public interface RowHandler {
+
+    /**
+     * Called once before the first row.
+     *
+     * @param columns The column labels of the result, in order
+     * @throws IOException if the handler cannot write
+     */
+    default void start(List<String> columns) throws IOException {
+        // Nothing to prepare by default
+    }
+
+    /**
+     * Called for every row. The map is only valid during the call.
+     *
+     * @param row The column values of the row by column label
+     * @throws IOException if the handler cannot write
+     */
+    void row(Map<String, Object> row) throws IOException;
+
+    /**
+     * Called once after the last row, also when the query returned none.
+     *
+     * @param rows The number of rows handled
+     * @throws IOException if the handler cannot write
+     */
+    default void end(long rows) throws IOException {
+        // Nothing to finish by default
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.shelldemo.sqlhandling;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+import com.example.shelldemo.spi.DatabaseVendor;
+
+/**
+ * Reads the rows of one result. The metadata is read once, when the reader
+ * is compiled, and gives the header and a {@link ColumnReader} per column;
+ * reading a row then only calls the getters of its columns.
+ */
+public final class RowReader {
+    private final ColumnHeader header;
+    private final ColumnReader[] readers;
+
+    private RowReader(ColumnHeader header, ColumnReader[] readers) {
+        this.header = header;
+        this.readers = readers;
+    }
+
+    /**
+     * Compiles the reader for a result.
+     *
+     * @param metaData The metadata of the result
+     * @param vendor The vendor whose column readers to use, or null for the
+     *        readers of the JDBC type mapping
+     * @return The reader
+     * @throws SQLException if the metadata cannot be read
+     */
+    public static RowReader compile(ResultSetMetaData metaData, DatabaseVendor vendor) throws SQLException {
+        ColumnReader[] readers = new ColumnReader[metaData.getColumnCount()];
+        for (int column = 1; column <= readers.length; column++) {
+            readers[column - 1] = vendor != null
+                ? vendor.columnReader(metaData, column)
+                : ColumnReader.forColumn(metaData, column);
+        }
+        return new RowReader(ColumnHeader.of(metaData, readers), readers);
+    }
+
+    /**
+     * @return The columns of the result
+     */
+    public ColumnHeader header() {
+        return header;
+    }
+
+    /**
+     * Reads the values of the current row into an array, so that a caller
+     * can reuse one array for all rows.
+     *
+     * @param rs ResultSet positioned on the row to read
+     * @param values Receives the values in column order; its length is the column count
+     * @return The array
+     * @throws SQLException if database access error occurs
+     */
+    public Object[] read(ResultSet rs, Object[] values) throws SQLException {
+        ColumnReader[] columns = readers;
+        for (int i = 0; i < columns.length; i++) {
+            values[i] = columns[i].read(rs, i + 1);
+        }
+        return values;
+    }
+}
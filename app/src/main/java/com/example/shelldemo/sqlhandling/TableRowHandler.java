@@ -0,0 +1,113 @@
+package com.example.shelldemo.sqlhandling;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Formats streamed rows as a text table and passes it on in chunks of
+ * {@code chunkRows} rows, so that printing a large result does not hold it
+ * in memory. Column widths are fitted to the first chunk; a longer value in a
+ * later chunk widens only its own line. A result that fits in one chunk is
+ * printed as one table.
+ */
+public final class TableRowHandler implements RowHandler {
+
+    /** Rows formatted per chunk by default */
+    public static final int DEFAULT_CHUNK_ROWS = 1000;
+
+    private final Consumer<String> output;
+    private final int chunkRows;
+    private final List<String[]> pending = new ArrayList<>();
+    private List<String> columns = List.of();
+    private int[] widths;
+
+    /**
+     * @param output Receives the table, a chunk of lines at a time
+     */
+    public TableRowHandler(Consumer<String> output) {
+        this(output, DEFAULT_CHUNK_ROWS);
+    }
+
+    /**
+     * @param output Receives the table, a chunk of lines at a time
+     * @param chunkRows Rows formatted per chunk
+     */
+    public TableRowHandler(Consumer<String> output, int chunkRows) {
+        if (chunkRows < 1) {
+            throw new IllegalArgumentException("Chunk size must be at least 1 row: " + chunkRows);
+        }
+        this.output = output;
+        this.chunkRows = chunkRows;
+    }
+
+    @Override
+    public void start(List<String> columns) {
+        this.columns = List.copyOf(columns);
+    }
+
+    @Override
+    public void row(Map<String, Object> row) {
+        Row typed = row instanceof Row r ? r : null;
+        String[] values = new String[columns.size()];
+        for (int i = 0; i < values.length; i++) {
+            // By position, as columns with the same label share a map key
+            Object value = typed != null ? typed.value(i) : row.get(columns.get(i));
+            values[i] = value != null ? value.toString() : "";
+        }
+        pending.add(values);
+        if (pending.size() >= chunkRows) {
+            output.accept(format(false));
+        }
+    }
+
+    @Override
+    public void end(long rows) {
+        if (rows > 0) {
+            output.accept(format(true));
+        }
+    }
+
+    private String format(boolean last) {
+        StringBuilder sb = new StringBuilder();
+        if (widths == null) {
+            widths = new int[columns.size()];
+            for (int i = 0; i < widths.length; i++) {
+                widths[i] = columns.get(i).length();
+            }
+            for (String[] values : pending) {
+                for (int i = 0; i < widths.length; i++) {
+                    widths[i] = Math.max(widths[i], values[i].length());
+                }
+            }
+            appendSeparator(sb);
+            appendRow(sb, columns.toArray(String[]::new));
+            appendSeparator(sb);
+        }
+        for (String[] values : pending) {
+            appendRow(sb, values);
+        }
+        pending.clear();
+        if (last) {
+            appendSeparator(sb);
+        }
+        // Chunks are printed as lines of their own
+        sb.setLength(sb.length() - 1);
+        return sb.toString();
+    }
+
+    private void appendSeparator(StringBuilder sb) {
+        sb.append("+");
+        for (int w : widths) sb.append("-".repeat(w + 2)).append("+");
+        sb.append("\n");
+    }
+
+    private void appendRow(StringBuilder sb, String[] values) {
+        sb.append("|");
+        for (int i = 0; i < values.length; i++) {
+            sb.append(" ").append(String.format("%-" + widths[i] + "s", values[i])).append(" |");
+        }
+        sb.append("\n");
+    }
+}
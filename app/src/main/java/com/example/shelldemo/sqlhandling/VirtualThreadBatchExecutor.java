@@ -2,20 +2,25 @@ package com.example.shelldemo.sqlhandling;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import com.example.shelldemo.connection.ConnectionPool;
 import com.example.shelldemo.context.DatabaseContext;
 import com.example.shelldemo.exception.BatchProcessingException;
 import com.example.shelldemo.parser.SqlStatement;
 import com.example.shelldemo.parser.SqlStatementFactory;
+import com.example.shelldemo.plan.ExecutionPlan;
 import com.example.shelldemo.util.LoggingUtils;
 
 /**
@@ -28,9 +33,11 @@ public class VirtualThreadBatchExecutor {
     private final SqlStatementFactory statementFactory;
     private final int timeout;
     private final boolean stopOnError;
+    private final int parallelism;
     
     /**
-     * Creates a new VirtualThreadBatchExecutor.
+     * Creates a new VirtualThreadBatchExecutor that runs concurrent statements
+     * in as many lanes as there are available processors.
      *
      * @param context The database context
      * @param statementFactory The statement factory
@@ -42,10 +49,53 @@ public class VirtualThreadBatchExecutor {
             SqlStatementFactory statementFactory,
             int timeout,
             boolean stopOnError) {
+        this(context, statementFactory, timeout, stopOnError, Runtime.getRuntime().availableProcessors());
+    }
+    
+    /**
+     * Creates a new VirtualThreadBatchExecutor.
+     *
+     * @param context The database context
+     * @param statementFactory The statement factory
+     * @param timeout The timeout in seconds (0 waits without limit)
+     * @param stopOnError Whether to stop on error
+     * @param parallelism The maximum number of statements running at once, each on its own connection
+     */
+    public VirtualThreadBatchExecutor(
+            DatabaseContext context, 
+            SqlStatementFactory statementFactory,
+            int timeout,
+            boolean stopOnError,
+            int parallelism) {
         this.context = context;
         this.statementFactory = statementFactory;
         this.timeout = timeout;
         this.stopOnError = stopOnError;
+        this.parallelism = parallelism;
+    }
+    
+    /**
+     * Executes one statement in a lane.
+     *
+     * @param <T> The result type
+     */
+    @FunctionalInterface
+    public interface LaneTask<T> {
+        T execute(DatabaseContext lane, SqlStatement statement) throws SQLException;
+    }
+    
+    /**
+     * The outcome of one statement run in a lane.
+     *
+     * @param index The position of the statement in the submitted list
+     * @param result The result, if the statement succeeded
+     * @param failure The failure, if the statement failed
+     * @param <T> The result type
+     */
+    public record TaskOutcome<T>(int index, T result, Exception failure) {
+        public boolean failed() {
+            return failure != null;
+        }
     }
     
     /**
@@ -53,7 +103,7 @@ public class VirtualThreadBatchExecutor {
      */
     public enum ProcessingMode {
         SEQUENTIAL,  // Process statements sequentially
-        CONCURRENT,  // Process statements concurrently with virtual threads
+        CONCURRENT,  // Process independent statements concurrently, one pooled connection per lane
         TRANSACTION  // Process statements in a transaction
     }
     
@@ -114,63 +164,260 @@ public class VirtualThreadBatchExecutor {
     }
     
     /**
-     * Executes statements concurrently using virtual threads.
+     * Executes statements concurrently in lanes, counting the successful ones.
      */
     private int executeConcurrently(List<String> statements) throws SQLException {
-        AtomicInteger executed = new AtomicInteger(0);
-        AtomicInteger failedIndex = new AtomicInteger(-1);
-        java.util.concurrent.atomic.AtomicReference<Exception> firstException = new java.util.concurrent.atomic.AtomicReference<>(null);
-        
-        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
-            statements.stream()
-                .map(sql -> (Future<?>) executor.submit(() -> {
+        List<SqlStatement> typed = statements.stream()
+            .map(sql -> statementFactory.createStatement(sql, context.getDbType()))
+            .toList();
+        List<TaskOutcome<Void>> outcomes = executeInLanes(typed, (lane, statement) -> {
+            executeSingleStatement(lane.getConnection(), statement);
+            return null;
+        });
+        int executed = 0;
+        TaskOutcome<Void> firstFailure = null;
+        for (TaskOutcome<Void> outcome : outcomes) {
+            if (outcome == null) {
+                continue;
+            }
+            if (outcome.failed()) {
+                logger.error("Error executing statement #{}: {}", outcome.index() + 1, outcome.failure().getMessage());
+                if (firstFailure == null) {
+                    firstFailure = outcome;
+                }
+            } else {
+                executed++;
+            }
+        }
+        if (firstFailure != null && stopOnError) {
+            throw new BatchProcessingException(
+                    "Failed to execute statement #" + (firstFailure.index() + 1),
+                    firstFailure.failure(), statements.size(), firstFailure.index());
+        }
+        return executed;
+    }
+
+    /**
+     * Runs independent statements concurrently, one virtual thread per statement,
+     * with at most {@code parallelism} running at a time. Each running statement
+     * has a lane to itself: a connection borrowed from the context's connection
+     * pool for the duration of the call, wrapped in its own {@link DatabaseContext}.
+     * Without a pool the statements run one after another on the context itself.
+     * <p>
+     * Statements may complete in any order, so they must not depend on each
+     * other's effects. When stopping on errors, no further statements are started
+     * after the first failure; those already running are allowed to finish.
+     *
+     * @param statements The statements to execute
+     * @param task Executes one statement in a lane
+     * @param <T> The result type of a statement
+     * @return The outcome of each statement by script position; null for statements not started
+     * @throws SQLException if the lanes cannot be opened, or on timeout or interruption
+     */
+    public <T> List<TaskOutcome<T>> executeInLanes(List<SqlStatement> statements, LaneTask<T> task)
+            throws SQLException {
+        return executeInLanes(statements, null, task);
+    }
+
+    /**
+     * Runs statements concurrently in lanes as {@link #executeInLanes(List, LaneTask)}
+     * does, but starts each statement only once the statements it depends on
+     * have finished. Of the statements ready to start, the earliest in the script
+     * is started first. Without a pool the statements run one after another in
+     * script order, which satisfies every dependency.
+     * <p>
+     * A failed statement still releases the statements depending on it when
+     * continuing past errors, as a sequential run would execute them too.
+     *
+     * @param statements The statements to execute
+     * @param plan The dependencies between the statements, or null if there are none
+     * @param task Executes one statement in a lane
+     * @param <T> The result type of a statement
+     * @return The outcome of each statement by script position; null for statements not started
+     * @throws SQLException if the lanes cannot be opened, or on timeout or interruption
+     */
+    public <T> List<TaskOutcome<T>> executeInLanes(List<SqlStatement> statements, ExecutionPlan plan,
+            LaneTask<T> task) throws SQLException {
+        if (plan != null && plan.size() != statements.size()) {
+            throw new IllegalArgumentException("Plan of " + plan.size() + " statements does not match "
+                + statements.size() + " statements");
+        }
+        if (statements.isEmpty()) {
+            return List.of();
+        }
+        AtomicReferenceArray<TaskOutcome<T>> outcomes = new AtomicReferenceArray<>(statements.size());
+        ConnectionPool pool = context.getConnectionPool();
+        if (pool == null || parallelism <= 1) {
+            if (pool == null && parallelism > 1) {
+                logger.info("No connection pool available, running independent statements sequentially");
+            }
+            for (int i = 0; i < statements.size(); i++) {
+                outcomes.set(i, runTask(task, context, statements.get(i), i));
+                if (stopOnError && outcomes.get(i).failed()) {
+                    break;
+                }
+            }
+            return toList(outcomes);
+        }
+
+        List<DatabaseContext> lanes = openLanes(pool, Math.min(parallelism, statements.size()));
+        BlockingQueue<DatabaseContext> idleLanes = new ArrayBlockingQueue<>(lanes.size(), false, lanes);
+        Schedule schedule = new Schedule(statements.size(), plan);
+        long deadline = timeout > 0 ? System.nanoTime() + TimeUnit.SECONDS.toNanos(timeout) : Long.MAX_VALUE;
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            while (true) {
+                DatabaseContext lane = idleLanes.poll(remaining(deadline), TimeUnit.NANOSECONDS);
+                if (lane == null) {
+                    throw timedOut(executor);
+                }
+                int index = schedule.next(deadline);
+                if (index == Schedule.TIMED_OUT) {
+                    throw timedOut(executor);
+                }
+                if (index == Schedule.DONE) {
+                    idleLanes.add(lane);
+                    break;
+                }
+                SqlStatement statement = statements.get(index);
+                executor.execute(() -> {
+                    TaskOutcome<T> outcome = null;
                     try {
-                        Connection connection = context.getConnection();
-                        SqlStatement statement = statementFactory.createStatement(sql, context.getDbType());
-                        executeSingleStatement(connection, statement);
-                        executed.incrementAndGet();
-                    } catch (Exception e) {
-                        int index = statements.indexOf(sql);
-                        logger.error("Error executing statement #{}: {}", index + 1, e.getMessage());
-                        failedIndex.compareAndSet(-1, index);
-                        firstException.compareAndSet(null, e);
-                        if (stopOnError) {
-                            throw new RuntimeException(e);
-                        }
+                        outcome = runTask(task, lane, statement, index);
+                        outcomes.set(index, outcome);
+                    } finally {
+                        idleLanes.add(lane);
+                        schedule.finished(index, outcome == null || outcome.failed());
                     }
-                }))
-                .toList();
-            
-            // Wait for all tasks to complete or timeout
+                });
+            }
             executor.shutdown();
-            if (!executor.awaitTermination(timeout, TimeUnit.SECONDS)) {
+            boolean finished = executor.awaitTermination(remaining(deadline), TimeUnit.NANOSECONDS);
+            if (!finished) {
                 executor.shutdownNow();
                 throw new SQLException("Batch execution timed out after " + timeout + " seconds");
             }
-            
-            // Check for errors
-            if (firstException.get() != null && stopOnError) {
-                if (firstException.get() instanceof SQLException) {
-                    throw (SQLException) firstException.get();
-                } else {
-                    throw new SQLException("Error in batch execution", firstException.get());
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+            throw new SQLException("Batch execution was interrupted", e);
+        } finally {
+            executor.close();
+            closeLanes(lanes);
+        }
+        return toList(outcomes);
+    }
+
+    private static long remaining(long deadline) {
+        return deadline == Long.MAX_VALUE ? Long.MAX_VALUE : Math.max(deadline - System.nanoTime(), 0);
+    }
+
+    private SQLException timedOut(ExecutorService executor) {
+        executor.shutdownNow();
+        return new SQLException("Batch execution timed out after " + timeout + " seconds");
+    }
+
+    /**
+     * Hands out the statements of a concurrent run as they become ready: all of
+     * them at once without a plan, otherwise each once its dependencies finished.
+     */
+    private final class Schedule {
+        static final int DONE = -1;
+        static final int TIMED_OUT = -2;
+
+        private final ExecutionPlan plan;
+        private final int[] waitingFor;
+        private final PriorityQueue<Integer> ready = new PriorityQueue<>();
+        private int running;
+        private boolean stopped;
+
+        Schedule(int size, ExecutionPlan plan) {
+            this.plan = plan;
+            this.waitingFor = new int[size];
+            for (int i = 0; i < size; i++) {
+                waitingFor[i] = plan == null ? 0 : plan.dependencyCount(i);
+                if (waitingFor[i] == 0) {
+                    ready.add(i);
                 }
             }
-            
-            // Check for exceptions
-            if (firstException.get() != null && stopOnError) {
-                if (firstException.get() instanceof SQLException sqlEx) {
-                    throw sqlEx;
-                } else {
-                    throw new SQLException("Batch execution failed", firstException.get());
+        }
+
+        /**
+         * Waits for the next statement to start, or until nothing is left to start.
+         */
+        synchronized int next(long deadline) throws InterruptedException {
+            while (ready.isEmpty() && !stopped && running > 0) {
+                long nanos = remaining(deadline);
+                if (nanos <= 0) {
+                    return TIMED_OUT;
                 }
+                TimeUnit.NANOSECONDS.timedWait(this, nanos);
+            }
+            if (ready.isEmpty() || stopped) {
+                return DONE;
+            }
+            running++;
+            return ready.poll();
+        }
+
+        synchronized void finished(int index, boolean failed) {
+            running--;
+            if (failed && stopOnError) {
+                stopped = true;
+            } else if (plan != null) {
+                for (int dependent : plan.dependents(index)) {
+                    if (--waitingFor[dependent] == 0) {
+                        ready.add(dependent);
+                    }
+                }
+            }
+            notifyAll();
+        }
+    }
+
+    private static <T> List<TaskOutcome<T>> toList(AtomicReferenceArray<TaskOutcome<T>> outcomes) {
+        List<TaskOutcome<T>> list = new ArrayList<>(outcomes.length());
+        for (int i = 0; i < outcomes.length(); i++) {
+            list.add(outcomes.get(i));
+        }
+        return list;
+    }
+
+    private <T> TaskOutcome<T> runTask(LaneTask<T> task, DatabaseContext lane, SqlStatement statement, int index) {
+        try {
+            return new TaskOutcome<>(index, task.execute(lane, statement), null);
+        } catch (SQLException | RuntimeException e) {
+            return new TaskOutcome<>(index, null, e);
+        }
+    }
+
+    private List<DatabaseContext> openLanes(ConnectionPool pool, int count) throws SQLException {
+        List<DatabaseContext> lanes = new ArrayList<>(count);
+        try {
+            for (int i = 0; i < count; i++) {
+                lanes.add(new DatabaseContext.Builder()
+                    .connection(pool.getConnection())
+                    .configService(context.getConfigService())
+                    .vendor(context.getVendor())
+                    .dbType(context.getDbType())
+                    .build());
+            }
+        } catch (SQLException | RuntimeException e) {
+            closeLanes(lanes);
+            throw e;
+        }
+        logger.debug("Opened {} lanes for concurrent execution", count);
+        return lanes;
+    }
+
+    private void closeLanes(List<DatabaseContext> lanes) {
+        for (DatabaseContext lane : lanes) {
+            try {
+                lane.close();
+            } catch (SQLException e) {
+                logger.warn("Error returning lane connection to the pool: {}", e.getMessage());
             }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new SQLException("Batch execution was interrupted", e);
         }
-        
-        return executed.get();
     }
     
     /**
@@ -0,0 +1,141 @@
+package com.example.shelldemo.transaction;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Decides where a transactional script commits. A commit scope spans the DML
+ * statements between two commits: one statement, a number of statements, the
+ * statements run within a time interval, or the whole script.
+ *
+ * @param kind What ends a commit scope
+ * @param statements Number of statements per scope for {@link Kind#COUNT}
+ * @param interval Length of a scope for {@link Kind#INTERVAL}
+ */
+public record CommitPolicy(Kind kind, int statements, Duration interval) {
+
+    /**
+     * What ends a commit scope.
+     */
+    public enum Kind {
+        /** Every statement (or JDBC batch) commits on its own */
+        STATEMENT,
+        /** A scope commits once it holds the given number of statements */
+        COUNT,
+        /** A scope commits at the first statement boundary after the interval has passed */
+        INTERVAL,
+        /** The script commits once, after its last statement */
+        SCRIPT
+    }
+
+    /**
+     * Compact constructor for validation
+     */
+    public CommitPolicy {
+        if (kind == null) {
+            throw new IllegalArgumentException("Commit policy kind cannot be null");
+        }
+        if (kind == Kind.COUNT && statements < 1) {
+            throw new IllegalArgumentException("Commit scope must hold at least one statement: " + statements);
+        }
+        if (kind == Kind.INTERVAL && (interval == null || interval.isNegative() || interval.isZero())) {
+            throw new IllegalArgumentException("Commit interval must be positive: " + interval);
+        }
+    }
+
+    /**
+     * Commits after every statement, as a plain transactional script does.
+     *
+     * @return The per-statement policy
+     */
+    public static CommitPolicy perStatement() {
+        return new CommitPolicy(Kind.STATEMENT, 1, null);
+    }
+
+    /**
+     * Commits once a scope holds the given number of statements.
+     *
+     * @param statements Statements per scope
+     * @return The counting policy
+     */
+    public static CommitPolicy everyStatements(int statements) {
+        return new CommitPolicy(Kind.COUNT, statements, null);
+    }
+
+    /**
+     * Commits at the first statement boundary after the interval has passed.
+     *
+     * @param interval Length of a scope
+     * @return The interval policy
+     */
+    public static CommitPolicy every(Duration interval) {
+        return new CommitPolicy(Kind.INTERVAL, 0, interval);
+    }
+
+    /**
+     * Commits once, after the last statement of the script.
+     *
+     * @return The whole-script policy
+     */
+    public static CommitPolicy wholeScript() {
+        return new CommitPolicy(Kind.SCRIPT, 0, null);
+    }
+
+    /**
+     * Parses a commit policy as given on the command line: {@code statement},
+     * {@code script}, a number of statements such as {@code 500}, or an interval
+     * such as {@code 250ms} or {@code 2s}.
+     *
+     * @param spec The policy specification
+     * @return The commit policy
+     * @throws IllegalArgumentException if the specification is not recognised
+     */
+    public static CommitPolicy parse(String spec) {
+        String value = spec == null ? "" : spec.trim().toLowerCase(Locale.ROOT);
+        try {
+            if (value.equals("statement")) {
+                return perStatement();
+            }
+            if (value.equals("script")) {
+                return wholeScript();
+            }
+            if (value.endsWith("ms")) {
+                return every(Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2))));
+            }
+            if (value.endsWith("s")) {
+                return every(Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1))));
+            }
+            return everyStatements(Integer.parseInt(value));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid commit scope '" + spec
+                + "': expected statement, script, a statement count or an interval such as 500ms", e);
+        }
+    }
+
+    /**
+     * Whether a scope holding the given number of statements, opened at the
+     * given time, has to commit now.
+     *
+     * @param pending Number of statements run in the scope
+     * @param openedNanos {@link System#nanoTime()} when the scope was opened
+     * @return true if the scope ends here
+     */
+    public boolean isComplete(int pending, long openedNanos) {
+        return switch (kind) {
+            case STATEMENT -> pending > 0;
+            case COUNT -> pending >= statements;
+            case INTERVAL -> System.nanoTime() - openedNanos >= interval.toNanos();
+            case SCRIPT -> false;
+        };
+    }
+
+    @Override
+    public String toString() {
+        return switch (kind) {
+            case STATEMENT -> "every statement";
+            case COUNT -> "every " + statements + " statements";
+            case INTERVAL -> "every " + interval.toMillis() + " ms";
+            case SCRIPT -> "once per script";
+        };
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.shelldemo.transaction;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Runs the DML of a script in commit scopes chosen by a {@link CommitPolicy}.
+ * Auto-commit is switched off when the first statement of a scope runs and is
+ * only restored when the scope is suspended or closed, so consecutive scopes
+ * cost one commit each instead of an auto-commit round trip per statement.
+ * A failing statement rolls back the current scope only; earlier scopes stay
+ * committed.
+ * <p>
+ * Scopes end at statement boundaries on the thread running the script, never
+ * from a timer, since a JDBC connection is not used from two threads at once.
+ */
+public final class CommitScope implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(CommitScope.class);
+
+    private final Connection connection;
+    private final CommitPolicy policy;
+    private boolean originalAutoCommit;
+    private boolean open;
+    private long openedNanos;
+    private int pending;
+    private int commits;
+    private int rollbacks;
+
+    CommitScope(Connection connection, CommitPolicy policy) {
+        this.connection = connection;
+        this.policy = policy;
+    }
+
+    /**
+     * Runs an operation of one or more statements in the current scope, opening
+     * one if needed, and commits when the policy ends the scope. When the
+     * operation or the commit fails the scope is rolled back, including when an
+     * executor reports the failure as a runtime exception.
+     *
+     * @param operation The SQL operation to execute
+     * @param statements Number of script statements the operation runs
+     * @param <T> The return type of the operation
+     * @return The result of the operation
+     * @throws SQLException if a database access error occurs
+     */
+    public <T> T execute(TransactionManager.SqlOperation<T> operation, int statements) throws SQLException {
+        begin();
+        T result;
+        try {
+            result = operation.execute(connection);
+        } catch (SQLException | RuntimeException e) {
+            rollback(e);
+            throw e;
+        }
+        pending += statements;
+        if (policy.isComplete(pending, openedNanos)) {
+            commit();
+        }
+        return result;
+    }
+
+    /**
+     * Commits the statements of the current scope. The connection stays in
+     * manual-commit mode for the next scope.
+     *
+     * @throws SQLException if the commit fails; the scope is rolled back
+     */
+    public void commit() throws SQLException {
+        if (!open || pending == 0) {
+            return;
+        }
+        try {
+            connection.commit();
+        } catch (SQLException e) {
+            rollback(e);
+            throw e;
+        }
+        logger.debug("Committed scope of {} statements", pending);
+        commits++;
+        pending = 0;
+        openedNanos = System.nanoTime();
+    }
+
+    /**
+     * Commits the current scope and restores the original auto-commit mode, so
+     * that statements outside the scope, such as DDL, run as they would without it.
+     *
+     * @throws SQLException if the commit fails; the scope is rolled back
+     */
+    public void suspend() throws SQLException {
+        if (!open) {
+            return;
+        }
+        commit();
+        restoreAutoCommit();
+    }
+
+    /**
+     * Number of statements run in the current scope and not yet committed.
+     *
+     * @return The uncommitted statement count
+     */
+    public int pending() {
+        return pending;
+    }
+
+    public int getCommits() {
+        return commits;
+    }
+
+    public int getRollbacks() {
+        return rollbacks;
+    }
+
+    public CommitPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Rolls back whatever the current scope has not committed and restores the
+     * original auto-commit mode. Call {@link #commit()} first to keep the work.
+     */
+    @Override
+    public void close() {
+        if (!open) {
+            return;
+        }
+        if (pending > 0) {
+            logger.warn("Rolling back {} uncommitted statements of the last commit scope", pending);
+            rollback(null);
+        }
+        restoreAutoCommit();
+    }
+
+    private void begin() throws SQLException {
+        if (open) {
+            return;
+        }
+        originalAutoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        open = true;
+        openedNanos = System.nanoTime();
+    }
+
+    private void rollback(Exception cause) {
+        try {
+            connection.rollback();
+            rollbacks++;
+            if (cause != null) {
+                logger.warn("Commit scope of {} statements rolled back due to error: {}", pending, cause.getMessage());
+            }
+        } catch (SQLException rollbackEx) {
+            logger.error("Failed to roll back commit scope", rollbackEx);
+        } finally {
+            pending = 0;
+            openedNanos = System.nanoTime();
+        }
+    }
+
+    private void restoreAutoCommit() {
+        open = false;
+        try {
+            connection.setAutoCommit(originalAutoCommit);
+        } catch (SQLException e) {
+            logger.warn("Failed to restore auto-commit setting", e);
+        }
+    }
+}
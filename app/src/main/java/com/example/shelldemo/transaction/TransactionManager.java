@@ -53,6 +53,18 @@ public class TransactionManager {
         }
     }
     
+    /**
+     * Opens a commit scope on this connection for the DML of a script. The caller
+     * commits the scope once the script has run and closes it in any case.
+     *
+     * @param policy Where the scope commits
+     * @return The open commit scope
+     */
+    public CommitScope openScope(CommitPolicy policy) {
+        logger.debug("Committing script DML {}", policy);
+        return new CommitScope(connection, policy);
+    }
+
     /**
      * Functional interface for operations to be executed within a transaction.
      */
@@ -0,0 +1,47 @@
+package com.example.shelldemo.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Digests of file contents, for telling whether a script changed.
+ */
+public final class FileDigests {
+
+    private FileDigests() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Computes the SHA-256 digest of a file, read in direct buffer chunks.
+     *
+     * @param file The file
+     * @return The 32-byte digest
+     * @throws IOException if the file cannot be read
+     */
+    public static byte[] sha256(Path file) throws IOException {
+        MessageDigest digest = sha256();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return digest.digest();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.shelldemo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.example.shelldemo.exception.DatabaseException;
+import com.example.shelldemo.spi.DatabaseVendor;
+import com.example.shelldemo.spi.MySqlVendor;
+import com.example.shelldemo.spi.OracleVendor;
+import com.example.shelldemo.spi.PostgreSqlVendor;
+import com.example.shelldemo.sqlhandling.ColumnHeader;
+import com.example.shelldemo.sqlhandling.Row;
+import com.example.shelldemo.sqlhandling.RowHandler;
+import com.example.shelldemo.sqlhandling.TableRowHandler;
+import com.example.shelldemo.testutil.NoStackTraceWatcher;
+import com.example.shelldemo.testutil.StubDatabase;
+
+@ExtendWith(NoStackTraceWatcher.class)
+@DisplayName("Query Streaming Tests")
+class QueryStreamingTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should pass rows to the handler in order with the vendor's fetch size")
+    void testStreamsRowsToHandler() throws Exception {
+        StubDatabase database = new StubDatabase().queryRows(200_000);
+        List<String> columns = new ArrayList<>();
+        long[] seen = new long[2];
+        RowHandler handler = new RowHandler() {
+            @Override
+            public void start(List<String> labels) {
+                columns.addAll(labels);
+            }
+
+            @Override
+            public void row(Map<String, Object> row) {
+                seen[0]++;
+                assertEquals(seen[0], ((Number) row.get("VALUE")).longValue());
+            }
+
+            @Override
+            public void end(long rows) {
+                seen[1] = rows;
+            }
+        };
+
+        try (UnifiedDatabaseOperation operation = operation(database, new OracleVendor(), "oracle", null)) {
+            assertEquals(200_000, operation.executeQuery("SELECT value FROM t", handler));
+        }
+
+        assertEquals(List.of("VALUE"), columns);
+        assertEquals(200_000, seen[0]);
+        assertEquals(200_000, seen[1]);
+        assertEquals(List.of(1000, 0), database.fetchSizes());
+        assertEquals(0, database.openStatements());
+    }
+
+    @Test
+    @DisplayName("Should apply vendor streaming settings and report handler failures")
+    void testVendorSettingsAndHandlerFailure() throws Exception {
+        StubDatabase postgres = new StubDatabase().queryRows(3);
+        try (UnifiedDatabaseOperation operation = operation(postgres, new PostgreSqlVendor(), "postgresql", null)) {
+            int switches = postgres.autoCommitSwitches();
+            assertEquals(3, operation.executeQuery("SELECT value FROM t", row -> { }));
+            assertEquals(switches + 2, postgres.autoCommitSwitches());
+        }
+
+        StubDatabase mysql = new StubDatabase().queryRows(3);
+        try (UnifiedDatabaseOperation operation = operation(mysql, new MySqlVendor(), "mysql", null)) {
+            DatabaseException e = assertThrows(DatabaseException.class,
+                () -> operation.executeQuery("SELECT value FROM t", row -> {
+                    throw new IOException("disk full");
+                }));
+            assertTrue(e.getMessage().contains("disk full"), e.getMessage());
+        }
+        assertEquals(List.of(Integer.MIN_VALUE, 0), mysql.fetchSizes());
+    }
+
+    @Test
+    @DisplayName("Should print script query results in chunks as the rows arrive")
+    void testScriptPrintsResultsInChunks() throws Exception {
+        StubDatabase database = new StubDatabase().queryRows(2_500);
+        List<String> output = new ArrayList<>();
+        Path script = tempDir.resolve("report.sql");
+        Files.writeString(script, "SELECT value FROM t;\nINSERT INTO t VALUES (1);\n");
+
+        UnifiedDatabaseOperation.ScriptSummary summary;
+        try (UnifiedDatabaseOperation operation = operation(database, new OracleVendor(), "oracle", output::add)) {
+            summary = operation.executeScript(script.toFile(), null, output::add);
+        }
+
+        assertEquals(2, summary.executed());
+        assertEquals(2_501, summary.rows());
+        assertEquals(3, output.size());
+        assertTrue(output.get(0).startsWith("+-------+\n| VALUE |\n+-------+\n| 1     |\n"), output.get(0));
+        assertTrue(output.get(2).endsWith("| 2500  |\n+-------+"), output.get(2));
+        long lines = output.stream().mapToLong(chunk -> chunk.lines().count()).sum();
+        assertEquals(2_500 + 4, lines);
+    }
+
+    @Test
+    @DisplayName("Should format a result that fits in one chunk as one table")
+    void testFormatsSingleTable() {
+        List<String> output = new ArrayList<>();
+        TableRowHandler table = new TableRowHandler(output::add, 10);
+        table.start(List.of("ID", "NAME"));
+        table.row(Map.of("ID", 1, "NAME", "alpha"));
+        table.row(new HashMap<>(Map.of("ID", 22)));
+        table.end(2);
+
+        assertEquals(List.of("""
+            +----+-------+
+            | ID | NAME  |
+            +----+-------+
+            | 1  | alpha |
+            | 22 |       |
+            +----+-------+"""), output);
+
+        TableRowHandler empty = new TableRowHandler(output::add);
+        empty.start(List.of("ID"));
+        empty.end(0);
+        assertEquals(1, output.size());
+
+        // A join may return two columns of the same label
+        List<String> labels = List.of("ID", "ID");
+        TableRowHandler joined = new TableRowHandler(output::add);
+        joined.start(labels);
+        joined.row(Row.of(ColumnHeader.of(labels), new Object[] {1, 2}));
+        joined.end(1);
+        assertEquals("""
+            +----+----+
+            | ID | ID |
+            +----+----+
+            | 1  | 2  |
+            +----+----+""", output.get(1));
+    }
+
+    private static UnifiedDatabaseOperation operation(StubDatabase database, DatabaseVendor vendor, String dbType,
+            Consumer<String> output) {
+        UnifiedDatabaseOperationBuilder builder = new UnifiedDatabaseOperationBuilder()
+            .connection(database.connect())
+            .dbType(dbType)
+            .vendor(vendor);
+        if (output != null) {
+            builder.resultOutput(output);
+        }
+        return builder.build();
+    }
+}
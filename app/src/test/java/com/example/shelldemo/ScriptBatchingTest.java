@@ -0,0 +1,184 @@
+package com.example.shelldemo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.example.shelldemo.exception.BatchProcessingException;
+import com.example.shelldemo.spi.OracleVendor;
+import com.example.shelldemo.testutil.NoStackTraceWatcher;
+import com.example.shelldemo.testutil.StubDatabase;
+
+@ExtendWith(NoStackTraceWatcher.class)
+@DisplayName("Script DML Batching Tests")
+class ScriptBatchingTest {
+
+    private static final String SCRIPT = """
+        INSERT INTO t VALUES (1);
+        INSERT INTO t VALUES (2);
+        INSERT INTO t VALUES (3);
+        INSERT INTO t VALUES (4);
+        -- the DDL below ends the batch
+        CREATE TABLE u (id NUMBER);
+        UPDATE t
+           SET id = 5
+         WHERE id = 4;
+        DELETE FROM t WHERE id = 1;
+        """;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should flush batches at the size limit and before non-DML statements")
+    void testBatchBoundaries() throws Exception {
+        StubDatabase database = new StubDatabase();
+        int executed = run(database, 3, true, false);
+
+        assertEquals(7, executed);
+        assertEquals(List.of(
+                List.of("INSERT INTO t VALUES (1)", "INSERT INTO t VALUES (2)", "INSERT INTO t VALUES (3)"),
+                List.of("INSERT INTO t VALUES (4)"),
+                List.of("UPDATE t\nSET id = 5\nWHERE id = 4", "DELETE FROM t WHERE id = 1")),
+            database.batches());
+        assertEquals(7, database.applied().size());
+        assertEquals("CREATE TABLE u (id NUMBER)", database.applied().get(4));
+    }
+
+    @Test
+    @DisplayName("Should report the script line of the statement that failed a batch")
+    void testFailureMapsToScriptLine() throws Exception {
+        StubDatabase database = new StubDatabase().failWhen(sql -> sql.startsWith("DELETE"));
+        BatchProcessingException e = assertThrows(BatchProcessingException.class,
+            () -> run(database, 10, true, false));
+
+        assertTrue(e.getMessage().contains("statement 7 at line 10"), e.getMessage());
+        assertEquals(1, e.getFailedItemIndex());
+        assertEquals(2, e.getBatchSize());
+    }
+
+    @Test
+    @DisplayName("Should resubmit the rest of a batch when the driver stops at a failure")
+    void testContinuesAfterStoppedBatch() throws Exception {
+        StubDatabase database = new StubDatabase().failWhen(sql -> sql.endsWith("(2)"));
+        int executed = run(database, 10, false, false);
+
+        assertEquals(6, executed);
+        assertEquals(List.of("INSERT INTO t VALUES (3)", "INSERT INTO t VALUES (4)"), database.batches().get(1));
+        assertEquals(6, database.applied().size());
+    }
+
+    @Test
+    @DisplayName("Should count failures marked by drivers that run the whole batch")
+    void testContinuesAfterFullBatch() throws Exception {
+        StubDatabase database = new StubDatabase().failWhen(sql -> sql.endsWith("(2)")).continueBatchAfterFailure();
+        int executed = run(database, 10, false, false);
+
+        assertEquals(6, executed);
+        assertEquals(2, database.batches().size());
+        assertEquals(6, database.applied().size());
+    }
+
+    @Test
+    @DisplayName("Should replay a rolled-back transactional batch one statement at a time")
+    void testTransactionalBatchReplay() throws Exception {
+        StubDatabase database = new StubDatabase().failWhen(sql -> sql.endsWith("(2)"));
+        int executed = run(database, 10, false, true);
+
+        assertEquals(6, executed);
+        assertEquals(List.of("INSERT INTO t VALUES (1)", "INSERT INTO t VALUES (3)", "INSERT INTO t VALUES (4)",
+            "CREATE TABLE u (id NUMBER)", "UPDATE t\nSET id = 5\nWHERE id = 4", "DELETE FROM t WHERE id = 1"),
+            database.applied());
+    }
+
+    @Test
+    @DisplayName("Should run consecutive statements of the same shape as one prepared batch")
+    void testBindLiteralsGroupsByShape() throws Exception {
+        StubDatabase database = new StubDatabase();
+        String script = """
+            INSERT INTO t (id, name) VALUES (1, 'a');
+            INSERT INTO t (id, name) VALUES (2, 'b');
+            INSERT INTO t (id, name)
+              VALUES (3, 'c');
+            UPDATE t SET name = 'd' WHERE id = 3;
+            """;
+        int executed;
+        try (UnifiedDatabaseOperation operation = operation(database, 100, true, false, true)) {
+            executed = operation.executeScript(writeScript(script));
+        }
+
+        assertEquals(4, executed);
+        String insert = "INSERT INTO t (id, name) VALUES (?, ?)";
+        assertEquals(List.of(List.of(insert, insert, insert), List.of("UPDATE t SET name = ? WHERE id = ?")),
+            database.batches());
+        assertEquals(List.of(
+                List.of(new BigDecimal("1"), "a"), List.of(new BigDecimal("2"), "b"),
+                List.of(new BigDecimal("3"), "c"), List.of("d", new BigDecimal("3"))),
+            database.boundParameters());
+    }
+
+    @Test
+    @DisplayName("Should prepare each bound shape once across batches with a statement cache")
+    void testStatementCacheReusesBoundShape() throws Exception {
+        StubDatabase database = new StubDatabase();
+        String script = """
+            INSERT INTO t (id) VALUES (1);
+            INSERT INTO t (id) VALUES (2);
+            INSERT INTO t (id) VALUES (3);
+            INSERT INTO t (id) VALUES (4);
+            INSERT INTO t (id) VALUES (5);
+            """;
+        try (UnifiedDatabaseOperation operation = new UnifiedDatabaseOperationBuilder()
+                .connection(database.connect())
+                .dbType("oracle")
+                .vendor(new OracleVendor())
+                .batchSize(2)
+                .bindLiterals(true)
+                .statementCache(8, false)
+                .build()) {
+            assertEquals(5, operation.executeScript(writeScript(script)));
+        }
+
+        assertEquals(3, database.batches().size());
+        assertEquals(List.of("INSERT INTO t (id) VALUES (?)"), database.prepared());
+        assertEquals(0, database.openStatements());
+    }
+
+    private int run(StubDatabase database, int batchSize, boolean stopOnError, boolean transactional)
+            throws Exception {
+        try (UnifiedDatabaseOperation operation = operation(database, batchSize, stopOnError, transactional, false)) {
+            return operation.executeScript(writeScript(SCRIPT));
+        }
+    }
+
+    private static UnifiedDatabaseOperation operation(StubDatabase database, int batchSize, boolean stopOnError,
+            boolean transactional, boolean bindLiterals) {
+        return new UnifiedDatabaseOperationBuilder()
+            .connection(database.connect())
+            .dbType("oracle")
+            .vendor(new OracleVendor())
+            .batchSize(batchSize)
+            .stopOnError(stopOnError)
+            .transactional(transactional)
+            .bindLiterals(bindLiterals)
+            .build();
+    }
+
+    private File writeScript(String content) throws IOException {
+        Path script = tempDir.resolve("batch.sql");
+        Files.writeString(script, content);
+        return script.toFile();
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.shelldemo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.example.shelldemo.exception.DatabaseException;
+import com.example.shelldemo.spi.OracleVendor;
+import com.example.shelldemo.testutil.NoStackTraceWatcher;
+import com.example.shelldemo.testutil.StubDatabase;
+import com.example.shelldemo.transaction.CommitPolicy;
+
+@ExtendWith(NoStackTraceWatcher.class)
+@DisplayName("Script Commit Scope Tests")
+class ScriptCommitScopeTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final StubDatabase database = new StubDatabase();
+
+    @Test
+    @DisplayName("Should commit every N statements and switch auto-commit once")
+    void testCommitsEveryNStatements() throws Exception {
+        String script = """
+            INSERT INTO t VALUES (1);
+            INSERT INTO t VALUES (2);
+            INSERT INTO t VALUES (3);
+            INSERT INTO t VALUES (4);
+            INSERT INTO t VALUES (5);
+            INSERT INTO t VALUES (6);
+            INSERT INTO t VALUES (7);
+            """;
+
+        assertEquals(7, run(script, CommitPolicy.everyStatements(3), true));
+
+        assertEquals(7, database.applied().size());
+        assertEquals(3, database.commits());
+        assertEquals(2, database.autoCommitSwitches());
+    }
+
+    @Test
+    @DisplayName("Should commit a whole-script scope before DDL and once at the end")
+    void testWholeScriptScopeEndsAtDdl() throws Exception {
+        String script = """
+            INSERT INTO t VALUES (1);
+            INSERT INTO t VALUES (2);
+            CREATE TABLE u (id NUMBER);
+            INSERT INTO t VALUES (3);
+            """;
+
+        assertEquals(4, run(script, CommitPolicy.wholeScript(), true));
+
+        assertEquals(List.of("INSERT INTO t VALUES (1)", "INSERT INTO t VALUES (2)",
+            "CREATE TABLE u (id NUMBER)", "INSERT INTO t VALUES (3)"), database.applied());
+        assertEquals(2, database.commits());
+    }
+
+    @Test
+    @DisplayName("Should roll back only the failing scope and keep earlier scopes committed")
+    void testFailureRollsBackCurrentScope() throws Exception {
+        database.failWhen(sql -> sql.contains("bad"));
+        String script = """
+            INSERT INTO t VALUES (1);
+            INSERT INTO t VALUES (2);
+            INSERT INTO t VALUES (3);
+            INSERT INTO bad VALUES (4);
+            """;
+
+        assertThrows(DatabaseException.class, () -> run(script, CommitPolicy.everyStatements(2), true));
+
+        assertEquals(List.of("INSERT INTO t VALUES (1)", "INSERT INTO t VALUES (2)"), database.applied());
+    }
+
+    @Test
+    @DisplayName("Should not count statements of a rolled back scope as executed when continuing")
+    void testContinuesWithNextScope() throws Exception {
+        database.failWhen(sql -> sql.contains("bad"));
+        String script = """
+            INSERT INTO t VALUES (1);
+            INSERT INTO t VALUES (2);
+            INSERT INTO t VALUES (3);
+            INSERT INTO bad VALUES (4);
+            INSERT INTO t VALUES (5);
+            """;
+
+        assertEquals(3, run(script, CommitPolicy.everyStatements(2), false));
+
+        assertEquals(List.of("INSERT INTO t VALUES (1)", "INSERT INTO t VALUES (2)", "INSERT INTO t VALUES (5)"),
+            database.applied());
+    }
+
+    @Test
+    @DisplayName("Should parse commit scopes given on the command line")
+    void testParsesCommitPolicy() {
+        assertEquals(CommitPolicy.perStatement(), CommitPolicy.parse("statement"));
+        assertEquals(CommitPolicy.wholeScript(), CommitPolicy.parse("SCRIPT"));
+        assertEquals(CommitPolicy.everyStatements(500), CommitPolicy.parse("500"));
+        assertEquals(CommitPolicy.every(Duration.ofMillis(250)), CommitPolicy.parse("250ms"));
+        assertEquals(CommitPolicy.every(Duration.ofSeconds(2)), CommitPolicy.parse("2s"));
+        assertThrows(IllegalArgumentException.class, () -> CommitPolicy.parse("0"));
+        assertThrows(IllegalArgumentException.class, () -> CommitPolicy.parse("often"));
+
+        CommitPolicy interval = CommitPolicy.every(Duration.ofHours(1));
+        assertFalse(interval.isComplete(1_000, System.nanoTime()));
+        assertTrue(interval.isComplete(1, System.nanoTime() - Duration.ofHours(2).toNanos()));
+    }
+
+    private int run(String script, CommitPolicy policy, boolean stopOnError) throws Exception {
+        try (UnifiedDatabaseOperation operation = new UnifiedDatabaseOperationBuilder()
+                .connection(database.connect())
+                .dbType("oracle")
+                .vendor(new OracleVendor())
+                .transactional(true)
+                .commitPolicy(policy)
+                .stopOnError(stopOnError)
+                .build()) {
+            return operation.executeScript(writeScript(script));
+        }
+    }
+
+    private File writeScript(String content) throws IOException {
+        Path script = tempDir.resolve("commit.sql");
+        Files.writeString(script, content);
+        return script.toFile();
+    }
+}
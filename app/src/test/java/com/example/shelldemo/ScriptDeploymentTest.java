@@ -0,0 +1,125 @@
+package com.example.shelldemo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Properties;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.example.shelldemo.connection.ConnectionPool;
+import com.example.shelldemo.connection.PoolSettings;
+import com.example.shelldemo.deploy.DeploymentPlan;
+import com.example.shelldemo.deploy.DeploymentReport;
+import com.example.shelldemo.spi.OracleVendor;
+import com.example.shelldemo.testutil.NoStackTraceWatcher;
+import com.example.shelldemo.testutil.StubDatabase;
+
+@ExtendWith(NoStackTraceWatcher.class)
+@DisplayName("Script Deployment Tests")
+class ScriptDeploymentTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final StubDatabase database = new StubDatabase();
+
+    @Test
+    @DisplayName("Should run the scripts of a group concurrently and the groups in order")
+    void testDeploysGroupsInOrder() throws Exception {
+        for (int i = 1; i <= 4; i++) {
+            write("01_ddl/table_" + i + ".sql", "CREATE TABLE t" + i + " (id NUMBER);\n");
+            write("02_data/load_" + i + ".sql", "INSERT INTO t" + i + " VALUES (1);\nINSERT INTO t" + i + " VALUES (2);\n");
+        }
+
+        DeploymentReport report;
+        try (UnifiedDatabaseOperation operation = operation(3, true)) {
+            report = operation.executeDeployment(DeploymentPlan.of(tempDir));
+        }
+
+        assertTrue(report.succeeded(), report.format());
+        assertEquals(8, report.results().size());
+        assertEquals(12, report.executed());
+        List<String> applied = statementsApplied();
+        assertEquals(12, applied.size());
+        assertTrue(applied.subList(0, 4).stream().allMatch(sql -> sql.startsWith("CREATE TABLE")), applied.toString());
+        assertTrue(database.connectionsOpened() > 1);
+        assertTrue(report.format().contains("| 02_data | load_4.sql  | SUCCEEDED | 2        | 0      |"),
+            report.format());
+    }
+
+    @Test
+    @DisplayName("Should skip later groups after a failing script when stopping on errors")
+    void testStopsAfterFailingGroup() throws Exception {
+        write("01_ddl/good.sql", "CREATE TABLE good (id NUMBER);\n");
+        write("01_ddl/bad.sql", "CREATE TABLE bad (id NUMBER);\n");
+        write("02_data/load.sql", "INSERT INTO good VALUES (1);\n");
+        database.failWhen(sql -> sql.contains("bad"));
+
+        DeploymentReport report;
+        try (UnifiedDatabaseOperation operation = operation(1, true)) {
+            report = operation.executeDeployment(DeploymentPlan.of(tempDir));
+        }
+
+        assertFalse(report.succeeded());
+        assertEquals(List.of(DeploymentReport.Status.FAILED, DeploymentReport.Status.SKIPPED,
+            DeploymentReport.Status.SKIPPED), report.results().stream().map(DeploymentReport.ScriptResult::status).toList());
+        assertTrue(report.results().get(0).error().contains("bad"), report.results().get(0).error());
+        assertTrue(statementsApplied().isEmpty(), statementsApplied().toString());
+    }
+
+    @Test
+    @DisplayName("Should run every script and report failed statements when continuing past errors")
+    void testContinuesPastFailingScript() throws Exception {
+        write("01_ddl/bad.sql", "CREATE TABLE bad (id NUMBER);\nCREATE TABLE good (id NUMBER);\n");
+        write("02_data/load.sql", "INSERT INTO good VALUES (1);\n");
+        database.failWhen(sql -> sql.contains("bad"));
+
+        DeploymentReport report;
+        try (UnifiedDatabaseOperation operation = operation(1, false)) {
+            report = operation.executeDeployment(DeploymentPlan.of(tempDir));
+        }
+
+        DeploymentReport.ScriptResult bad = report.results().get(0);
+        assertEquals(DeploymentReport.Status.FAILED, bad.status());
+        assertEquals(1, bad.executed());
+        assertEquals(1, bad.failed());
+        assertEquals(DeploymentReport.Status.SUCCEEDED, report.results().get(1).status());
+        assertEquals(List.of("CREATE TABLE good (id NUMBER)", "INSERT INTO good VALUES (1)"), statementsApplied());
+    }
+
+    private UnifiedDatabaseOperation operation(int parallelism, boolean stopOnError) throws SQLException {
+        ConnectionPool pool = new ConnectionPool("stub",
+            () -> database.driver().connect("jdbc:stub:deploy", new Properties()), new OracleVendor(),
+            new PoolSettings(1, parallelism + 1, Duration.ofSeconds(5), Duration.ofHours(1), Duration.ofHours(1)));
+        return new UnifiedDatabaseOperationBuilder()
+            .connectionPool(pool)
+            .dbType("oracle")
+            .vendor(new OracleVendor())
+            .parallelism(parallelism)
+            .stopOnError(stopOnError)
+            .build();
+    }
+
+    /**
+     * Statements applied by the deployment, without the session setup of each connection.
+     */
+    private List<String> statementsApplied() {
+        return database.applied().stream().filter(sql -> !sql.startsWith("ALTER SESSION")).toList();
+    }
+
+    private void write(String name, String content) throws Exception {
+        Path file = tempDir.resolve(name);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+    }
+}
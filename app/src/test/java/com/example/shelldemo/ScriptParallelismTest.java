@@ -0,0 +1,214 @@
+package com.example.shelldemo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.example.shelldemo.connection.ConnectionPool;
+import com.example.shelldemo.connection.PoolSettings;
+import com.example.shelldemo.exception.BatchProcessingException;
+import com.example.shelldemo.export.CsvResultSink;
+import com.example.shelldemo.spi.OracleVendor;
+import com.example.shelldemo.testutil.NoStackTraceWatcher;
+import com.example.shelldemo.testutil.StubDatabase;
+
+@ExtendWith(NoStackTraceWatcher.class)
+@DisplayName("Script Parallelism Tests")
+class ScriptParallelismTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final StubDatabase database = new StubDatabase();
+
+    @Test
+    @DisplayName("Should run independent DML statements on several pooled connections")
+    void testParallelDmlUsesLanes() throws Exception {
+        List<String> inserts = IntStream.rangeClosed(1, 30).mapToObj(i -> "INSERT INTO t VALUES (" + i + ")").toList();
+        String script = inserts.stream().map(sql -> sql + ";\n").collect(Collectors.joining())
+            + "CREATE TABLE u (id NUMBER);\n";
+
+        int executed;
+        try (UnifiedDatabaseOperation operation = operation(4, true, true)) {
+            executed = operation.executeScript(writeScript(script));
+        }
+
+        assertEquals(31, executed);
+        List<String> applied = statementsApplied();
+        assertEquals(new HashSet<>(inserts), new HashSet<>(applied.subList(0, 30)));
+        assertEquals("CREATE TABLE u (id NUMBER)", applied.get(30));
+        assertTrue(database.connectionsOpened() > 1);
+    }
+
+    @Test
+    @DisplayName("Should keep DML on the operation's connection unless declared independent")
+    void testDmlStaysSequentialByDefault() throws Exception {
+        String script = """
+            SELECT 1 FROM dual;
+            SELECT 2 FROM dual;
+            SELECT 3 FROM dual;
+            INSERT INTO t VALUES (1);
+            INSERT INTO t VALUES (2);
+            """;
+
+        int executed;
+        try (UnifiedDatabaseOperation operation = operation(4, false, true)) {
+            executed = operation.executeScript(writeScript(script));
+        }
+
+        assertEquals(5, executed);
+        assertEquals(List.of("INSERT INTO t VALUES (1)", "INSERT INTO t VALUES (2)"), statementsApplied());
+        assertEquals(Set.of("SELECT 1 FROM dual", "SELECT 2 FROM dual", "SELECT 3 FROM dual"),
+            new HashSet<>(database.queries()));
+    }
+
+    @Test
+    @DisplayName("Should write every query to its own file in script order, as without parallelism")
+    void testQueriesToFilesStaySequential() throws Exception {
+        database.queryRows(0);
+        Path csv = tempDir.resolve("out.csv");
+        String script = """
+            SELECT 1 FROM dual;
+            SELECT 2 FROM dual;
+            SELECT 3 FROM dual;
+            """;
+
+        ConnectionPool pool = new ConnectionPool("stub",
+            () -> database.driver().connect("jdbc:stub:script", new Properties()), new OracleVendor(),
+            new PoolSettings(1, 5, Duration.ofSeconds(5), Duration.ofHours(1), Duration.ofHours(1)));
+        try (UnifiedDatabaseOperation operation = new UnifiedDatabaseOperationBuilder()
+                .connectionPool(pool)
+                .dbType("oracle")
+                .vendor(new OracleVendor())
+                .parallelism(4)
+                .resultSink(new CsvResultSink(csv, 0, 0))
+                .build()) {
+            assertEquals(3, operation.executeScript(writeScript(script)));
+        }
+
+        for (String name : List.of("out.csv", "out-q2.csv", "out-q3.csv")) {
+            assertEquals("VALUE\r\n", Files.readString(tempDir.resolve(name)), name);
+        }
+        assertEquals(1, database.connectionsOpened());
+    }
+
+    @Test
+    @DisplayName("Should report the failing statement and line of a concurrent run")
+    void testReportsFailingStatement() throws Exception {
+        database.failWhen(sql -> sql.contains("bad"));
+        String script = """
+            INSERT INTO t VALUES (1);
+            INSERT INTO bad VALUES (2);
+            INSERT INTO t VALUES (3);
+            """;
+
+        try (UnifiedDatabaseOperation operation = operation(2, true, true)) {
+            BatchProcessingException e = assertThrows(BatchProcessingException.class,
+                () -> operation.executeScript(writeScript(script)));
+            assertTrue(e.getMessage().startsWith("Independent statement 2 at line 2 failed: INSERT INTO bad VALUES (2)"),
+                e.getMessage());
+            assertEquals(1, e.getFailedItemIndex());
+        }
+    }
+
+    @Test
+    @DisplayName("Should count failures of a concurrent run when continuing past errors")
+    void testContinuesPastFailures() throws Exception {
+        database.failWhen(sql -> sql.contains("bad"));
+        String script = """
+            INSERT INTO t VALUES (1);
+            INSERT INTO bad VALUES (2);
+            INSERT INTO t VALUES (3);
+            INSERT INTO bad VALUES (4);
+            """;
+
+        try (UnifiedDatabaseOperation operation = operation(3, true, false)) {
+            assertEquals(2, operation.executeScript(writeScript(script)));
+        }
+        assertEquals(Set.of("INSERT INTO t VALUES (1)", "INSERT INTO t VALUES (3)"),
+            new HashSet<>(statementsApplied()));
+    }
+
+    @Test
+    @DisplayName("Should run statements after the statements whose objects they use")
+    void testRunsDependentStatementsInOrder() throws Exception {
+        String script = """
+            CREATE TABLE a (id NUMBER);
+            CREATE TABLE b (id NUMBER);
+            CREATE INDEX ix_a ON a (id);
+            CREATE INDEX ix_b ON b (id);
+            GRANT SELECT ON a TO app;
+            COMMENT ON TABLE a IS 'statements after this wait for it';
+            SELECT 1 FROM a;
+            """;
+
+        File scriptFile = writeScript(script);
+        String plan;
+        int executed;
+        try (UnifiedDatabaseOperation operation = operation(4, false, true)) {
+            plan = operation.describePlan(scriptFile);
+            executed = operation.executeScript(scriptFile);
+        }
+
+        assertEquals(7, executed);
+        List<String> applied = statementsApplied();
+        assertTrue(applied.indexOf("CREATE TABLE a (id NUMBER)") < applied.indexOf("CREATE INDEX ix_a ON a (id)"));
+        assertTrue(applied.indexOf("CREATE TABLE a (id NUMBER)") < applied.indexOf("GRANT SELECT ON a TO app"));
+        assertTrue(applied.indexOf("CREATE TABLE b (id NUMBER)") < applied.indexOf("CREATE INDEX ix_b ON b (id)"));
+        assertEquals(6, applied.size());
+        assertEquals("COMMENT ON TABLE a IS 'statements after this wait for it'", applied.get(5));
+        assertEquals(List.of("SELECT 1 FROM a"), database.queries());
+
+        assertTrue(plan.startsWith("Execution plan of parallel.sql: 7 statements in 4 stages"), plan);
+        assertTrue(plan.contains("Stage 1 (2 concurrent statements):\n  1 (line 1) CREATE TABLE a"), plan);
+        assertTrue(plan.contains("Stage 2 (3 concurrent statements):\n  3 (line 3) CREATE INDEX ix_a"), plan);
+        assertTrue(plan.contains("Stage 3 (operation connection):\n  6 (line 6) COMMENT ON TABLE"), plan);
+        assertTrue(plan.contains("Stage 4 (1 statement):\n  7 (line 7) SELECT 1 FROM a"), plan);
+    }
+
+    private UnifiedDatabaseOperation operation(int parallelism, boolean parallelDml, boolean stopOnError)
+            throws SQLException {
+        ConnectionPool pool = new ConnectionPool("stub",
+            () -> database.driver().connect("jdbc:stub:script", new Properties()), new OracleVendor(),
+            new PoolSettings(1, parallelism + 1, Duration.ofSeconds(5), Duration.ofHours(1), Duration.ofHours(1)));
+        return new UnifiedDatabaseOperationBuilder()
+            .connectionPool(pool)
+            .dbType("oracle")
+            .vendor(new OracleVendor())
+            .parallelism(parallelism)
+            .parallelDml(parallelDml)
+            .stopOnError(stopOnError)
+            .build();
+    }
+
+    /**
+     * Statements applied by the script, without the session setup of each connection.
+     */
+    private List<String> statementsApplied() {
+        return database.applied().stream().filter(sql -> !sql.startsWith("ALTER SESSION")).toList();
+    }
+
+    private File writeScript(String content) throws IOException {
+        Path script = tempDir.resolve("parallel.sql");
+        Files.writeString(script, content);
+        return script.toFile();
+    }
+}
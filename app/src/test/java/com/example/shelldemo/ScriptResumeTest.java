@@ -0,0 +1,86 @@
+package com.example.shelldemo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.example.shelldemo.exception.DatabaseException;
+import com.example.shelldemo.spi.OracleVendor;
+import com.example.shelldemo.testutil.NoStackTraceWatcher;
+import com.example.shelldemo.testutil.StubDatabase;
+import com.example.shelldemo.transaction.CommitPolicy;
+
+@ExtendWith(NoStackTraceWatcher.class)
+@DisplayName("Script Resume Tests")
+class ScriptResumeTest {
+
+    private static final List<String> INSERTS = IntStream.rangeClosed(1, 10)
+        .mapToObj(i -> "INSERT INTO t VALUES (" + i + ")").toList();
+
+    @TempDir
+    Path tempDir;
+
+    private final StubDatabase database = new StubDatabase();
+
+    @Test
+    @DisplayName("Should resume a failed script at the first uncommitted statement")
+    void testResumesAtFirstUncommittedStatement() throws Exception {
+        File script = writeScript();
+        Path journal = tempDir.resolve("resume.journal");
+        database.failWhen(sql -> sql.endsWith("(8)"));
+
+        assertThrows(DatabaseException.class, () -> run(script, journal, false, false));
+        assertEquals(INSERTS.subList(0, 6), database.applied());
+
+        database.failWhen(sql -> false);
+        assertEquals(4, run(script, journal, true, false));
+        assertEquals(INSERTS, database.applied());
+
+        assertEquals(0, run(script, journal, true, false));
+    }
+
+    @Test
+    @DisplayName("Should resume with the parse-ahead pipeline")
+    void testResumesPipelined() throws Exception {
+        File script = writeScript();
+        Path journal = tempDir.resolve("resume.journal");
+        database.failWhen(sql -> sql.endsWith("(5)"));
+
+        assertThrows(DatabaseException.class, () -> run(script, journal, false, true));
+        database.failWhen(sql -> false);
+
+        assertEquals(7, run(script, journal, true, true));
+        assertEquals(INSERTS, database.applied());
+    }
+
+    private int run(File script, Path journal, boolean resume, boolean pipelined) throws Exception {
+        try (UnifiedDatabaseOperation operation = new UnifiedDatabaseOperationBuilder()
+                .connection(database.connect())
+                .dbType("oracle")
+                .vendor(new OracleVendor())
+                .transactional(true)
+                .commitPolicy(CommitPolicy.everyStatements(3))
+                .pipelineCapacity(pipelined ? 2 : 0)
+                .journal(journal, resume)
+                .build()) {
+            return operation.executeScript(script);
+        }
+    }
+
+    private File writeScript() throws Exception {
+        Path script = tempDir.resolve("resume.sql");
+        Files.writeString(script, INSERTS.stream().map(sql -> sql + ";\n").collect(Collectors.joining()));
+        return script.toFile();
+    }
+}
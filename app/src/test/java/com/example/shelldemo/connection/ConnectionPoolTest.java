@@ -0,0 +1,204 @@
+package com.example.shelldemo.connection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import com.example.shelldemo.spi.OracleVendor;
+import com.example.shelldemo.testutil.NoStackTraceWatcher;
+import com.example.shelldemo.testutil.StubDatabase;
+
+@ExtendWith(NoStackTraceWatcher.class)
+@DisplayName("Connection Pool Tests")
+class ConnectionPoolTest {
+
+    private static final Duration NEVER = Duration.ofHours(1);
+
+    private final StubDatabase database = new StubDatabase();
+    private final Driver driver = database.driver();
+
+    @Test
+    @DisplayName("Should open the minimum size up front and initialise each physical connection once")
+    void testInitialisesEachPhysicalConnectionOnce() throws SQLException {
+        try (ConnectionPool pool = pool(new PoolSettings(2, 4, Duration.ofSeconds(1), NEVER, NEVER))) {
+            assertEquals(2, database.connectionsOpened());
+            for (int i = 0; i < 5; i++) {
+                try (Connection connection = pool.getConnection()) {
+                    assertFalse(connection.isClosed());
+                }
+            }
+
+            assertEquals(2, database.connectionsOpened());
+            assertEquals(4, database.applied().stream().filter(sql -> sql.startsWith("ALTER SESSION")).count());
+            assertEquals(5, pool.getStats().acquisitions());
+        }
+        assertEquals(0, database.openConnections());
+    }
+
+    @Test
+    @DisplayName("Should time out when every connection is borrowed")
+    void testAcquisitionTimesOut() throws SQLException {
+        try (ConnectionPool pool = pool(new PoolSettings(0, 1, Duration.ofMillis(50), NEVER, NEVER));
+             Connection held = pool.getConnection()) {
+            assertThrows(SQLTimeoutException.class, pool::getConnection);
+
+            ConnectionPool.Stats stats = pool.getStats();
+            assertEquals(1, stats.timeouts());
+            assertEquals(1, stats.active());
+            assertTrue(held.isValid(1));
+        }
+    }
+
+    @Test
+    @DisplayName("Should hand a returned connection to a waiting virtual thread")
+    void testWaiterReceivesReturnedConnection() throws Exception {
+        try (ConnectionPool pool = pool(new PoolSettings(0, 1, Duration.ofSeconds(5), NEVER, NEVER));
+             var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Connection held = pool.getConnection();
+            CompletableFuture<Void> waiting = new CompletableFuture<>();
+            Future<Boolean> waiter = executor.submit(() -> {
+                waiting.complete(null);
+                try (Connection connection = pool.getConnection()) {
+                    return connection.isValid(1);
+                }
+            });
+            waiting.get(5, TimeUnit.SECONDS);
+            held.close();
+
+            assertTrue(waiter.get(5, TimeUnit.SECONDS));
+            assertEquals(1, database.connectionsOpened());
+            assertEquals(2, pool.getStats().acquisitions());
+        }
+    }
+
+    @Test
+    @DisplayName("Should replace a connection that fails validation")
+    void testReplacesConnectionFailingValidation() throws SQLException {
+        try (ConnectionPool pool = pool(new PoolSettings(1, 2, Duration.ofSeconds(1), NEVER, Duration.ZERO))) {
+            database.breakConnections();
+            try (Connection connection = pool.getConnection()) {
+                assertTrue(connection.isValid(1));
+            }
+
+            assertEquals(2, database.connectionsOpened());
+            assertEquals(1, database.openConnections());
+            assertEquals(List.of("SELECT 1 FROM DUAL"), database.queries());
+            assertEquals(1, pool.getStats().discarded());
+        }
+    }
+
+    @Test
+    @DisplayName("Should discard a connection that failed with a connection error while borrowed")
+    void testDiscardsBrokenConnectionOnReturn() throws SQLException {
+        try (ConnectionPool pool = pool(new PoolSettings(1, 2, Duration.ofSeconds(1), NEVER, NEVER))) {
+            try (Connection connection = pool.getConnection()) {
+                database.breakConnections();
+                assertThrows(SQLException.class, () -> connection.setAutoCommit(false));
+            }
+
+            ConnectionPool.Stats stats = pool.getStats();
+            assertEquals(0, stats.total());
+            assertEquals(1, stats.discarded());
+            assertEquals(0, database.openConnections());
+        }
+    }
+
+    @Test
+    @DisplayName("Should hand out statements whose connection is the lease, not the physical connection")
+    void testStatementsReturnTheLease() throws SQLException {
+        try (ConnectionPool pool = pool(new PoolSettings(1, 1, Duration.ofSeconds(1), NEVER, NEVER))) {
+            try (Connection connection = pool.getConnection();
+                 Statement statement = connection.prepareStatement("SELECT 1 FROM dual")) {
+                assertSame(connection, statement.getConnection());
+                statement.getConnection().close();
+            }
+            assertEquals(1, pool.getStats().idle());
+            assertEquals(1, database.openConnections());
+
+            try (Connection connection = pool.getConnection();
+                 Statement statement = connection.createStatement()) {
+                database.breakConnections();
+                assertThrows(SQLException.class, () -> statement.execute("SELECT 1 FROM dual"));
+            }
+            assertEquals(1, pool.getStats().discarded());
+        }
+    }
+
+    @Test
+    @DisplayName("Should roll back an open transaction when a connection is returned")
+    void testRollsBackOnReturn() throws SQLException {
+        try (ConnectionPool pool = pool(new PoolSettings(1, 1, Duration.ofSeconds(1), NEVER, NEVER))) {
+            try (Connection connection = pool.getConnection();
+                 Statement statement = connection.createStatement()) {
+                connection.setAutoCommit(false);
+                statement.executeUpdate("INSERT INTO t VALUES (1)");
+            }
+            try (Connection connection = pool.getConnection()) {
+                assertTrue(connection.getAutoCommit());
+            }
+
+            assertFalse(database.applied().contains("INSERT INTO t VALUES (1)"));
+        }
+    }
+
+    @Test
+    @DisplayName("Should close connections above the minimum once they have been idle")
+    void testEvictsIdleConnections() throws Exception {
+        try (ConnectionPool pool = pool(new PoolSettings(1, 3, Duration.ofSeconds(1), Duration.ofMillis(1), NEVER))) {
+            Connection first = pool.getConnection();
+            Connection second = pool.getConnection();
+            Connection third = pool.getConnection();
+            first.close();
+            second.close();
+            third.close();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (database.openConnections() > 1 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+
+            assertEquals(1, pool.getStats().total());
+            assertEquals(1, database.openConnections());
+            assertThrows(SQLException.class, () -> first.createStatement());
+        }
+    }
+
+    @Test
+    @DisplayName("Should report acquisition latency and utilisation")
+    void testReportsMetrics() throws Exception {
+        try (ConnectionPool pool = pool(new PoolSettings(1, 2, Duration.ofSeconds(1), NEVER, NEVER))) {
+            try (Connection connection = pool.getConnection()) {
+                Thread.sleep(20);
+            }
+
+            ConnectionPool.Stats stats = pool.getStats();
+            assertEquals(1, stats.acquisitions());
+            assertEquals(0, stats.active());
+            assertTrue(stats.maxAcquireMillis() >= stats.meanAcquireMillis());
+            assertTrue(stats.utilisation() > 0 && stats.utilisation() <= 0.5, stats.toString());
+        }
+    }
+
+    private ConnectionPool pool(PoolSettings settings) throws SQLException {
+        return new ConnectionPool("stub", () -> driver.connect("jdbc:stub:test", new Properties()),
+            new OracleVendor(), settings);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.shelldemo.connection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.SQLException;
+import java.util.Properties;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import com.example.shelldemo.spi.OracleVendor;
+import com.example.shelldemo.testutil.NoStackTraceWatcher;
+import com.example.shelldemo.testutil.StubDatabase;
+
+@ExtendWith(NoStackTraceWatcher.class)
+@DisplayName("Pool Registry Tests")
+class PoolRegistryTest {
+
+    private final StubDatabase database = new StubDatabase();
+    private final Driver driver = database.driver();
+
+    private final DatabaseConnectionFactory factory = new DatabaseConnectionFactory() {
+        @Override
+        public ConnectionPool createPool(ConnectionConfig config, PoolSettings settings) throws SQLException {
+            return new ConnectionPool(config.username(), () -> driver.connect("jdbc:stub:test", new Properties()),
+                new OracleVendor(), settings);
+        }
+    };
+
+    @Test
+    @DisplayName("Should keep one pool per database and user, and replace it when the password or size changes")
+    void testReplacesPoolOnPasswordOrSizeChange() throws SQLException {
+        try (PoolRegistry registry = new PoolRegistry(factory)) {
+            ConnectionPool pool = registry.poolFor(config("app", "secret"), 1);
+            assertSame(pool, registry.poolFor(config("app", "secret"), 1));
+            assertNotSame(pool, registry.poolFor(config("report", "secret"), 1));
+
+            Connection borrowed = pool.getConnection();
+            ConnectionPool rotated = registry.poolFor(config("app", "rotated"), 1);
+            assertNotSame(pool, rotated);
+            assertThrows(SQLException.class, pool::getConnection);
+            borrowed.close();
+
+            ConnectionPool larger = registry.poolFor(config("app", "rotated"), 40);
+            assertNotSame(rotated, larger);
+            assertTrue(larger.getSettings().maxSize() >= 40);
+            assertSame(larger, registry.poolFor(config("app", "rotated"), 2));
+            assertEquals(2, registry.getStats().size());
+        }
+        assertEquals(0, database.openConnections());
+    }
+
+    private static ConnectionConfig config(String username, String password) {
+        return new ConnectionConfig("db.example.com", 1521, username, password, "ORCL", "oracle", "thin");
+    }
+}
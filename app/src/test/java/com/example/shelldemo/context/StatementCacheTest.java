@@ -0,0 +1,116 @@
+package com.example.shelldemo.context;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import com.example.shelldemo.spi.OracleVendor;
+import com.example.shelldemo.spi.PostgreSqlVendor;
+import com.example.shelldemo.testutil.NoStackTraceWatcher;
+import com.example.shelldemo.testutil.StubDatabase;
+
+@ExtendWith(NoStackTraceWatcher.class)
+@DisplayName("Statement Cache Tests")
+class StatementCacheTest {
+
+    private final StubDatabase database = new StubDatabase();
+
+    @Test
+    @DisplayName("Should reuse a released statement for the same SQL")
+    void testReusesReleasedStatement() throws SQLException {
+        try (StatementCache cache = new StatementCache(database.connect(), new OracleVendor(), 4, false)) {
+            PreparedStatement first;
+            try (StatementCache.Lease lease = cache.borrow("SELECT 1 FROM dual")) {
+                first = lease.statement();
+            }
+            try (StatementCache.Lease lease = cache.borrow("SELECT 1 FROM dual")) {
+                assertSame(first, lease.statement());
+            }
+
+            assertEquals(StatementCache.Mode.CLIENT, cache.getMode());
+            assertEquals(List.of("SELECT 1 FROM dual"), database.prepared());
+            StatementCache.Stats stats = cache.getStats();
+            assertEquals(1, stats.hits());
+            assertEquals(1, stats.misses());
+            assertEquals(1, stats.size());
+        }
+        assertEquals(0, database.openStatements());
+    }
+
+    @Test
+    @DisplayName("Should close the least recently used statement when full")
+    void testEvictsLeastRecentlyUsed() throws SQLException {
+        try (StatementCache cache = new StatementCache(database.connect(), new OracleVendor(), 2, false)) {
+            borrowAndRelease(cache, "SELECT 1 FROM dual");
+            borrowAndRelease(cache, "SELECT 2 FROM dual");
+            borrowAndRelease(cache, "SELECT 1 FROM dual");
+            borrowAndRelease(cache, "SELECT 3 FROM dual");
+            borrowAndRelease(cache, "SELECT 1 FROM dual");
+            borrowAndRelease(cache, "SELECT 2 FROM dual");
+
+            assertEquals(List.of("SELECT 1 FROM dual", "SELECT 2 FROM dual", "SELECT 3 FROM dual", "SELECT 2 FROM dual"),
+                database.prepared());
+            assertEquals(2, cache.getStats().evictions());
+            assertEquals(2, database.openStatements());
+        }
+        assertEquals(0, database.openStatements());
+    }
+
+    @Test
+    @DisplayName("Should never hand one statement to two borrowers")
+    void testConcurrentBorrowersGetDistinctStatements() throws SQLException {
+        try (StatementCache cache = new StatementCache(database.connect(), new OracleVendor(), 4, false)) {
+            StatementCache.Lease first = cache.borrow("SELECT 1 FROM dual");
+            StatementCache.Lease second = cache.borrow("SELECT 1 FROM dual");
+            assertNotSame(first.statement(), second.statement());
+
+            first.close();
+            second.close();
+            first.close();
+
+            assertEquals(1, cache.getStats().size());
+            assertEquals(1, database.openStatements());
+        }
+    }
+
+    @Test
+    @DisplayName("Should close every statement when disabled")
+    void testDisabledCacheClosesStatements() throws SQLException {
+        try (StatementCache cache = new StatementCache(database.connect(), new OracleVendor(), 0, false)) {
+            borrowAndRelease(cache, "SELECT 1 FROM dual");
+            borrowAndRelease(cache, "SELECT 1 FROM dual");
+
+            assertEquals(StatementCache.Mode.DISABLED, cache.getMode());
+            assertEquals(2, database.prepared().size());
+            assertEquals(0, database.openStatements());
+        }
+    }
+
+    @Test
+    @DisplayName("Should delegate to the driver cache when the vendor supports it")
+    void testDelegatesToDriverCache() throws SQLException {
+        try (StatementCache postgres = new StatementCache(database.connect(), new PostgreSqlVendor(), 4, true);
+             StatementCache oracle = new StatementCache(database.connect(), new OracleVendor(), 4, true)) {
+            borrowAndRelease(postgres, "SELECT 1");
+
+            assertEquals(StatementCache.Mode.DRIVER, postgres.getMode());
+            // The stub connection is not an OracleConnection
+            assertEquals(StatementCache.Mode.CLIENT, oracle.getMode());
+            assertEquals(0, database.openStatements());
+        }
+    }
+
+    private static void borrowAndRelease(StatementCache cache, String sql) throws SQLException {
+        try (StatementCache.Lease lease = cache.borrow(sql)) {
+            lease.statement().executeQuery();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.shelldemo.daemon;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.example.shelldemo.UnifiedDatabaseRunner;
+import com.example.shelldemo.testutil.NoStackTraceWatcher;
+
+@ExtendWith(NoStackTraceWatcher.class)
+@DisplayName("Daemon Server Tests")
+class DaemonServerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should run a client's command and relay its output and exit code")
+    void testRunsClientCommand() throws Exception {
+        Path socket = tempDir.resolve("daemon.sock");
+        try (DaemonServer server = new DaemonServer(socket, (request, out, err) -> {
+            out.println("cwd " + request.workingDirectory());
+            out.println("args " + String.join(" ", request.arguments()));
+            err.println("warning");
+            return 7;
+        })) {
+            Thread.ofVirtual().start(server::serve);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+            int exitCode = DaemonClient.run(socket, Path.of("/work"), List.of("-t", "oracle", "script é.sql"),
+                new PrintStream(out, true, StandardCharsets.UTF_8), new PrintStream(err, true, StandardCharsets.UTF_8));
+
+            assertEquals(7, exitCode);
+            assertEquals("cwd /work\nargs -t oracle script é.sql\n", out.toString(StandardCharsets.UTF_8));
+            assertEquals("warning\n", err.toString(StandardCharsets.UTF_8));
+            assertTrue(DaemonServer.isListening(socket));
+            assertEquals("rw-------", PosixFilePermissions.toString(Files.getPosixFilePermissions(socket)));
+            try (Stream<Path> files = Files.list(tempDir)) {
+                assertEquals(List.of(socket), files.toList(), "The directory the socket was bound in is removed");
+            }
+        }
+        assertFalse(Files.exists(socket));
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        assertEquals(3, DaemonClient.run(socket, tempDir, List.of(), new PrintStream(new ByteArrayOutputStream()),
+            new PrintStream(err, true, StandardCharsets.UTF_8)));
+        assertTrue(err.toString(StandardCharsets.UTF_8).contains("Cannot run the command on the daemon"));
+    }
+
+    @Test
+    @DisplayName("Should refuse a socket in use and replace a stale one")
+    void testSocketInUse() throws Exception {
+        Path socket = tempDir.resolve("daemon.sock");
+        try (DaemonServer server = new DaemonServer(socket, (request, out, err) -> 0)) {
+            Thread.ofVirtual().start(server::serve);
+            assertThrows(IllegalStateException.class, () -> new DaemonServer(socket, (request, out, err) -> 0));
+        }
+        Files.createFile(socket);
+        try (DaemonServer server = new DaemonServer(socket, (request, out, err) -> 0)) {
+            assertTrue(DaemonServer.isListening(socket));
+        }
+    }
+
+    @Test
+    @DisplayName("Should refuse to write rows to the daemon's standard output")
+    void testRefusesStandardOutput() throws Exception {
+        Path script = Files.writeString(tempDir.resolve("export.sql"), "SELECT 1;\n");
+        StringWriter errors = new StringWriter();
+        UnifiedDatabaseRunner.Session session = new UnifiedDatabaseRunner.Session(tempDir, text -> { },
+            new PrintWriter(errors, true), false, null, null);
+        for (List<String> output : List.of(List.of("--arrow-output", "-"),
+                List.of("--output-format", "jsonl", "--output-file", "-"))) {
+            List<String> args = new ArrayList<>(List.of("-t", "postgresql", "-H", "localhost", "-u", "hr", "-p", "secret",
+                "-d", "db"));
+            args.addAll(output);
+            args.add(script.toString());
+            assertEquals(2, UnifiedDatabaseRunner.execute(session, new PrintWriter(new StringWriter()),
+                new PrintWriter(new StringWriter()), args.toArray(String[]::new)));
+            assertTrue(errors.toString().contains("Output to standard output (-) is not available"), errors.toString());
+            errors.getBuffer().setLength(0);
+        }
+    }
+
+    @Test
+    @DisplayName("Should reuse a fetched password until it expires")
+    void testCredentialCache() throws Exception {
+        AtomicInteger fetches = new AtomicInteger();
+        CredentialCache cache = new CredentialCache(Duration.ofMillis(200));
+        List<String> lookup = List.of("vault", "role", "secret", "ORCL", "ait", "hr");
+
+        assertEquals("pw1", cache.get(lookup, () -> "pw" + fetches.incrementAndGet()));
+        assertEquals("pw1", cache.get(lookup, () -> "pw" + fetches.incrementAndGet()));
+        assertEquals("pw2", cache.get(List.of("other"), () -> "pw" + fetches.incrementAndGet()));
+        Thread.sleep(250);
+        assertEquals("pw3", cache.get(lookup, () -> "pw" + fetches.incrementAndGet()));
+        assertEquals("pw4", new CredentialCache(Duration.ZERO).get(lookup, () -> "pw" + fetches.incrementAndGet()));
+    }
+}
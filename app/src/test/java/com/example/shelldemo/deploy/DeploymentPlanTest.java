@@ -0,0 +1,93 @@
+package com.example.shelldemo.deploy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.example.shelldemo.testutil.NoStackTraceWatcher;
+
+@ExtendWith(NoStackTraceWatcher.class)
+@DisplayName("Deployment Plan Tests")
+class DeploymentPlanTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should group the scripts of a directory by subdirectory in name order")
+    void testDirectoryGroups() throws Exception {
+        write("02_data/b.sql");
+        write("02_data/a.sql");
+        write("01_ddl/tables.sql");
+        write("01_ddl/nested/indexes.sql");
+        write("00_setup.sql");
+        write("README.md");
+        Files.createDirectories(tempDir.resolve("03_empty"));
+
+        DeploymentPlan plan = DeploymentPlan.of(tempDir);
+
+        assertEquals(List.of(tempDir.getFileName().toString(), "01_ddl", "02_data"),
+            plan.groups().stream().map(DeploymentPlan.Group::name).toList());
+        assertEquals(List.of("00_setup.sql"), names(plan.groups().get(0)));
+        assertEquals(List.of("indexes.sql", "tables.sql"), names(plan.groups().get(1)));
+        assertEquals(List.of("a.sql", "b.sql"), names(plan.groups().get(2)));
+        assertTrue(DeploymentPlan.isDeployment(tempDir));
+    }
+
+    @Test
+    @DisplayName("Should read groups, directories and wildcards from a manifest")
+    void testManifest() throws Exception {
+        write("ddl/tables.sql");
+        write("ddl/views.sql");
+        write("data/load_1.sql");
+        write("data/load_2.sql");
+        write("data/cleanup.sql");
+        Path manifest = tempDir.resolve("release.manifest");
+        Files.writeString(manifest, """
+            # Release 4.2
+            [ddl]
+            ddl/
+
+            [data]
+            data/load_*.sql
+            data/cleanup.sql
+            """);
+
+        DeploymentPlan plan = DeploymentPlan.of(manifest);
+
+        assertEquals(List.of("ddl", "data"), plan.groups().stream().map(DeploymentPlan.Group::name).toList());
+        assertEquals(List.of("tables.sql", "views.sql"), names(plan.groups().get(0)));
+        assertEquals(List.of("load_1.sql", "load_2.sql", "cleanup.sql"), names(plan.groups().get(1)));
+        assertTrue(plan.describe().contains("Group 2 data (3 concurrent scripts):"), plan.describe());
+    }
+
+    @Test
+    @DisplayName("Should reject a manifest entry that names no script")
+    void testMissingManifestEntry() throws Exception {
+        Path manifest = tempDir.resolve("release.manifest");
+        Files.writeString(manifest, "[ddl]\nddl/missing.sql\n");
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> DeploymentPlan.of(manifest));
+        assertTrue(e.getMessage().contains("line 2"), e.getMessage());
+    }
+
+    private void write(String name) throws Exception {
+        Path file = tempDir.resolve(name);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, "SELECT 1 FROM dual;\n");
+    }
+
+    private static List<String> names(DeploymentPlan.Group group) {
+        return group.files().stream().map(File::getName).toList();
+    }
+}
@@ -0,0 +1,506 @@
+package com.example.shelldemo.export;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.DateDayVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.ValueVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowFileReader;
+import org.apache.arrow.vector.ipc.ArrowReader;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.apache.arrow.vector.ipc.message.ArrowBlock;
+import org.apache.arrow.vector.types.pojo.DictionaryEncoding;
+import org.apache.arrow.vector.util.Text;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.example.shelldemo.UnifiedDatabaseOperation;
+import com.example.shelldemo.UnifiedDatabaseOperationBuilder;
+import com.example.shelldemo.spi.OracleVendor;
+import com.example.shelldemo.sqlhandling.ColumnHeader;
+import com.example.shelldemo.sqlhandling.ColumnReader;
+import com.example.shelldemo.sqlhandling.ColumnType;
+import com.example.shelldemo.sqlhandling.Row;
+import com.example.shelldemo.testutil.NoStackTraceWatcher;
+import com.example.shelldemo.testutil.StubDatabase;
+
+@ExtendWith(NoStackTraceWatcher.class)
+@DisplayName("Arrow Row Writer Tests")
+class ArrowRowWriterTest {
+
+    private static final List<String> LABELS = List.of("ID", "REGION", "AMOUNT", "RATIO", "PAID", "DAY", "NOTE");
+    private static final ColumnHeader HEADER = ColumnHeader.of(LABELS, List.of(
+        new ColumnType(Types.BIGINT, 19, 0, ColumnReader.LONG),
+        new ColumnType(Types.VARCHAR, 10, 0, ColumnReader.STRING),
+        new ColumnType(Types.NUMERIC, 10, 2, ColumnReader.OBJECT),
+        new ColumnType(Types.DOUBLE, 15, 0, ColumnReader.DOUBLE),
+        new ColumnType(Types.BOOLEAN, 1, 0, ColumnReader.BOOLEAN),
+        new ColumnType(Types.DATE, 10, 0, ColumnReader.OBJECT),
+        new ColumnType(Types.VARCHAR, 40, 0, ColumnReader.STRING)));
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should write typed columns, nulls and growing dictionaries as an Arrow file")
+    void testWritesArrowFile() throws Exception {
+        Path file = tempDir.resolve("out.arrow");
+        List<Object[]> rows = rows(30);
+        try (ArrowRowWriter writer = new ArrowRowWriter(file, ArrowRowWriter.Format.FILE, 10, 1 << 20)) {
+            write(writer, rows);
+        }
+
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals("ARROW1", ascii(bytes, 0, 6));
+        assertEquals("ARROW1", ascii(bytes, bytes.limit() - 6, 6));
+        int footerLength = bytes.getInt(bytes.limit() - 10);
+        Table footer = Table.root(bytes, bytes.limit() - 10 - footerLength);
+        assertEquals(4, footer.getShort(0, 0));
+
+        List<Table> fields = footer.table(1).tables(1);
+        assertEquals(LABELS, fields.stream().map(field -> field.string(0)).toList());
+        // Int, Utf8, Decimal, FloatingPoint, Bool, Date, Utf8
+        assertArrayEquals(new int[] {2, 5, 7, 3, 6, 8, 5},
+            fields.stream().mapToInt(field -> field.getByte(2, 0)).toArray());
+        assertEquals(64, fields.get(0).table(3).getInt(0, 0));
+        assertEquals(10, fields.get(2).table(3).getInt(0, 0));
+        assertEquals(2, fields.get(2).table(3).getInt(1, 0));
+        assertTrue(fields.get(1).has(4), "REGION is dictionary encoded");
+        assertFalse(fields.get(6).has(4), "NOTE is not dictionary encoded");
+
+        Map<Long, List<Object>> dictionaries = new HashMap<>();
+        List<long[]> dictionaryBlocks = footer.structs(2, 24);
+        assertEquals(1, dictionaryBlocks.size());
+        readMessage(bytes, dictionaryBlocks.get(0), fields, dictionaries, null);
+        // The first batch has two regions and the third adds one, all in the single dictionary batch
+        assertEquals(List.of("south", "north", "east"), dictionaries.get(1L));
+        List<List<Object>> columns = columns();
+        List<long[]> batches = footer.structs(3, 24);
+        assertEquals(3, batches.size());
+        for (long[] block : batches) {
+            readMessage(bytes, block, fields, dictionaries, columns);
+        }
+        assertEquals(expected(rows), columns);
+    }
+
+    @Test
+    @DisplayName("Should write the streaming format with a schema, batches and an end marker")
+    void testWritesArrowStream() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        List<Object[]> rows = rows(7);
+        try (ArrowRowWriter writer = new ArrowRowWriter(Channels.newChannel(out), 1000, 100)) {
+            write(writer, rows);
+        }
+
+        ByteBuffer bytes = ByteBuffer.wrap(out.toByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+        List<Integer> types = new ArrayList<>();
+        List<Table> fields = null;
+        Map<Long, List<Object>> dictionaries = new HashMap<>();
+        List<List<Object>> columns = columns();
+        int offset = 0;
+        while (true) {
+            assertEquals(-1, bytes.getInt(offset));
+            int metadataLength = bytes.getInt(offset + 4);
+            if (metadataLength == 0) {
+                assertEquals(bytes.limit(), offset + 8);
+                break;
+            }
+            Table message = Table.root(bytes, offset + 8);
+            types.add((int) message.getByte(1, 0));
+            if (fields == null) {
+                fields = message.table(2).tables(1);
+            } else {
+                readMessage(bytes, new long[] {offset, 8 + metadataLength, message.getLong(3, 0)}, fields,
+                    dictionaries, columns);
+            }
+            offset += 8 + metadataLength + (int) message.getLong(3, 0);
+        }
+        // A 100-byte budget ends a batch after every 256 rows or, in the
+        // held-back first batch, as soon as it is reached
+        assertEquals(1, types.get(0));
+        assertEquals(3, types.get(types.size() - 1));
+        assertTrue(types.stream().filter(type -> type == 3).count() >= 2, types.toString());
+        assertEquals(expected(rows), columns);
+    }
+
+    @Test
+    @DisplayName("Should write files and streams the Arrow Java reader reads back")
+    void testReadsBackWithArrowReader() throws Exception {
+        Path file = tempDir.resolve("out.arrow");
+        List<Object[]> rows = rows(30);
+        try (ArrowRowWriter writer = new ArrowRowWriter(file, ArrowRowWriter.Format.FILE, 10, 1 << 20)) {
+            write(writer, rows);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ArrowRowWriter writer = new ArrowRowWriter(Channels.newChannel(out), 1000, 100)) {
+            write(writer, rows);
+        }
+
+        try (BufferAllocator allocator = new RootAllocator();
+             ArrowFileReader fileReader = new ArrowFileReader(Files.newByteChannel(file), allocator);
+             ArrowStreamReader streamReader = new ArrowStreamReader(
+                 new ByteArrayInputStream(out.toByteArray()), allocator)) {
+            List<List<Object>> columns = columns();
+            for (ArrowBlock block : fileReader.getRecordBlocks()) {
+                assertTrue(fileReader.loadRecordBatch(block));
+                readBatch(fileReader, columns);
+            }
+            assertEquals(3, fileReader.getRecordBlocks().size());
+            assertEquals(expected(rows), columns);
+
+            columns = columns();
+            while (streamReader.loadNextBatch()) {
+                readBatch(streamReader, columns);
+            }
+            assertEquals(expected(rows), columns);
+        }
+    }
+
+    @Test
+    @DisplayName("Should replace a full dictionary in a stream and refuse to grow one past its cap in a file")
+    void testReplacesFullDictionary() throws Exception {
+        // The first batch repeats its regions, so the column is dictionary encoded; every later region is new
+        List<Object[]> rows = rows(400);
+        for (int i = 40; i < rows.size(); i++) {
+            rows.get(i)[1] = "region " + i + " " + "x".repeat(20);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ArrowRowWriter writer = new ArrowRowWriter(Channels.newChannel(out), 40, 4096)) {
+            write(writer, rows);
+        }
+
+        try (BufferAllocator allocator = new RootAllocator();
+             ArrowStreamReader reader = new ArrowStreamReader(new ByteArrayInputStream(out.toByteArray()), allocator)) {
+            List<List<Object>> columns = columns();
+            int batches = 0;
+            while (reader.loadNextBatch()) {
+                assertTrue(reader.getVectorSchemaRoot().getVector(1).getField().getDictionary() != null);
+                readBatch(reader, columns);
+                batches++;
+            }
+            assertEquals(expected(rows), columns);
+            assertTrue(batches > 10, "Batches end early when the dictionary is replaced: " + batches);
+        }
+
+        Path file = tempDir.resolve("out.arrow");
+        try (ArrowRowWriter writer = new ArrowRowWriter(file, ArrowRowWriter.Format.FILE, 40, 4096)) {
+            IOException e = assertThrows(IOException.class, () -> write(writer, rows));
+            assertTrue(e.getMessage().contains("Column REGION has more distinct values"), e.getMessage());
+        }
+    }
+
+    @Test
+    @DisplayName("Should write each query of a script to its own Arrow file")
+    void testScriptWritesQueriesToArrowFiles() throws Exception {
+        StubDatabase database = new StubDatabase().queryRows(1_000);
+        Path script = tempDir.resolve("export.sql");
+        Files.writeString(script, "SELECT value FROM t;\nSELECT value FROM u;\n");
+        Path arrow = tempDir.resolve("export.arrow");
+
+        UnifiedDatabaseOperation.ScriptSummary summary;
+        try (UnifiedDatabaseOperation operation = new UnifiedDatabaseOperationBuilder()
+                .connection(database.connect())
+                .dbType("oracle")
+                .vendor(new OracleVendor())
+                .resultSink(new ArrowResultSink(arrow, ArrowRowWriter.DEFAULT_BATCH_ROWS,
+                    ArrowRowWriter.DEFAULT_BATCH_BYTES))
+                .build()) {
+            summary = operation.executeScript(script.toFile(), null, line -> { });
+        }
+
+        assertEquals(2_000, summary.rows());
+        for (Path file : List.of(arrow, tempDir.resolve("export-q2.arrow"))) {
+            ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+            Table footer = Table.root(bytes, bytes.limit() - 10 - bytes.getInt(bytes.limit() - 10));
+            List<Table> fields = footer.table(1).tables(1);
+            assertEquals("VALUE", fields.get(0).string(0));
+            List<List<Object>> columns = new ArrayList<>(List.of(new ArrayList<>()));
+            for (long[] block : footer.structs(3, 24)) {
+                readMessage(bytes, block, fields, Map.of(), columns);
+            }
+            assertEquals(1_000, columns.get(0).size());
+            assertEquals(1_000L, columns.get(0).get(999));
+        }
+        assertEquals(ArrowRowWriter.Format.STREAM, ArrowResultSink.formatOf(Path.of("x.arrows")));
+    }
+
+    @Test
+    @DisplayName("Should align the elements of struct vectors to 8 bytes")
+    void testAlignsStructVectors() {
+        FlatBufferBuilder builder = new FlatBufferBuilder();
+        int vector = builder.createLongPairVector(new long[] {1, 2, 3, 4});
+        builder.startTable(1);
+        builder.addOffsetField(0, vector);
+        byte[] buffer = builder.finish(builder.endTable());
+        ByteBuffer bytes = ByteBuffer.wrap(buffer).order(ByteOrder.LITTLE_ENDIAN);
+        Table table = Table.root(bytes, 0);
+        int at = table.indirect(0);
+        assertEquals(0, (at + 4) % 8, "Struct elements start 8-byte aligned");
+        assertEquals(List.of(List.of(1L, 2L), List.of(3L, 4L)),
+            table.structs(0, 16).stream().map(s -> Arrays.stream(s).boxed().toList()).toList());
+    }
+
+    private static List<Object[]> rows(int count) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            rows.add(new Object[] {
+                (long) i * 1_000_000_007L,
+                i == 3 ? null : i <= 20 ? (i % 2 == 0 ? "north" : "south") : "east",
+                i == 5 ? null : BigDecimal.valueOf(-i * 1234L, 2),
+                i * 0.5,
+                i % 3 == 0 ? null : i % 2 == 0,
+                Date.valueOf(LocalDate.of(2024, 1, 1).plusDays(i)),
+                "note " + i + " é"
+            });
+        }
+        return rows;
+    }
+
+    private static void write(ArrowRowWriter writer, List<Object[]> rows) throws Exception {
+        Object[] values = new Object[LABELS.size()];
+        Row row = Row.of(HEADER, values);
+        writer.start(LABELS);
+        for (Object[] rowValues : rows) {
+            System.arraycopy(rowValues, 0, values, 0, values.length);
+            writer.row(row);
+        }
+        writer.end(rows.size());
+    }
+
+    private static List<List<Object>> columns() {
+        List<List<Object>> columns = new ArrayList<>();
+        LABELS.forEach(label -> columns.add(new ArrayList<>()));
+        return columns;
+    }
+
+    /**
+     * Reads the loaded batch of an Arrow reader into the columns, decoding
+     * dictionary-encoded vectors.
+     */
+    private static void readBatch(ArrowReader reader, List<List<Object>> columns) throws Exception {
+        VectorSchemaRoot root = reader.getVectorSchemaRoot();
+        for (int i = 0; i < columns.size(); i++) {
+            FieldVector vector = root.getVector(i);
+            DictionaryEncoding encoding = vector.getField().getDictionary();
+            ValueVector values = encoding == null ? vector
+                : reader.getDictionaryVectors().get(encoding.getId()).getVector();
+            for (int row = 0; row < root.getRowCount(); row++) {
+                Object value = vector.getObject(row);
+                if (value != null && encoding != null) {
+                    value = values.getObject(((Number) value).intValue());
+                }
+                columns.get(i).add(value instanceof Text text ? text.toString()
+                    : value != null && vector instanceof DateDayVector ? LocalDate.ofEpochDay((Integer) value)
+                    : value);
+            }
+        }
+    }
+
+    /**
+     * The values as they read back: dates as local dates.
+     */
+    private static List<List<Object>> expected(List<Object[]> rows) {
+        List<List<Object>> columns = columns();
+        for (Object[] row : rows) {
+            for (int i = 0; i < row.length; i++) {
+                columns.get(i).add(row[i] instanceof Date date ? date.toLocalDate() : row[i]);
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * Reads a dictionary batch into the dictionaries, or a record batch into
+     * the columns.
+     */
+    private static void readMessage(ByteBuffer bytes, long[] block, List<Table> fields,
+            Map<Long, List<Object>> dictionaries, List<List<Object>> columns) {
+        int offset = (int) block[0];
+        assertEquals(-1, bytes.getInt(offset));
+        Table message = Table.root(bytes, offset + 8);
+        assertEquals(4, message.getShort(0, 0));
+        assertEquals(block[2], message.getLong(3, 0));
+        int body = offset + (int) block[1];
+        Table header = message.table(2);
+        if (message.getByte(1, 0) == 2) {
+            List<Object> entries = new ArrayList<>();
+            read(bytes, body, header.table(1), List.of(5), 0, 0, entries);
+            long id = header.getLong(0, 0);
+            if (header.getByte(2, 0) == 0) {
+                dictionaries.put(id, entries);
+            } else {
+                dictionaries.get(id).addAll(entries);
+            }
+            return;
+        }
+        assertEquals(3, message.getByte(1, 0));
+        int buffer = 0;
+        for (int i = 0; i < fields.size(); i++) {
+            Table field = fields.get(i);
+            List<Object> values = new ArrayList<>();
+            int type = field.has(4) ? 2 : field.getByte(2, 0);
+            buffer = read(bytes, body, header, List.of(type), i, buffer, values);
+            if (field.has(4)) {
+                List<Object> dictionary = dictionaries.get(field.table(4).getLong(0, 0));
+                values.replaceAll(index -> index == null ? null : dictionary.get(((Long) index).intValue()));
+            } else if (type == 7) {
+                int scale = field.table(3).getInt(1, 0);
+                values.replaceAll(value -> value == null ? null : new BigDecimal((BigInteger) value, scale));
+            }
+            columns.get(i).addAll(values);
+        }
+    }
+
+    /**
+     * Reads the values of one column of a record batch.
+     *
+     * @return The index of the next column's first buffer
+     */
+    private static int read(ByteBuffer bytes, int body, Table batch, List<Integer> type, int node, int buffer,
+            List<Object> values) {
+        long[] counts = batch.structs(1, 16).get(node);
+        List<long[]> buffers = batch.structs(2, 16);
+        long[] validity = buffers.get(buffer);
+        long[] data = buffers.get(buffer + 1);
+        int start = body + (int) data[0];
+        for (int i = 0; i < counts[0]; i++) {
+            boolean valid = validity[1] == 0
+                || (bytes.get(body + (int) validity[0] + (i >> 3)) >> (i & 7) & 1) == 1;
+            Object value = switch (type.get(0)) {
+                case 2 -> data[1] == 8 * counts[0] ? bytes.getLong(start + 8 * i) : (Object) (long) bytes.getInt(start + 4 * i);
+                case 3 -> bytes.getDouble(start + 8 * i);
+                case 6 -> (bytes.get(start + (i >> 3)) >> (i & 7) & 1) == 1;
+                case 7 -> {
+                    byte[] big = new byte[16];
+                    for (int b = 0; b < 16; b++) {
+                        big[15 - b] = bytes.get(start + 16 * i + b);
+                    }
+                    yield new BigInteger(big);
+                }
+                case 8 -> LocalDate.ofEpochDay(bytes.getInt(start + 4 * i));
+                case 5 -> {
+                    int from = bytes.getInt(start + 4 * i);
+                    int to = bytes.getInt(start + 4 * i + 4);
+                    yield ascii(bytes, body + (int) buffers.get(buffer + 2)[0] + from, to - from);
+                }
+                default -> throw new AssertionError("Type " + type);
+            };
+            values.add(valid ? value : null);
+        }
+        assertEquals(counts[1], values.stream().filter(value -> value == null).count());
+        return buffer + (type.get(0) == 5 ? 3 : 2);
+    }
+
+    private static String ascii(ByteBuffer bytes, int offset, int length) {
+        byte[] text = new byte[length];
+        bytes.get(offset, text);
+        return new String(text, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads a FlatBuffers table, as far as the Arrow metadata needs.
+     */
+    private record Table(ByteBuffer bytes, int position) {
+
+        static Table root(ByteBuffer bytes, int start) {
+            return new Table(bytes, start + bytes.getInt(start));
+        }
+
+        /** The position of a field in the table, 0 if it is absent. */
+        int field(int id) {
+            int vtable = position - bytes.getInt(position);
+            int entry = 4 + 2 * id;
+            return entry < bytes.getShort(vtable) ? bytes.getShort(vtable + entry) : 0;
+        }
+
+        boolean has(int id) {
+            return field(id) != 0;
+        }
+
+        byte getByte(int id, int absent) {
+            return has(id) ? bytes.get(position + field(id)) : (byte) absent;
+        }
+
+        short getShort(int id, int absent) {
+            return has(id) ? bytes.getShort(position + field(id)) : (short) absent;
+        }
+
+        int getInt(int id, int absent) {
+            return has(id) ? bytes.getInt(position + field(id)) : absent;
+        }
+
+        long getLong(int id, long absent) {
+            return has(id) ? bytes.getLong(position + field(id)) : absent;
+        }
+
+        private int indirect(int id) {
+            int at = position + field(id);
+            return at + bytes.getInt(at);
+        }
+
+        Table table(int id) {
+            return new Table(bytes, indirect(id));
+        }
+
+        String string(int id) {
+            int at = indirect(id);
+            return ascii(bytes, at + 4, bytes.getInt(at));
+        }
+
+        List<Table> tables(int id) {
+            int at = indirect(id);
+            List<Table> tables = new ArrayList<>();
+            for (int i = 0; i < bytes.getInt(at); i++) {
+                int element = at + 4 + 4 * i;
+                tables.add(new Table(bytes, element + bytes.getInt(element)));
+            }
+            return tables;
+        }
+
+        /**
+         * The structs of a vector as longs; an int of a {@code Block} is
+         * read with its padding, which is zero.
+         */
+        List<long[]> structs(int id, int size) {
+            int at = indirect(id);
+            List<long[]> structs = new ArrayList<>();
+            for (int i = 0; i < bytes.getInt(at); i++) {
+                long[] struct = new long[size / 8];
+                for (int j = 0; j < struct.length; j++) {
+                    struct[j] = bytes.getLong(at + 4 + size * i + 8 * j);
+                }
+                structs.add(struct);
+            }
+            return structs;
+        }
+    }
+}
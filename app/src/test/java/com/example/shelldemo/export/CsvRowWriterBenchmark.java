@@ -0,0 +1,106 @@
+package com.example.shelldemo.export;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.opencsv.CSVWriter;
+
+import com.example.shelldemo.sqlhandling.ColumnHeader;
+import com.example.shelldemo.sqlhandling.Row;
+
+/**
+ * Measures {@link CsvRowWriter} writing {@code rows} rows (a long id, a short
+ * name, a quoted comment, a decimal amount and a nullable double) to a file
+ * in the temporary directory, and the same rows formatted as strings and
+ * written with opencsv's {@code CSVWriter} for comparison. The size of the
+ * file is printed per trial, so that the throughput is the size divided by
+ * the time per operation:
+ * <pre>
+ * mvn -Pbenchmark -pl app -am test -Djmh.args="CsvRowWriterBenchmark -prof gc"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(value = 1)
+public class CsvRowWriterBenchmark {
+
+    private static final List<String> LABELS = List.of("ID", "NAME", "COMMENT", "PRICE", "RATIO");
+
+    @Param({"1000000"})
+    public int rows;
+
+    private Object[][] values;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void createValues() throws IOException {
+        String[] names = {"alpha", "beta", "gamma", "delta"};
+        String[] comments = {"on time", "late, by a day", "said \"ok\"", "größer"};
+        values = new Object[rows][];
+        for (int i = 0; i < rows; i++) {
+            values[i] = new Object[] {
+                1_000_000_000L + i, names[i & 3], comments[i >> 2 & 3], BigDecimal.valueOf(i, 2),
+                i % 10 == 0 ? null : i * 0.125
+            };
+        }
+        file = Files.createTempFile("csv-benchmark", ".csv");
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFile() throws IOException {
+        System.out.printf("%nCSV of %d rows: %d MB%n", rows, Files.size(file) >> 20);
+        Files.delete(file);
+    }
+
+    @Benchmark
+    public long writeRows() throws IOException {
+        Object[] row = new Object[LABELS.size()];
+        Row view = Row.of(ColumnHeader.of(LABELS), row);
+        try (CsvRowWriter writer = new CsvRowWriter(file)) {
+            writer.start(LABELS);
+            for (Object[] rowValues : values) {
+                System.arraycopy(rowValues, 0, row, 0, row.length);
+                writer.row(view);
+            }
+            writer.end(values.length);
+        }
+        return Files.size(file);
+    }
+
+    @Benchmark
+    public long openCsvWriter() throws IOException {
+        String[] line = new String[LABELS.size()];
+        try (CSVWriter writer = new CSVWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            writer.writeNext(LABELS.toArray(String[]::new));
+            for (Object[] rowValues : values) {
+                for (int i = 0; i < line.length; i++) {
+                    line[i] = rowValues[i] != null ? rowValues[i].toString() : null;
+                }
+                writer.writeNext(line);
+            }
+        }
+        return Files.size(file);
+    }
+}
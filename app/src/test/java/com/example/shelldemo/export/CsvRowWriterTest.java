@@ -0,0 +1,138 @@
+package com.example.shelldemo.export;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.example.shelldemo.UnifiedDatabaseOperation;
+import com.example.shelldemo.UnifiedDatabaseOperationBuilder;
+import com.example.shelldemo.spi.OracleVendor;
+import com.example.shelldemo.sqlhandling.ColumnHeader;
+import com.example.shelldemo.sqlhandling.Row;
+import com.example.shelldemo.testutil.NoStackTraceWatcher;
+import com.example.shelldemo.testutil.StubDatabase;
+
+@ExtendWith(NoStackTraceWatcher.class)
+@DisplayName("CSV Row Writer Tests")
+class CsvRowWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should write RFC 4180 fields with NULL and empty text told apart")
+    void testWritesRfc4180() throws Exception {
+        Path file = tempDir.resolve("out.csv");
+        List<String> labels = List.of("ID", "NAME,FULL", "AMOUNT", "RAW", "NOTE");
+        Object[] values = new Object[labels.size()];
+        Row row = Row.of(ColumnHeader.of(labels), values);
+
+        try (CsvRowWriter writer = new CsvRowWriter(file)) {
+            writer.start(labels);
+            fill(values, 1L, "plain", new BigDecimal("1E+3"), new byte[] {0x0F, (byte) 0xA0}, null);
+            writer.row(row);
+            fill(values, -42, "say \"hi\", then\r\nleave", 0.5, null, "");
+            writer.row(row);
+            fill(values, Long.MIN_VALUE, "héllo € 😀", 2.5f, new byte[0], true);
+            writer.row(row);
+            writer.end(3);
+        }
+
+        assertEquals("ID,\"NAME,FULL\",AMOUNT,RAW,NOTE\r\n"
+            + "1,plain,1000,0FA0,\r\n"
+            + "-42,\"say \"\"hi\"\", then\r\nleave\",0.5,,\"\"\r\n"
+            + "-9223372036854775808,héllo € 😀,2.5,,true\r\n",
+            Files.readString(file, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Should roll over to numbered files by rows and by bytes")
+    void testRollsOver() throws Exception {
+        Path byRows = tempDir.resolve("rows.csv");
+        CsvRowWriter rows = new CsvRowWriter(byRows, 2, 0, CsvRowWriter.DEFAULT_BUFFER_BYTES);
+        write(rows, 5, "x");
+        assertEquals(List.of(tempDir.resolve("rows-00001.csv"), tempDir.resolve("rows-00002.csv"),
+            tempDir.resolve("rows-00003.csv")), rows.files());
+        assertEquals("V,TEXT\r\n1,x\r\n2,x\r\n", Files.readString(rows.files().get(0)));
+        assertEquals("V,TEXT\r\n5,x\r\n", Files.readString(rows.files().get(2)));
+
+        // A 64-byte buffer is flushed within rows, and a value longer than it
+        // is written in pieces
+        Path byBytes = tempDir.resolve("bytes");
+        CsvRowWriter bytes = new CsvRowWriter(byBytes, 0, 100, 64);
+        String text = "é".repeat(40) + ",";
+        write(bytes, 6, text);
+        StringBuilder content = new StringBuilder();
+        for (Path part : bytes.files()) {
+            String partContent = Files.readString(part, StandardCharsets.UTF_8);
+            assertTrue(partContent.startsWith("V,TEXT\r\n"), partContent);
+            assertTrue(Files.size(part) < 100 + 100, part + " has " + Files.size(part) + " bytes");
+            content.append(partContent.substring("V,TEXT\r\n".length()));
+        }
+        assertEquals(3, bytes.files().size());
+        assertEquals(tempDir.resolve("bytes-00003"), bytes.files().get(2));
+        StringBuilder expected = new StringBuilder();
+        for (int i = 1; i <= 6; i++) {
+            expected.append(i).append(",\"").append(text).append("\"\r\n");
+        }
+        assertEquals(expected.toString(), content.toString());
+    }
+
+    @Test
+    @DisplayName("Should write each query of a script to its own file")
+    void testScriptWritesQueriesToFiles() throws Exception {
+        StubDatabase database = new StubDatabase().queryRows(1_000);
+        Path script = tempDir.resolve("export.sql");
+        Files.writeString(script, "SELECT value FROM t;\nINSERT INTO t VALUES (1);\nSELECT value FROM u;\n");
+        Path csv = tempDir.resolve("export.csv");
+        List<String> output = new ArrayList<>();
+
+        UnifiedDatabaseOperation.ScriptSummary summary;
+        try (UnifiedDatabaseOperation operation = new UnifiedDatabaseOperationBuilder()
+                .connection(database.connect())
+                .dbType("oracle")
+                .vendor(new OracleVendor())
+                .resultOutput(output::add)
+                .resultSink(new CsvResultSink(csv, 0, 0))
+                .build()) {
+            summary = operation.executeScript(script.toFile(), null, output::add);
+        }
+
+        assertEquals(2_001, summary.rows());
+        assertEquals(List.of(), output);
+        for (Path file : List.of(csv, tempDir.resolve("export-q2.csv"))) {
+            List<String> lines = Files.readAllLines(file);
+            assertEquals(1_001, lines.size());
+            assertEquals("VALUE", lines.get(0));
+            assertEquals("1000", lines.get(1_000));
+        }
+        assertEquals(0, database.openStatements());
+    }
+
+    private static void fill(Object[] values, Object... row) {
+        System.arraycopy(row, 0, values, 0, row.length);
+    }
+
+    private static void write(CsvRowWriter writer, int rows, String text) throws Exception {
+        List<String> labels = List.of("V", "TEXT");
+        Object[] values = new Object[2];
+        Row row = Row.of(ColumnHeader.of(labels), values);
+        writer.start(labels);
+        for (int i = 1; i <= rows; i++) {
+            fill(values, i, text);
+            writer.row(row);
+        }
+        writer.end(rows);
+    }
+}
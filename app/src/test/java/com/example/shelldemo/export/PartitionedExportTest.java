@@ -0,0 +1,112 @@
+package com.example.shelldemo.export;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.example.shelldemo.UnifiedDatabaseOperation;
+import com.example.shelldemo.UnifiedDatabaseOperationBuilder;
+import com.example.shelldemo.connection.ConnectionPool;
+import com.example.shelldemo.connection.PoolSettings;
+import com.example.shelldemo.spi.OracleVendor;
+import com.example.shelldemo.testutil.NoStackTraceWatcher;
+import com.example.shelldemo.testutil.StubDatabase;
+
+@ExtendWith(NoStackTraceWatcher.class)
+@DisplayName("Partitioned Export Tests")
+class PartitionedExportTest {
+
+    private final StubDatabase database = new StubDatabase()
+        .queryRows(100)
+        .singleRowWhen(sql -> sql.startsWith("SELECT MIN("), 1L, 100L);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should split a range into even open-ended intervals without overflowing")
+    void testSplitsRange() {
+        assertEquals(List.of("(ID < 4 OR ID IS NULL)", "ID >= 4 AND ID < 7", "ID >= 7"),
+            PartitionedExport.predicates("ID", 1, 10, 3));
+        // Fewer values than partitions
+        assertEquals(List.of("(ID < 6 OR ID IS NULL)", "ID >= 6"), PartitionedExport.predicates("ID", 5, 6, 4));
+        assertEquals(Arrays.asList((String) null), PartitionedExport.predicates("ID", 7, 7, 4));
+        assertEquals(List.of("(ID < 0 OR ID IS NULL)", "ID >= 0"),
+            PartitionedExport.predicates("ID", Long.MIN_VALUE, Long.MAX_VALUE, 2));
+        assertThrows(IllegalArgumentException.class,
+            () -> new PartitionedExport("ID; DROP TABLE t", 2, tempDir.resolve("x.csv"), 0, 0));
+    }
+
+    @Test
+    @DisplayName("Should export the ranges on pooled connections as of one snapshot")
+    void testExportsPartsAsOfSnapshot() throws Exception {
+        Path script = tempDir.resolve("export.sql");
+        Files.writeString(script, "SELECT id, name FROM t;\n");
+        Path csv = tempDir.resolve("export.csv");
+
+        PartitionedExport.Manifest manifest;
+        try (UnifiedDatabaseOperation operation = operation(4)) {
+            manifest = operation.exportPartitioned(script.toFile(), new PartitionedExport("ID", 4, csv, 0, 0));
+        }
+
+        assertEquals(400, manifest.rows());
+        assertEquals("0", manifest.snapshot());
+        assertEquals(4, manifest.parts().size());
+        for (PartitionedExport.Part part : manifest.parts()) {
+            Path file = tempDir.resolve(String.format("export-p%03d.csv", part.number()));
+            assertEquals(List.of(file.getFileName().toString()), part.files());
+            assertEquals(101, Files.readAllLines(file).size());
+            assertEquals(Files.size(file), part.bytes());
+        }
+        assertTrue(database.queries().contains("SELECT * FROM (SELECT id, name FROM t) q WHERE ID >= 26 AND ID < 51"),
+            database.queries().toString());
+        // The coordinator and every lane read as of the SCN, and stop doing so afterwards
+        assertEquals(5, database.applied().stream()
+            .filter("BEGIN DBMS_FLASHBACK.ENABLE_AT_SYSTEM_CHANGE_NUMBER(0); END;"::equals).count());
+        assertEquals(5, database.applied().stream().filter("BEGIN DBMS_FLASHBACK.DISABLE; END;"::equals).count());
+
+        PartitionedExport.Manifest written = new ObjectMapper()
+            .readValue(tempDir.resolve("export.manifest.json").toFile(), PartitionedExport.Manifest.class);
+        assertEquals(manifest, written);
+    }
+
+    @Test
+    @DisplayName("Should refuse a script that is not a single query")
+    void testRejectsScriptOfSeveralStatements() throws Exception {
+        Path script = tempDir.resolve("export.sql");
+        Files.writeString(script, "SELECT id FROM t;\nSELECT id FROM u;\n");
+
+        try (UnifiedDatabaseOperation operation = operation(2)) {
+            assertThrows(IllegalArgumentException.class, () -> operation.exportPartitioned(script.toFile(),
+                new PartitionedExport("ID", 2, tempDir.resolve("export.csv"), 0, 0)));
+        }
+        assertTrue(database.queries().isEmpty());
+    }
+
+    private UnifiedDatabaseOperation operation(int parallelism) throws SQLException {
+        ConnectionPool pool = new ConnectionPool("stub",
+            () -> database.driver().connect("jdbc:stub:export", new Properties()), new OracleVendor(),
+            new PoolSettings(1, parallelism + 1, Duration.ofSeconds(5), Duration.ofHours(1), Duration.ofHours(1)));
+        return new UnifiedDatabaseOperationBuilder()
+            .connectionPool(pool)
+            .dbType("oracle")
+            .vendor(new OracleVendor())
+            .parallelism(parallelism)
+            .build();
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.shelldemo.export;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.example.shelldemo.UnifiedDatabaseOperation;
+import com.example.shelldemo.UnifiedDatabaseOperationBuilder;
+import com.example.shelldemo.spi.MySqlVendor;
+import com.example.shelldemo.spi.OracleVendor;
+import com.example.shelldemo.spi.PostgreSqlVendor;
+import com.example.shelldemo.sqlhandling.ColumnHeader;
+import com.example.shelldemo.sqlhandling.Row;
+import com.example.shelldemo.testutil.NoStackTraceWatcher;
+import com.example.shelldemo.testutil.StubDatabase;
+
+@ExtendWith(NoStackTraceWatcher.class)
+@DisplayName("Result Writer Format Tests")
+class ResultWriterFormatTest {
+
+    private static final List<String> LABELS = List.of("ID", "NAME", "AMOUNT", "PAID", "DAY", "AT", "RAW");
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should discover the built-in formats through the service loader")
+    void testDiscoversFormats() {
+        assertEquals(List.of("jsonl", "sql"), List.copyOf(ResultWriterRegistry.getAllFormats().keySet()));
+        assertInstanceOf(JsonLinesFormat.class, ResultWriterRegistry.getFormat("JSONL").orElseThrow());
+        assertEquals("sql", ResultWriterRegistry.getFormat("sql").orElseThrow().getFileExtension());
+        assertEquals(false, ResultWriterRegistry.getFormat("xml").isPresent());
+    }
+
+    @Test
+    @DisplayName("Should write typed values as JSON Lines")
+    void testWritesJsonLines() throws Exception {
+        String json = write(new JsonLinesFormat(), new WriterSettings(null, null));
+
+        assertEquals("{\"ID\":1,\"NAME\":\"it's \\\"é\\\"\",\"AMOUNT\":1000,\"PAID\":true,"
+            + "\"DAY\":\"2024-02-29\",\"AT\":\"2024-02-29T13:45:30.123456\",\"RAW\":\"D/8=\"}\n"
+            + "{\"ID\":2,\"NAME\":null,\"AMOUNT\":-0.50,\"PAID\":false,\"DAY\":null,\"AT\":null,\"RAW\":null}\n"
+            + "{\"ID\":3,\"NAME\":\"back\\\\slash\",\"AMOUNT\":null,\"PAID\":null,\"DAY\":null,\"AT\":null,\"RAW\":\"\"}\n",
+            json);
+        ObjectMapper mapper = new ObjectMapper();
+        for (String line : json.split("\n")) {
+            assertEquals(LABELS, List.copyOf(mapper.readValue(line, LinkedHashMap.class).keySet()));
+        }
+    }
+
+    @Test
+    @DisplayName("Should write INSERT statements in the dialect of the vendor")
+    void testWritesInsertStatements() throws Exception {
+        assertEquals("INSERT INTO app.payments (\"ID\", \"NAME\", \"AMOUNT\", \"PAID\", \"DAY\", \"AT\", \"RAW\") VALUES"
+            + " (1, 'it''s \"é\"', 1000, 1, DATE '2024-02-29', TIMESTAMP '2024-02-29 13:45:30.123456', HEXTORAW('0FFF'));\n"
+            + "INSERT INTO app.payments (\"ID\", \"NAME\", \"AMOUNT\", \"PAID\", \"DAY\", \"AT\", \"RAW\") VALUES"
+            + " (2, NULL, -0.50, 0, NULL, NULL, NULL);\n"
+            + "INSERT INTO app.payments (\"ID\", \"NAME\", \"AMOUNT\", \"PAID\", \"DAY\", \"AT\", \"RAW\") VALUES"
+            + " (3, 'back\\slash', NULL, NULL, NULL, NULL, HEXTORAW(''));\n",
+            write(new SqlInsertFormat(), new WriterSettings(new OracleVendor(), "app.payments", 100, 64)));
+
+        assertEquals("INSERT INTO payments (`ID`, `NAME`, `AMOUNT`, `PAID`, `DAY`, `AT`, `RAW`) VALUES\n"
+            + "    (1, 'it''s \"é\"', 1000, TRUE, DATE '2024-02-29', TIMESTAMP '2024-02-29 13:45:30.123456', X'0FFF'),\n"
+            + "    (2, NULL, -0.50, FALSE, NULL, NULL, NULL);\n"
+            + "INSERT INTO payments (`ID`, `NAME`, `AMOUNT`, `PAID`, `DAY`, `AT`, `RAW`) VALUES\n"
+            + "    (3, 'back\\\\slash', NULL, NULL, NULL, NULL, X'');\n",
+            write(new SqlInsertFormat(), new WriterSettings(new MySqlVendor(), "payments", 2, 64)));
+
+        assertThrows(IllegalArgumentException.class, () -> new FormatResultSink(new SqlInsertFormat(), null,
+            new WriterSettings(new OracleVendor(), "t; DROP TABLE t")));
+        assertThrows(IllegalArgumentException.class, () -> new FormatResultSink(new SqlInsertFormat(), null,
+            new WriterSettings(new OracleVendor(), null)));
+    }
+
+    @Test
+    @DisplayName("Should write each query of a script to its own file, and stream a ResultSet")
+    void testScriptAndResultSetWriteThroughFormat() throws Exception {
+        StubDatabase database = new StubDatabase().queryRows(1_000);
+        Path script = tempDir.resolve("export.sql");
+        Files.writeString(script, "SELECT value FROM t;\nSELECT value FROM u;\n");
+        Path sql = tempDir.resolve("export.sql.out");
+
+        try (UnifiedDatabaseOperation operation = new UnifiedDatabaseOperationBuilder()
+                .connection(database.connect())
+                .dbType("postgresql")
+                .vendor(new PostgreSqlVendor())
+                .resultSink(new FormatResultSink(new SqlInsertFormat(), sql,
+                    new WriterSettings(new PostgreSqlVendor(), "copy", 300, ChannelRowWriter.DEFAULT_BUFFER_BYTES)))
+                .build()) {
+            operation.executeScript(script.toFile(), null, line -> { });
+        }
+
+        for (Path file : List.of(sql, tempDir.resolve("export.sql-q2.out"))) {
+            String text = Files.readString(file);
+            // 1000 rows in statements of 300
+            assertEquals(4, text.split("INSERT INTO copy \\(\"VALUE\"\\) VALUES\n", -1).length - 1);
+            assertEquals(1_000, text.split("\n    \\(", -1).length - 1);
+            assertEquals("    (1000);\n", text.substring(text.lastIndexOf("\n    (") + 1));
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (Connection connection = database.connect();
+                ResultSet rs = connection.createStatement().executeQuery("SELECT value FROM t");
+                ChannelRowWriter writer = new JsonLinesFormat().createWriter(Channels.newChannel(out), false,
+                    new WriterSettings(null, null))) {
+            writer.stream(rs, 100);
+        }
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(1_000, lines.length);
+        assertEquals("{\"VALUE\":1000}", lines[999]);
+    }
+
+    private static String write(ResultWriterFormat format, WriterSettings settings) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Object[] values = new Object[LABELS.size()];
+        Row row = Row.of(ColumnHeader.of(LABELS), values);
+        try (ChannelRowWriter writer = format.createWriter(Channels.newChannel(out), false, settings)) {
+            writer.start(LABELS);
+            fill(values, 1L, "it's \"é\"", new BigDecimal("1E+3"), true, Date.valueOf("2024-02-29"),
+                Timestamp.valueOf("2024-02-29 13:45:30.123456"), new byte[] {0x0F, (byte) 0xFF});
+            writer.row(row);
+            fill(values, 2, null, new BigDecimal("-0.50"), false, null, null, null);
+            writer.row(row);
+            // A plain map is read by column label
+            Map<String, Object> map = new LinkedHashMap<>();
+            LABELS.forEach(label -> map.put(label, null));
+            map.put("ID", (short) 3);
+            map.put("NAME", "back\\slash");
+            map.put("RAW", new byte[0]);
+            writer.row(map);
+            writer.end(3);
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static void fill(Object[] values, Object... row) {
+        Arrays.fill(values, null);
+        System.arraycopy(row, 0, values, 0, row.length);
+    }
+}
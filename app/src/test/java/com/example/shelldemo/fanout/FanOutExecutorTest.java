@@ -0,0 +1,156 @@
+package com.example.shelldemo.fanout;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.example.shelldemo.UnifiedDatabaseOperation;
+import com.example.shelldemo.UnifiedDatabaseOperationBuilder;
+import com.example.shelldemo.connection.ConnectionPool;
+import com.example.shelldemo.connection.PoolSettings;
+import com.example.shelldemo.exception.VaultOperationException;
+import com.example.shelldemo.fanout.TargetList.Target;
+import com.example.shelldemo.parser.ConcurrentSqlParser;
+import com.example.shelldemo.parser.SqlStatement;
+import com.example.shelldemo.spi.OracleVendor;
+import com.example.shelldemo.testutil.NoStackTraceWatcher;
+import com.example.shelldemo.testutil.StubDatabase;
+
+@ExtendWith(NoStackTraceWatcher.class)
+@DisplayName("Fan-Out Executor Tests")
+class FanOutExecutorTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final Map<String, StubDatabase> databases = new ConcurrentHashMap<>();
+
+    @Test
+    @DisplayName("Should read targets from a file with the command-line values as defaults")
+    void testReadsTargetsFile() throws Exception {
+        Path file = tempDir.resolve("targets.txt");
+        Files.writeString(file, "# regions\nORCLEU\n\nORCLUS host=db-us port=1522 name=us\n");
+        Target defaults = new Target(null, null, "db-eu", 1521, "app");
+
+        TargetList targets = TargetList.of(file.toString(), defaults, group -> List.of());
+
+        assertEquals(List.of(new Target("ORCLEU", "ORCLEU", "db-eu", 1521, "app"),
+            new Target("us", "ORCLUS", "db-us", 1522, "app")), targets.targets());
+
+        TargetList group = TargetList.of("regions", defaults,
+            name -> List.of(Map.of("database", "ORCLAP", "username", "deployer")));
+        assertEquals(List.of(new Target("ORCLAP", "ORCLAP", "db-eu", 1521, "deployer")), group.targets());
+
+        Files.writeString(file, "ORCLEU\nORCLUS hostname=db-us\n");
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+            () -> TargetList.of(file.toString(), defaults, name -> List.of()));
+        assertTrue(e.getMessage().contains("line 2"), e.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should run the script on every target and report each one")
+    void testRunsScriptOnEveryTarget() throws Exception {
+        File script = script("CREATE TABLE t (id NUMBER);\nINSERT INTO t VALUES (1);\nSELECT id FROM t;\n");
+        List<String> output = Collections.synchronizedList(new ArrayList<>());
+        TargetList targets = new TargetList("test", List.of(target("eu"), target("us"), target("ap")));
+
+        FanOutReport report = new FanOutExecutor(target -> "secret", this::operation, 2)
+            .execute(script, parse(script), targets, output::add);
+
+        assertTrue(report.succeeded(), report.format());
+        for (String name : List.of("eu", "us", "ap")) {
+            assertEquals(List.of("CREATE TABLE t (id NUMBER)", "INSERT INTO t VALUES (1)"), applied(name));
+            assertEquals(List.of("SELECT id FROM t"), databases.get(name).queries());
+        }
+        assertEquals(List.of(3, 3, 3), report.results().stream().map(FanOutReport.TargetResult::executed).toList());
+        assertEquals(List.of(2L, 2L, 2L), report.results().stream().map(FanOutReport.TargetResult::rows).toList());
+        assertEquals(3, output.size());
+        for (String block : output) {
+            String prefix = block.substring(0, block.indexOf(']') + 1);
+            assertTrue(block.lines().allMatch(line -> line.startsWith(prefix)), block);
+        }
+        assertTrue(report.format().contains("| us     | us       | SUCCEEDED | 3        | 0      | 2    |"),
+            report.format());
+    }
+
+    @Test
+    @DisplayName("Should fail only the targets whose credentials or statements fail")
+    void testIsolatesFailingTargets() throws Exception {
+        File script = script("CREATE TABLE t (id NUMBER);\nINSERT INTO t VALUES (1);\n");
+        databases.put("bad", new StubDatabase().failWhen(sql -> sql.startsWith("INSERT")));
+        List<String> output = Collections.synchronizedList(new ArrayList<>());
+        TargetList targets = new TargetList("test", List.of(target("good"), target("locked"), target("bad")));
+
+        FanOutReport report = new FanOutExecutor(target -> {
+            if (target.name().equals("locked")) {
+                throw new VaultOperationException("Vault sealed", "locked");
+            }
+            return "secret";
+        }, this::operation, 1).execute(script, parse(script), targets, output::add);
+
+        assertFalse(report.succeeded());
+        assertEquals(List.of(FanOutReport.Status.SUCCEEDED, FanOutReport.Status.FAILED, FanOutReport.Status.FAILED),
+            report.results().stream().map(FanOutReport.TargetResult::status).toList());
+        assertEquals(List.of("CREATE TABLE t (id NUMBER)", "INSERT INTO t VALUES (1)"), applied("good"));
+        assertFalse(databases.containsKey("locked"));
+        assertTrue(report.results().get(1).error().contains("Vault sealed"), report.results().get(1).error());
+        assertTrue(output.stream().anyMatch(block -> block.startsWith("[locked] ERROR: Vault sealed")),
+            output.toString());
+    }
+
+    private static Target target(String name) {
+        return new Target(name, name, "localhost", 1521, "app");
+    }
+
+    private UnifiedDatabaseOperation operation(Target target, String password) {
+        StubDatabase database = databases.computeIfAbsent(target.name(), name -> new StubDatabase());
+        try {
+            ConnectionPool pool = new ConnectionPool("stub",
+                () -> database.driver().connect("jdbc:stub:" + target.database(), new Properties()),
+                new OracleVendor(),
+                new PoolSettings(1, 2, Duration.ofSeconds(5), Duration.ofHours(1), Duration.ofHours(1)));
+            return new UnifiedDatabaseOperationBuilder()
+                .connectionPool(pool)
+                .dbType("oracle")
+                .vendor(new OracleVendor())
+                .build();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Statements applied on a target, without the session setup of the connection.
+     */
+    private List<String> applied(String target) {
+        return databases.get(target).applied().stream().filter(sql -> !sql.startsWith("ALTER SESSION")).toList();
+    }
+
+    private File script(String content) throws Exception {
+        Path file = tempDir.resolve("script.sql");
+        Files.writeString(file, content);
+        return file.toFile();
+    }
+
+    private static List<SqlStatement> parse(File script) {
+        return ConcurrentSqlParser.parseScripts(List.of(script), new OracleVendor()).get(script);
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.shelldemo.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.example.shelldemo.UnifiedDatabaseRunner;
+import com.example.shelldemo.testutil.NoStackTraceWatcher;
+
+@ExtendWith(NoStackTraceWatcher.class)
+@DisplayName("Job Scheduler Tests")
+class JobSchedulerTest {
+
+    @TempDir
+    Path tempDir;
+
+    /** Runs a job until the test releases it, recording the order jobs start in */
+    private final BlockingQueue<Long> started = new LinkedBlockingQueue<>();
+    private final Map<Long, CountDownLatch> releases = new ConcurrentHashMap<>();
+
+    private final JobScheduler.JobRunner runner = (job, out, err) -> {
+        started.add(job.id());
+        out.println("ran " + String.join(" ", job.arguments()));
+        try {
+            releases.computeIfAbsent(job.id(), id -> new CountDownLatch(1)).await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return job.arguments().contains("fail") ? 1 : 0;
+    };
+
+    private void release(long id) {
+        releases.computeIfAbsent(id, key -> new CountDownLatch(1)).countDown();
+    }
+
+    private long nextStarted() throws InterruptedException {
+        Long id = started.poll(5, TimeUnit.SECONDS);
+        assertTrue(id != null, "A job should have started");
+        return id;
+    }
+
+    @Test
+    @DisplayName("Should cap running jobs per database and start interactive jobs before bulk ones")
+    void testPerDatabaseCapAndPriority() throws Exception {
+        try (JobScheduler scheduler = new JobScheduler(new JobStore(tempDir.resolve("jobs.json")), runner,
+                new JobScheduler.Limits(2, 1, Duration.ZERO))) {
+            Job first = scheduler.submit(Job.Priority.BULK, "oracle://a/ORCL", "/work", List.of("a1"));
+            Job bulk = scheduler.submit(Job.Priority.BULK, "oracle://a/ORCL", "/work", List.of("a2"));
+            Job interactive = scheduler.submit(Job.Priority.INTERACTIVE, "oracle://a/ORCL", "/work", List.of("a3"));
+            Job other = scheduler.submit(Job.Priority.BULK, "oracle://b/ORCL", "/work", List.of("b1"));
+
+            assertEquals(Job.State.RUNNING, first.state());
+            assertEquals(Job.State.QUEUED, bulk.state());
+            assertEquals(Job.State.RUNNING, other.state());
+            assertEquals(List.of(first.id(), other.id()), List.of(nextStarted(), nextStarted()));
+
+            release(first.id());
+            assertEquals(interactive.id(), nextStarted());
+            assertEquals(Job.State.SUCCEEDED, scheduler.await(first.id()).orElseThrow().state());
+            assertEquals(Job.State.QUEUED, scheduler.get(bulk.id()).orElseThrow().state());
+
+            release(interactive.id());
+            assertEquals(bulk.id(), nextStarted());
+            release(bulk.id());
+            release(other.id());
+            Job ended = scheduler.await(bulk.id()).orElseThrow();
+            assertEquals(0, ended.exitCode());
+            assertEquals("ran a2" + System.lineSeparator(), scheduler.output(bulk.id()).orElseThrow());
+        }
+    }
+
+    @Test
+    @DisplayName("Should requeue stored jobs on start and fail the jobs that were running")
+    void testResumesStoredQueue() throws Exception {
+        JobStore store = new JobStore(tempDir.resolve("queue").resolve("jobs.json"));
+        Job running = Job.queued(4, Job.Priority.BULK, "oracle://a/ORCL", "/work", List.of("x")).started();
+        Job queued = Job.queued(5, Job.Priority.INTERACTIVE, "oracle://a/ORCL", "/work", List.of("fail"));
+        store.save(List.of(running, queued));
+        assertEquals(List.of(running, queued), store.load());
+
+        release(5);
+        release(6);
+        try (JobScheduler scheduler = new JobScheduler(store, runner, new JobScheduler.Limits(4, 2, Duration.ZERO))) {
+            Job failed = scheduler.get(4).orElseThrow();
+            assertEquals(Job.State.FAILED, failed.state());
+            assertTrue(failed.error().contains("stopped while the job was running"));
+
+            Job resumed = scheduler.await(5).orElseThrow();
+            assertEquals(Job.State.FAILED, resumed.state());
+            assertEquals(1, resumed.exitCode());
+            assertNull(resumed.error());
+
+            Job next = scheduler.submit(Job.Priority.BULK, "oracle://a/ORCL", "/work", List.of("y"));
+            assertEquals(6, next.id());
+            scheduler.await(6);
+        }
+        assertEquals(List.of(), store.load());
+    }
+
+    @Test
+    @DisplayName("Should cancel queued jobs only and keep queued jobs in the store when closed")
+    void testCancelAndClose() throws Exception {
+        JobStore store = new JobStore(tempDir.resolve("jobs.json"));
+        JobScheduler scheduler = new JobScheduler(store, runner, new JobScheduler.Limits(1, 1, Duration.ZERO));
+        Job running = scheduler.submit(Job.Priority.INTERACTIVE, "oracle://a/ORCL", "/work", List.of("a1"));
+        Job cancelled = scheduler.submit(Job.Priority.INTERACTIVE, "oracle://b/ORCL", "/work", List.of("b1"));
+        Job kept = scheduler.submit(Job.Priority.BULK, "oracle://b/ORCL", "/work", List.of("b2"));
+        assertEquals(running.id(), nextStarted());
+
+        assertEquals(Job.State.CANCELLED, scheduler.cancel(cancelled.id()).orElseThrow().state());
+        assertEquals(Job.State.RUNNING, scheduler.cancel(running.id()).orElseThrow().state());
+        assertTrue(scheduler.cancel(99).isEmpty());
+        assertEquals(List.of(running.id(), kept.id()), store.load().stream().map(Job::id).toList());
+
+        Thread.ofVirtual().start(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            release(running.id());
+        });
+        scheduler.close();
+        List<Job> stored = store.load();
+        assertEquals(List.of(kept.id()), stored.stream().map(Job::id).toList());
+        assertEquals(Job.State.QUEUED, stored.get(0).state());
+
+        assertEquals("oracle://db1:1521/ORCL",
+            UnifiedDatabaseRunner.databaseKey("-t", "ORACLE", "-u", "hr", "-H", "db1", "-P", "1521", "-d", "ORCL", "x.sql"));
+        assertEquals("targets:regions.txt",
+            UnifiedDatabaseRunner.databaseKey("-t", "oracle", "-u", "hr", "--targets", "regions.txt", "x.sql"));
+        assertEquals("oracle://db1?type=thin-ldap",
+            UnifiedDatabaseRunner.databaseKey("-t", "oracle", "-u", "hr", "-H", "db1", "--connection-type", "thin-ldap",
+                "--show-connect-string"));
+    }
+}
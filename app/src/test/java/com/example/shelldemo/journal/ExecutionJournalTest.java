@@ -0,0 +1,131 @@
+package com.example.shelldemo.journal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.example.shelldemo.exception.DatabaseException;
+import com.example.shelldemo.parser.ScriptPosition;
+import com.example.shelldemo.parser.SqlScriptParser;
+import com.example.shelldemo.parser.SqlStatement;
+import com.example.shelldemo.spi.OracleVendor;
+import com.example.shelldemo.testutil.NoStackTraceWatcher;
+
+@ExtendWith(NoStackTraceWatcher.class)
+@DisplayName("Execution Journal Tests")
+class ExecutionJournalTest {
+
+    private static final String SCRIPT = """
+        INSERT INTO t VALUES (1);
+        /* a comment
+           over two lines */
+        UPDATE t
+           SET id = 2;
+        BEGIN
+          NULL;
+        END;
+        /
+        INSERT INTO t VALUES ('x
+        y');
+        DELETE FROM t;
+        """;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should record restart points at the byte offset of the next statement")
+    void testRestartPointsSeekToNextStatement() throws Exception {
+        Path script = write("script.sql", SCRIPT);
+        Path journalFile = tempDir.resolve("script.journal");
+
+        try (ExecutionJournal journal = ExecutionJournal.open(journalFile, script, false);
+             Stream<SqlStatement> statements = SqlScriptParser.streamStatements(script.toFile(), new OracleVendor(),
+                 ScriptPosition.START, journal.getBoundaries())) {
+            assertEquals(5, statements.count());
+            journal.checkpoint(3);
+        }
+
+        ExecutionJournal.Checkpoint checkpoint;
+        try (ExecutionJournal journal = ExecutionJournal.open(journalFile, script, true)) {
+            checkpoint = journal.getResumeFrom();
+        }
+        assertEquals(3, checkpoint.statements());
+        // The block ends at END; so lexing can restart on the line of its terminating slash
+        assertEquals(new ScriptPosition(3, 9, SCRIPT.indexOf("/\nINSERT")), checkpoint.restart());
+
+        try (Stream<SqlStatement> rest = SqlScriptParser.streamStatements(script.toFile(), new OracleVendor(),
+                checkpoint.restart(), null)) {
+            assertEquals(List.of("INSERT INTO t VALUES ('x\ny')", "DELETE FROM t"),
+                rest.map(SqlStatement::getText).toList());
+        }
+    }
+
+    @Test
+    @DisplayName("Should resume after the last intact checkpoint of a torn journal")
+    void testIgnoresTornTail() throws Exception {
+        Path script = write("script.sql", SCRIPT);
+        Path journalFile = tempDir.resolve("script.journal");
+        try (ExecutionJournal journal = ExecutionJournal.open(journalFile, script, false)) {
+            journal.checkpoint(1);
+            journal.checkpoint(2);
+        }
+        try (FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.WRITE)) {
+            // Corrupt the statement count of the second checkpoint
+            channel.write(ByteBuffer.allocate(Long.BYTES).putLong(0, 99), 64 + 56 + 8);
+        }
+
+        try (ExecutionJournal journal = ExecutionJournal.open(journalFile, script, true)) {
+            assertEquals(1, journal.getResumeFrom().statements());
+            assertEquals(1, journal.getResumeFrom().scope());
+            journal.checkpoint(4);
+        }
+        try (ExecutionJournal journal = ExecutionJournal.open(journalFile, script, true)) {
+            assertEquals(4, journal.getResumeFrom().statements());
+            assertEquals(2, journal.getResumeFrom().scope());
+        }
+    }
+
+    @Test
+    @DisplayName("Should refuse to resume a script that changed since it was journaled")
+    void testRejectsChangedScript() throws Exception {
+        Path script = write("script.sql", SCRIPT);
+        Path journalFile = tempDir.resolve("script.journal");
+        try (ExecutionJournal journal = ExecutionJournal.open(journalFile, script, false)) {
+            journal.checkpoint(2);
+        }
+        Files.writeString(script, SCRIPT.replace("(1)", "(9)"));
+
+        DatabaseException e = assertThrows(DatabaseException.class,
+            () -> ExecutionJournal.open(journalFile, script, true));
+        assertTrue(e.getMessage().contains("Script has changed"), e.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should start from the beginning when resuming without a journal")
+    void testResumeWithoutJournalStartsAtBeginning() throws Exception {
+        Path script = write("script.sql", SCRIPT);
+        try (ExecutionJournal journal = ExecutionJournal.open(tempDir.resolve("missing.journal"), script, true)) {
+            assertEquals(ExecutionJournal.Checkpoint.NONE, journal.getResumeFrom());
+        }
+    }
+
+    private Path write(String name, String content) throws Exception {
+        Path file = tempDir.resolve(name);
+        Files.writeString(file, content);
+        return file;
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.shelldemo.parser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import com.example.shelldemo.spi.DatabaseVendor;
+import com.example.shelldemo.spi.MySqlVendor;
+import com.example.shelldemo.spi.OracleVendor;
+import com.example.shelldemo.spi.PostgreSqlVendor;
+import com.example.shelldemo.testutil.NoStackTraceWatcher;
+
+@ExtendWith(NoStackTraceWatcher.class)
+@DisplayName("Chunked Script Parser Tests")
+class ChunkedScriptParserTest {
+
+    private static ForkJoinPool pool;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeAll
+    static void createPool() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    static void shutdownPool() {
+        pool.shutdown();
+    }
+
+    static Stream<Arguments> randomScripts() {
+        return Stream.iterate(1L, seed -> seed + 1)
+            .limit(100)
+            .flatMap(seed -> Stream.of(
+                Arguments.of(seed, new OracleVendor(), 1L),
+                Arguments.of(seed, new PostgreSqlVendor(), 64L),
+                Arguments.of(seed, new MySqlVendor(), 512L)));
+    }
+
+    @ParameterizedTest(name = "seed {0} / {1} / chunk {2} bytes")
+    @MethodSource("randomScripts")
+    @DisplayName("Should split scripts exactly like the sequential parser for any chunking")
+    void testMatchesSequentialParser(long seed, DatabaseVendor vendor, long chunkSize) throws IOException {
+        Path script = writeScript(SqlScriptGenerator.randomScript(seed, 60));
+        assertSameStatements(sequential(script, vendor), chunked(script, vendor, chunkSize));
+    }
+
+    @Test
+    @DisplayName("Should match the sequential parser on a larger well-formed script")
+    void testLargeScript() throws IOException {
+        DatabaseVendor vendor = new OracleVendor();
+        Path script = writeScript(SqlScriptGenerator.wellFormedScript(3L, 4 * 1024 * 1024));
+        assertSameStatements(sequential(script, vendor), chunked(script, vendor, 64 * 1024));
+    }
+
+    private static void assertSameStatements(Map<Integer, String> expected, Map<Integer, String> actual) {
+        assertEquals(new ArrayList<>(new TreeMap<>(expected).entrySet()), new ArrayList<>(actual.entrySet()),
+            "Chunked parser output differs from sequential parser");
+    }
+
+    private static Map<Integer, String> sequential(Path script, DatabaseVendor vendor) {
+        return SqlScriptParser.parseSqlFile(script.toFile(), vendor);
+    }
+
+    private static Map<Integer, String> chunked(Path script, DatabaseVendor vendor, long chunkSize) throws IOException {
+        return ChunkedScriptParser.parse(script, StandardCharsets.UTF_8, vendor, chunkSize, pool);
+    }
+
+    private Path writeScript(String content) throws IOException {
+        Path script = tempDir.resolve("chunked.sql");
+        Files.writeString(script, content, StandardCharsets.UTF_8);
+        return script;
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.shelldemo.parser;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.example.shelldemo.spi.DatabaseVendor;
+
+/**
+ * Reference copy of the original two-pass parser (comment removal over the
+ * whole script followed by line-by-line statement splitting). Kept only as a
+ * behavioural oracle for {@link SqlLexer} and as the baseline in
+ * {@link SqlLexerBenchmark}.
+ */
+final class LegacySqlScriptParser {
+
+    private LegacySqlScriptParser() {
+    }
+
+    private static final class CommentParserState {
+        boolean inSingleQuote = false;
+        boolean inDoubleQuote = false;
+        boolean inLineComment = false;
+        int multiLineCommentDepth = 0;
+
+        boolean inAnyString() {
+            return inSingleQuote || inDoubleQuote;
+        }
+    }
+
+    private record ProcessResult(boolean appendChar, int indexShift) {
+        static ProcessResult skip(int indexShift) {
+            return new ProcessResult(false, indexShift);
+        }
+
+        static ProcessResult append() {
+            return new ProcessResult(true, 0);
+        }
+    }
+
+    static Map<Integer, String> parse(String content, DatabaseVendor vendor) {
+        Map<Integer, String> statements = new LinkedHashMap<>();
+        String[] lines = removeComments(content).replace("\r\n", "\n").split("\n");
+        LineParser parser = new LineParser(statements, vendor);
+        for (String line : lines) {
+            line = line.trim();
+            if (line.isEmpty()) continue;
+            parser.processLine(line);
+        }
+        parser.addRemainingStatement();
+        return statements;
+    }
+
+    static String removeComments(String content) {
+        StringBuilder processed = new StringBuilder();
+        CommentParserState state = new CommentParserState();
+        int i = 0;
+        while (i < content.length()) {
+            char c = content.charAt(i);
+            char next = (i < content.length() - 1) ? content.charAt(i + 1) : '\0';
+            ProcessResult result = processChar(c, next, state);
+            if (result.appendChar()) {
+                processed.append(c);
+            }
+            i += 1 + result.indexShift();
+        }
+        return processed.toString();
+    }
+
+    private static ProcessResult processChar(char c, char next, CommentParserState state) {
+        if ((c == '\n' || c == '\r') && state.inLineComment) {
+            state.inLineComment = false;
+            return ProcessResult.append();
+        }
+        if (!state.inAnyString() && c == '/' && next == '*') {
+            state.multiLineCommentDepth++;
+            return ProcessResult.skip(1);
+        }
+        if (!state.inAnyString() && c == '*' && next == '/' && state.multiLineCommentDepth > 0) {
+            state.multiLineCommentDepth--;
+            return ProcessResult.skip(1);
+        }
+        if (state.inLineComment || state.multiLineCommentDepth > 0) {
+            return ProcessResult.skip(0);
+        }
+        if ((c == '\'' && !state.inDoubleQuote) || (c == '"' && !state.inSingleQuote)) {
+            if (c == '\'') {
+                state.inSingleQuote = !state.inSingleQuote;
+            } else {
+                state.inDoubleQuote = !state.inDoubleQuote;
+            }
+            return ProcessResult.append();
+        }
+        if (!state.inAnyString() && c == '-' && next == '-') {
+            state.inLineComment = true;
+            return ProcessResult.skip(1);
+        }
+        return ProcessResult.append();
+    }
+
+    private static final class LineParser {
+        private final Map<Integer, String> statements;
+        private final DatabaseVendor vendor;
+        private final StringBuilder currentStatement = new StringBuilder();
+        private boolean inPlsqlBlock = false;
+        private int plsqlLevel = 0;
+        private int statementCount = 0;
+
+        LineParser(Map<Integer, String> statements, DatabaseVendor vendor) {
+            this.statements = statements;
+            this.vendor = vendor;
+        }
+
+        void processLine(String line) {
+            if (line.equals("/")) {
+                if (inPlsqlBlock) {
+                    addCurrentStatement();
+                    inPlsqlBlock = false;
+                    plsqlLevel = 0;
+                } else if (currentStatement.length() > 0) {
+                    currentStatement.append(line).append("\n");
+                }
+                return;
+            }
+            if (!inPlsqlBlock && isPLSQLBlockStart(line)) {
+                inPlsqlBlock = true;
+                plsqlLevel = 1;
+                if (currentStatement.length() > 0) {
+                    addCurrentStatement();
+                }
+                currentStatement.append(line).append("\n");
+                return;
+            }
+            if (inPlsqlBlock) {
+                String upperLine = line.toUpperCase();
+                if (upperLine.contains("BEGIN")) {
+                    plsqlLevel++;
+                } else if (upperLine.contains("END;")) {
+                    plsqlLevel--;
+                }
+                currentStatement.append(line).append("\n");
+                if (plsqlLevel <= 0) {
+                    addCurrentStatement();
+                    inPlsqlBlock = false;
+                }
+            } else {
+                currentStatement.append(line);
+                if (line.endsWith(";")) {
+                    addCurrentStatement();
+                } else {
+                    currentStatement.append("\n");
+                }
+            }
+        }
+
+        void addRemainingStatement() {
+            if (currentStatement.length() > 0) {
+                addCurrentStatement();
+            }
+        }
+
+        private void addCurrentStatement() {
+            statementCount++;
+            String stmt = currentStatement.toString().trim();
+            if (!stmt.isEmpty()) {
+                if (!vendor.isPLSQL(stmt) && stmt.endsWith(";")) {
+                    stmt = stmt.substring(0, stmt.length() - 1).trim();
+                }
+                statements.put(statementCount, stmt);
+            }
+            currentStatement.setLength(0);
+        }
+
+        private static boolean isPLSQLBlockStart(String line) {
+            String upperLine = line.toUpperCase();
+            return upperLine.startsWith("BEGIN")
+                || upperLine.startsWith("DECLARE")
+                || (upperLine.startsWith("CREATE")
+                    && (upperLine.contains(" FUNCTION")
+                        || upperLine.contains(" PROCEDURE")
+                        || upperLine.contains(" TRIGGER")
+                        || upperLine.contains(" PACKAGE")));
+        }
+    }
+}
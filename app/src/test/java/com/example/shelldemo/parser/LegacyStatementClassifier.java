@@ -0,0 +1,49 @@
+package com.example.shelldemo.parser;
+
+import java.util.regex.Pattern;
+
+import com.example.shelldemo.spi.DatabaseVendor;
+
+/**
+ * Reference copy of the original regex-based classification in
+ * {@link SqlStatementFactory} (reflective {@code isPLSQL} lookup followed by
+ * SELECT / DML / DDL patterns). Kept only as a behavioural oracle for
+ * {@link StatementClassifier} and as the baseline in
+ * {@link StatementClassificationBenchmark}.
+ */
+final class LegacyStatementClassifier {
+
+    private static final Pattern SELECT_PATTERN = Pattern.compile(
+        "^\\s*SELECT\\s+", Pattern.CASE_INSENSITIVE);
+    private static final Pattern DML_PATTERN = Pattern.compile(
+        "^\\s*(INSERT|UPDATE|DELETE|MERGE)\\s+", Pattern.CASE_INSENSITIVE);
+    private static final Pattern DDL_PATTERN = Pattern.compile(
+        "^\\s*(CREATE|ALTER|DROP|TRUNCATE|GRANT|REVOKE)\\s+", Pattern.CASE_INSENSITIVE);
+
+    private LegacyStatementClassifier() {
+    }
+
+    static SqlStatement classify(String sql, DatabaseVendor vendor) {
+        String normalizedSql = sql.trim();
+        if (isPLSQL(normalizedSql, vendor)) {
+            return new SqlStatement.ProcedureStatement(normalizedSql);
+        }
+        if (SELECT_PATTERN.matcher(normalizedSql).find()) {
+            return new SqlStatement.QueryStatement(normalizedSql);
+        } else if (DML_PATTERN.matcher(normalizedSql).find()) {
+            return new SqlStatement.DmlStatement(normalizedSql);
+        } else if (DDL_PATTERN.matcher(normalizedSql).find()) {
+            return new SqlStatement.DdlStatement(normalizedSql);
+        }
+        return new SqlStatement.DmlStatement(normalizedSql);
+    }
+
+    private static boolean isPLSQL(String sql, DatabaseVendor vendor) {
+        try {
+            java.lang.reflect.Method method = vendor.getClass().getMethod("isPLSQL", String.class);
+            return (boolean) method.invoke(vendor, sql);
+        } catch (Exception e) {
+            return false;
+        }
+    }
+}
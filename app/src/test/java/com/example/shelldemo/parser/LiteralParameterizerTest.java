@@ -0,0 +1,92 @@
+package com.example.shelldemo.parser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.example.shelldemo.testutil.NoStackTraceWatcher;
+
+@ExtendWith(NoStackTraceWatcher.class)
+@DisplayName("Literal Parameterizer Tests")
+class LiteralParameterizerTest {
+
+    @Test
+    @DisplayName("Should replace string and numeric literals with bind parameters")
+    void testInsertLiterals() {
+        ParameterizedStatement statement = LiteralParameterizer.parameterize(
+            "INSERT INTO t (a, b, c, d) VALUES (1, 'it''s', -2.5e3, .5)");
+        assertEquals("INSERT INTO t (a, b, c, d) VALUES (?, ?, -?, ?)", statement.shape());
+        assertEquals(List.of(new BigDecimal("1"), "it's", new BigDecimal("2.5e3"), new BigDecimal(".5")),
+            statement.parameters());
+    }
+
+    @Test
+    @DisplayName("Should give statements that differ only in literals and spacing the same shape")
+    void testSameShape() {
+        ParameterizedStatement first = LiteralParameterizer.parameterize("UPDATE t SET name = 'a' WHERE id = 1");
+        ParameterizedStatement second = LiteralParameterizer.parameterize("UPDATE t\n   SET name = 'bb'\n WHERE id = 22");
+        ParameterizedStatement other = LiteralParameterizer.parameterize("UPDATE t SET code = 'a' WHERE id = 1");
+        assertEquals(true, first.sameShapeAs(second));
+        assertEquals(false, first.sameShapeAs(other));
+    }
+
+    @Test
+    @DisplayName("Should keep typed literals, identifiers and numbers inside names inline")
+    void testInlineParts() {
+        ParameterizedStatement statement = LiteralParameterizer.parameterize(
+            "INSERT INTO t2 (\"col 1\", d, i) VALUES ('x', DATE '2024-01-01', INTERVAL '1' DAY)");
+        assertEquals("INSERT INTO t2 (\"col 1\", d, i) VALUES (?, DATE '2024-01-01', INTERVAL '1' DAY)",
+            statement.shape());
+        assertEquals(List.of("x"), statement.parameters());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "SELECT * FROM t WHERE id = 1",
+        "INSERT INTO t VALUES (N'x')",
+        "INSERT INTO t VALUES (q'[it's]')",
+        "INSERT INTO t VALUES ('a\\'b')",
+        "UPDATE t SET a = ? WHERE id = 1",
+        "UPDATE t SET a = :value WHERE id = 1",
+        "INSERT INTO t VALUES (0x1F)",
+        "INSERT INTO t SELECT a, 1 FROM s GROUP BY 1",
+        "DELETE FROM t WHERE id IN (SELECT id FROM s ORDER BY 1)",
+        "INSERT INTO t VALUES ($$x$$)",
+        "DELETE FROM t",
+        "INSERT INTO t VALUES ('unterminated)"
+    })
+    @DisplayName("Should leave statements alone when binding could change their meaning")
+    void testNotParameterized(String sql) {
+        assertNull(LiteralParameterizer.parameterize(sql));
+    }
+
+    @Test
+    @DisplayName("Should keep PostgreSQL casts after a bound literal")
+    void testPostgresCast() {
+        ParameterizedStatement statement = LiteralParameterizer.parameterize("INSERT INTO t VALUES ('1'::int)");
+        assertEquals("INSERT INTO t VALUES (?::int)", statement.shape());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "UPDATE t SET a = CAST(b AS VARCHAR2(20)) WHERE id = ?|UPDATE t SET a = CAST(b AS VARCHAR2(20)) WHERE id = 1",
+        "INSERT INTO t VALUES (CAST(? AS NUMBER(10,2)))|INSERT INTO t VALUES (CAST(5 AS NUMBER(10,2)))",
+        "UPDATE t SET a = CONVERT(DECIMAL(10, 2), b) WHERE id = ?|UPDATE t SET a = CONVERT(DECIMAL(10, 2), b) WHERE id = 7",
+        "INSERT INTO t VALUES (?::numeric(12,4))|INSERT INTO t VALUES ('1.5'::numeric(12,4))",
+        "DELETE TOP 10 FROM t WHERE a = ?|DELETE TOP 10 FROM t WHERE a = 'x'",
+        "DELETE TOP (10) FROM t WHERE a = ?|DELETE TOP (10) FROM t WHERE a = 'x'"
+    })
+    @DisplayName("Should keep type lengths, precisions and TOP row counts inline")
+    void testTypeArgumentsAndTopStayInline(String expectedAndSql) {
+        String[] parts = expectedAndSql.split("\\|");
+        assertEquals(parts[0], LiteralParameterizer.parameterize(parts[1]).shape());
+    }
+}
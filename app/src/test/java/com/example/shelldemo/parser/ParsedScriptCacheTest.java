@@ -0,0 +1,157 @@
+package com.example.shelldemo.parser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.example.shelldemo.spi.DatabaseVendor;
+import com.example.shelldemo.spi.OracleVendor;
+import com.example.shelldemo.spi.PostgreSqlVendor;
+import com.example.shelldemo.testutil.NoStackTraceWatcher;
+
+@ExtendWith(NoStackTraceWatcher.class)
+@DisplayName("Parsed Script Cache Tests")
+class ParsedScriptCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path cacheDir;
+    private final DatabaseVendor vendor = new OracleVendor();
+    private final SqlStatementFactory factory = new SqlStatementFactory(
+        Map.of("oracle", new OracleVendor(), "postgresql", new PostgreSqlVendor()));
+    private final AtomicInteger parses = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        cacheDir = tempDir.resolve("cache");
+    }
+
+    @Test
+    @DisplayName("Should serve a repeat run from the cache without parsing")
+    void testHitSkipsParsing() throws IOException {
+        ParsedScriptCache cache = new ParsedScriptCache(cacheDir, 1024 * 1024);
+        File script = writeScript("script.sql", SqlScriptGenerator.randomScript(5L, 50));
+
+        List<SqlStatement> first = readAll(cache, script, vendor);
+        List<SqlStatement> second = readAll(cache, script, vendor);
+
+        assertEquals(1, parses.get());
+        assertEquals(first, second);
+        assertEquals(parse(script, vendor), second);
+    }
+
+    @Test
+    @DisplayName("Should key entries by content and vendor")
+    void testKeyIncludesContentAndVendor() throws IOException {
+        ParsedScriptCache cache = new ParsedScriptCache(cacheDir, 1024 * 1024);
+        File script = writeScript("script.sql", "SELECT 1 FROM dual;\n");
+        readAll(cache, script, vendor);
+        readAll(cache, script, new PostgreSqlVendor());
+        writeScript("script.sql", "SELECT 2 FROM dual;\n");
+        List<SqlStatement> changed = readAll(cache, script, vendor);
+
+        assertEquals(3, parses.get());
+        assertEquals(List.of(new SqlStatement.QueryStatement("SELECT 2 FROM dual")), changed);
+    }
+
+    @Test
+    @DisplayName("Should not publish an entry for a partially consumed script")
+    void testPartialReadIsNotCached() throws IOException {
+        ParsedScriptCache cache = new ParsedScriptCache(cacheDir, 1024 * 1024);
+        File script = writeScript("script.sql", "SELECT 1 FROM dual;\nSELECT 2 FROM dual;\n");
+        try (Stream<SqlStatement> statements = cache.streamStatements(script, vendor, () -> parseCounted(script, vendor))) {
+            statements.iterator().next();
+        }
+        try (Stream<Path> files = Files.list(cacheDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Should ignore entries written by another parser version")
+    void testParserVersionMismatchIsAMiss() throws IOException {
+        ParsedScriptCache cache = new ParsedScriptCache(cacheDir, 1024 * 1024);
+        File script = writeScript("script.sql", "SELECT 1 FROM dual;\n");
+        readAll(cache, script, vendor);
+        Path entry = cacheDir.resolve(ParsedScriptCache.cacheKey(script.toPath(), vendor) + ".sqlc");
+        try (RandomAccessFile file = new RandomAccessFile(entry.toFile(), "rw")) {
+            file.seek(Integer.BYTES + Short.BYTES);
+            file.writeInt(ParsedScriptCache.PARSER_VERSION + 1);
+        }
+
+        assertEquals(parse(script, vendor), readAll(cache, script, vendor));
+        assertEquals(2, parses.get());
+    }
+
+    @Test
+    @DisplayName("Should evict least recently used entries beyond the size limit")
+    void testEvictsLeastRecentlyUsed() throws IOException {
+        File first = writeScript("first.sql", "SELECT '" + "a".repeat(400) + "' FROM dual;\n");
+        File second = writeScript("second.sql", "SELECT '" + "b".repeat(400) + "' FROM dual;\n");
+        File third = writeScript("third.sql", "SELECT '" + "c".repeat(400) + "' FROM dual;\n");
+        ParsedScriptCache cache = new ParsedScriptCache(cacheDir, 1000);
+
+        readAll(cache, first, vendor);
+        backdate(first, 3);
+        readAll(cache, second, vendor);
+        backdate(second, 2);
+        readAll(cache, third, vendor);
+
+        assertFalse(Files.exists(entryFor(first)));
+        assertTrue(Files.exists(entryFor(second)));
+        assertTrue(Files.exists(entryFor(third)));
+    }
+
+    private void backdate(File script, int minutes) throws IOException {
+        Files.setLastModifiedTime(entryFor(script),
+            FileTime.fromMillis(System.currentTimeMillis() - minutes * 60_000L));
+    }
+
+    private Path entryFor(File script) throws IOException {
+        return cacheDir.resolve(ParsedScriptCache.cacheKey(script.toPath(), vendor) + ".sqlc");
+    }
+
+    private List<SqlStatement> readAll(ParsedScriptCache cache, File script, DatabaseVendor scriptVendor) {
+        try (Stream<SqlStatement> statements =
+                cache.streamStatements(script, scriptVendor, () -> parseCounted(script, scriptVendor))) {
+            return statements.toList();
+        }
+    }
+
+    private Stream<SqlStatement> parseCounted(File script, DatabaseVendor scriptVendor) {
+        parses.incrementAndGet();
+        return SqlScriptParser.streamSqlFile(script, scriptVendor)
+            .map(sql -> factory.createStatement(sql, scriptVendor.getVendorName()));
+    }
+
+    private List<SqlStatement> parse(File script, DatabaseVendor scriptVendor) {
+        try (Stream<String> statements = SqlScriptParser.streamSqlFile(script, scriptVendor)) {
+            return statements.map(sql -> factory.createStatement(sql, scriptVendor.getVendorName())).toList();
+        }
+    }
+
+    private File writeScript(String name, String content) throws IOException {
+        Path script = tempDir.resolve(name);
+        Files.writeString(script, content, Charset.defaultCharset());
+        return script.toFile();
+    }
+}
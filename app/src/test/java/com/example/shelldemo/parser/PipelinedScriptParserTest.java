@@ -0,0 +1,101 @@
+package com.example.shelldemo.parser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.example.shelldemo.exception.ParseException;
+import com.example.shelldemo.spi.DatabaseVendor;
+import com.example.shelldemo.spi.OracleVendor;
+import com.example.shelldemo.testutil.NoStackTraceWatcher;
+
+@ExtendWith(NoStackTraceWatcher.class)
+@DisplayName("Pipelined Script Parser Tests")
+class PipelinedScriptParserTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final DatabaseVendor vendor = new OracleVendor();
+
+    @Test
+    @DisplayName("Should produce the same statements in the same order as the inline parser")
+    void testPreservesOrder() throws IOException {
+        File script = writeScript(SqlScriptGenerator.wellFormedScript(7L, 200_000));
+        List<String> expected;
+        try (Stream<String> statements = SqlScriptParser.streamSqlFile(script, vendor)) {
+            expected = statements.toList();
+        }
+        List<String> actual;
+        try (Stream<String> statements = PipelinedScriptParser.parseAhead(script, vendor, Function.identity(), 2)) {
+            actual = statements.toList();
+        }
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    @DisplayName("Should stop parsing promptly when the stream is closed early")
+    void testCancelsParserOnClose() throws IOException {
+        File script = writeScript(SqlScriptGenerator.wellFormedScript(11L, 2_000_000));
+        AtomicInteger parsed = new AtomicInteger();
+        int capacity = 4;
+        try (Stream<String> statements = PipelinedScriptParser.parseAhead(script, vendor, sql -> {
+                parsed.incrementAndGet();
+                return sql;
+            }, capacity)) {
+            Iterator<String> iterator = statements.iterator();
+            iterator.next();
+        }
+        int parsedAtClose = parsed.get();
+        assertTrue(parsedAtClose <= capacity + 2,
+            "Parser ran ahead of the bounded queue: " + parsedAtClose);
+        assertEquals(parsedAtClose, parsed.get(), "Parser kept running after the stream was closed");
+    }
+
+    @Test
+    @DisplayName("Should deliver statements parsed before a failure, then rethrow it")
+    void testPropagatesParserFailure() throws IOException {
+        File script = writeScript("SELECT 1 FROM dual;\nSELECT 2 FROM dual;\nSELECT 3 FROM dual;\n");
+        ParseException failure = new ParseException("Cannot classify statement");
+        List<String> consumed = new ArrayList<>();
+        try (Stream<String> statements = PipelinedScriptParser.parseAhead(script, vendor, sql -> {
+                if (sql.contains("3")) {
+                    throw failure;
+                }
+                return sql;
+            }, 8)) {
+            Iterator<String> iterator = statements.iterator();
+            ParseException thrown = assertThrows(ParseException.class, () -> {
+                while (iterator.hasNext()) {
+                    consumed.add(iterator.next());
+                }
+            });
+            assertSame(failure, thrown);
+        }
+        assertEquals(List.of("SELECT 1 FROM dual", "SELECT 2 FROM dual"), consumed);
+    }
+
+    private File writeScript(String content) throws IOException {
+        Path script = tempDir.resolve("pipelined.sql");
+        Files.writeString(script, content, Charset.defaultCharset());
+        return script.toFile();
+    }
+}
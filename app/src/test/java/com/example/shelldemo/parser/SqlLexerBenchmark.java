@@ -0,0 +1,83 @@
+package com.example.shelldemo.parser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.example.shelldemo.spi.DatabaseVendor;
+import com.example.shelldemo.spi.OracleVendor;
+
+/**
+ * Compares the single-pass {@link SqlLexer} with the original two-pass parser
+ * ({@link LegacySqlScriptParser}) on a generated script of {@code scriptSizeMb} MB.
+ * Run with {@code -prof gc} to see the allocation difference:
+ * <pre>
+ * mvn -Pbenchmark -pl app -am test -Djmh.args="SqlLexerBenchmark -prof gc"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = {"-Xms6g", "-Xmx6g"})
+public class SqlLexerBenchmark {
+
+    @Param({"100"})
+    public int scriptSizeMb;
+
+    private Path scriptFile;
+    private DatabaseVendor vendor;
+
+    @Setup(Level.Trial)
+    public void writeScript() throws IOException {
+        vendor = new OracleVendor();
+        scriptFile = Files.createTempFile("sql-lexer-benchmark", ".sql");
+        Files.writeString(scriptFile,
+            SqlScriptGenerator.wellFormedScript(42L, scriptSizeMb * 1024L * 1024L),
+            Charset.defaultCharset());
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteScript() throws IOException {
+        Files.deleteIfExists(scriptFile);
+    }
+
+    @Benchmark
+    public int legacyTwoPassParser() throws IOException {
+        String content = new String(Files.readAllBytes(scriptFile));
+        return LegacySqlScriptParser.parse(content, vendor).size();
+    }
+
+    @Benchmark
+    public int singlePassLexer(Blackhole blackhole) throws IOException {
+        int count = 0;
+        try (Reader reader = Files.newBufferedReader(scriptFile, Charset.defaultCharset())) {
+            SqlLexer lexer = new SqlLexer(reader, vendor);
+            String statement;
+            while ((statement = lexer.nextStatement()) != null) {
+                blackhole.consume(statement);
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.shelldemo.parser;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import com.example.shelldemo.spi.DatabaseVendor;
+import com.example.shelldemo.spi.MySqlVendor;
+import com.example.shelldemo.spi.OracleVendor;
+import com.example.shelldemo.spi.PostgreSqlVendor;
+import com.example.shelldemo.testutil.NoStackTraceWatcher;
+
+@ExtendWith(NoStackTraceWatcher.class)
+@DisplayName("SQL Lexer Tests")
+class SqlLexerTest {
+
+    static Stream<Arguments> randomScripts() {
+        return Stream.iterate(1L, seed -> seed + 1)
+            .limit(200)
+            .flatMap(seed -> Stream.of(
+                Arguments.of(seed, new OracleVendor()),
+                Arguments.of(seed, new PostgreSqlVendor()),
+                Arguments.of(seed, new MySqlVendor())));
+    }
+
+    @ParameterizedTest(name = "seed {0} / {1}")
+    @MethodSource("randomScripts")
+    @DisplayName("Should split scripts exactly like the original two-pass parser")
+    void testMatchesLegacyParser(long seed, DatabaseVendor vendor) throws IOException {
+        String script = SqlScriptGenerator.randomScript(seed, 40);
+        assertEquals(LegacySqlScriptParser.parse(script, vendor), lex(script, vendor),
+            "Lexer output differs from legacy parser for seed " + seed);
+    }
+
+    @Test
+    @DisplayName("Should handle lines longer than the read buffer")
+    void testLongLines() throws IOException {
+        String script = "SELECT '" + "x".repeat(200_000) + "' FROM dual;\nSELECT 2 FROM dual;";
+        Map<Integer, String> statements = lex(script, new OracleVendor());
+        assertEquals(LegacySqlScriptParser.parse(script, new OracleVendor()), statements);
+        assertEquals(2, statements.size());
+    }
+
+    @Test
+    @DisplayName("Should return null once the script is exhausted")
+    void testEmptyScript() throws IOException {
+        SqlLexer lexer = new SqlLexer(new StringReader("-- only a comment\n"), new OracleVendor());
+        assertNull(lexer.nextStatement());
+        assertNull(lexer.nextStatement());
+    }
+
+    @Test
+    @DisplayName("Should report the script line each statement starts on")
+    void testStatementLines() throws IOException {
+        String script = "SELECT 1 FROM dual;\n\n/* a\n   comment */\nINSERT INTO t\nVALUES (1);\nBEGIN\n  NULL;\nEND;\n/\n";
+        SqlLexer lexer = new SqlLexer(new StringReader(script), new OracleVendor());
+        int[] lines = new int[3];
+        for (int i = 0; i < lines.length; i++) {
+            lexer.nextStatement();
+            lines[i] = lexer.getStatementLine();
+        }
+        assertArrayEquals(new int[] {1, 5, 7}, lines);
+    }
+
+    private static Map<Integer, String> lex(String script, DatabaseVendor vendor) throws IOException {
+        Map<Integer, String> statements = new LinkedHashMap<>();
+        SqlLexer lexer = new SqlLexer(new StringReader(script), vendor);
+        String statement;
+        while ((statement = lexer.nextStatement()) != null) {
+            statements.put(lexer.getStatementNumber(), statement);
+        }
+        return statements;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.shelldemo.parser;
+
+import java.util.Random;
+
+/**
+ * Builds pseudo-random SQL scripts out of fragments that exercise the parser's
+ * edge cases: line and block comments (nested and unclosed), quoted comment
+ * markers, escaped quotes, PL/SQL blocks with {@code /} terminators, CRLF line
+ * endings and statements spread over several lines.
+ */
+final class SqlScriptGenerator {
+
+    private static final String[] FRAGMENTS = {
+        "SELECT 1 FROM dual;\n",
+        "INSERT INTO t (a, b) VALUES (1, 'x');\n",
+        "INSERT INTO t (a, b) VALUES (2, 'it''s -- not a comment');\n",
+        "UPDATE t SET b = '/* not a comment */' WHERE a = 3;\r\n",
+        "DELETE FROM t\nWHERE a = 4;\n",
+        "-- a line comment\n",
+        "/* block comment */\n",
+        "/* outer /* inner */ still outer */ SELECT 2 FROM dual;\n",
+        "SELECT \"quoted -- identifier\" FROM t;\n",
+        "CREATE TABLE x (\n  id NUMBER, -- trailing comment\n  name VARCHAR2(10)\n);\n",
+        "BEGIN\n  NULL;\nEND;\n/\n",
+        "DECLARE\n  v NUMBER;\nBEGIN\n  BEGIN\n    v := 1;\n  END;\nEND;\n/\n",
+        "CREATE OR REPLACE PROCEDURE p AS\nBEGIN\n  UPDATE t SET a = a + 1;\nEND;\n/\n",
+        "GRANT SELECT ON t\nTO PUBLIC;\n",
+        "\n\n",
+        "/\n",
+        "SELECT 3 FROM dual /* trailing */;\n",
+        "SELECT 4\n/* spanning\ncomment */ FROM dual;\n",
+        "select lower_case from t;\n",
+        "   \t  \n",
+        "SELECT 'unterminated quote FROM t;\n",
+        "SELECT 5 FROM dual;'\n",
+    };
+
+    private SqlScriptGenerator() {
+    }
+
+    static String randomScript(long seed, int fragmentCount) {
+        Random random = new Random(seed);
+        StringBuilder script = new StringBuilder();
+        for (int i = 0; i < fragmentCount; i++) {
+            script.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+        }
+        return script.toString();
+    }
+
+    /**
+     * Builds a script of roughly the requested size made of well-formed statements only.
+     */
+    static String wellFormedScript(long seed, long targetChars) {
+        Random random = new Random(seed);
+        StringBuilder script = new StringBuilder((int) Math.min(targetChars + 1024, Integer.MAX_VALUE - 8));
+        int[] wellFormed = {0, 1, 2, 3, 4, 5, 6, 7, 9, 10, 11, 12, 13, 16, 17};
+        while (script.length() < targetChars) {
+            script.append(FRAGMENTS[wellFormed[random.nextInt(wellFormed.length)]]);
+        }
+        return script.toString();
+    }
+}
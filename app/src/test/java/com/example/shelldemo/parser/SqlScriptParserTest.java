@@ -13,7 +13,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Reader;
 import java.nio.file.Path;
+import java.util.List;
 import java.util.Map;
 
 import com.example.shelldemo.exception.DatabaseException;
@@ -281,6 +283,50 @@ class SqlScriptParserTest extends BaseDbTest {
         }
     }
 
+    @Nested
+    @DisplayName("Streaming Parse Tests")
+    class StreamingTests {
+        @Test
+        @DisplayName("Should stream the same statements as parseSqlFile")
+        void testStreamMatchesParseSqlFile() {
+            for (File file : new File[] {plsqlScriptFile, mixedScriptFile}) {
+                Map<Integer, String> parsed = SqlScriptParser.parseSqlFile(file, new OracleVendor());
+                try (Stream<String> streamed = SqlScriptParser.streamSqlFile(file, new OracleVendor())) {
+                    assertEquals(List.copyOf(parsed.values()), streamed.toList(),
+                        "Streaming parse should match full parse for " + file.getName());
+                }
+            }
+        }
+
+        @Test
+        @DisplayName("Should emit statements before the end of input is reached")
+        void testStreamIsLazy() {
+            Reader endless = new Reader() {
+                private final char[] statement = "INSERT INTO t VALUES (1);\n".toCharArray();
+                private int position;
+
+                @Override
+                public int read(char[] buffer, int offset, int length) {
+                    for (int i = 0; i < length; i++) {
+                        buffer[offset + i] = statement[position++ % statement.length];
+                    }
+                    return length;
+                }
+
+                @Override
+                public void close() {
+                    // Nothing to release
+                }
+            };
+
+            try (Stream<String> statements = SqlScriptParser.streamSqlScript(endless, new OracleVendor())) {
+                List<String> firstThree = statements.limit(3).toList();
+                assertEquals(List.of("INSERT INTO t VALUES (1)", "INSERT INTO t VALUES (1)", "INSERT INTO t VALUES (1)"),
+                    firstThree, "Should yield statements without reading the whole input");
+            }
+        }
+    }
+
     @Nested
     @DisplayName("Error Handling Tests")
     class ErrorHandlingTests {
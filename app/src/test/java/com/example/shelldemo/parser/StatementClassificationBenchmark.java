@@ -0,0 +1,101 @@
+package com.example.shelldemo.parser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.example.shelldemo.spi.DatabaseVendor;
+import com.example.shelldemo.spi.OracleVendor;
+
+/**
+ * Compares lexing to strings followed by the original regex / reflection
+ * classification ({@link LegacyStatementClassifier}) with typed lexing through
+ * {@link SqlLexer#nextSqlStatement()} on a script of {@code statements} small statements:
+ * <pre>
+ * mvn -Pbenchmark -pl app -am test -Djmh.args="StatementClassificationBenchmark -prof gc"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class StatementClassificationBenchmark {
+
+    private static final String[] STATEMENTS = {
+        "INSERT INTO t (id, name) VALUES (%d, 'n');",
+        "UPDATE t SET name = 'x' WHERE id = %d;",
+        "SELECT name FROM t WHERE id = %d;",
+        "DELETE FROM t WHERE id = %d;",
+        "CREATE INDEX ix_%d ON t (name);"
+    };
+
+    @Param({"1000000"})
+    public int statements;
+
+    private Path scriptFile;
+    private DatabaseVendor vendor;
+
+    @Setup(Level.Trial)
+    public void writeScript() throws IOException {
+        vendor = new OracleVendor();
+        scriptFile = Files.createTempFile("statement-classification-benchmark", ".sql");
+        StringBuilder script = new StringBuilder();
+        for (int i = 0; i < statements; i++) {
+            script.append(String.format(STATEMENTS[i % STATEMENTS.length], i)).append('\n');
+        }
+        Files.writeString(scriptFile, script, Charset.defaultCharset());
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteScript() throws IOException {
+        Files.deleteIfExists(scriptFile);
+    }
+
+    @Benchmark
+    public int legacyRegexClassification(Blackhole blackhole) throws IOException {
+        int count = 0;
+        try (Reader reader = Files.newBufferedReader(scriptFile, Charset.defaultCharset())) {
+            SqlLexer lexer = new SqlLexer(reader, vendor);
+            String sql;
+            while ((sql = lexer.nextStatement()) != null) {
+                blackhole.consume(LegacyStatementClassifier.classify(sql, vendor));
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int classifyWhileLexing(Blackhole blackhole) throws IOException {
+        int count = 0;
+        try (Reader reader = Files.newBufferedReader(scriptFile, Charset.defaultCharset())) {
+            SqlLexer lexer = new SqlLexer(reader, vendor);
+            SqlStatement statement;
+            while ((statement = lexer.nextSqlStatement()) != null) {
+                blackhole.consume(statement);
+                count++;
+            }
+        }
+        return count;
+    }
+}
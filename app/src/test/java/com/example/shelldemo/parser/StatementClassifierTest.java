@@ -0,0 +1,118 @@
+package com.example.shelldemo.parser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import com.example.shelldemo.spi.DatabaseVendor;
+import com.example.shelldemo.spi.MySqlVendor;
+import com.example.shelldemo.spi.OracleVendor;
+import com.example.shelldemo.spi.PostgreSqlVendor;
+import com.example.shelldemo.spi.SqlServerVendor;
+import com.example.shelldemo.testutil.NoStackTraceWatcher;
+
+@ExtendWith(NoStackTraceWatcher.class)
+@DisplayName("Statement Classifier Tests")
+class StatementClassifierTest {
+
+    private static final String[] WORDS = {
+        "SELECT", "INSERT", "UPDATE", "DELETE", "MERGE", "CREATE", "ALTER", "DROP", "TRUNCATE",
+        "GRANT", "REVOKE", "DECLARE", "BEGIN", "DO", "OR", "REPLACE", "FUNCTION", "PROCEDURE",
+        "PACKAGE", "TRIGGER", "EVENT", "VIEW", "TABLE", "BEGINX", "DOMAIN", "REPLACEX", "SELECTED",
+        "WITH", "EXEC", "1", "*", "(", ",", "t"
+    };
+    private static final String[] SEPARATORS = {" ", "  ", "\t", "\n", "\u000B", "\f", "\r", "", "(", ";"};
+
+    static Stream<Arguments> vendors() {
+        return Stream.of(
+            Arguments.of(new OracleVendor()),
+            Arguments.of(new PostgreSqlVendor()),
+            Arguments.of(new MySqlVendor()),
+            Arguments.of(new SqlServerVendor()));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("vendors")
+    @DisplayName("Should classify like the original regex patterns")
+    void testMatchesLegacyClassification(DatabaseVendor vendor) {
+        StatementClassifier classifier = StatementClassifier.forVendor(vendor);
+        Random random = new Random(vendor.getVendorName().hashCode());
+        for (int i = 0; i < 20_000; i++) {
+            String sql = randomStatement(random);
+            if (sql.isEmpty()) {
+                continue;
+            }
+            assertEquals(LegacyStatementClassifier.classify(sql, vendor), classifier.classify(sql),
+                () -> "Classification differs for [" + sql + "]");
+        }
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("vendors")
+    @DisplayName("Should type statements during lexing exactly like the statement factory")
+    void testLexerTypesMatchFactory(DatabaseVendor vendor) throws IOException {
+        SqlStatementFactory factory = new SqlStatementFactory(Map.of(vendor.getVendorName(), vendor));
+        for (long seed = 1; seed <= 50; seed++) {
+            String script = SqlScriptGenerator.randomScript(seed, 40);
+            List<SqlStatement> expected = new ArrayList<>();
+            SqlLexer strings = new SqlLexer(new StringReader(script), vendor);
+            String sql;
+            while ((sql = strings.nextStatement()) != null) {
+                expected.add(LegacyStatementClassifier.classify(sql, vendor));
+                assertEquals(expected.get(expected.size() - 1), factory.createStatement(sql, vendor.getVendorName()));
+            }
+            assertEquals(expected, lexTyped(script, vendor), "Typed lexer output differs for seed " + seed);
+        }
+    }
+
+    @Test
+    @DisplayName("Should treat keywords as prefixes only where the vendor patterns do")
+    void testKeywordBoundaries() {
+        StatementClassifier oracle = StatementClassifier.forVendor(new OracleVendor());
+        assertEquals(new SqlStatement.ProcedureStatement("BEGINX"), oracle.classify("BEGINX"));
+        assertEquals(new SqlStatement.DmlStatement("SELECT"), oracle.classify("SELECT"));
+        assertEquals(new SqlStatement.QueryStatement("select\u000B1"), oracle.classify("select\u000B1"));
+        assertEquals(new SqlStatement.ProcedureStatement("create or replace\tpackage body p"),
+            oracle.classify("create or replace\tpackage body p"));
+        assertEquals(new SqlStatement.DdlStatement("CREATE OR REPLACEX PACKAGE p"),
+            oracle.classify("CREATE OR REPLACEX PACKAGE p"));
+        StatementClassifier postgres = StatementClassifier.forVendor(new PostgreSqlVendor());
+        assertEquals(new SqlStatement.ProcedureStatement("DOMAIN"), postgres.classify("DOMAIN"));
+    }
+
+    private static List<SqlStatement> lexTyped(String script, DatabaseVendor vendor) throws IOException {
+        List<SqlStatement> statements = new ArrayList<>();
+        SqlLexer lexer = new SqlLexer(new StringReader(script), vendor);
+        SqlStatement statement;
+        while ((statement = lexer.nextSqlStatement()) != null) {
+            statements.add(statement);
+        }
+        return statements;
+    }
+
+    private static String randomStatement(Random random) {
+        StringBuilder sql = new StringBuilder();
+        int words = 1 + random.nextInt(5);
+        for (int i = 0; i < words; i++) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            for (char c : word.toCharArray()) {
+                sql.append(random.nextBoolean() ? Character.toLowerCase(c) : c);
+            }
+            sql.append(SEPARATORS[random.nextInt(SEPARATORS.length)]);
+        }
+        return sql.toString().trim();
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.shelldemo.plan;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import com.example.shelldemo.parser.SqlStatement;
+import com.example.shelldemo.testutil.NoStackTraceWatcher;
+
+@ExtendWith(NoStackTraceWatcher.class)
+@DisplayName("Execution Plan Tests")
+class ExecutionPlanTest {
+
+    @Test
+    @DisplayName("Should find the objects statements read and write")
+    void testStatementAccess() {
+        StatementAccess query = access(new SqlStatement.QueryStatement(
+            "SELECT e.id FROM hr.emp e, dept d JOIN loc l ON d.loc = l.id WHERE e.name <> 'FROM x'"));
+        assertEquals(Set.of(StatementAccess.TABLE_DATA, "EMP", "DEPT", "LOC"), query.reads());
+        assertTrue(query.writes().isEmpty());
+
+        StatementAccess insert = access(new SqlStatement.DmlStatement(
+            "INSERT INTO audit_log (id) SELECT id FROM \"Orders\""));
+        assertEquals(Set.of("AUDIT_LOG", StatementAccess.TABLE_DATA), insert.writes());
+        assertEquals(Set.of("Orders"), insert.reads());
+        assertTrue(insert.modifiesData());
+
+        StatementAccess index = access(new SqlStatement.DdlStatement("CREATE UNIQUE INDEX ix_emp ON emp (id)"));
+        assertEquals(Set.of("IX_EMP"), index.writes());
+        assertEquals(Set.of("EMP"), index.reads());
+
+        assertEquals(Set.of("EMP"), access(new SqlStatement.DdlStatement("GRANT SELECT ON hr.emp TO app")).reads());
+        assertFalse(access(new SqlStatement.DmlStatement("ANALYZE TABLE emp COMPUTE STATISTICS")).modifiesData());
+        assertEquals(Set.of("EMP", StatementAccess.TABLE_DATA),
+            access(new SqlStatement.DdlStatement("DROP TABLE emp")).writes());
+
+        assertTrue(access(new SqlStatement.DdlStatement("ALTER SESSION SET current_schema = hr")).barrier());
+        assertTrue(access(new SqlStatement.DdlStatement("GRANT dba TO app")).barrier());
+        assertTrue(access(new SqlStatement.ProcedureStatement("BEGIN NULL; END;")).barrier());
+    }
+
+    @Test
+    @DisplayName("Should place statements one stage after their latest dependency")
+    void testStages() {
+        ExecutionPlan plan = plan(false,
+            "CREATE TABLE a (id NUMBER)",
+            "CREATE TABLE b (id NUMBER)",
+            "CREATE INDEX ix_a ON a (id)",
+            "GRANT SELECT ON b TO app",
+            "SELECT * FROM a",
+            "DROP INDEX ix_a");
+
+        assertArrayEquals(new int[] {0, 0, 1, 1, 1, 2}, stagesOf(plan));
+        assertArrayEquals(new int[] {0}, plan.dependencies(2));
+        assertArrayEquals(new int[] {2}, plan.dependencies(5));
+        assertArrayEquals(new int[] {2, 3, 4}, plan.stages().get(1));
+    }
+
+    @Test
+    @DisplayName("Should order DML among itself unless declared independent")
+    void testIndependentDml() {
+        String[] script = {
+            "INSERT INTO a VALUES (1)",
+            "INSERT INTO a VALUES (2)",
+            "SELECT * FROM v",
+            "INSERT INTO b VALUES (3)"
+        };
+
+        assertArrayEquals(new int[] {0, 1, 2, 3}, stagesOf(plan(false, script)));
+        // Queries still wait for DML: a view may read the tables it changes
+        assertArrayEquals(new int[] {0, 0, 1, 2}, stagesOf(plan(true, script)));
+    }
+
+    @Test
+    @DisplayName("Should order uses of a sequence after its creation and by NEXTVAL")
+    void testSequences() {
+        ExecutionPlan plan = plan(false,
+            "CREATE SEQUENCE s",
+            "SELECT s.NEXTVAL FROM dual",
+            "INSERT INTO a VALUES (hr.s.NEXTVAL)",
+            "SELECT s.CURRVAL FROM dual");
+
+        assertArrayEquals(new int[] {0, 1, 2, 3}, stagesOf(plan));
+        assertArrayEquals(new int[] {0}, plan.dependencies(1));
+        assertEquals(Set.of("A", StatementAccess.TABLE_DATA, "S"),
+            access(new SqlStatement.DmlStatement("INSERT INTO a VALUES (hr.s.NEXTVAL)")).writes());
+        assertEquals(Set.of(StatementAccess.TABLE_DATA, "S", "DUAL"),
+            access(new SqlStatement.QueryStatement("SELECT s.CURRVAL FROM dual")).reads());
+        assertEquals(Set.of("S", StatementAccess.TABLE_DATA),
+            access(new SqlStatement.DdlStatement("CREATE SEQUENCE s")).writes());
+    }
+
+    @Test
+    @DisplayName("Should order a barrier with every other statement")
+    void testBarrier() {
+        ExecutionPlan plan = plan(false,
+            "SELECT * FROM a",
+            "SELECT * FROM b",
+            "ALTER SESSION SET nls_date_format = 'YYYY-MM-DD'",
+            "SELECT * FROM a");
+
+        assertArrayEquals(new int[] {0, 0, 1, 2}, stagesOf(plan));
+        assertArrayEquals(new int[] {0, 1}, plan.dependencies(2));
+        assertArrayEquals(new int[] {3}, plan.dependents(2));
+    }
+
+    private static StatementAccess access(SqlStatement statement) {
+        return StatementAccess.of(statement);
+    }
+
+    private static ExecutionPlan plan(boolean independentDml, String... statements) {
+        List<StatementAccess> accesses = Arrays.stream(statements)
+            .map(sql -> StatementAccess.of(sql.startsWith("SELECT") ? new SqlStatement.QueryStatement(sql)
+                : sql.startsWith("INSERT") ? new SqlStatement.DmlStatement(sql) : new SqlStatement.DdlStatement(sql)))
+            .toList();
+        return ExecutionPlan.of(accesses, independentDml);
+    }
+
+    private static int[] stagesOf(ExecutionPlan plan) {
+        int[] stages = new int[plan.size()];
+        for (int i = 0; i < stages.length; i++) {
+            stages[i] = plan.stageOf(i);
+        }
+        return stages;
+    }
+}
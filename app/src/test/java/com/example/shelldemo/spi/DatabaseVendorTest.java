@@ -1,5 +1,15 @@
 package com.example.shelldemo.spi;
 
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import oracle.jdbc.OraclePreparedStatement;
+
 import com.example.shelldemo.testutil.BaseDbTest;
 import com.example.shelldemo.testutil.NoStackTraceWatcher;
 import org.junit.jupiter.api.Test;
@@ -41,4 +51,71 @@ public class DatabaseVendorTest extends BaseDbTest {
         assertTrue(vendor.isPLSQL("DO $$ BEGIN RAISE NOTICE 'Hello'; END $$;"));
         assertFalse(vendor.isPLSQL("SELECT * FROM employees"));
     }
-} 
\ No newline at end of file
+
+    @Test
+    void testProceduralBlockPatterns() {
+        assertEquals("^\\s*(?:DECLARE|BEGIN|CREATE\\s+(?:OR\\s+REPLACE\\s+)?(?:FUNCTION|PROCEDURE|PACKAGE|TRIGGER))",
+            new OracleVendor().proceduralBlockKeywords().pattern().pattern());
+        assertEquals("^\\s*(?:CREATE\\s+(?:OR\\s+ALTER\\s+)?(?:PROCEDURE|FUNCTION|TRIGGER|VIEW))",
+            new SqlServerVendor().proceduralBlockKeywords().pattern().pattern());
+        DatabaseVendor adapted = new DatabaseVendorAdapter(new PostgreSqlVendor(), null);
+        assertEquals(List.of("DO"), adapted.proceduralBlockKeywords().blockKeywords());
+        assertTrue(adapted.isPLSQL("create or replace function f() returns int"));
+    }
+
+    @Test
+    void testSqlLiteralsPerVendor() throws Exception {
+        StringBuilder postgres = new StringBuilder();
+        DatabaseVendor vendor = new PostgreSqlVendor();
+        vendor.appendSqlLiteral(postgres.append('('), new byte[] {(byte) 0xAB});
+        vendor.appendSqlLiteral(postgres.append(", "), Double.NaN);
+        vendor.appendSqlLiteral(postgres.append(", "), java.time.OffsetDateTime.parse("2024-01-02T03:04:05Z"));
+        assertEquals("('\\xAB', 'NaN', TIMESTAMP '2024-01-02 03:04:05 +00:00')", postgres.append(')').toString());
+        assertEquals("\"a\"\"b\"", vendor.quoteIdentifier("a\"b"));
+
+        StringBuilder sqlServer = new StringBuilder();
+        vendor = new SqlServerVendor();
+        vendor.appendSqlLiteral(sqlServer, "é");
+        vendor.appendSqlLiteral(sqlServer.append(' '), java.sql.Date.valueOf("2024-01-02"));
+        vendor.appendSqlLiteral(sqlServer.append(' '), new byte[] {1});
+        assertEquals("N'é' '2024-01-02' 0x01", sqlServer.toString());
+        assertEquals("[a]]b]", vendor.quoteIdentifier("a]b"));
+        assertEquals(1000, vendor.getMaxInsertRows());
+        assertEquals(1, new OracleVendor().getMaxInsertRows());
+
+        StringBuilder oracle = new StringBuilder();
+        vendor = new OracleVendor();
+        vendor.appendSqlLiteral(oracle, Double.NEGATIVE_INFINITY);
+        vendor.appendSqlLiteral(oracle.append(' '), java.time.LocalTime.of(3, 4, 5));
+        vendor.appendSqlLiteral(oracle.append(' '), true);
+        assertEquals("-BINARY_DOUBLE_INFINITY '03:04:05' 1", oracle.toString());
+
+        StringBuilder mySql = new StringBuilder();
+        vendor = new MySqlVendor();
+        vendor.appendSqlLiteral(mySql, java.time.OffsetDateTime.parse("2024-01-02T03:04:05+02:00"));
+        assertEquals("TIMESTAMP '2024-01-02 03:04:05+02:00'", mySql.toString());
+        assertEquals(Integer.MAX_VALUE, vendor.getMaxInsertRows());
+    }
+
+    @Test
+    void testBindLiteralPerVendor() throws Exception {
+        List<String> calls = new ArrayList<>();
+        PreparedStatement statement = (PreparedStatement) Proxy.newProxyInstance(
+            getClass().getClassLoader(), new Class<?>[] {OraclePreparedStatement.class},
+            (proxy, method, args) -> switch (method.getName()) {
+                case "isWrapperFor" -> true;
+                case "unwrap" -> proxy;
+                default -> {
+                    calls.add(method.getName() + Arrays.toString(args));
+                    yield null;
+                }
+            });
+
+        new OracleVendor().bindLiteral(statement, 1, "A");
+        new OracleVendor().bindLiteral(statement, 2, BigDecimal.ONE);
+        new PostgreSqlVendor().bindLiteral(statement, 3, BigDecimal.TEN);
+        new MySqlVendor().bindLiteral(statement, 4, "B");
+        assertEquals(List.of("setFixedCHAR[1, A]", "setObject[2, 1]",
+            "setObject[3, 10, " + Types.OTHER + "]", "setObject[4, B]"), calls);
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.shelldemo.sqlhandling;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import com.example.shelldemo.testutil.NoStackTraceWatcher;
+
+@ExtendWith(NoStackTraceWatcher.class)
+@DisplayName("Columnar Rows Tests")
+class ColumnarRowsTest {
+
+    @Test
+    @DisplayName("Should read back every value with its original class")
+    void testRoundTripsValues() {
+        ColumnHeader header = ColumnHeader.of(List.of("I", "L", "D", "F", "N", "S", "LATE", "MIXED"));
+        ColumnarRows rows = new ColumnarRows(header);
+        List<Object[]> expected = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            Object[] values = {
+                i % 7 == 0 ? null : i,
+                (long) i << 33,
+                i / 4.0,
+                (float) i / 8,
+                BigDecimal.valueOf(i, 2),
+                "row " + i,
+                i < 500 ? null : (short) i,
+                i == 600 ? "six hundred" : i
+            };
+            expected.add(values.clone());
+            rows.add(values);
+        }
+
+        assertEquals(1_000, rows.size());
+        for (int i = 0; i < expected.size(); i++) {
+            for (int column = 0; column < header.columnCount(); column++) {
+                Object value = expected.get(i)[column];
+                assertEquals(value, rows.value(i, column), "row " + i + " column " + column);
+                if (value != null) {
+                    assertEquals(value.getClass(), rows.value(i, column).getClass());
+                }
+            }
+        }
+        assertNull(rows.get(499).get("LATE"));
+        assertEquals("six hundred", rows.get(600).get("MIXED"));
+        assertThrows(IndexOutOfBoundsException.class, () -> rows.get(1_000));
+    }
+
+    @Test
+    @DisplayName("Should behave as the map a row was put into in column order")
+    void testMapViewMatchesLinkedHashMap() {
+        ColumnHeader header = ColumnHeader.of(List.of("ID", "NAME", "ID", "NOTE"));
+        ColumnarRows rows = new ColumnarRows(header);
+        rows.add(new Object[] {1, "alpha", 2, null});
+
+        Map<String, Object> legacy = new LinkedHashMap<>();
+        legacy.put("ID", 1);
+        legacy.put("NAME", "alpha");
+        legacy.put("ID", 2);
+        legacy.put("NOTE", null);
+
+        Row row = rows.get(0);
+        assertEquals(legacy, row);
+        assertEquals(row, legacy);
+        assertEquals(legacy.hashCode(), row.hashCode());
+        assertEquals(List.copyOf(legacy.keySet()), List.copyOf(row.keySet()));
+        assertEquals(Arrays.asList(2, "alpha", null), new ArrayList<>(row.values()));
+        assertTrue(row.containsKey("NOTE"));
+        assertEquals(4, header.columnCount());
+        assertEquals(3, row.size());
+        assertEquals(-1, header.indexOf("MISSING"));
+        assertThrows(UnsupportedOperationException.class, () -> row.put("ID", 3));
+    }
+
+    @Test
+    @DisplayName("Should let a streamed row follow the array it reads")
+    void testRowOverReusedArray() {
+        ColumnHeader header = ColumnHeader.of(List.of("A", "B"));
+        Object[] values = {1, "x"};
+        Row row = Row.of(header, values);
+        assertEquals(Map.of("A", 1, "B", "x"), row);
+
+        values[0] = 2;
+        values[1] = null;
+        assertEquals(2, row.get("A"));
+        assertNull(row.get("B"));
+        assertThrows(IllegalArgumentException.class, () -> Row.of(header, new Object[1]));
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.shelldemo.sqlhandling;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.example.shelldemo.spi.OracleVendor;
+import com.example.shelldemo.testutil.StubDatabase;
+import com.example.shelldemo.testutil.StubDatabase.Column;
+
+/**
+ * Compares reading {@code rows} rows of an Oracle-like result (a NUMBER(10)
+ * id, a VARCHAR, a BINARY_DOUBLE-like DOUBLE and a nullable NUMBER(6)) from
+ * a {@link StubDatabase#columnar} result:
+ * <ul>
+ * <li>{@code mapRowPerRow}: the metadata and {@code getObject} for every
+ * row, into a {@link LinkedHashMap} per row, as
+ * {@code ResultSetMapper.mapRow} used to;</li>
+ * <li>{@code getObject*}: the header read once and {@code getObject} for
+ * every cell;</li>
+ * <li>{@code compiledReader*}: a {@link RowReader} compiled with the Oracle
+ * column readers, which read the NUMBER columns with {@code getLong}.</li>
+ * </ul>
+ * The {@code *Streamed} variants read every row into one array and keep
+ * nothing; the {@code *ColumnarRows} variants collect the rows. With the gc
+ * profiler, {@code gc.alloc.rate.norm} is the bytes allocated per result:
+ * <pre>
+ * mvn -Pbenchmark -pl app -am test -Djmh.args="RowReaderBenchmark -prof gc"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class RowReaderBenchmark {
+
+    @Param({"1000000"})
+    public int rows;
+
+    private ResultSet resultSet;
+    private RowReader reader;
+
+    @Setup(Level.Trial)
+    public void createResult() throws SQLException {
+        long[] ids = new long[rows];
+        String[] names = new String[rows];
+        double[] amounts = new double[rows];
+        long[] quantities = new long[rows];
+        boolean[] noQuantity = new boolean[rows];
+        String[] distinctNames = {"alpha", "beta", "gamma", "delta"};
+        for (int i = 0; i < rows; i++) {
+            ids[i] = 1_000_000L + i;
+            names[i] = distinctNames[i & 3];
+            amounts[i] = i * 0.25;
+            quantities[i] = i % 1000;
+            noQuantity[i] = i % 10 == 0;
+        }
+        resultSet = StubDatabase.columnar(List.of(
+            Column.integral("ID", Types.NUMERIC, 10, ids, new boolean[rows]),
+            Column.text("NAME", names),
+            Column.floating("AMOUNT", amounts, new boolean[rows]),
+            Column.integral("QUANTITY", Types.NUMERIC, 6, quantities, noQuantity)));
+        reader = RowReader.compile(resultSet.getMetaData(), new OracleVendor());
+    }
+
+    @Setup(Level.Invocation)
+    public void rewind() throws SQLException {
+        resultSet.beforeFirst();
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> mapRowPerRow() throws SQLException {
+        List<Map<String, Object>> result = new ArrayList<>();
+        while (resultSet.next()) {
+            ResultSetMetaData metaData = resultSet.getMetaData();
+            int columnCount = metaData.getColumnCount();
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (int i = 1; i <= columnCount; i++) {
+                row.put(metaData.getColumnLabel(i), resultSet.getObject(i));
+            }
+            result.add(row);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public ColumnarRows getObjectIntoColumnarRows() throws SQLException {
+        ColumnarRows result = new ColumnarRows(ColumnHeader.of(resultSet.getMetaData()));
+        Object[] values = new Object[result.header().columnCount()];
+        while (resultSet.next()) {
+            result.add(readObjects(resultSet, values));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public ColumnarRows compiledReaderIntoColumnarRows() throws SQLException {
+        ColumnarRows result = new ColumnarRows(reader.header());
+        Object[] values = new Object[reader.header().columnCount()];
+        while (resultSet.next()) {
+            result.add(reader.read(resultSet, values));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public void getObjectStreamed(Blackhole blackhole) throws SQLException {
+        Object[] values = new Object[4];
+        while (resultSet.next()) {
+            blackhole.consume(readObjects(resultSet, values));
+        }
+    }
+
+    @Benchmark
+    public void compiledReaderStreamed(Blackhole blackhole) throws SQLException {
+        Object[] values = new Object[reader.header().columnCount()];
+        while (resultSet.next()) {
+            blackhole.consume(reader.read(resultSet, values));
+        }
+    }
+
+    private static Object[] readObjects(ResultSet rs, Object[] values) throws SQLException {
+        for (int i = 0; i < values.length; i++) {
+            values[i] = rs.getObject(i + 1);
+        }
+        return values;
+    }
+}
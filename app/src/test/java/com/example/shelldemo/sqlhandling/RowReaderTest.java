@@ -0,0 +1,93 @@
+package com.example.shelldemo.sqlhandling;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import com.example.shelldemo.spi.DatabaseVendorAdapter;
+import com.example.shelldemo.spi.OracleVendor;
+import com.example.shelldemo.spi.PostgreSqlVendor;
+import com.example.shelldemo.testutil.NoStackTraceWatcher;
+import com.example.shelldemo.testutil.StubDatabase;
+import com.example.shelldemo.testutil.StubDatabase.Column;
+
+@ExtendWith(NoStackTraceWatcher.class)
+@DisplayName("Row Reader Tests")
+class RowReaderTest {
+
+    private static ResultSet result() {
+        return StubDatabase.columnar(List.of(
+            Column.integral("ID", Types.BIGINT, 19, new long[] {1, 0, 3}, new boolean[3]),
+            Column.integral("QTY", Types.INTEGER, 10, new long[] {7, 0, 0}, new boolean[] {false, true, false}),
+            Column.floating("AMOUNT", new double[] {0.5, 0, 2}, new boolean[] {false, true, false}),
+            Column.text("NAME", new String[] {"alpha", null, ""}),
+            Column.decimal("PRICE", 12, 2, new long[] {1250, 0, -1}),
+            Column.decimal("COUNT", 10, 0, new long[] {42, 0, 9_999_999_999L}),
+            Column.decimal("TOTAL", 0, 0, new long[] {5, 6, 7})));
+    }
+
+    @Test
+    @DisplayName("Should read the values getObject returns, with their classes")
+    void testMatchesGetObject() throws SQLException {
+        ResultSet rs = result();
+        RowReader reader = RowReader.compile(rs.getMetaData(), new PostgreSqlVendor());
+        assertEquals(List.of("ID", "QTY", "AMOUNT", "NAME", "PRICE", "COUNT", "TOTAL"), reader.header().labels());
+
+        Object[] values = new Object[reader.header().columnCount()];
+        while (rs.next()) {
+            reader.read(rs, values);
+            for (int column = 0; column < values.length; column++) {
+                Object expected = rs.getObject(column + 1);
+                assertEquals(expected, values[column], "column " + column);
+                if (expected != null) {
+                    assertSame(expected.getClass(), values[column].getClass());
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should read Oracle NUMBER columns without a scale as longs")
+    void testOracleNumberAsLong() throws SQLException {
+        ResultSet rs = result();
+        RowReader reader = RowReader.compile(rs.getMetaData(), new DatabaseVendorAdapter(new OracleVendor(), null));
+
+        Object[] values = new Object[reader.header().columnCount()];
+        rs.next();
+        reader.read(rs, values);
+        assertEquals(42L, values[5]);
+        assertEquals(new BigDecimal("12.50"), values[4]);
+        assertEquals(BigDecimal.valueOf(5), values[6]);
+        rs.next();
+        reader.read(rs, values);
+        assertEquals(0L, values[5]);
+        assertNull(values[1]);
+        assertNull(values[2]);
+        assertNull(values[3]);
+        rs.next();
+        reader.read(rs, values);
+        assertEquals(9_999_999_999L, values[5]);
+    }
+
+    @Test
+    @DisplayName("Should map all rows with the vendor's readers")
+    void testMapperUsesVendorReaders() throws SQLException {
+        ColumnarRows rows = new ResultSetMapper(new OracleVendor()).mapRows(result());
+
+        assertEquals(3, rows.size());
+        assertEquals(9_999_999_999L, rows.get(2).get("COUNT"));
+        assertEquals(Long.class, rows.value(0, 5).getClass());
+        assertNull(rows.get(1).get("NAME"));
+        assertEquals("", rows.get(2).get("NAME"));
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.shelldemo.sqlhandling;
+
+import java.lang.ref.Reference;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares collecting {@code rows} narrow rows (a NUMBER id, a short
+ * VARCHAR, a DOUBLE and a nullable INTEGER) as one {@link LinkedHashMap} per
+ * row, as {@code ResultSetMapper.mapRow} used to, with {@link ColumnarRows}.
+ * The cell values are created once, so the numbers are those of the row
+ * containers. With the gc profiler, {@code gc.alloc.rate.norm} is the bytes
+ * allocated per result, and the heap line printed per trial is the retained
+ * size of the result:
+ * <pre>
+ * mvn -Pbenchmark -pl app -am test -Djmh.args="RowStorageBenchmark -prof gc"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+public class RowStorageBenchmark {
+
+    private static final List<String> LABELS = List.of("ID", "NAME", "AMOUNT", "QUANTITY");
+
+    @Param({"1000000"})
+    public int rows;
+
+    private Object[][] values;
+    private ColumnHeader header;
+
+    @Setup(Level.Trial)
+    public void createValues() {
+        header = ColumnHeader.of(LABELS);
+        values = new Object[rows][];
+        String[] names = {"alpha", "beta", "gamma", "delta"};
+        for (int i = 0; i < rows; i++) {
+            values[i] = new Object[] {
+                (long) i, names[i & 3], i * 0.25, i % 10 == 0 ? null : i % 1000
+            };
+        }
+        long columnar = retainedBytes(this::columnarRows);
+        long maps = retainedBytes(this::linkedHashMapRows);
+        System.out.printf("%nRetained heap for %d rows: LinkedHashMap %d MB, columnar %d MB%n", rows,
+            maps >> 20, columnar >> 20);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> linkedHashMapRows() {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (Object[] row : values) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            for (int column = 0; column < row.length; column++) {
+                map.put(LABELS.get(column), row[column]);
+            }
+            result.add(map);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> columnarRows() {
+        ColumnarRows result = new ColumnarRows(header);
+        for (Object[] row : values) {
+            result.add(row);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public BigDecimal columnarRowsReadThroughMapView() {
+        long sum = 0;
+        for (Map<String, Object> row : columnarRows()) {
+            sum += (Long) row.get("ID");
+        }
+        return BigDecimal.valueOf(sum);
+    }
+
+    /**
+     * Heap used after a collection with the result alive, less the heap used
+     * after a collection without it.
+     */
+    private static long retainedBytes(Supplier<Object> build) {
+        long before = usedAfterCollection();
+        Object result = build.get();
+        long after = usedAfterCollection();
+        Reference.reachabilityFence(result);
+        return after - before;
+    }
+
+    private static long usedAfterCollection() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.shelldemo.sqlhandling;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import com.example.shelldemo.config.ConfigHolderAdapter;
+import com.example.shelldemo.connection.ConnectionPool;
+import com.example.shelldemo.connection.PoolSettings;
+import com.example.shelldemo.context.DatabaseContext;
+import com.example.shelldemo.exception.BatchProcessingException;
+import com.example.shelldemo.parser.SqlStatement;
+import com.example.shelldemo.parser.SqlStatementFactory;
+import com.example.shelldemo.spi.OracleVendor;
+import com.example.shelldemo.testutil.NoStackTraceWatcher;
+import com.example.shelldemo.testutil.StubDatabase;
+
+@ExtendWith(NoStackTraceWatcher.class)
+@DisplayName("Virtual Thread Batch Executor Tests")
+class VirtualThreadBatchExecutorTest {
+
+    private final StubDatabase database = new StubDatabase();
+    private final SqlStatementFactory factory = new SqlStatementFactory(Map.of("oracle", new OracleVendor()));
+
+    @Test
+    @DisplayName("Should run each statement on its own lane connection, at most parallelism at a time")
+    void testLanesAreBoundedAndOwnTheirConnections() throws Exception {
+        List<SqlStatement> statements = IntStream.range(0, 40)
+            .mapToObj(i -> (SqlStatement) new SqlStatement.DmlStatement("INSERT INTO t VALUES (" + i + ")"))
+            .toList();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        Set<Connection> inUse = ConcurrentHashMap.newKeySet();
+        Set<Connection> lanes = ConcurrentHashMap.newKeySet();
+
+        try (DatabaseContext context = pooledContext(8)) {
+            VirtualThreadBatchExecutor executor = new VirtualThreadBatchExecutor(context, factory, 30, true, 3);
+            List<VirtualThreadBatchExecutor.TaskOutcome<Integer>> outcomes =
+                executor.executeInLanes(statements, (lane, statement) -> {
+                    Connection connection = lane.getConnection();
+                    assertTrue(inUse.add(connection), "lane connection shared by two statements");
+                    lanes.add(connection);
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    try {
+                        Thread.sleep(2);
+                        return connection.createStatement().executeUpdate(statement.getText());
+                    } catch (InterruptedException e) {
+                        throw new SQLException(e);
+                    } finally {
+                        running.decrementAndGet();
+                        inUse.remove(connection);
+                    }
+                });
+
+            assertEquals(40, outcomes.size());
+            for (int i = 0; i < outcomes.size(); i++) {
+                assertEquals(i, outcomes.get(i).index());
+                assertEquals(1, outcomes.get(i).result());
+            }
+            assertTrue(maxRunning.get() <= 3, "at most 3 statements at once");
+            assertEquals(3, lanes.size());
+            assertTrue(!lanes.contains(context.getConnection()));
+        }
+        assertEquals(new HashSet<>(statements.stream().map(SqlStatement::getText).toList()),
+            new HashSet<>(database.applied().stream().filter(sql -> sql.startsWith("INSERT")).toList()));
+    }
+
+    @Test
+    @DisplayName("Should report the index of the failing task and stop starting new ones")
+    void testReportsFailingTaskIndex() throws Exception {
+        database.failWhen(sql -> sql.contains("bad"));
+        List<String> statements = List.of(
+            "INSERT INTO t VALUES (1)",
+            "INSERT INTO t VALUES (1)",
+            "INSERT INTO bad VALUES (1)",
+            "INSERT INTO t VALUES (1)");
+
+        try (DatabaseContext context = pooledContext(4)) {
+            VirtualThreadBatchExecutor executor = new VirtualThreadBatchExecutor(context, factory, 30, true, 1);
+            BatchProcessingException e = assertThrows(BatchProcessingException.class,
+                () -> executor.executeBatch(statements, VirtualThreadBatchExecutor.ProcessingMode.CONCURRENT));
+
+            assertEquals(2, e.getFailedItemIndex());
+            assertEquals(4, e.getBatchSize());
+        }
+        assertEquals(2, database.applied().stream().filter(sql -> sql.startsWith("INSERT")).count());
+    }
+
+    @Test
+    @DisplayName("Should continue past failures and count the successful statements")
+    void testContinuesPastFailures() throws Exception {
+        database.failWhen(sql -> sql.contains("bad"));
+        List<String> statements = List.of(
+            "INSERT INTO bad VALUES (1)",
+            "INSERT INTO t VALUES (2)",
+            "INSERT INTO t VALUES (3)",
+            "INSERT INTO bad VALUES (4)",
+            "INSERT INTO t VALUES (5)");
+
+        try (DatabaseContext context = pooledContext(4)) {
+            VirtualThreadBatchExecutor executor = new VirtualThreadBatchExecutor(context, factory, 30, false, 3);
+            assertEquals(3, executor.executeBatch(statements, VirtualThreadBatchExecutor.ProcessingMode.CONCURRENT));
+        }
+    }
+
+    @Test
+    @DisplayName("Should run statements one after another on the context connection without a pool")
+    void testFallsBackToContextConnectionWithoutPool() throws Exception {
+        List<SqlStatement> statements = List.of(
+            new SqlStatement.DmlStatement("INSERT INTO bad VALUES (1)"),
+            new SqlStatement.DmlStatement("INSERT INTO t VALUES (2)"));
+        database.failWhen(sql -> sql.contains("bad"));
+
+        try (DatabaseContext context = new DatabaseContext.Builder()
+                .connection(database.connect())
+                .configService(new ConfigHolderAdapter())
+                .vendor(new OracleVendor())
+                .dbType("oracle")
+                .build()) {
+            VirtualThreadBatchExecutor executor = new VirtualThreadBatchExecutor(context, factory, 30, true, 4);
+            List<VirtualThreadBatchExecutor.TaskOutcome<Boolean>> outcomes = executor.executeInLanes(statements,
+                (lane, statement) -> {
+                    assertTrue(lane == context);
+                    return lane.getConnection().createStatement().execute(statement.getText());
+                });
+
+            assertTrue(outcomes.get(0).failed());
+            assertNull(outcomes.get(1));
+            assertEquals(1, database.connectionsOpened());
+        }
+    }
+
+    private DatabaseContext pooledContext(int maxSize) throws SQLException {
+        ConnectionPool pool = new ConnectionPool("stub",
+            () -> database.driver().connect("jdbc:stub:lanes", new Properties()), new OracleVendor(),
+            new PoolSettings(1, maxSize, Duration.ofSeconds(5), Duration.ofHours(1), Duration.ofHours(1)));
+        return new DatabaseContext.Builder()
+            .connection(pool.getConnection())
+            .connectionPool(pool)
+            .configService(new ConfigHolderAdapter())
+            .vendor(new OracleVendor())
+            .dbType("oracle")
+            .build();
+    }
+}
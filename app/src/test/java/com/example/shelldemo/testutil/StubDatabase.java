@@ -0,0 +1,623 @@
+package com.example.shelldemo.testutil;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverPropertyInfo;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * In-memory stand-in for a JDBC database, for tests that need to observe what
+ * the application sends over a connection without a real server.
+ * <p>
+ * Every statement "succeeds" with an update count of 1 unless it matches the
+ * configured failure predicate. Statements run while auto-commit is off are
+ * only applied on commit and discarded on rollback, so {@link #applied()}
+ * reflects what a real database would have kept. Queries return a single row
+ * unless {@link #queryRows(int)} says otherwise.
+ */
+public final class StubDatabase {
+
+    private final List<String> applied = Collections.synchronizedList(new ArrayList<>());
+    private final List<List<String>> batches = Collections.synchronizedList(new ArrayList<>());
+    private final List<List<Object>> boundParameters = Collections.synchronizedList(new ArrayList<>());
+    private final List<String> prepared = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger openStatements = new AtomicInteger();
+    private final AtomicInteger commits = new AtomicInteger();
+    private final AtomicInteger autoCommitSwitches = new AtomicInteger();
+    private final List<String> queries = Collections.synchronizedList(new ArrayList<>());
+    private final List<ConnectionHandler> connections = Collections.synchronizedList(new ArrayList<>());
+    private final List<Integer> fetchSizes = Collections.synchronizedList(new ArrayList<>());
+    private Predicate<String> failing = sql -> false;
+    private boolean continueBatchAfterFailure;
+    private int queryRows = 1;
+    private Predicate<String> singleRowQuery = sql -> false;
+    private Object[] singleRow;
+
+    /**
+     * Makes every statement matching the predicate fail with a SQLException.
+     *
+     * @param failing Selects the failing statements
+     * @return This database
+     */
+    public StubDatabase failWhen(Predicate<String> failing) {
+        this.failing = failing;
+        return this;
+    }
+
+    /**
+     * Makes batches run to the end and mark failures with
+     * {@link Statement#EXECUTE_FAILED}, instead of stopping at the first failure.
+     *
+     * @return This database
+     */
+    public StubDatabase continueBatchAfterFailure() {
+        this.continueBatchAfterFailure = true;
+        return this;
+    }
+
+    /**
+     * Makes every query return the given number of rows, with the row
+     * number as VALUE.
+     *
+     * @param rows The number of rows of a query
+     * @return This database
+     */
+    public StubDatabase queryRows(int rows) {
+        this.queryRows = rows;
+        return this;
+    }
+
+    /**
+     * Makes every query matching the predicate return one row with the given
+     * values, in columns C1, C2 and so on.
+     *
+     * @param query Selects the queries
+     * @param values The values of the row
+     * @return This database
+     */
+    public StubDatabase singleRowWhen(Predicate<String> query, Object... values) {
+        this.singleRowQuery = query;
+        this.singleRow = values.clone();
+        return this;
+    }
+
+    /**
+     * Creates a forward-only result over columns of primitive values, for
+     * tests and benchmarks of row readers. Like a driver decoding its row
+     * buffer, {@code getObject} creates the value on every call
+     * ({@code BigDecimal} for NUMERIC, boxed values otherwise) while the
+     * primitive getters return the stored value. {@code beforeFirst} rewinds
+     * the result.
+     *
+     * @param columns The columns, all with the same number of values
+     * @return A result set proxy
+     */
+    public static ResultSet columnar(List<Column> columns) {
+        return proxy(ResultSet.class, new ColumnarResultSetHandler(List.copyOf(columns)));
+    }
+
+    /**
+     * A column of a {@link #columnar} result: its label, JDBC type, precision
+     * and scale, and its values as {@code long}s, {@code double}s or strings;
+     * a null string or a set {@code nulls} flag is SQL NULL.
+     *
+     * @param label The column label
+     * @param type The JDBC type
+     * @param precision The precision
+     * @param scale The scale
+     * @param longs The integral or unscaled values, or null
+     * @param doubles The floating point values, or null
+     * @param strings The text values, or null
+     * @param nulls Whether each value is SQL NULL
+     */
+    public record Column(String label, int type, int precision, int scale, long[] longs, double[] doubles,
+            String[] strings, boolean[] nulls) {
+
+        public static Column integral(String label, int type, int precision, long[] values, boolean[] nulls) {
+            return new Column(label, type, precision, 0, values, null, null, nulls);
+        }
+
+        public static Column decimal(String label, int precision, int scale, long[] unscaled) {
+            return new Column(label, Types.NUMERIC, precision, scale, unscaled, null, null,
+                new boolean[unscaled.length]);
+        }
+
+        public static Column floating(String label, double[] values, boolean[] nulls) {
+            return new Column(label, Types.DOUBLE, 15, 0, null, values, null, nulls);
+        }
+
+        public static Column text(String label, String[] values) {
+            return new Column(label, Types.VARCHAR, 4000, 0, null, null, values, new boolean[values.length]);
+        }
+
+        boolean isNull(int row) {
+            return nulls[row] || strings != null && strings[row] == null;
+        }
+
+        Object value(int row) {
+            return switch (type) {
+                case Types.NUMERIC, Types.DECIMAL -> BigDecimal.valueOf(longs[row], scale);
+                case Types.BIGINT -> longs[row];
+                case Types.INTEGER -> (int) longs[row];
+                case Types.DOUBLE -> doubles[row];
+                default -> strings[row];
+            };
+        }
+    }
+
+    /**
+     * Opens a new connection to this database.
+     *
+     * @return A connection proxy
+     */
+    public Connection connect() {
+        ConnectionHandler handler = new ConnectionHandler();
+        connections.add(handler);
+        return proxy(Connection.class, handler);
+    }
+
+    /**
+     * Returns a JDBC driver that opens connections to this database for any
+     * {@code jdbc:stub:} URL.
+     *
+     * @return A driver proxy
+     */
+    public Driver driver() {
+        return proxy(Driver.class, (proxy, method, args) -> switch (method.getName()) {
+            case "acceptsURL" -> ((String) args[0]).startsWith("jdbc:stub:");
+            case "connect" -> ((String) args[0]).startsWith("jdbc:stub:") ? connect() : null;
+            case "getMajorVersion" -> 1;
+            case "getPropertyInfo" -> new DriverPropertyInfo[0];
+            case "toString" -> "StubDriver";
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "equals" -> proxy == args[0];
+            default -> defaultValue(method.getReturnType());
+        });
+    }
+
+    /**
+     * Breaks every connection opened so far, as if the server had dropped them:
+     * they report themselves invalid and fail every statement with SQL state 08006.
+     *
+     * @return This database
+     */
+    public StubDatabase breakConnections() {
+        synchronized (connections) {
+            connections.forEach(connection -> connection.broken = true);
+        }
+        return this;
+    }
+
+    /**
+     * Number of connections opened so far.
+     *
+     * @return The connection count
+     */
+    public int connectionsOpened() {
+        return connections.size();
+    }
+
+    /**
+     * Number of connections opened and not yet closed.
+     *
+     * @return The open connection count
+     */
+    public int openConnections() {
+        synchronized (connections) {
+            return (int) connections.stream().filter(connection -> !connection.closed).count();
+        }
+    }
+
+    /**
+     * Queries run through {@link Statement#executeQuery}, in order.
+     *
+     * @return The query texts
+     */
+    public List<String> queries() {
+        return List.copyOf(queries);
+    }
+
+    /**
+     * Fetch sizes set through {@link Statement#setFetchSize(int)}, in order.
+     *
+     * @return The fetch sizes
+     */
+    public List<Integer> fetchSizes() {
+        return List.copyOf(fetchSizes);
+    }
+
+    /**
+     * Statements applied to the database, in execution order.
+     *
+     * @return The committed statements
+     */
+    public List<String> applied() {
+        return List.copyOf(applied);
+    }
+
+    /**
+     * Batches submitted through {@link Statement#executeBatch()}, in order.
+     *
+     * @return The statements of each batch
+     */
+    public List<List<String>> batches() {
+        return List.copyOf(batches);
+    }
+
+    /**
+     * Parameter sets added to prepared statement batches, in order.
+     *
+     * @return The bound values of each batched execution
+     */
+    public List<List<Object>> boundParameters() {
+        return List.copyOf(boundParameters);
+    }
+
+    /**
+     * SQL texts passed to {@link Connection#prepareStatement(String)}, in order.
+     *
+     * @return The prepared SQL texts
+     */
+    public List<String> prepared() {
+        return List.copyOf(prepared);
+    }
+
+    /**
+     * Number of statements created and not yet closed.
+     *
+     * @return The open statement count
+     */
+    public int openStatements() {
+        return openStatements.get();
+    }
+
+    /**
+     * Number of explicit {@link Connection#commit()} calls.
+     *
+     * @return The commit count
+     */
+    public int commits() {
+        return commits.get();
+    }
+
+    /**
+     * Number of {@link Connection#setAutoCommit(boolean)} calls that changed the mode.
+     *
+     * @return The auto-commit switch count
+     */
+    public int autoCommitSwitches() {
+        return autoCommitSwitches.get();
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(StubDatabase.class.getClassLoader(), new Class<?>[] {type}, handler));
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        return null;
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+        private final List<String> uncommitted = new ArrayList<>();
+        private boolean autoCommit = true;
+        private volatile boolean closed;
+        private volatile boolean broken;
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws SQLException {
+            return switch (method.getName()) {
+                case "createStatement" -> proxy(Statement.class, new StatementHandler(this, null));
+                case "prepareStatement" -> {
+                    prepared.add((String) args[0]);
+                    yield proxy(PreparedStatement.class, new StatementHandler(this, (String) args[0]));
+                }
+                case "getAutoCommit" -> autoCommit;
+                case "setAutoCommit" -> {
+                    checkBroken();
+                    if ((Boolean) args[0] && !autoCommit) {
+                        commit();
+                    }
+                    if ((Boolean) args[0] != autoCommit) {
+                        autoCommitSwitches.incrementAndGet();
+                    }
+                    autoCommit = (Boolean) args[0];
+                    yield null;
+                }
+                case "commit" -> {
+                    commits.incrementAndGet();
+                    commit();
+                    yield null;
+                }
+                case "rollback" -> {
+                    uncommitted.clear();
+                    yield null;
+                }
+                case "close" -> {
+                    closed = true;
+                    yield null;
+                }
+                case "isClosed" -> closed;
+                case "isValid" -> !closed && !broken;
+                case "toString" -> "StubConnection";
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                default -> defaultValue(method.getReturnType());
+            };
+        }
+
+        void execute(String sql) throws SQLException {
+            checkBroken();
+            if (failing.test(sql)) {
+                throw new SQLException("Stub failure for: " + sql, "42000");
+            }
+            if (autoCommit) {
+                applied.add(sql);
+            } else {
+                uncommitted.add(sql);
+            }
+        }
+
+        ResultSet query(String sql) throws SQLException {
+            queries.add(sql);
+            checkBroken();
+            if (failing.test(sql)) {
+                throw new SQLException("Stub failure for: " + sql, "42000");
+            }
+            if (singleRowQuery.test(sql)) {
+                return proxy(ResultSet.class, new ResultSetHandler(1, singleRow));
+            }
+            return proxy(ResultSet.class, new ResultSetHandler(queryRows, null));
+        }
+
+        private void checkBroken() throws SQLException {
+            if (broken) {
+                throw new SQLException("Stub connection is broken", "08006");
+            }
+        }
+
+        private void commit() {
+            applied.addAll(uncommitted);
+            uncommitted.clear();
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+        private final ConnectionHandler connection;
+        private final String preparedSql;
+        private final List<String> batch = new ArrayList<>();
+        private final List<Object> parameters = new ArrayList<>();
+        private int fetchSize;
+        private boolean closed;
+
+        StatementHandler(ConnectionHandler connection, String preparedSql) {
+            this.connection = connection;
+            this.preparedSql = preparedSql;
+            openStatements.incrementAndGet();
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws SQLException {
+            return switch (method.getName()) {
+                case "addBatch" -> {
+                    if (args == null) {
+                        boundParameters.add(List.copyOf(parameters));
+                    }
+                    batch.add(args != null ? (String) args[0] : preparedSql);
+                    yield null;
+                }
+                case "setObject", "setString", "setBigDecimal" -> {
+                    int index = (Integer) args[0];
+                    while (parameters.size() < index) {
+                        parameters.add(null);
+                    }
+                    parameters.set(index - 1, args[1]);
+                    yield null;
+                }
+                case "clearBatch" -> {
+                    batch.clear();
+                    yield null;
+                }
+                case "clearParameters" -> {
+                    parameters.clear();
+                    yield null;
+                }
+                case "close" -> {
+                    if (!closed) {
+                        closed = true;
+                        openStatements.decrementAndGet();
+                    }
+                    yield null;
+                }
+                case "isClosed" -> closed;
+                case "executeBatch" -> executeBatch();
+                case "execute" -> {
+                    connection.execute(args != null ? (String) args[0] : preparedSql);
+                    yield false;
+                }
+                case "executeQuery" -> connection.query(args != null ? (String) args[0] : preparedSql);
+                case "executeUpdate" -> {
+                    connection.execute(args != null ? (String) args[0] : preparedSql);
+                    yield 1;
+                }
+                case "getUpdateCount" -> 1;
+                case "setFetchSize" -> {
+                    fetchSize = (Integer) args[0];
+                    fetchSizes.add(fetchSize);
+                    yield null;
+                }
+                case "getFetchSize" -> fetchSize;
+                case "toString" -> "StubStatement";
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                default -> defaultValue(method.getReturnType());
+            };
+        }
+
+        private int[] executeBatch() throws SQLException {
+            batches.add(List.copyOf(batch));
+            int[] counts = new int[batch.size()];
+            boolean failed = false;
+            try {
+                for (int i = 0; i < batch.size(); i++) {
+                    try {
+                        connection.execute(batch.get(i));
+                        counts[i] = 1;
+                    } catch (SQLException e) {
+                        if (!continueBatchAfterFailure) {
+                            throw new BatchUpdateException(e.getMessage(), e.getSQLState(), Arrays.copyOf(counts, i), e);
+                        }
+                        counts[i] = Statement.EXECUTE_FAILED;
+                        failed = true;
+                    }
+                }
+            } finally {
+                batch.clear();
+            }
+            if (failed) {
+                throw new BatchUpdateException("Stub batch failure", counts);
+            }
+            return counts;
+        }
+    }
+
+    private static final class ColumnarResultSetHandler implements InvocationHandler {
+        private final List<Column> columns;
+        private final int rows;
+        private final ResultSetMetaData metaData;
+        private int row = -1;
+        private boolean wasNull;
+        private boolean closed;
+
+        ColumnarResultSetHandler(List<Column> columns) {
+            this.columns = columns;
+            this.rows = columns.get(0).nulls().length;
+            this.metaData = proxy(ResultSetMetaData.class, (proxy, method, args) -> switch (method.getName()) {
+                case "getColumnCount" -> columns.size();
+                case "getColumnLabel", "getColumnName" -> columns.get((Integer) args[0] - 1).label();
+                case "getColumnType" -> columns.get((Integer) args[0] - 1).type();
+                case "getPrecision" -> columns.get((Integer) args[0] - 1).precision();
+                case "getScale" -> columns.get((Integer) args[0] - 1).scale();
+                case "isSigned" -> true;
+                default -> defaultValue(method.getReturnType());
+            });
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            return switch (method.getName()) {
+                case "next" -> {
+                    row = Math.min(row + 1, rows);
+                    yield row < rows;
+                }
+                case "beforeFirst" -> {
+                    row = -1;
+                    yield null;
+                }
+                case "wasNull" -> wasNull;
+                case "getMetaData" -> metaData;
+                case "getObject" -> {
+                    Column column = cell(args);
+                    yield wasNull ? null : column.value(row);
+                }
+                case "getString" -> {
+                    Column column = cell(args);
+                    yield wasNull ? null : column.value(row).toString();
+                }
+                case "getLong" -> getLong(args);
+                case "getInt" -> (int) getLong(args);
+                case "getDouble" -> {
+                    Column column = cell(args);
+                    if (wasNull) {
+                        yield 0.0;
+                    }
+                    yield column.doubles() != null ? column.doubles()[row] : (double) column.longs()[row];
+                }
+                case "close" -> {
+                    closed = true;
+                    yield null;
+                }
+                case "isClosed" -> closed;
+                case "toString" -> "StubColumnarResultSet";
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                default -> throw new UnsupportedOperationException(method.getName() + " is not supported by the stub");
+            };
+        }
+
+        private long getLong(Object[] args) {
+            Column column = cell(args);
+            if (wasNull) {
+                return 0;
+            }
+            return column.longs() != null ? column.longs()[row] : (long) column.doubles()[row];
+        }
+
+        private Column cell(Object[] args) {
+            if (row < 0 || row >= rows) {
+                throw new IllegalStateException("Not on a row");
+            }
+            Column column = columns.get((Integer) args[0] - 1);
+            wasNull = column.isNull(row);
+            return column;
+        }
+    }
+
+    private static final class ResultSetHandler implements InvocationHandler {
+        private final int rows;
+        private final Object[] values;
+        private int row;
+
+        /**
+         * @param rows The number of rows
+         * @param values The values of every row, or null for the row number as VALUE
+         */
+        ResultSetHandler(int rows, Object[] values) {
+            this.rows = rows;
+            this.values = values;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            return switch (method.getName()) {
+                case "next" -> ++row <= rows;
+                case "getObject" -> values != null ? values[(Integer) args[0] - 1] : row;
+                case "getInt" -> row;
+                case "getMetaData" -> proxy(ResultSetMetaData.class, (metaData, column, columnArgs) ->
+                    switch (column.getName()) {
+                        case "getColumnCount" -> values != null ? values.length : 1;
+                        case "getColumnLabel", "getColumnName" -> values != null ? "C" + columnArgs[0] : "VALUE";
+                        default -> defaultValue(column.getReturnType());
+                    });
+                case "toString" -> "StubResultSet";
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                default -> defaultValue(method.getReturnType());
+            };
+        }
+    }
+}